@@ -1,187 +1,172 @@
 package github.tylerjmcbride.direct;
 
 import android.app.Application;
-import android.content.BroadcastReceiver;
 import android.content.Context;
-import android.content.IntentFilter;
 import android.net.wifi.WifiManager;
 import android.net.wifi.p2p.WifiP2pDevice;
-import android.net.wifi.p2p.WifiP2pGroup;
-import android.net.wifi.p2p.WifiP2pInfo;
-import android.net.wifi.p2p.WifiP2pManager;
-import android.net.wifi.p2p.WifiP2pManager.ActionListener;
-import android.net.wifi.p2p.WifiP2pManager.Channel;
-import android.net.wifi.p2p.WifiP2pManager.ChannelListener;
-import android.net.wifi.p2p.WifiP2pManager.ConnectionInfoListener;
-import android.net.wifi.p2p.WifiP2pManager.GroupInfoListener;
 import android.os.Handler;
 import android.os.Looper;
-import android.util.Log;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.io.File;
+import java.util.concurrent.Executor;
 
-import github.tylerjmcbride.direct.callbacks.ResultCallback;
-import github.tylerjmcbride.direct.callbacks.ConnectionAndGroupInfoAvailableListener;
+import github.tylerjmcbride.direct.executors.HandlerExecutor;
+import github.tylerjmcbride.direct.executors.InlineExecutor;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.AndroidLogger;
+import github.tylerjmcbride.direct.metrics.Metrics;
 import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
-import github.tylerjmcbride.direct.transceivers.ObjectReceiver;
-import github.tylerjmcbride.direct.transceivers.ObjectTransmitter;
-
-public abstract class WifiDirect {
-
-    public static final String TAG = "Direct";
-    public static final String SERVICE_TYPE = "_presence._tcp";
-    public static final String SERVICE_NAME_TAG = "SERVICE_NAME";
-    public static final String INSTANCE_NAME_TAG = "INSTANCE_NAME";
-    public static final String REGISTRAR_PORT_TAG = "REGISTRAR_PORT";
+import github.tylerjmcbride.direct.p2p.AndroidP2pFramework;
+import github.tylerjmcbride.direct.p2p.PeerTracker;
+import github.tylerjmcbride.direct.registration.LocalDevice;
+import github.tylerjmcbride.direct.sockets.RetryPolicy;
+import github.tylerjmcbride.direct.transceivers.callbacks.FileCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.Responder;
+
+/**
+ * The {@link WifiDirect} exposes a {@link Direct} backed by the {@link AndroidP2pFramework}, every
+ * {@link github.tylerjmcbride.direct.p2p.P2pDevice} is exposed as a {@link WifiP2pDevice}.
+ */
+public abstract class WifiDirect implements LocalDevice {
+
+    public static final String TAG = Direct.TAG;
+    public static final String SERVICE_TYPE = Direct.SERVICE_TYPE;
+    public static final String SERVICE_NAME_TAG = Direct.SERVICE_NAME_TAG;
+    public static final String INSTANCE_NAME_TAG = Direct.INSTANCE_NAME_TAG;
+    public static final String REGISTRAR_PORT_TAG = Direct.REGISTRAR_PORT_TAG;
 
     protected WifiManager wifiManager;
-    protected WifiP2pManager manager;
-    protected Channel channel;
-    protected BroadcastReceiver receiver;
-    protected IntentFilter intentFilter;
+    protected AndroidP2pFramework framework;
     protected Handler handler;
+    protected Executor mainExecutor;
     protected Context context;
 
-    protected String service;
-
-    protected ObjectTransmitter objectTransmitter;
-    protected ObjectReceiver objectReceiver;
-
-    protected WifiP2pDevice thisDevice;
-    protected WifiP2pDeviceInfo thisDeviceInfo;
+    static {
+        github.tylerjmcbride.direct.logging.Log.setLogger(new AndroidLogger());
+    }
 
     /**
      * Constructor for the abstract class {@link WifiDirect}.
      * @param application The {@link Application}.
-     * @param service The service type.
      */
-    public WifiDirect(Application application, String service) {
-        this.service = service;
-
-        this.intentFilter = new IntentFilter();
-        intentFilter.addAction(WifiP2pManager.WIFI_P2P_STATE_CHANGED_ACTION);
-        intentFilter.addAction(WifiP2pManager.WIFI_P2P_DISCOVERY_CHANGED_ACTION);
-        intentFilter.addAction(WifiP2pManager.WIFI_P2P_PEERS_CHANGED_ACTION);
-        intentFilter.addAction(WifiP2pManager.WIFI_P2P_CONNECTION_CHANGED_ACTION);
-        intentFilter.addAction(WifiP2pManager.WIFI_P2P_THIS_DEVICE_CHANGED_ACTION);
-
+    protected WifiDirect(Application application) {
         this.context = application.getApplicationContext();
         final Looper looper = context.getMainLooper();
 
         this.handler = new Handler(looper);
-        this.objectReceiver = new ObjectReceiver(handler);
-        this.objectTransmitter = new ObjectTransmitter(handler);
+        this.mainExecutor = new HandlerExecutor(handler);
         this.wifiManager = (WifiManager) context.getSystemService(Context.WIFI_SERVICE);
-        this.manager = (WifiP2pManager) context.getSystemService(Context.WIFI_P2P_SERVICE);
-        this.channel = manager.initialize(context, looper, new ChannelListener() {
-            @Override
-            public void onChannelDisconnected() {
-                WifiDirect.this.channel = manager.initialize(context, looper, this);
-            }
-        });
-        this.thisDeviceInfo = new WifiP2pDeviceInfo(wifiManager.getConnectionInfo().getMacAddress());
+        this.framework = new AndroidP2pFramework(context, looper);
     }
 
+    /**
+     * @return The MAC address of this device, until announced by the framework.
+     */
+    protected String getMacAddress() {
+        return wifiManager.getConnectionInfo().getMacAddress();
+    }
+
+    /**
+     * @return The {@link Direct} every call is delegated to.
+     */
+    protected abstract Direct getDirect();
+
     /**
      * Returns this {@link WifiP2pDevice}.
      * @return This device.
      */
     public WifiP2pDevice getThisDevice() {
-        return new WifiP2pDevice(thisDevice);
+        return framework.toWifiP2pDevice(getDirect().getThisDevice());
     }
 
     /**
      * Returns this {@link WifiP2pDeviceInfo}.
      * @return The information about this device.
      */
+    @Override
     public WifiP2pDeviceInfo getThisDeviceInfo() {
-        return new WifiP2pDeviceInfo(thisDeviceInfo);
+        return getDirect().getThisDeviceInfo();
+    }
+
+    /**
+     * Sets how failed connection attempts to peers are retried, defaults to
+     * {@link RetryPolicy#DEFAULT}.
+     * @param retryPolicy The {@link RetryPolicy}.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        getDirect().setRetryPolicy(retryPolicy);
+    }
+
+    /**
+     * @return The {@link RetryPolicy} applied to connection attempts.
+     */
+    @Override
+    public RetryPolicy getRetryPolicy() {
+        return getDirect().getRetryPolicy();
+    }
+
+    /**
+     * Sets the duration the bursts of {@code WIFI_P2P_PEERS_CHANGED_ACTION} broadcasts are
+     * coalesced over, after which the peers are requested once, defaults to
+     * {@link PeerTracker#DEFAULT_WINDOW}.
+     * @param window The duration in milliseconds, 0 requests the peers upon every broadcast.
+     */
+    public void setPeerChangeWindow(long window) {
+        getDirect().setPeerChangeWindow(window);
+    }
+
+    /**
+     * Sets where files received from peers are written, until set every received file is
+     * discarded. Files are written straight to disk, regardless of their size.
+     * @param directory The directory to write received files to.
+     * @param callback Invoked upon the progress, success or failure of every received file.
+     */
+    public void receiveFiles(File directory, FileCallback callback) {
+        getDirect().receiveFiles(directory, callback);
+    }
+
+    /**
+     * Sets the {@link Responder} replying to the requests received from peers, until set every
+     * request is rejected and fails immediately.
+     * @param responder The {@link Responder}, or null to reject every request.
+     */
+    public void setResponder(Responder responder) {
+        getDirect().setResponder(responder);
     }
 
     /**
-     * Will request both the {@link WifiP2pInfo} and {@link WifiP2pGroup} from the framework.
+     * Sets the {@link Executor} the results of sending and receiving data are delivered on,
+     * defaults to the main thread. Passing {@link InlineExecutor#INSTANCE} invokes every
+     * {@link ObjectCallback} directly on the I/O thread which decoded the object, in the order the
+     * objects were received from each peer, in which case every callback must return quickly.
+     * Registration and connection callbacks are always delivered on the main thread. Must be
+     * invoked before the service is started or connected to.
+     * @param callbackExecutor The {@link Executor}, which must not reject tasks.
      */
-    protected void requestWifiP2pInfo(final ConnectionAndGroupInfoAvailableListener listener) {
-        manager.requestConnectionInfo(channel, new ConnectionInfoListener() {
-            @Override
-            public void onConnectionInfoAvailable(final WifiP2pInfo p2pInfo) {
-                Log.d(TAG, "Succeeded to retrieve connection information.");
-                manager.requestGroupInfo(channel, new GroupInfoListener() {
-                    @Override
-                    public void onGroupInfoAvailable(final WifiP2pGroup p2pGroup) {
-                        Log.d(TAG, "Succeeded to retrieve group information.");
-                        listener.onConnectionAndGroupInfoAvailable(p2pInfo, p2pGroup);
-                    }
-                });
-            }
-        });
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        getDirect().setCallbackExecutor(callbackExecutor);
     }
 
     /**
-     * This method will attempt to both remove the current {@link WifiP2pGroup} and forget it's
-     * persistence.
-     *
-     * @param callback Invoked upon the success or failure of the request.
+     * @return The {@link IoScheduler} performing I/O, exposing queue depth and thread metrics.
      */
-    protected void removeGroup(final ResultCallback callback) {
-        manager.requestGroupInfo(channel, new GroupInfoListener() {
-            @Override
-            public void onGroupInfoAvailable(final WifiP2pGroup group) {
-                if(group != null) {
-                    manager.removeGroup(channel, new ActionListener() {
-                        @Override
-                        public void onSuccess() {
-                            Log.d(TAG, "Succeeded to remove group.");
-                            deletePersistentGroup(group, new ActionListener() {
-                                @Override
-                                public void onSuccess() {
-                                    Log.d(TAG, "Succeeded to delete persistent group.");
-                                    callback.onSuccess();
-                                }
-
-                                @Override
-                                public void onFailure(int reason) {
-                                    Log.d(TAG, "Failed to delete persistent group.");
-                                    callback.onFailure();
-                                }
-                            });
-                        }
-
-                        @Override
-                        public void onFailure(int reason) {
-                            Log.d(TAG, "Failed to remove group.");
-                            callback.onFailure();
-                        }
-                    });
-                } else {
-                    Log.d(TAG, "Succeeded to confirm no group exists.");
-                    callback.onSuccess();
-                }
-            }
-        });
+    public IoScheduler getScheduler() {
+        return getDirect().getScheduler();
     }
 
     /**
-     * Through reflection, this method will attempt to forget the persistent group.
-     *
-     * @see <a href="http://stackoverflow.com/questions/23653707/forgetting-old-wifi-direct-connections"></a>
-     * @param wifiP2pGroup The respective {@link WifiP2pGroup}.
-     * @param listener Invoked upon the success or failure of the request.
+     * Returns the {@link Metrics} of the traffic exchanged with peers, the outcomes of connection
+     * attempts and registrations, and the latencies thereof. Disabled until
+     * {@link Metrics#setEnabled(boolean)} is called, at which point they may either be pulled
+     * through {@link Metrics#snapshot()} or pushed to a listener.
+     * @return The {@link Metrics}.
      */
-    protected void deletePersistentGroup(WifiP2pGroup wifiP2pGroup, final ActionListener listener) {
-        try {
-            Method getNetworkId = WifiP2pGroup.class.getMethod("getNetworkId");
-            Integer networkId = (Integer) getNetworkId.invoke(wifiP2pGroup);
-            Method deletePersistentGroup = WifiP2pManager.class.getMethod("deletePersistentGroup", WifiP2pManager.Channel.class, int.class, ActionListener.class);
-            deletePersistentGroup.invoke(manager, channel, networkId, listener);
-        } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
-            listener.onFailure(WifiP2pManager.ERROR);
-        }
+    public Metrics getMetrics() {
+        return getDirect().getMetrics();
     }
 
     public void cleanUp() {
-        Log.d(TAG, "Attempting to clean up resources.");
-        context.unregisterReceiver(receiver);
+        getDirect().cleanUp();
     }
-}
\ No newline at end of file
+}
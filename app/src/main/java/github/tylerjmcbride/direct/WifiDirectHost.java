@@ -1,57 +1,62 @@
 package github.tylerjmcbride.direct;
 
 import android.app.Application;
-import android.net.NetworkInfo;
 import android.net.wifi.p2p.WifiP2pDevice;
-import android.net.wifi.p2p.WifiP2pDeviceList;
-import android.net.wifi.p2p.WifiP2pGroup;
-import android.net.wifi.p2p.WifiP2pInfo;
-import android.net.wifi.p2p.WifiP2pManager.ActionListener;
-import android.net.wifi.p2p.WifiP2pManager.PeerListListener;
-import android.net.wifi.p2p.nsd.WifiP2pDnsSdServiceInfo;
-import android.util.Log;
 
+import java.io.File;
 import java.io.Serializable;
-import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 
+import github.tylerjmcbride.direct.callbacks.BroadcastCallback;
 import github.tylerjmcbride.direct.callbacks.ClientCallback;
-import github.tylerjmcbride.direct.callbacks.ConnectionAndGroupInfoAvailableListener;
+import github.tylerjmcbride.direct.callbacks.PeerBroadcastCallback;
+import github.tylerjmcbride.direct.callbacks.PeerConnectionCallback;
 import github.tylerjmcbride.direct.callbacks.ResultCallback;
 import github.tylerjmcbride.direct.callbacks.ServiceCallback;
-import github.tylerjmcbride.direct.callbacks.SingleResultCallback;
-import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
-import github.tylerjmcbride.direct.registration.HostRegistrar;
-import github.tylerjmcbride.direct.registration.listeners.HandshakeListener;
-import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.callbacks.TransferCallback;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
 import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.codecs.SerializableCodec;
+import github.tylerjmcbride.direct.transceivers.requests.PendingResponse;
 
 public class WifiDirectHost extends WifiDirect {
 
-    private HostRegistrar registrar;
-    private WifiP2pDnsSdServiceInfo serviceInfo;
-    private Map<String, String> record = new HashMap<>();
-    private Thread serviceBroadcastingThread;
+    private DirectHost host;
 
-    private ClientCallback clientCallback;
-    private ServiceCallback serviceCallback;
+    public WifiDirectHost(Application application, final String service, final String instance) {
+        this(application, service, instance, new SerializableCodec());
+    }
 
-    private Map<WifiP2pDeviceInfo, WifiP2pDevice> clients = new HashMap<>();
+    /**
+     * @param application The {@link Application}.
+     * @param service The service type.
+     * @param instance The instance name advertised to clients.
+     * @param codec The {@link Codec} used to encode and decode the objects exchanged with clients,
+     *              clients must be constructed with a compatible codec.
+     */
+    public WifiDirectHost(Application application, final String service, final String instance, Codec codec) {
+        this(application, service, instance, codec, null);
+    }
 
-    public WifiDirectHost(Application application, final String service, final String instance) {
-        super(application, service);
-        record.put(SERVICE_NAME_TAG, service);
-        record.put(INSTANCE_NAME_TAG, instance);
+    /**
+     * @param application The {@link Application}.
+     * @param service The service type.
+     * @param instance The instance name advertised to clients.
+     * @param codec The {@link Codec} used to encode and decode the objects exchanged with clients,
+     *              clients must be constructed with a compatible codec.
+     * @param scheduler The {@link IoScheduler} to perform I/O on, or null to create one.
+     */
+    public WifiDirectHost(Application application, final String service, final String instance, Codec codec, IoScheduler scheduler) {
+        super(application);
+        host = new DirectHost(framework, mainExecutor, service, instance, codec, scheduler, getMacAddress());
+    }
 
-        registrar = new HostRegistrar(this, handler, new HostHandShakeListener());
-        receiver = new HostDirectBroadcastReceiver();
-        application.getApplicationContext().registerReceiver(receiver, intentFilter);
+    @Override
+    protected DirectHost getDirect() {
+        return host;
     }
 
     /**
@@ -62,323 +67,185 @@ public class WifiDirectHost extends WifiDirect {
      * @param callback Invoked upon the success or failure of the request.
      */
     public void send(WifiP2pDevice clientDevice, Serializable object, final ResultCallback callback) {
-        for(WifiP2pDeviceInfo clientInfo : clients.keySet()) {
-            if(clientDevice != null && clientDevice.deviceAddress.equals(clientInfo.getMacAddress())) {
-                objectTransmitter.send(object, new InetSocketAddress(clientInfo.getIpAddress(), clientInfo.getPort()), callback);
-                return;
-            }
-        }
-
-        // We failed to find respective client device
-        callback.onFailure();
+        host.send(framework.toP2pDevice(clientDevice), object, callback);
     }
 
     /**
-     * Registers the local service for service discovery effectively starting the service; however,
-     * this is only a request to add said local service, the service will not officially be added
-     * until the framework has been notified.
+     * Sends the respective client the given request, whose
+     * {@link github.tylerjmcbride.direct.transceivers.callbacks.Responder} replies with a response.
      *
-     * @param dataCallback Invoked when receiving data from a client.
-     * @param clientCallback Invoked when a client either connects or disconnects.
-     * @param serviceCallback Invoked when the service has officially stopped.
-     * @param callback Invoked upon the success or failure of the request.
+     * @param clientDevice The client device to receive the given request.
+     * @param request The serializable request to send to the respective client.
+     * @param timeout The duration in milliseconds to await the response, after which the request fails.
+     * @return The {@link PendingResponse}, which fails immediately should the client be unknown.
      */
-    public void startService(final ObjectCallback dataCallback, final ClientCallback clientCallback, final ServiceCallback serviceCallback, final ResultCallback callback) {
-        // Clear any previously existing service
-        stopService(new SingleResultCallback() {
-            @Override
-            public void onSuccessOrFailure() {
-                objectReceiver.start(dataCallback, new ServerSocketInitializationListener() {
-                    @Override
-                    public void onSuccess(ServerSocket serverSocket) {
-                        Log.d(TAG, String.format("Succeeded to start object receiver on port %d.", serverSocket.getLocalPort()));
-                        thisDeviceInfo.setPort(serverSocket.getLocalPort());
-
-                        registrar.start(new ServerSocketInitializationListener() {
-                            @Override
-                            public void onSuccess(final ServerSocket serverSocket) {
-                                Log.d(TAG, String.format("Succeeded to start registrar on port %d.", serverSocket.getLocalPort()));
-
-                                // Reinitialize the service information to reflect the new registration port
-                                record.put(REGISTRAR_PORT_TAG, Integer.toString(serverSocket.getLocalPort()));
-                                serviceInfo = WifiP2pDnsSdServiceInfo.newInstance(thisDevice.deviceAddress, SERVICE_TYPE, record);
-
-                                manager.addLocalService(channel, serviceInfo, new ActionListener() {
-                                    @Override
-                                    public void onSuccess() {
-                                        Log.d(TAG, "Succeeded to add local service.");
-                                        WifiDirectHost.this.clientCallback = clientCallback;
-                                        WifiDirectHost.this.serviceCallback = serviceCallback;
-                                        serviceBroadcastingThread = new Thread(new ServiceBroadcastingRunnable());
-                                        serviceBroadcastingThread.start();
-                                        callback.onSuccess();
-                                    }
+    public PendingResponse request(WifiP2pDevice clientDevice, Serializable request, long timeout) {
+        return host.request(framework.toP2pDevice(clientDevice), request, timeout);
+    }
 
-                                    @Override
-                                    public void onFailure(int reason) {
-                                        Log.d(TAG, "Failed to add local service.");
-                                        registrar.stop();
-                                        objectReceiver.stop();
-                                        callback.onFailure();
-                                    }
-                                });
-                            }
+    /**
+     * Sends the respective client the given file, without holding the file in memory.
+     *
+     * @param clientDevice The client device to receive the given file.
+     * @param file The file to send to the respective client.
+     * @param callback Invoked upon the progress, success or failure of the request.
+     */
+    public void sendFile(WifiP2pDevice clientDevice, File file, final TransferCallback callback) {
+        host.sendFile(framework.toP2pDevice(clientDevice), file, callback);
+    }
 
-                            @Override
-                            public void onFailure() {
-                                Log.d(TAG, "Failed to start registrar.");
-                                objectReceiver.stop();
-                                callback.onFailure();
-                            }
-                        });
-                    }
+    /**
+     * Sends every registered client the given serializable object. The object is serialized only
+     * once, regardless of the number of clients, and written to every client in parallel.
+     *
+     * @param object The serializable object to send to every client.
+     * @param callback Invoked upon the success or failure of the request for every client.
+     */
+    public void broadcast(Serializable object, final BroadcastCallback callback) {
+        host.broadcast(object, new PeerBroadcastCallback() {
+            @Override
+            public void onSuccess(P2pDevice clientDevice) {
+                callback.onSuccess(framework.toWifiP2pDevice(clientDevice));
+            }
 
-                    @Override
-                    public void onFailure() {
-                        Log.d(TAG, "Failed to start object receiver.");
-                        callback.onFailure();
-                    }
-                });
+            @Override
+            public void onFailure(P2pDevice clientDevice) {
+                callback.onFailure(framework.toWifiP2pDevice(clientDevice));
             }
         });
     }
 
     /**
-     * If a local service exists, this method will remove said service effectively stopping the
-     * service; however, this is only a request to remove said local service, the service will not
-     * officially be removed until the framework has been notified. The {@link ServiceCallback}
-     * will capture this event.
+     * Sends every client subscribed to the given topic the given serializable object. The object
+     * is serialized only once, and clients which are not subscribed to the topic are never sent
+     * the object.
      *
-     * @param callback Invoked upon the success or failure of the request.
+     * @param topic The topic to publish to.
+     * @param object The serializable object to send to every subscriber.
+     * @param callback Invoked upon the success or failure of the request for every subscriber.
      */
-    public void stopService(final ResultCallback callback) {
-        manager.clearLocalServices(channel, new ActionListener() {
+    public void publish(String topic, Serializable object, final BroadcastCallback callback) {
+        host.publish(topic, object, new PeerBroadcastCallback() {
             @Override
-            public void onSuccess() {
-                Log.d(TAG, "Succeeded to clear local services.");
-                if (serviceBroadcastingThread != null) {
-                    serviceBroadcastingThread.interrupt();
-                }
-
-                onServiceUnavailable();
-                removeGroup(callback);
+            public void onSuccess(P2pDevice clientDevice) {
+                callback.onSuccess(framework.toWifiP2pDevice(clientDevice));
             }
 
             @Override
-            public void onFailure(int reason) {
-                Log.d(TAG, "Failed to clear local services.");
-                callback.onFailure();
+            public void onFailure(P2pDevice clientDevice) {
+                callback.onFailure(framework.toWifiP2pDevice(clientDevice));
             }
         });
     }
 
     /**
-     * Creates and returns a deep copy of the list of client {@link WifiP2pDevice}s.
-     * @return A deep copy of the list of client {@link WifiP2pDevice}s.
+     * Returns the topics the respective client is subscribed to.
+     *
+     * @param clientDevice The client device.
+     * @return A copy of the topics the respective client is subscribed to.
      */
-    public List<WifiP2pDevice> getRegisteredClients() {
-        List<WifiP2pDevice> deepClientsClone = new ArrayList<>();
-        for(WifiP2pDevice device : clients.values()) {
-            deepClientsClone.add(new WifiP2pDevice(device));
-        }
-        return deepClientsClone;
+    public Set<String> getTopics(WifiP2pDevice clientDevice) {
+        return host.getTopics(framework.toP2pDevice(clientDevice));
     }
 
     /**
-     * Will compare {@link WifiDirectHost#clients} to the {@link WifiP2pDeviceList} to ensure that all
-     * registered clients are within range. If any of the existing {@link WifiDirectHost#clients} are out of
-     * range they will be pruned.
+     * Registers the local service for service discovery effectively starting the service; however,
+     * this is only a request to add said local service, the service will not officially be added
+     * until the framework has been notified.
+     *
+     * @param dataCallback Invoked when receiving data from a client.
+     * @param clientCallback Invoked when a client either connects or disconnects.
+     * @param serviceCallback Invoked when the service has officially stopped.
+     * @param callback Invoked upon the success or failure of the request.
      */
-    private void unregisterLostClients() {
-        manager.requestPeers(channel, new PeerListListener() {
+    public void startService(final ObjectCallback dataCallback, final ClientCallback clientCallback, final ServiceCallback serviceCallback, final ResultCallback callback) {
+        host.startService(dataCallback, clientCallback == null ? null : new PeerConnectionCallback() {
             @Override
-            public void onPeersAvailable(WifiP2pDeviceList peers) {
-                Iterator<WifiP2pDeviceInfo> iterator = clients.keySet().iterator();
-                while (iterator.hasNext()) {
-                    WifiP2pDeviceInfo clientInfo = iterator.next();
-                    boolean containsClient = false;
-
-                    for(WifiP2pDevice peer : peers.getDeviceList()) {
-                        if (peer.deviceAddress.equals(clientInfo.getMacAddress())) {
-                            containsClient = true;
-                        }
-                    }
-
-                    // Prune disconnected client
-                    if(!containsClient) {
-                        Log.d(TAG, clientInfo.getMacAddress() + " has disconnected.");
-                        WifiP2pDevice clientDevice = clients.remove(clientInfo);
+            public void onConnected(P2pDevice clientDevice) {
+                clientCallback.onConnected(framework.toWifiP2pDevice(clientDevice));
+            }
 
-                        if(clientCallback != null) {
-                            clientCallback.onDisconnected(clientDevice);
-                        }
-                    }
-                }
+            @Override
+            public void onDisconnected(P2pDevice clientDevice) {
+                clientCallback.onDisconnected(framework.toWifiP2pDevice(clientDevice));
             }
-        });
+        }, serviceCallback, callback);
     }
 
     /**
-     * Will compare {@link WifiDirectHost#clients} to the {@link WifiP2pGroup} to ensure that all
-     * registered clients are still within the group.
+     * If a local service exists, this method will remove said service effectively stopping the
+     * service; however, this is only a request to remove said local service, the service will not
+     * officially be removed until the framework has been notified. The {@link ServiceCallback}
+     * will capture this event.
      *
-     * @param p2pGroup The respective {@link WifiP2pGroup}.
+     * @param callback Invoked upon the success or failure of the request.
      */
-    private void unregisterLostClients(WifiP2pGroup p2pGroup) {
-        Collection<WifiP2pDevice> clientList = p2pGroup.getClientList();
-
-        // Remove clients whom no longer are connected
-        for (WifiP2pDeviceInfo clientInfo : clients.keySet()) {
-            if (!clientList.contains(clients.get(clientInfo))) {
-                Log.d(TAG, clientInfo.getMacAddress() + " has disconnected.");
-                WifiP2pDevice clientDevice = clients.remove(clientInfo);
-
-                if (clientCallback != null) {
-                    clientCallback.onDisconnected(clientDevice);
-                }
-            }
-        }
+    public void stopService(final ResultCallback callback) {
+        host.stopService(callback);
     }
 
     /**
-     * The service is no longer available; therefore, resources corresponding to the active service
-     * must be cleared. This method should be called after the service has concluded.
+     * Sets the number of registered clients at which the group is saturated, the service is not
+     * advertised whilst saturated.
+     * @param maxClients The number of clients, or 0 to never saturate.
      */
-    private void onServiceUnavailable() {
-        if(serviceCallback != null) {
-            serviceCallback.onServiceStopped();
-            serviceCallback = null;
-        }
-
-        clientCallback = null;
-        registrar.stop();
-        objectReceiver.stop();
-        clients.clear();
+    public void setMaxClients(int maxClients) {
+        host.setMaxClients(maxClients);
     }
 
-    @Override
-    public void cleanUp() {
-        super.cleanUp();
-        if(manager != null && channel != null) {
-            manager.clearLocalServices(channel, null);
-        }
+    /**
+     * Sets the intervals the service is advertised at, from the minimum interval once started or
+     * once peers come or go, backing off up to the maximum interval.
+     * @param minInterval The minimum interval in milliseconds.
+     * @param maxInterval The maximum interval in milliseconds.
+     * @param burst The number of advertisements at the minimum interval before backing off.
+     */
+    public void setAdvertisingIntervals(long minInterval, long maxInterval, int burst) {
+        host.setAdvertisingIntervals(minInterval, maxInterval, burst);
     }
 
     /**
-     * This listener listens for clients requesting to either register or unregister. This listener
-     * will effectively manage the {@link WifiDirectHost#clients} resource.
+     * Sends every registered client a heartbeat at the given interval, a client which misses as
+     * many heartbeats in a row as allowed is disconnected, which the {@link ClientCallback} is
+     * notified of. Heartbeats are disabled by default.
+     * @param interval The interval in milliseconds in between heartbeats, or 0 to disable heartbeats.
+     * @param maxMisses The number of heartbeats in a row a client may miss.
      */
-    class HostHandShakeListener implements HandshakeListener {
-        @Override
-        public void onClientAttemptingToRegister(final WifiP2pDeviceInfo clientInfo) {
-            manager.requestPeers(channel, new PeerListListener() {
-                @Override
-                public void onPeersAvailable(WifiP2pDeviceList peers) {
-                    WifiP2pDevice clientDevice = peers.get(clientInfo.getMacAddress());
-
-                    if(clientDevice != null) {
-                        Log.d(TAG, String.format("Succeeded to register client %s.", clientInfo.getMacAddress()));
-                        clients.put(clientInfo, clientDevice);
-
-                        if(clientCallback != null) {
-                            clientCallback.onConnected(clientDevice);
-                        }
-                    } else {
-                        Log.d(TAG, String.format("Failed to register client %s.", clientInfo.getMacAddress()));
-                    }
-                }
-            });
-        }
-
-        @Override
-        public void onClientAttemptingToUnregister(WifiP2pDeviceInfo clientInfo) {
-            Log.d(TAG, String.format("Succeeded to unregister client %s.", clientInfo.getMacAddress()));
-            WifiP2pDevice clientDevice = clients.remove(clientInfo);
-
-            if(clientCallback != null && clientDevice != null) {
-                clientCallback.onDisconnected(clientDevice);
-            }
-        }
+    public void setHeartbeat(long interval, int maxMisses) {
+        host.setHeartbeat(interval, maxMisses);
     }
 
-    class HostDirectBroadcastReceiver extends WifiDirectBroadcastReceiver {
-        @Override
-        protected void onConnectionChanged(NetworkInfo networkInfo) {
-            if(networkInfo.isAvailable()) {
-                onNetworkConnectivityAvailable();
-            } else {
-                onNetworkConnectivityUnavailable();
-            }
-        }
-
-        private void onNetworkConnectivityAvailable() {
-            requestWifiP2pInfo(new ConnectionAndGroupInfoAvailableListener() {
-                @Override
-                public void onConnectionAndGroupInfoAvailable(WifiP2pInfo p2pInfo, WifiP2pGroup p2pGroup) {
-                    if(p2pGroup != null) {
-                        unregisterLostClients(p2pGroup);
-                    }
-                }
-            });
-        }
-
-        private void onNetworkConnectivityUnavailable() {
-            Log.d(TAG, "Succeeded to confirm network connectivity is available.");
-            onServiceUnavailable();
-        }
-
-        @Override
-        protected void onAvailablePeersChanged() {
-            Log.d(TAG, "Failed to confirm network connectivity is available.");
-            unregisterLostClients();
-        }
-
-        @Override
-        protected void onWifiP2pEnabled() {
-            Log.d(TAG, "Succeeded to confirm Wi-Fi P2P availability.");
-        }
-
-        @Override
-        protected void onWifiP2pDisabled() {
-            Log.d(TAG, "Failed to confirm Wi-Fi P2P availability.");
-            onServiceUnavailable();
-        }
-
-        @Override
-        protected void onPeerDiscoveryStarted() {
-            Log.d(TAG, "Succeeded to confirm peer discovery has started.");
-        }
-
-        @Override
-        protected void onPeerDiscoveryStopped() {
-            Log.d(TAG, "Succeeded to confirm peer discovery has stopped.");
-        }
-
-        @Override
-        protected void onThisDeviceChanged(WifiP2pDevice thisDevice) {
-            WifiDirectHost.this.thisDevice = new WifiP2pDevice(thisDevice);
-            thisDeviceInfo.setMacAddress(thisDevice.deviceAddress);
-        }
+    /**
+     * Sets the duration the session of a client whose link has been lost is retained for, during
+     * which the client may reconnect and resume its session with its topics intact. Objects sent
+     * to the client in the meantime are queued until then.
+     * @param gracePeriod The duration in milliseconds, 0 never retains a session.
+     */
+    public void setSessionGracePeriod(long gracePeriod) {
+        host.setSessionGracePeriod(gracePeriod);
     }
 
     /**
-     * Will continually broadcast the service. The {@link ServiceBroadcastingRunnable} will run on
-     * its respective {@link Thread} until {@link Thread#interrupt()} is called.
+     * Returns the round trip time to the respective client, as measured by the heartbeats.
+     * @param clientDevice The client {@link WifiP2pDevice}.
+     * @return The smoothed round trip time in microseconds, or -1 should it be unknown.
      */
-    class ServiceBroadcastingRunnable implements Runnable {
+    public long getRoundTripTime(WifiP2pDevice clientDevice) {
+        return host.getRoundTripTime(framework.toP2pDevice(clientDevice));
+    }
 
-        private static final int SERVICE_BROADCASTING_INTERVAL = 5000;
+    /**
+     * @return The number of times the service has been advertised.
+     */
+    public long getAdvertisingCount() {
+        return host.getAdvertisingCount();
+    }
 
-        @Override
-        public void run() {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    Thread.sleep(SERVICE_BROADCASTING_INTERVAL);
-                    manager.discoverPeers(channel, null);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        }
+    /**
+     * Creates and returns a deep copy of the list of client {@link WifiP2pDevice}s.
+     * @return A deep copy of the list of client {@link WifiP2pDevice}s.
+     */
+    public List<WifiP2pDevice> getRegisteredClients() {
+        return framework.toWifiP2pDevices(host.getRegisteredClients());
     }
 }
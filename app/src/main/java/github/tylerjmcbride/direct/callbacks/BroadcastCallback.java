@@ -0,0 +1,11 @@
+package github.tylerjmcbride.direct.callbacks;
+
+import android.net.wifi.p2p.WifiP2pDevice;
+
+/**
+ * Interface for callback invocation on a broadcast, invoked once for every recipient.
+ */
+public interface BroadcastCallback {
+    void onSuccess(WifiP2pDevice clientDevice);
+    void onFailure(WifiP2pDevice clientDevice);
+}
@@ -0,0 +1,26 @@
+package github.tylerjmcbride.direct.executors;
+
+import android.os.Handler;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The {@link HandlerExecutor} runs every task on the {@link Thread} of the given {@link Handler},
+ * by default the main thread, in the order submitted.
+ */
+public class HandlerExecutor implements Executor {
+
+    private final Handler handler;
+
+    public HandlerExecutor(Handler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Tasks posted once the {@link android.os.Looper} of the handler has quit are dropped.
+     */
+    @Override
+    public void execute(Runnable runnable) {
+        handler.post(runnable);
+    }
+}
@@ -0,0 +1,17 @@
+package github.tylerjmcbride.direct.logging;
+
+/**
+ * The {@link AndroidLogger} writes every message logged by the networking stack to the Android log.
+ */
+public class AndroidLogger implements Logger {
+
+    @Override
+    public void d(String tag, String message) {
+        android.util.Log.d(tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message) {
+        android.util.Log.e(tag, message);
+    }
+}
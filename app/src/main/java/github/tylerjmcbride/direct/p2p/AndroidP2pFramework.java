@@ -0,0 +1,360 @@
+package github.tylerjmcbride.direct.p2p;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.IntentFilter;
+import android.net.NetworkInfo;
+import android.net.wifi.WpsInfo;
+import android.net.wifi.p2p.WifiP2pConfig;
+import android.net.wifi.p2p.WifiP2pDevice;
+import android.net.wifi.p2p.WifiP2pDeviceList;
+import android.net.wifi.p2p.WifiP2pGroup;
+import android.net.wifi.p2p.WifiP2pInfo;
+import android.net.wifi.p2p.WifiP2pManager;
+import android.net.wifi.p2p.WifiP2pManager.Channel;
+import android.net.wifi.p2p.WifiP2pManager.ChannelListener;
+import android.net.wifi.p2p.WifiP2pManager.DnsSdServiceResponseListener;
+import android.net.wifi.p2p.WifiP2pManager.DnsSdTxtRecordListener;
+import android.net.wifi.p2p.nsd.WifiP2pDnsSdServiceInfo;
+import android.net.wifi.p2p.nsd.WifiP2pDnsSdServiceRequest;
+import android.os.Looper;
+import android.util.Log;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import github.tylerjmcbride.direct.p2p.listeners.ActionListener;
+import github.tylerjmcbride.direct.p2p.listeners.ConnectionInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.GroupInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.P2pEventListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerListListener;
+import github.tylerjmcbride.direct.p2p.listeners.TxtRecordListener;
+
+/**
+ * The {@link AndroidP2pFramework} is the {@link P2pFramework} backed by the {@link WifiP2pManager}.
+ * Every {@link WifiP2pDevice} announced by the framework is remembered, so that the
+ * {@link P2pDevice} it was converted to can be converted back.
+ */
+public class AndroidP2pFramework implements P2pFramework {
+
+    private static final String TAG = github.tylerjmcbride.direct.logging.Log.TAG;
+
+    private final Context context;
+    private final WifiP2pManager manager;
+    private volatile Channel channel;
+    private final IntentFilter intentFilter;
+    private BroadcastReceiver receiver;
+    private WifiP2pDnsSdServiceRequest serviceRequest;
+
+    private final Map<String, WifiP2pDevice> devices = new ConcurrentHashMap<>();
+
+    /**
+     * @param context The {@link Context}.
+     * @param looper The {@link Looper} every listener is invoked on.
+     */
+    public AndroidP2pFramework(final Context context, final Looper looper) {
+        this.context = context;
+        this.manager = (WifiP2pManager) context.getSystemService(Context.WIFI_P2P_SERVICE);
+        this.channel = manager.initialize(context, looper, new ChannelListener() {
+            @Override
+            public void onChannelDisconnected() {
+                AndroidP2pFramework.this.channel = manager.initialize(context, looper, this);
+            }
+        });
+
+        this.intentFilter = new IntentFilter();
+        intentFilter.addAction(WifiP2pManager.WIFI_P2P_STATE_CHANGED_ACTION);
+        intentFilter.addAction(WifiP2pManager.WIFI_P2P_DISCOVERY_CHANGED_ACTION);
+        intentFilter.addAction(WifiP2pManager.WIFI_P2P_PEERS_CHANGED_ACTION);
+        intentFilter.addAction(WifiP2pManager.WIFI_P2P_CONNECTION_CHANGED_ACTION);
+        intentFilter.addAction(WifiP2pManager.WIFI_P2P_THIS_DEVICE_CHANGED_ACTION);
+    }
+
+    @Override
+    public void setEventListener(P2pEventListener listener) {
+        close();
+        receiver = new EventBroadcastReceiver(listener);
+        context.registerReceiver(receiver, intentFilter);
+    }
+
+    @Override
+    public void setTxtRecordListener(final TxtRecordListener listener) {
+        manager.setDnsSdResponseListeners(channel, new DnsSdServiceResponseListener() {
+            @Override
+            public void onDnsSdServiceAvailable(String instanceName, String registrationType, WifiP2pDevice device) {
+                if(device != null) {
+                    Log.d(TAG, "Succeeded to confirm the availability of " + device.deviceAddress + ".");
+                }
+            }
+        }, new DnsSdTxtRecordListener() {
+            @Override
+            public void onDnsSdTxtRecordAvailable(String fullDomain, Map<String, String> record, WifiP2pDevice device) {
+                listener.onTxtRecordAvailable(fullDomain, record, toP2pDevice(device));
+            }
+        });
+    }
+
+    @Override
+    public void addLocalService(String instanceName, String serviceType, Map<String, String> record, ActionListener listener) {
+        manager.addLocalService(channel, WifiP2pDnsSdServiceInfo.newInstance(instanceName, serviceType, record), wrap(listener));
+    }
+
+    @Override
+    public void clearLocalServices(ActionListener listener) {
+        manager.clearLocalServices(channel, wrap(listener));
+    }
+
+    @Override
+    public void addServiceRequest(ActionListener listener) {
+        serviceRequest = WifiP2pDnsSdServiceRequest.newInstance();
+        manager.addServiceRequest(channel, serviceRequest, wrap(listener));
+    }
+
+    @Override
+    public void removeServiceRequest(ActionListener listener) {
+        if(serviceRequest != null) {
+            manager.removeServiceRequest(channel, serviceRequest, wrap(listener));
+        } else if(listener != null) {
+            listener.onFailure(NO_SERVICE_REQUESTS);
+        }
+    }
+
+    @Override
+    public void clearServiceRequests(ActionListener listener) {
+        serviceRequest = null;
+        manager.clearServiceRequests(channel, wrap(listener));
+    }
+
+    @Override
+    public void discoverServices(ActionListener listener) {
+        manager.discoverServices(channel, wrap(listener));
+    }
+
+    @Override
+    public void discoverPeers(ActionListener listener) {
+        manager.discoverPeers(channel, wrap(listener));
+    }
+
+    @Override
+    public void stopPeerDiscovery(ActionListener listener) {
+        manager.stopPeerDiscovery(channel, wrap(listener));
+    }
+
+    @Override
+    public void connect(String deviceAddress, int groupOwnerIntent, ActionListener listener) {
+        WifiP2pConfig config = new WifiP2pConfig();
+        config.deviceAddress = deviceAddress;
+        config.wps.setup = WpsInfo.PBC;
+        config.groupOwnerIntent = groupOwnerIntent;
+        manager.connect(channel, config, wrap(listener));
+    }
+
+    @Override
+    public void removeGroup(ActionListener listener) {
+        manager.removeGroup(channel, wrap(listener));
+    }
+
+    /**
+     * Through reflection, this method will attempt to forget the persistent group.
+     *
+     * @see <a href="http://stackoverflow.com/questions/23653707/forgetting-old-wifi-direct-connections"></a>
+     * @param group The respective {@link P2pGroup}.
+     * @param listener Invoked upon the success or failure of the request.
+     */
+    @Override
+    public void deletePersistentGroup(P2pGroup group, ActionListener listener) {
+        try {
+            Method deletePersistentGroup = WifiP2pManager.class.getMethod("deletePersistentGroup", WifiP2pManager.Channel.class, int.class, WifiP2pManager.ActionListener.class);
+            deletePersistentGroup.invoke(manager, channel, group.getNetworkId(), wrap(listener));
+        } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
+            if(listener != null) {
+                listener.onFailure(ERROR);
+            }
+        }
+    }
+
+    @Override
+    public void requestPeers(final PeerListListener listener) {
+        manager.requestPeers(channel, new WifiP2pManager.PeerListListener() {
+            @Override
+            public void onPeersAvailable(WifiP2pDeviceList peers) {
+                List<P2pDevice> devices = new ArrayList<>();
+                for(WifiP2pDevice peer : peers.getDeviceList()) {
+                    devices.add(toP2pDevice(peer));
+                }
+                listener.onPeersAvailable(devices);
+            }
+        });
+    }
+
+    @Override
+    public void requestConnectionInfo(final ConnectionInfoListener listener) {
+        manager.requestConnectionInfo(channel, new WifiP2pManager.ConnectionInfoListener() {
+            @Override
+            public void onConnectionInfoAvailable(WifiP2pInfo info) {
+                listener.onConnectionInfoAvailable(new P2pConnectionInfo(info.groupFormed, info.isGroupOwner, info.groupOwnerAddress));
+            }
+        });
+    }
+
+    @Override
+    public void requestGroupInfo(final GroupInfoListener listener) {
+        manager.requestGroupInfo(channel, new WifiP2pManager.GroupInfoListener() {
+            @Override
+            public void onGroupInfoAvailable(WifiP2pGroup group) {
+                listener.onGroupInfoAvailable(toP2pGroup(group));
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        if(receiver != null) {
+            context.unregisterReceiver(receiver);
+            receiver = null;
+        }
+    }
+
+    /**
+     * @param device The {@link WifiP2pDevice} announced by the framework, which is remembered.
+     * @return The respective {@link P2pDevice}, or null if the given device is null.
+     */
+    public P2pDevice toP2pDevice(WifiP2pDevice device) {
+        if(device == null) {
+            return null;
+        }
+
+        devices.put(device.deviceAddress, new WifiP2pDevice(device));
+        return new P2pDevice(device.deviceAddress, device.deviceName, device.status);
+    }
+
+    /**
+     * @param device The {@link P2pDevice}.
+     * @return A copy of the {@link WifiP2pDevice} last announced with the same MAC address, or
+     *         null if the given device is null.
+     */
+    public WifiP2pDevice toWifiP2pDevice(P2pDevice device) {
+        if(device == null) {
+            return null;
+        }
+
+        WifiP2pDevice announced = devices.get(device.getDeviceAddress());
+        if(announced != null) {
+            return new WifiP2pDevice(announced);
+        }
+
+        WifiP2pDevice wifiP2pDevice = new WifiP2pDevice();
+        wifiP2pDevice.deviceAddress = device.getDeviceAddress();
+        wifiP2pDevice.deviceName = device.getDeviceName();
+        wifiP2pDevice.status = device.getStatus();
+        return wifiP2pDevice;
+    }
+
+    /**
+     * @param devices The {@link P2pDevice}s.
+     * @return The respective {@link WifiP2pDevice}s.
+     */
+    public List<WifiP2pDevice> toWifiP2pDevices(Collection<P2pDevice> devices) {
+        List<WifiP2pDevice> wifiP2pDevices = new ArrayList<>();
+        for(P2pDevice device : devices) {
+            wifiP2pDevices.add(toWifiP2pDevice(device));
+        }
+        return wifiP2pDevices;
+    }
+
+    private P2pGroup toP2pGroup(WifiP2pGroup group) {
+        if(group == null) {
+            return null;
+        }
+
+        List<P2pDevice> clients = new ArrayList<>();
+        for(WifiP2pDevice client : group.getClientList()) {
+            clients.add(toP2pDevice(client));
+        }
+        return new P2pGroup(toP2pDevice(group.getOwner()), clients, group.getNetworkName(), getNetworkId(group), group.isGroupOwner());
+    }
+
+    /**
+     * Through reflection, this method will attempt to retrieve the network id of the group.
+     * @param group The respective {@link WifiP2pGroup}.
+     * @return The network id, or -1 if unavailable.
+     */
+    private static int getNetworkId(WifiP2pGroup group) {
+        try {
+            Method getNetworkId = WifiP2pGroup.class.getMethod("getNetworkId");
+            return (Integer) getNetworkId.invoke(group);
+        } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
+            return -1;
+        }
+    }
+
+    private static WifiP2pManager.ActionListener wrap(final ActionListener listener) {
+        if(listener == null) {
+            return null;
+        }
+
+        return new WifiP2pManager.ActionListener() {
+            @Override
+            public void onSuccess() {
+                listener.onSuccess();
+            }
+
+            @Override
+            public void onFailure(int reason) {
+                listener.onFailure(reason);
+            }
+        };
+    }
+
+    /**
+     * Forwards the broadcasts of the framework to the {@link P2pEventListener}.
+     */
+    private class EventBroadcastReceiver extends WifiDirectBroadcastReceiver {
+
+        private final P2pEventListener listener;
+
+        EventBroadcastReceiver(P2pEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        protected void onConnectionChanged(NetworkInfo networkInfo) {
+            listener.onConnectionChanged(networkInfo.isConnected(), networkInfo.isAvailable());
+        }
+
+        @Override
+        protected void onAvailablePeersChanged() {
+            listener.onAvailablePeersChanged();
+        }
+
+        @Override
+        protected void onWifiP2pEnabled() {
+            listener.onWifiP2pEnabled();
+        }
+
+        @Override
+        protected void onWifiP2pDisabled() {
+            listener.onWifiP2pDisabled();
+        }
+
+        @Override
+        protected void onPeerDiscoveryStarted() {
+            listener.onPeerDiscoveryStarted();
+        }
+
+        @Override
+        protected void onPeerDiscoveryStopped() {
+            listener.onPeerDiscoveryStopped();
+        }
+
+        @Override
+        protected void onThisDeviceChanged(WifiP2pDevice thisDevice) {
+            listener.onThisDeviceChanged(toP2pDevice(thisDevice));
+        }
+    }
+}
@@ -1,4 +1,4 @@
-package github.tylerjmcbride.direct;
+package github.tylerjmcbride.direct.p2p;
 
 import android.content.BroadcastReceiver;
 import android.content.Context;
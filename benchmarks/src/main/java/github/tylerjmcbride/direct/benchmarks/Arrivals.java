@@ -0,0 +1,59 @@
+package github.tylerjmcbride.direct.benchmarks;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands the completion of an asynchronous operation, signalled on an I/O thread, back to the
+ * benchmark thread waiting for it. Every benchmark thread registers once and has at most one
+ * operation in flight.
+ */
+public class Arrivals {
+
+    public static final long TIMEOUT = 10000;
+
+    private static final int MAX_THREADS = 64;
+
+    private final Semaphore[] arrivals = new Semaphore[MAX_THREADS];
+    private final boolean[] failures = new boolean[MAX_THREADS];
+    private final AtomicInteger registered = new AtomicInteger();
+
+    public Arrivals() {
+        for (int i = 0; i < MAX_THREADS; i++) {
+            arrivals[i] = new Semaphore(0);
+        }
+    }
+
+    /**
+     * @return The id of the calling thread.
+     */
+    public int register() {
+        int id = registered.getAndIncrement();
+        if (id >= MAX_THREADS) {
+            throw new IllegalStateException("Too many benchmark threads.");
+        }
+        return id;
+    }
+
+    public void arrive(int id) {
+        arrivals[id].release();
+    }
+
+    public void fail(int id) {
+        failures[id] = true;
+        arrivals[id].release();
+    }
+
+    /**
+     * Waits for the operation of the given thread to complete.
+     * @throws IllegalStateException If the operation failed or did not complete in time.
+     */
+    public void await(int id) throws InterruptedException {
+        if (!arrivals[id].tryAcquire(TIMEOUT, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException(String.format("Thread %d timed out.", id));
+        } else if (failures[id]) {
+            throw new IllegalStateException(String.format("Thread %d failed.", id));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package github.tylerjmcbride.direct.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameOutputStream;
+
+/**
+ * Measures encoding a {@link Payload} into a {@link Frame} and decoding it back, without any I/O.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({Payload.SERIALIZABLE_CODEC, Payload.BINARY_CODEC})
+    public String codecName;
+
+    @Param({"64", "4096", "65536"})
+    public int payloadSize;
+
+    private Codec codec;
+    private Payload payload;
+    private FrameOutputStream outputStream;
+    private byte[] frame;
+    private int payloadLength;
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = Payload.createCodec(codecName);
+        payload = new Payload(0, payloadSize);
+        outputStream = new FrameOutputStream();
+
+        codec.encode(payload, outputStream);
+        frame = outputStream.toByteArray();
+        payloadLength = outputStream.getPayloadLength();
+    }
+
+    @Benchmark
+    public FrameOutputStream encode() throws IOException {
+        outputStream.reset();
+        codec.encode(payload, outputStream);
+        return outputStream;
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return codec.decode(frame, Frame.HEADER_LENGTH, payloadLength);
+    }
+}
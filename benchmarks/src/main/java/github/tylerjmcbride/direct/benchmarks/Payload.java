@@ -0,0 +1,69 @@
+package github.tylerjmcbride.direct.benchmarks;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+import github.tylerjmcbride.direct.transceivers.codecs.BinaryCodec;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.codecs.MessageAdapter;
+import github.tylerjmcbride.direct.transceivers.codecs.SerializableCodec;
+
+/**
+ * The object exchanged by the benchmarks, identifying the benchmark thread which sent it so that
+ * the receiver can notify said thread.
+ */
+public class Payload implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String SERIALIZABLE_CODEC = "serializable";
+    public static final String BINARY_CODEC = "binary";
+
+    private final int sender;
+    private final byte[] data;
+
+    public Payload(int sender, int size) {
+        this(sender, new byte[size]);
+    }
+
+    private Payload(int sender, byte[] data) {
+        this.sender = sender;
+        this.data = data;
+    }
+
+    public int getSender() {
+        return sender;
+    }
+
+    /**
+     * @param name Either {@link Payload#SERIALIZABLE_CODEC} or {@link Payload#BINARY_CODEC}.
+     * @return The respective {@link Codec}, able to encode a {@link Payload}.
+     */
+    public static Codec createCodec(String name) {
+        if (SERIALIZABLE_CODEC.equals(name)) {
+            return new SerializableCodec();
+        } else if (BINARY_CODEC.equals(name)) {
+            return new BinaryCodec(false).register(BinaryCodec.FIRST_USER_TYPE_ID, Payload.class, new Adapter());
+        }
+        throw new IllegalArgumentException(String.format("Unknown codec %s.", name));
+    }
+
+    private static class Adapter implements MessageAdapter<Payload> {
+        @Override
+        public void write(Payload message, DataOutput output) throws IOException {
+            output.writeInt(message.sender);
+            output.writeInt(message.data.length);
+            output.write(message.data);
+        }
+
+        @Override
+        public Payload read(DataInput input) throws IOException {
+            int sender = input.readInt();
+            byte[] data = new byte[input.readInt()];
+            input.readFully(data);
+            return new Payload(sender, data);
+        }
+    }
+}
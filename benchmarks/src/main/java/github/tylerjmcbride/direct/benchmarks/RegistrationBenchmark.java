@@ -0,0 +1,159 @@
+package github.tylerjmcbride.direct.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import github.tylerjmcbride.direct.executors.InlineExecutor;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.registration.ClientRegistrar;
+import github.tylerjmcbride.direct.registration.HostRegistrar;
+import github.tylerjmcbride.direct.registration.LocalDevice;
+import github.tylerjmcbride.direct.registration.listeners.HandshakeListener;
+import github.tylerjmcbride.direct.registration.listeners.RegisteredWithServerListener;
+import github.tylerjmcbride.direct.sockets.RetryPolicy;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+
+/**
+ * Measures a complete handshake, from {@link ClientRegistrar#register} until the client is
+ * notified of the host details, over loopback. Every handshake is made over a new connection,
+ * as it is on a device.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    private IoScheduler scheduler;
+    private HostRegistrar hostRegistrar;
+    private InetSocketAddress address;
+    private final Arrivals arrivals = new Arrivals();
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        scheduler = new IoScheduler(64, 1024);
+        hostRegistrar = new HostRegistrar(scheduler, new Device("02:00:00:00:00:00"), InlineExecutor.INSTANCE, new HandshakeListener() {
+            @Override
+            public void onClientAttemptingToRegister(WifiP2pDeviceInfo clientInfo, long sessionToken) {
+            }
+
+            @Override
+            public void onClientAttemptingToResume(WifiP2pDeviceInfo clientInfo, long sessionToken, Set<String> topics) {
+            }
+
+            @Override
+            public void onClientAttemptingToUnregister(WifiP2pDeviceInfo clientInfo) {
+            }
+        });
+
+        final Arrivals started = new Arrivals();
+        final int[] port = new int[1];
+        hostRegistrar.start(new ServerSocketInitializationListener() {
+            @Override
+            public void onSuccess(ServerSocket serverSocket) {
+                port[0] = serverSocket.getLocalPort();
+                started.arrive(0);
+            }
+
+            @Override
+            public void onFailure() {
+                started.fail(0);
+            }
+        });
+        started.await(0);
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        hostRegistrar.stop();
+        scheduler.shutdown();
+        scheduler.awaitTermination(Arrivals.TIMEOUT);
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private int id;
+        private ClientRegistrar registrar;
+        private RegisteredWithServerListener listener;
+
+        @Setup
+        public void setUp(final RegistrationBenchmark benchmark) {
+            id = benchmark.arrivals.register();
+            registrar = new ClientRegistrar(benchmark.scheduler, new Device(String.format("02:00:00:00:01:%02x", id)), InlineExecutor.INSTANCE);
+            listener = new RegisteredWithServerListener() {
+                @Override
+                public void onSuccess(WifiP2pDeviceInfo info, long sessionToken) {
+                    benchmark.arrivals.arrive(id);
+                }
+
+                @Override
+                public void onFailure() {
+                    benchmark.arrivals.fail(id);
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void register(Client client) throws InterruptedException {
+        handshake(client);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void register4Threads(Client client) throws InterruptedException {
+        handshake(client);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void register16Threads(Client client) throws InterruptedException {
+        handshake(client);
+    }
+
+    private void handshake(Client client) throws InterruptedException {
+        client.registrar.register(address, client.listener);
+        arrivals.await(client.id);
+    }
+
+    private static class Device implements LocalDevice {
+
+        private final WifiP2pDeviceInfo info;
+
+        private Device(String macAddress) {
+            this.info = new WifiP2pDeviceInfo(macAddress, InetAddress.getLoopbackAddress(), 0);
+        }
+
+        @Override
+        public WifiP2pDeviceInfo getThisDeviceInfo() {
+            return info;
+        }
+
+        @Override
+        public RetryPolicy getRetryPolicy() {
+            return RetryPolicy.DEFAULT;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package github.tylerjmcbride.direct.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.executors.InlineExecutor;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.transceivers.ObjectReceiver;
+import github.tylerjmcbride.direct.transceivers.ObjectTransmitter;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+
+/**
+ * Measures the time from {@link ObjectTransmitter#send} until the {@link ObjectCallback} of the
+ * {@link ObjectReceiver} is invoked, over loopback. Every benchmark thread waits for its object
+ * to be received before sending the next, so the concurrency level is the number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransportBenchmark {
+
+    @Param({Payload.SERIALIZABLE_CODEC, Payload.BINARY_CODEC})
+    public String codecName;
+
+    @Param({"64", "4096", "65536"})
+    public int payloadSize;
+
+    private IoScheduler scheduler;
+    private ObjectReceiver receiver;
+    private ObjectTransmitter transmitter;
+    private InetSocketAddress address;
+    private final Arrivals arrivals = new Arrivals();
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        Codec codec = Payload.createCodec(codecName);
+        scheduler = new IoScheduler(64, 1024);
+        receiver = new ObjectReceiver(scheduler, InlineExecutor.INSTANCE, codec);
+        transmitter = new ObjectTransmitter(scheduler, InlineExecutor.INSTANCE, codec);
+
+        final Arrivals started = new Arrivals();
+        final int[] port = new int[1];
+        receiver.start(new ObjectCallback() {
+            @Override
+            public void onReceived(Object object) {
+                arrivals.arrive(((Payload) object).getSender());
+            }
+        }, new ServerSocketInitializationListener() {
+            @Override
+            public void onSuccess(ServerSocket serverSocket) {
+                port[0] = serverSocket.getLocalPort();
+                started.arrive(0);
+            }
+
+            @Override
+            public void onFailure() {
+                started.fail(0);
+            }
+        });
+        started.await(0);
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port[0]);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        transmitter.disconnectAll();
+        receiver.stop();
+        scheduler.shutdown();
+        scheduler.awaitTermination(Arrivals.TIMEOUT);
+    }
+
+    @State(Scope.Thread)
+    public static class Sender {
+
+        private int id;
+        private Payload payload;
+        private ResultCallback callback;
+
+        @Setup
+        public void setUp(final TransportBenchmark benchmark) {
+            id = benchmark.arrivals.register();
+            payload = new Payload(id, benchmark.payloadSize);
+            callback = new ResultCallback() {
+                @Override
+                public void onSuccess() {
+                }
+
+                @Override
+                public void onFailure() {
+                    benchmark.arrivals.fail(id);
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void send(Sender sender) throws InterruptedException {
+        roundTrip(sender);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void send4Threads(Sender sender) throws InterruptedException {
+        roundTrip(sender);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void send16Threads(Sender sender) throws InterruptedException {
+        roundTrip(sender);
+    }
+
+    private void roundTrip(Sender sender) throws InterruptedException {
+        transmitter.send(sender.payload, address, sender.callback);
+        arrivals.await(sender.id);
+    }
+}
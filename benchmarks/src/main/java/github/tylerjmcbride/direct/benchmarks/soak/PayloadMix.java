@@ -0,0 +1,53 @@
+package github.tylerjmcbride.direct.benchmarks.soak;
+
+import java.util.Random;
+
+/**
+ * A weighted mix of payload sizes, parsed from a list such as {@code 64:70,4096:25,65536:5}
+ * where every entry is a size in bytes followed by its relative weight.
+ */
+public class PayloadMix {
+
+    private final int[] sizes;
+    private final int[] cumulativeWeights;
+
+    private PayloadMix(int[] sizes, int[] cumulativeWeights) {
+        this.sizes = sizes;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    public static PayloadMix parse(String mix) {
+        String[] entries = mix.split(",");
+        int[] sizes = new int[entries.length];
+        int[] cumulativeWeights = new int[entries.length];
+        int total = 0;
+        for (int i = 0; i < entries.length; i++) {
+            String[] entry = entries[i].trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException(String.format("Invalid payload mix entry %s.", entries[i]));
+            }
+            sizes[i] = Integer.parseInt(entry[0]);
+            int weight = Integer.parseInt(entry[1]);
+            if (sizes[i] < 0 || weight <= 0) {
+                throw new IllegalArgumentException(String.format("Invalid payload mix entry %s.", entries[i]));
+            }
+            total += weight;
+            cumulativeWeights[i] = total;
+        }
+        return new PayloadMix(sizes, cumulativeWeights);
+    }
+
+    /**
+     * @param random The {@link Random} used to pick the size.
+     * @return A payload size, picked according to the weights.
+     */
+    public int next(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return sizes[i];
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+}
@@ -0,0 +1,253 @@
+package github.tylerjmcbride.direct.benchmarks.soak;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.executors.InlineExecutor;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.metrics.LatencyHistogram;
+import github.tylerjmcbride.direct.registration.ClientRegistrar;
+import github.tylerjmcbride.direct.registration.LocalDevice;
+import github.tylerjmcbride.direct.registration.listeners.RegisteredWithServerListener;
+import github.tylerjmcbride.direct.registration.listeners.UnregisteredWithServerListener;
+import github.tylerjmcbride.direct.sockets.RetryPolicy;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.transceivers.ObjectReceiver;
+import github.tylerjmcbride.direct.transceivers.ObjectTransmitter;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+
+/**
+ * The {@link SimulatedClient} registers with the {@link SimulatedHost} through a
+ * {@link ClientRegistrar}, as a {@code WifiDirectClient} does, then sends {@link SoakMessage}s to
+ * the host and measures the round trip of every echo received by its own {@link ObjectReceiver}.
+ */
+public class SimulatedClient implements LocalDevice {
+
+    /**
+     * The maximum number of messages awaiting their echo, further messages are skipped so that a
+     * host which falls behind is not buried under an ever growing backlog.
+     */
+    private static final int MAX_OUTSTANDING = 64;
+
+    private final String macAddress;
+    private final WifiP2pDeviceInfo info;
+    private final InetSocketAddress registrarAddress;
+    private final PayloadMix payloadMix;
+    private final Random random;
+    private final ClientRegistrar registrar;
+    private final ObjectReceiver receiver;
+    private final ObjectTransmitter transmitter;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong registrations = new AtomicLong();
+    private final AtomicLong registrationFailures = new AtomicLong();
+    private final ResultCallback sendCallback = new ResultCallback() {
+        @Override
+        public void onSuccess() {
+        }
+
+        @Override
+        public void onFailure() {
+            failures.incrementAndGet();
+            outstanding.decrementAndGet();
+        }
+    };
+
+    private volatile InetSocketAddress hostAddress;
+    private Interval previous = new Interval();
+
+    public SimulatedClient(int id, IoScheduler scheduler, Codec codec, InetSocketAddress registrarAddress, PayloadMix payloadMix) {
+        this.macAddress = String.format("02:00:00:%02x:%02x:%02x", (id >> 16) & 0xFF, (id >> 8) & 0xFF, id & 0xFF);
+        this.info = new WifiP2pDeviceInfo(macAddress, InetAddress.getLoopbackAddress(), 0);
+        this.registrarAddress = registrarAddress;
+        this.payloadMix = payloadMix;
+        this.random = new Random(id);
+        this.registrar = new ClientRegistrar(scheduler, this, InlineExecutor.INSTANCE);
+        this.receiver = new ObjectReceiver(scheduler, InlineExecutor.INSTANCE, codec);
+        this.transmitter = new ObjectTransmitter(scheduler, InlineExecutor.INSTANCE, codec);
+    }
+
+    /**
+     * Starts the object receiver the host echoes to.
+     * @throws IllegalStateException If the receiver failed to start.
+     */
+    public void start() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        receiver.start(new ObjectCallback() {
+            @Override
+            public void onReceived(Object object) {
+                latencies.record(System.nanoTime() - ((SoakMessage) object).getSentAt());
+                received.incrementAndGet();
+                outstanding.decrementAndGet();
+            }
+        }, new ServerSocketInitializationListener() {
+            @Override
+            public void onSuccess(ServerSocket serverSocket) {
+                info.setPort(serverSocket.getLocalPort());
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure() {
+                latch.countDown();
+            }
+        });
+        SimulatedHost.await(latch, "object receiver");
+
+        if (info.getPort() == 0) {
+            throw new IllegalStateException(String.format("Failed to start client %s.", macAddress));
+        }
+    }
+
+    public void stop() {
+        hostAddress = null;
+        receiver.stop();
+        transmitter.disconnectAll();
+    }
+
+    /**
+     * Registers with the host, after which messages are sent.
+     */
+    public void register() {
+        registrar.register(registrarAddress, new RegisteredWithServerListener() {
+            @Override
+            public void onSuccess(WifiP2pDeviceInfo hostInfo, long sessionToken) {
+                outstanding.set(0);
+                registrations.incrementAndGet();
+                hostAddress = new InetSocketAddress(hostInfo.getIpAddress(), hostInfo.getPort());
+            }
+
+            @Override
+            public void onFailure() {
+                registrationFailures.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Stops sending and sends an {@code Adieu} to the host.
+     * @param callback Invoked once the host has been notified, or failed to be.
+     */
+    public void unregister(final Runnable callback) {
+        final InetSocketAddress address = hostAddress;
+        hostAddress = null;
+        registrar.unregister(registrarAddress, new UnregisteredWithServerListener() {
+            @Override
+            public void onSuccess() {
+                disconnect();
+            }
+
+            @Override
+            public void onFailure() {
+                registrationFailures.incrementAndGet();
+                disconnect();
+            }
+
+            private void disconnect() {
+                if (address != null) {
+                    transmitter.disconnect(address);
+                }
+                callback.run();
+            }
+        });
+    }
+
+    /**
+     * Sends a single message of a size picked from the {@link PayloadMix}, unless this client is
+     * not registered or too many messages await their echo. Must not be invoked concurrently.
+     */
+    public void send() {
+        InetSocketAddress address = hostAddress;
+        if (address == null || outstanding.get() >= MAX_OUTSTANDING) {
+            skipped.incrementAndGet();
+            return;
+        }
+
+        outstanding.incrementAndGet();
+        sent.incrementAndGet();
+        transmitter.send(new SoakMessage(macAddress, System.nanoTime(), payloadMix.next(random)), address, sendCallback);
+    }
+
+    public String getMacAddress() {
+        return macAddress;
+    }
+
+    /**
+     * @return The counts since the previous invocation, which must not be concurrent.
+     */
+    public Interval nextInterval() {
+        Interval current = new Interval();
+        current.sent = sent.get();
+        current.received = received.get();
+        current.skipped = skipped.get();
+        current.failures = failures.get();
+        current.registrations = registrations.get();
+        current.registrationFailures = registrationFailures.get();
+
+        Interval interval = current.minus(previous);
+        interval.latencies = latencies.snapshotAndReset();
+        previous = current;
+        return interval;
+    }
+
+    @Override
+    public WifiP2pDeviceInfo getThisDeviceInfo() {
+        return info;
+    }
+
+    @Override
+    public RetryPolicy getRetryPolicy() {
+        return RetryPolicy.DEFAULT;
+    }
+
+    /**
+     * The activity of a single client over a reporting interval.
+     */
+    public static class Interval {
+
+        long sent;
+        long received;
+        long skipped;
+        long failures;
+        long registrations;
+        long registrationFailures;
+        LatencyHistogram.Snapshot latencies = LatencyHistogram.Snapshot.empty();
+
+        private Interval minus(Interval other) {
+            Interval interval = new Interval();
+            interval.sent = sent - other.sent;
+            interval.received = received - other.received;
+            interval.skipped = skipped - other.skipped;
+            interval.failures = failures - other.failures;
+            interval.registrations = registrations - other.registrations;
+            interval.registrationFailures = registrationFailures - other.registrationFailures;
+            return interval;
+        }
+
+        /**
+         * Adds the given interval to this one.
+         */
+        void add(Interval other) {
+            sent += other.sent;
+            received += other.received;
+            skipped += other.skipped;
+            failures += other.failures;
+            registrations += other.registrations;
+            registrationFailures += other.registrationFailures;
+            latencies = latencies.merge(other.latencies);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package github.tylerjmcbride.direct.benchmarks.soak;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.executors.InlineExecutor;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.registration.HostRegistrar;
+import github.tylerjmcbride.direct.registration.LocalDevice;
+import github.tylerjmcbride.direct.registration.listeners.HandshakeListener;
+import github.tylerjmcbride.direct.sockets.RetryPolicy;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.transceivers.ObjectReceiver;
+import github.tylerjmcbride.direct.transceivers.ObjectTransmitter;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+
+/**
+ * The {@link SimulatedHost} accepts registrations through a {@link HostRegistrar}, as a
+ * {@code WifiDirectHost} does, and echoes every {@link SoakMessage} it receives back to the
+ * registered client which sent it.
+ */
+public class SimulatedHost implements LocalDevice {
+
+    private static final long START_TIMEOUT = 10000;
+
+    private final IoScheduler scheduler;
+    private final HostRegistrar registrar;
+    private final ObjectReceiver receiver;
+    private final ObjectTransmitter transmitter;
+    private final WifiP2pDeviceInfo info = new WifiP2pDeviceInfo("02:00:00:00:00:00", InetAddress.getLoopbackAddress(), 0);
+    private final Map<String, InetSocketAddress> clients = new ConcurrentHashMap<>();
+
+    private final AtomicLong echoed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final ResultCallback echoCallback = new ResultCallback() {
+        @Override
+        public void onSuccess() {
+            echoed.incrementAndGet();
+        }
+
+        @Override
+        public void onFailure() {
+            failures.incrementAndGet();
+        }
+    };
+
+    private volatile InetSocketAddress registrarAddress;
+
+    public SimulatedHost(IoScheduler scheduler, Codec codec) {
+        this.scheduler = scheduler;
+        this.receiver = new ObjectReceiver(scheduler, InlineExecutor.INSTANCE, codec);
+        this.transmitter = new ObjectTransmitter(scheduler, InlineExecutor.INSTANCE, codec);
+        this.registrar = new HostRegistrar(scheduler, this, InlineExecutor.INSTANCE, new HandshakeListener() {
+            @Override
+            public void onClientAttemptingToRegister(WifiP2pDeviceInfo clientInfo, long sessionToken) {
+                clients.put(clientInfo.getMacAddress(), new InetSocketAddress(clientInfo.getIpAddress(), clientInfo.getPort()));
+            }
+
+            @Override
+            public void onClientAttemptingToResume(WifiP2pDeviceInfo clientInfo, long sessionToken, Set<String> topics) {
+                // Never invoked, as no session tokens are issued
+                onClientAttemptingToRegister(clientInfo, sessionToken);
+            }
+
+            @Override
+            public void onClientAttemptingToUnregister(WifiP2pDeviceInfo clientInfo) {
+                InetSocketAddress address = clients.remove(clientInfo.getMacAddress());
+                if (address != null) {
+                    transmitter.disconnect(address);
+                }
+            }
+        });
+    }
+
+    /**
+     * Starts the object receiver, then the registrar, so that clients only learn the port of the
+     * receiver once it accepts connections.
+     * @throws IllegalStateException If either failed to start.
+     */
+    public void start() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        receiver.start(new ObjectCallback() {
+            @Override
+            public void onReceived(Object object) {
+                SoakMessage message = (SoakMessage) object;
+                InetSocketAddress address = clients.get(message.getClient());
+                if (address != null) {
+                    transmitter.send(message, address, echoCallback);
+                }
+            }
+        }, new ServerSocketInitializationListener() {
+            @Override
+            public void onSuccess(ServerSocket serverSocket) {
+                info.setPort(serverSocket.getLocalPort());
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure() {
+                latch.countDown();
+            }
+        });
+        await(latch, "object receiver");
+
+        final CountDownLatch registrarLatch = new CountDownLatch(1);
+        registrar.start(new ServerSocketInitializationListener() {
+            @Override
+            public void onSuccess(ServerSocket serverSocket) {
+                registrarAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+                registrarLatch.countDown();
+            }
+
+            @Override
+            public void onFailure() {
+                registrarLatch.countDown();
+            }
+        });
+        await(registrarLatch, "registrar");
+
+        if (info.getPort() == 0 || registrarAddress == null) {
+            throw new IllegalStateException("Failed to start the host.");
+        }
+    }
+
+    public void stop() {
+        registrar.stop();
+        receiver.stop();
+        transmitter.disconnectAll();
+    }
+
+    /**
+     * @return The address clients register with.
+     */
+    public InetSocketAddress getRegistrarAddress() {
+        return registrarAddress;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public long getEchoed() {
+        return echoed.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public IoScheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public WifiP2pDeviceInfo getThisDeviceInfo() {
+        return info;
+    }
+
+    @Override
+    public RetryPolicy getRetryPolicy() {
+        return RetryPolicy.DEFAULT;
+    }
+
+    static void await(CountDownLatch latch, String name) throws InterruptedException {
+        if (!latch.await(START_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException(String.format("Timed out starting the %s.", name));
+        }
+    }
+}
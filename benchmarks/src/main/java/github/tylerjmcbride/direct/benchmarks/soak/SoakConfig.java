@@ -0,0 +1,82 @@
+package github.tylerjmcbride.direct.benchmarks.soak;
+
+import github.tylerjmcbride.direct.benchmarks.Payload;
+
+/**
+ * The configuration of a {@link SoakHarness} run, parsed from {@code --name value} arguments.
+ */
+public class SoakConfig {
+
+    int clients = 16;
+    double rate = 10;
+    String payloads = "64:70,4096:25,65536:5";
+    long churnInterval = 60;
+    long churnPause = 1;
+    long duration = 600;
+    long reportInterval = 10;
+    String codec = Payload.BINARY_CODEC;
+
+    public static final String USAGE = "Options:\n"
+            + "  --clients <n>         Number of simulated clients (16)\n"
+            + "  --rate <n>            Messages per second sent by every client (10)\n"
+            + "  --payloads <mix>      Payload sizes and weights (64:70,4096:25,65536:5)\n"
+            + "  --churn <seconds>     Mean interval between the unregister/register cycles of a client, 0 disables (60)\n"
+            + "  --churn-pause <s>     Time a client remains unregistered (1)\n"
+            + "  --duration <seconds>  Length of the run (600)\n"
+            + "  --report <seconds>    Interval between reports (10)\n"
+            + "  --codec <name>        Either binary or serializable (binary)";
+
+    /**
+     * @throws IllegalArgumentException If an argument is unknown or invalid.
+     */
+    public static SoakConfig parse(String[] args) {
+        SoakConfig config = new SoakConfig();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException(String.format("Missing value for %s.", args[i]));
+            }
+
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--clients":
+                    config.clients = Integer.parseInt(value);
+                    break;
+                case "--rate":
+                    config.rate = Double.parseDouble(value);
+                    break;
+                case "--payloads":
+                    config.payloads = value;
+                    break;
+                case "--churn":
+                    config.churnInterval = Long.parseLong(value);
+                    break;
+                case "--churn-pause":
+                    config.churnPause = Long.parseLong(value);
+                    break;
+                case "--duration":
+                    config.duration = Long.parseLong(value);
+                    break;
+                case "--report":
+                    config.reportInterval = Long.parseLong(value);
+                    break;
+                case "--codec":
+                    config.codec = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown option %s.", args[i]));
+            }
+        }
+
+        if (config.clients < 1 || config.rate <= 0 || config.churnInterval < 0 || config.churnPause < 0
+                || config.duration < 1 || config.reportInterval < 1) {
+            throw new IllegalArgumentException("Invalid configuration.");
+        }
+        return config;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("clients=%d rate=%.1f/s payloads=%s churn=%ds pause=%ds duration=%ds report=%ds codec=%s",
+                clients, rate, payloads, churnInterval, churnPause, duration, reportInterval, codec);
+    }
+}
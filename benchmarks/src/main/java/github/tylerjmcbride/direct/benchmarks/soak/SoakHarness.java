@@ -0,0 +1,246 @@
+package github.tylerjmcbride.direct.benchmarks.soak;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+
+/**
+ * Runs a {@link SimulatedHost} and a number of {@link SimulatedClient}s over loopback for a
+ * given duration, reproducing a host serving dozens of devices without any phone. Every client
+ * sends at a fixed rate, picking payload sizes from a weighted mix, and periodically unregisters
+ * and registers again. Every report interval the per-client throughput and round trip latencies
+ * are printed, along with the thread count and the heap retained after garbage collection, so
+ * that leaks show up over multi-hour runs.
+ *
+ * <pre>
+ * ./gradlew :benchmarks:soak -PsoakArgs="--clients 48 --rate 20 --duration 14400"
+ * </pre>
+ */
+public class SoakHarness {
+
+    private static final double MB = 1024 * 1024;
+    private static final long SHUTDOWN_TIMEOUT = 10000;
+
+    private final SoakConfig config;
+    private final List<SimulatedClient> clients = new ArrayList<>();
+    private final List<SimulatedClient.Interval> totals = new ArrayList<>();
+    private final AtomicLong churnCycles = new AtomicLong();
+    private final Random random = new Random();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private IoScheduler hostScheduler;
+    private IoScheduler clientScheduler;
+    private ScheduledExecutorService load;
+    private SimulatedHost host;
+    private long baselineRetained;
+
+    public SoakHarness(SoakConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        SoakConfig config;
+        try {
+            config = SoakConfig.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.println(SoakConfig.USAGE);
+            System.exit(1);
+            return;
+        }
+
+        SoakHarness harness = new SoakHarness(config);
+        try {
+            harness.start();
+            harness.run();
+        } finally {
+            harness.stop();
+        }
+    }
+
+    public void start() throws InterruptedException {
+        System.out.println(String.format("Starting soak run: %s", config));
+        PayloadMix payloadMix = PayloadMix.parse(config.payloads);
+
+        // Every client receiver holds a thread for its selector loop, requests share a single one
+        hostScheduler = new IoScheduler(32, 4096);
+        clientScheduler = new IoScheduler(config.clients + IoScheduler.DEFAULT_MAX_THREADS, Math.max(4096, config.clients * 128));
+        load = Executors.newScheduledThreadPool(Math.min(4, config.clients), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, String.format("soak-load-%d", count.incrementAndGet()));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        host = new SimulatedHost(hostScheduler, SoakMessage.createCodec(config.codec));
+        host.start();
+
+        for (int id = 1; id <= config.clients; id++) {
+            SimulatedClient client = new SimulatedClient(id, clientScheduler, SoakMessage.createCodec(config.codec), host.getRegistrarAddress(), payloadMix);
+            client.start();
+            client.register();
+            clients.add(client);
+            totals.add(new SimulatedClient.Interval());
+        }
+
+        long period = (long) (TimeUnit.SECONDS.toNanos(1) / config.rate);
+        for (final SimulatedClient client : clients) {
+            load.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        client.send();
+                    } catch (RuntimeException ex) {
+                        // A periodic task which throws is never run again
+                        System.err.println(String.format("Failed to send from %s: %s", client.getMacAddress(), ex));
+                    }
+                }
+            }, (long) (random.nextDouble() * period), period, TimeUnit.NANOSECONDS);
+
+            if (config.churnInterval > 0) {
+                scheduleChurn(client);
+            }
+        }
+
+        System.gc();
+        baselineRetained = getRetainedHeap();
+    }
+
+    /**
+     * Reports every interval until the duration has elapsed.
+     */
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(config.duration);
+        long next = start;
+        while (true) {
+            next += TimeUnit.SECONDS.toNanos(config.reportInterval);
+            long now = System.nanoTime();
+            if (now >= end) {
+                break;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(next, end) - now);
+            report(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), false);
+        }
+
+        System.out.println("Summary:");
+        report(config.duration, true);
+    }
+
+    public void stop() throws InterruptedException {
+        if (load != null) {
+            load.shutdownNow();
+        }
+        for (SimulatedClient client : clients) {
+            client.stop();
+        }
+        if (host != null) {
+            host.stop();
+        }
+        for (IoScheduler scheduler : new IoScheduler[] {clientScheduler, hostScheduler}) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler.awaitTermination(SHUTDOWN_TIMEOUT);
+            }
+        }
+    }
+
+    /**
+     * Unregisters the given client after a random delay averaging the churn interval, then
+     * registers it again once the churn pause has elapsed.
+     */
+    private void scheduleChurn(final SimulatedClient client) {
+        long delay = (long) (TimeUnit.SECONDS.toMillis(config.churnInterval) * (0.5 + random.nextDouble()));
+        load.schedule(new Runnable() {
+            @Override
+            public void run() {
+                client.unregister(new Runnable() {
+                    @Override
+                    public void run() {
+                        churnCycles.incrementAndGet();
+                        load.schedule(new Runnable() {
+                            @Override
+                            public void run() {
+                                client.register();
+                                scheduleChurn(client);
+                            }
+                        }, config.churnPause, TimeUnit.SECONDS);
+                    }
+                });
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Prints the activity of every client over the last interval, or over the whole run.
+     */
+    private void report(long elapsed, boolean summary) {
+        List<SimulatedClient.Interval> intervals = new ArrayList<>();
+        SimulatedClient.Interval overall = new SimulatedClient.Interval();
+        for (int i = 0; i < clients.size(); i++) {
+            SimulatedClient.Interval interval = clients.get(i).nextInterval();
+            totals.get(i).add(interval);
+            intervals.add(summary ? totals.get(i) : interval);
+            overall.add(intervals.get(i));
+        }
+
+        double seconds = summary ? config.duration : config.reportInterval;
+        long retained = getRetainedHeap();
+        System.out.println(String.format("[%6ds] clients %d/%d  sent %.1f/s  echoed %.1f/s  p50 %s  p99 %s  p99.9 %s  max %s  failures %d  skipped %d  churn %d",
+                elapsed, host.getClientCount(), clients.size(), overall.sent / seconds, overall.received / seconds,
+                millis(overall.latencies.getPercentile(50)), millis(overall.latencies.getPercentile(99)),
+                millis(overall.latencies.getPercentile(99.9)), millis(overall.latencies.getMax()),
+                overall.failures + overall.registrationFailures, overall.skipped, churnCycles.get()));
+        System.out.println(String.format("          threads %d (peak %d)  heap %.1fMB  retained %.1fMB (%+.1fMB)  host queue %d active %d rejected %d  client queue %d rejected %d",
+                threads.getThreadCount(), threads.getPeakThreadCount(),
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / MB, retained / MB, (retained - baselineRetained) / MB,
+                hostScheduler.getQueueDepth(), hostScheduler.getActiveCount(), hostScheduler.getRejectedCount(),
+                clientScheduler.getQueueDepth(), clientScheduler.getRejectedCount()));
+
+        System.out.println(String.format("  %-18s %9s %9s %9s %9s %9s %6s %6s %5s", "client", "sent/s", "echoed/s", "p50", "p99", "max", "fail", "skip", "reg"));
+        for (int i = 0; i < clients.size(); i++) {
+            SimulatedClient.Interval interval = intervals.get(i);
+            System.out.println(String.format("  %-18s %9.1f %9.1f %9s %9s %9s %6d %6d %5d",
+                    clients.get(i).getMacAddress(), interval.sent / seconds, interval.received / seconds,
+                    millis(interval.latencies.getPercentile(50)), millis(interval.latencies.getPercentile(99)),
+                    millis(interval.latencies.getMax()), interval.failures + interval.registrationFailures,
+                    interval.skipped, interval.registrations));
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2fms", micros / 1000.0);
+    }
+
+    /**
+     * @return The bytes of heap in use after the most recent garbage collection, which unlike the
+     *         heap in use does not grow with garbage awaiting collection.
+     */
+    private static long getRetainedHeap() {
+        long retained = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                retained += usage.getUsed();
+            }
+        }
+        return retained;
+    }
+}
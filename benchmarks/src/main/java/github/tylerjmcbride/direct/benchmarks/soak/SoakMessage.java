@@ -0,0 +1,81 @@
+package github.tylerjmcbride.direct.benchmarks.soak;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+import github.tylerjmcbride.direct.benchmarks.Payload;
+import github.tylerjmcbride.direct.transceivers.codecs.BinaryCodec;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.codecs.MessageAdapter;
+import github.tylerjmcbride.direct.transceivers.codecs.SerializableCodec;
+
+/**
+ * The object sent by every {@link SimulatedClient} and echoed by the {@link SimulatedHost}. It
+ * carries the time it was sent, so the client measures the round trip once the echo arrives.
+ */
+public class SoakMessage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String client;
+    private final long sentAt;
+    private final byte[] data;
+
+    public SoakMessage(String client, long sentAt, int size) {
+        this(client, sentAt, new byte[size]);
+    }
+
+    private SoakMessage(String client, long sentAt, byte[] data) {
+        this.client = client;
+        this.sentAt = sentAt;
+        this.data = data;
+    }
+
+    /**
+     * @return The MAC address of the client which sent this message.
+     */
+    public String getClient() {
+        return client;
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} at which this message was sent.
+     */
+    public long getSentAt() {
+        return sentAt;
+    }
+
+    /**
+     * @param name Either {@link Payload#SERIALIZABLE_CODEC} or {@link Payload#BINARY_CODEC}.
+     * @return The respective {@link Codec}, able to encode a {@link SoakMessage}.
+     */
+    public static Codec createCodec(String name) {
+        if (Payload.SERIALIZABLE_CODEC.equals(name)) {
+            return new SerializableCodec();
+        } else if (Payload.BINARY_CODEC.equals(name)) {
+            return new BinaryCodec(false).register(BinaryCodec.FIRST_USER_TYPE_ID, SoakMessage.class, new Adapter());
+        }
+        throw new IllegalArgumentException(String.format("Unknown codec %s.", name));
+    }
+
+    private static class Adapter implements MessageAdapter<SoakMessage> {
+        @Override
+        public void write(SoakMessage message, DataOutput output) throws IOException {
+            BinaryCodec.writeString(message.client, output);
+            output.writeLong(message.sentAt);
+            output.writeInt(message.data.length);
+            output.write(message.data);
+        }
+
+        @Override
+        public SoakMessage read(DataInput input) throws IOException {
+            String client = BinaryCodec.readString(input);
+            long sentAt = input.readLong();
+            byte[] data = new byte[input.readInt()];
+            input.readFully(data);
+            return new SoakMessage(client, sentAt, data);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package github.tylerjmcbride.direct;
+
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.executors.InlineExecutor;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.p2p.P2pConnectionInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.p2p.P2pFramework;
+import github.tylerjmcbride.direct.p2p.P2pGroup;
+import github.tylerjmcbride.direct.p2p.PeerTracker;
+import github.tylerjmcbride.direct.p2p.listeners.ActionListener;
+import github.tylerjmcbride.direct.p2p.listeners.ConnectionAndGroupInfoAvailableListener;
+import github.tylerjmcbride.direct.p2p.listeners.ConnectionInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.GroupInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerChangeListener;
+import github.tylerjmcbride.direct.registration.LocalDevice;
+import github.tylerjmcbride.direct.sockets.RetryPolicy;
+import github.tylerjmcbride.direct.transceivers.ObjectReceiver;
+import github.tylerjmcbride.direct.transceivers.ObjectTransmitter;
+import github.tylerjmcbride.direct.transceivers.callbacks.FileCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.Responder;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+
+/**
+ * The {@link Direct} discovers, connects and exchanges data with peers through a
+ * {@link P2pFramework}, independent of the platform. Every method must be invoked on the main
+ * thread, being the thread the framework delivers its callbacks on.
+ */
+public abstract class Direct implements LocalDevice {
+
+    public static final String TAG = Log.TAG;
+    public static final String SERVICE_TYPE = "_presence._tcp";
+    public static final String SERVICE_NAME_TAG = "SERVICE_NAME";
+    public static final String INSTANCE_NAME_TAG = "INSTANCE_NAME";
+    public static final String REGISTRAR_PORT_TAG = "REGISTRAR_PORT";
+
+    protected P2pFramework framework;
+    protected Executor mainExecutor;
+
+    protected String service;
+
+    protected IoScheduler scheduler;
+    protected Metrics metrics;
+    protected ObjectTransmitter objectTransmitter;
+    protected ObjectReceiver objectReceiver;
+    protected volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    protected PeerTracker peerTracker;
+
+    protected P2pDevice thisDevice;
+    protected WifiP2pDeviceInfo thisDeviceInfo;
+
+    private boolean ownsScheduler;
+
+    /**
+     * Constructor for the abstract class {@link Direct}.
+     * @param framework The {@link P2pFramework}.
+     * @param mainExecutor The {@link Executor} of the main thread, the framework delivers its
+     *                     callbacks on said thread.
+     * @param service The service type.
+     * @param codec The {@link Codec} used to encode and decode the objects exchanged with peers.
+     * @param scheduler The {@link IoScheduler} to perform I/O on, which may be shared with other
+     *                  instances and is left running by {@link Direct#cleanUp()}. If null, a
+     *                  scheduler is created and shut down by {@link Direct#cleanUp()}.
+     * @param macAddress The MAC address of this device, until announced by the framework.
+     */
+    public Direct(P2pFramework framework, Executor mainExecutor, String service, Codec codec, IoScheduler scheduler, String macAddress) {
+        this.framework = framework;
+        this.mainExecutor = mainExecutor;
+        this.service = service;
+        this.ownsScheduler = scheduler == null;
+        this.scheduler = scheduler != null ? scheduler : new IoScheduler();
+        this.metrics = new Metrics(this.scheduler);
+        this.objectReceiver = new ObjectReceiver(this.scheduler, mainExecutor, codec);
+        this.objectReceiver.setMetrics(metrics);
+        this.objectTransmitter = new ObjectTransmitter(this.scheduler, mainExecutor, codec);
+        this.objectTransmitter.setMetrics(metrics);
+        this.peerTracker = new PeerTracker(framework, this.scheduler, mainExecutor, new PeerChangeListener() {
+            @Override
+            public void onPeersChanged(Set<P2pDevice> added, Set<P2pDevice> removed) {
+                Direct.this.onPeersChanged(added, removed);
+            }
+        });
+        this.thisDeviceInfo = new WifiP2pDeviceInfo(macAddress);
+    }
+
+    /**
+     * Returns this {@link P2pDevice}.
+     * @return This device, or null until announced by the framework.
+     */
+    public P2pDevice getThisDevice() {
+        return thisDevice;
+    }
+
+    /**
+     * Returns this {@link WifiP2pDeviceInfo}.
+     * @return The information about this device.
+     */
+    @Override
+    public WifiP2pDeviceInfo getThisDeviceInfo() {
+        return new WifiP2pDeviceInfo(thisDeviceInfo);
+    }
+
+    /**
+     * Sets how failed connection attempts to peers are retried, defaults to
+     * {@link RetryPolicy#DEFAULT}.
+     * @param retryPolicy The {@link RetryPolicy}.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        objectTransmitter.setRetryPolicy(retryPolicy);
+    }
+
+    /**
+     * @return The {@link RetryPolicy} applied to connection attempts.
+     */
+    @Override
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Sets the duration the bursts of peer changes announced by the framework are coalesced over,
+     * defaults to {@link PeerTracker#DEFAULT_WINDOW}.
+     * @param window The duration in milliseconds, 0 requests the peers upon every change.
+     */
+    public void setPeerChangeWindow(long window) {
+        peerTracker.setWindow(window);
+    }
+
+    /**
+     * Sets where files received from peers are written, until set every received file is
+     * discarded. Files are written straight to disk, regardless of their size.
+     * @param directory The directory to write received files to.
+     * @param callback Invoked upon the progress, success or failure of every received file.
+     */
+    public void receiveFiles(File directory, FileCallback callback) {
+        objectReceiver.setFileCallback(directory, callback);
+    }
+
+    /**
+     * Sets the {@link Responder} replying to the requests received from peers, until set every
+     * request is rejected and fails immediately. The {@link Responder} is invoked on the callback
+     * {@link Executor}, and may reply from any thread.
+     * @param responder The {@link Responder}, or null to reject every request.
+     */
+    public void setResponder(Responder responder) {
+        objectReceiver.setResponder(responder);
+    }
+
+    /**
+     * Sets the {@link Executor} the results of sending and receiving data are delivered on,
+     * defaults to the main thread. Passing {@link InlineExecutor#INSTANCE} invokes every
+     * {@link ObjectCallback} directly on the I/O thread which decoded the object, in the order the
+     * objects were received from each peer, in which case every callback must return quickly.
+     * Registration and connection callbacks are always delivered on the main thread. Must be
+     * invoked before the service is started or connected to.
+     * @param callbackExecutor The {@link Executor}, which must not reject tasks.
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        objectReceiver.setCallbackExecutor(callbackExecutor);
+        objectTransmitter.setCallbackExecutor(callbackExecutor);
+    }
+
+    /**
+     * @return The {@link IoScheduler} performing I/O, exposing queue depth and thread metrics.
+     */
+    public IoScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Returns the {@link Metrics} of the traffic exchanged with peers, the outcomes of connection
+     * attempts and registrations, and the latencies thereof. Disabled until
+     * {@link Metrics#setEnabled(boolean)} is called, at which point they may either be pulled
+     * through {@link Metrics#snapshot()} or pushed to a listener.
+     * @return The {@link Metrics}.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return The {@link P2pFramework} peers are discovered and connected through.
+     */
+    public P2pFramework getFramework() {
+        return framework;
+    }
+
+    /**
+     * Will request both the {@link P2pConnectionInfo} and {@link P2pGroup} from the framework.
+     */
+    protected void requestWifiP2pInfo(final ConnectionAndGroupInfoAvailableListener listener) {
+        framework.requestConnectionInfo(new ConnectionInfoListener() {
+            @Override
+            public void onConnectionInfoAvailable(final P2pConnectionInfo p2pInfo) {
+                Log.d(TAG, "Succeeded to retrieve connection information.");
+                framework.requestGroupInfo(new GroupInfoListener() {
+                    @Override
+                    public void onGroupInfoAvailable(final P2pGroup p2pGroup) {
+                        Log.d(TAG, "Succeeded to retrieve group information.");
+                        listener.onConnectionAndGroupInfoAvailable(p2pInfo, p2pGroup);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * This method will attempt to both remove the current {@link P2pGroup} and forget it's
+     * persistence.
+     *
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    protected void removeGroup(final ResultCallback callback) {
+        framework.requestGroupInfo(new GroupInfoListener() {
+            @Override
+            public void onGroupInfoAvailable(final P2pGroup group) {
+                if(group != null) {
+                    framework.removeGroup(new ActionListener() {
+                        @Override
+                        public void onSuccess() {
+                            Log.d(TAG, "Succeeded to remove group.");
+                            framework.deletePersistentGroup(group, new ActionListener() {
+                                @Override
+                                public void onSuccess() {
+                                    Log.d(TAG, "Succeeded to delete persistent group.");
+                                    callback.onSuccess();
+                                }
+
+                                @Override
+                                public void onFailure(int reason) {
+                                    Log.d(TAG, "Failed to delete persistent group.");
+                                    callback.onFailure();
+                                }
+                            });
+                        }
+
+                        @Override
+                        public void onFailure(int reason) {
+                            Log.d(TAG, "Failed to remove group.");
+                            callback.onFailure();
+                        }
+                    });
+                } else {
+                    Log.d(TAG, "Succeeded to confirm no group exists.");
+                    callback.onSuccess();
+                }
+            }
+        });
+    }
+
+    /**
+     * Invoked on the main thread once a burst of peer changes has been coalesced, with the peers
+     * which have come or gone since the previous burst.
+     * @param added The peers which have come within range.
+     * @param removed The peers which have gone out of range.
+     */
+    protected void onPeersChanged(Set<P2pDevice> added, Set<P2pDevice> removed) {
+    }
+
+    /**
+     * Invoked by the framework whenever this device changes.
+     * @param thisDevice This device.
+     */
+    protected void onThisDeviceChanged(P2pDevice thisDevice) {
+        this.thisDevice = thisDevice;
+        thisDeviceInfo.setMacAddress(thisDevice.getDeviceAddress());
+    }
+
+    public void cleanUp() {
+        Log.d(TAG, "Attempting to clean up resources.");
+        framework.close();
+        metrics.setListener(null, 0);
+        objectReceiver.stop();
+        objectTransmitter.close();
+
+        // Transfers already in progress are allowed to complete
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+}
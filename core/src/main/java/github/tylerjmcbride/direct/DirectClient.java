@@ -0,0 +1,765 @@
+package github.tylerjmcbride.direct;
+
+import java.io.File;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import github.tylerjmcbride.direct.callbacks.ConnectionCallback;
+import github.tylerjmcbride.direct.callbacks.PeerDiscoveryCallback;
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.callbacks.SingleResultCallback;
+import github.tylerjmcbride.direct.callbacks.TransferCallback;
+import github.tylerjmcbride.direct.discovery.DiscoveredHost;
+import github.tylerjmcbride.direct.discovery.HostCache;
+import github.tylerjmcbride.direct.executors.AdaptiveScheduler;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.p2p.P2pConnectionInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.p2p.P2pFramework;
+import github.tylerjmcbride.direct.p2p.P2pGroup;
+import github.tylerjmcbride.direct.p2p.listeners.ActionListener;
+import github.tylerjmcbride.direct.p2p.listeners.ConnectionAndGroupInfoAvailableListener;
+import github.tylerjmcbride.direct.p2p.listeners.P2pEventListener;
+import github.tylerjmcbride.direct.p2p.listeners.TxtRecordListener;
+import github.tylerjmcbride.direct.registration.ClientRegistrar;
+import github.tylerjmcbride.direct.registration.listeners.RegisteredWithServerListener;
+import github.tylerjmcbride.direct.registration.listeners.UnregisteredWithServerListener;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.RelayCallback;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.requests.PendingResponse;
+
+/**
+ * The {@link DirectClient} discovers hosts offering the service, connects and registers with
+ * one of said hosts.
+ */
+public class DirectClient extends Direct {
+
+    /**
+     * The client should never become the group owner, as the host serves every client.
+     */
+    private static final int GROUP_OWNER_INTENT = 0;
+
+    /**
+     * Service discovery is restarted at the minimum interval a few times once started, then ever
+     * less often whilst the nearby hosts remain the same. The maximum interval is kept well below
+     * the {@link HostCache#DEFAULT_TIME_TO_LIVE}, else every nearby host would expire in between.
+     */
+    public static final long DEFAULT_DISCOVERY_MIN_INTERVAL = 2000;
+    public static final long DEFAULT_DISCOVERY_MAX_INTERVAL = 16000;
+    public static final int DEFAULT_DISCOVERY_BURST = 3;
+
+    private ClientRegistrar registrar;
+    private volatile boolean serviceRequested = false;
+    private HostCache nearbyHosts = new HostCache();
+    private AdaptiveScheduler serviceDiscovery;
+    private long discoveryStart = 0;
+
+    private P2pDevice hostDevice = null;
+    private Integer hostRegistrarPort = null;
+    private WifiP2pDeviceInfo hostDeviceInfo = null;
+    private Set<String> topics = new HashSet<>();
+    private long sessionToken = 0;
+    private String sessionHostMacAddress = null;
+
+    private ObjectCallback objectCallback = null;
+    private PeerDiscoveryCallback discoveryCallback = null;
+    private ConnectionCallback connectionCallback = null;
+
+    /**
+     * @param framework The {@link P2pFramework}.
+     * @param mainExecutor The {@link Executor} of the main thread, the framework delivers its
+     *                     callbacks on said thread.
+     * @param service The service type.
+     * @param codec The {@link Codec} used to encode and decode the objects exchanged with the host,
+     *              the host must be constructed with a compatible codec.
+     * @param scheduler The {@link IoScheduler} to perform I/O on, or null to create one.
+     * @param macAddress The MAC address of this device, until announced by the framework.
+     */
+    public DirectClient(P2pFramework framework, Executor mainExecutor, String service, Codec codec, IoScheduler scheduler, String macAddress) {
+        super(framework, mainExecutor, service, codec, scheduler, macAddress);
+        framework.setTxtRecordListener(new ClientTxtRecordListener());
+
+        registrar = new ClientRegistrar(this.scheduler, this, mainExecutor);
+        registrar.setMetrics(metrics);
+        serviceDiscovery = new AdaptiveScheduler(this.scheduler, mainExecutor, new ServiceDiscoveryRunnable(),
+                DEFAULT_DISCOVERY_MIN_INTERVAL, DEFAULT_DISCOVERY_MAX_INTERVAL, DEFAULT_DISCOVERY_BURST);
+        framework.setEventListener(new ClientEventListener());
+    }
+
+    /**
+     * Sends the host the given serializable object.
+     *
+     * @param object The serializable object to send to the host.
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void send(Serializable object, final ResultCallback callback) {
+        if(hostDevice != null && hostDeviceInfo != null) {
+            objectTransmitter.send(object, new InetSocketAddress(hostDeviceInfo.getIpAddress(), hostDeviceInfo.getPort()), callback);
+        } else {
+            callback.onFailure();
+        }
+    }
+
+    /**
+     * Sends another client within the group the given serializable object, relayed by the host.
+     * The host forwards the object as it was received, without decoding it. The callback only
+     * reflects whether the host accepted the object, not whether it reached the client.
+     *
+     * @param clientDevice The client device to receive the given serializable object.
+     * @param object The serializable object to send to the respective client.
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void send(P2pDevice clientDevice, Serializable object, final ResultCallback callback) {
+        if(hostDevice != null && hostDeviceInfo != null && clientDevice != null) {
+            objectTransmitter.relay(object, clientDevice.getDeviceAddress(), thisDeviceInfo.getMacAddress(), new InetSocketAddress(hostDeviceInfo.getIpAddress(), hostDeviceInfo.getPort()), callback);
+        } else {
+            callback.onFailure();
+        }
+    }
+
+    /**
+     * Sets the {@link RelayCallback} receiving the objects sent by other clients, until set said
+     * objects are passed to the {@link ObjectCallback}.
+     *
+     * @param relayCallback The {@link RelayCallback}, or null.
+     */
+    public void setRelayCallback(RelayCallback relayCallback) {
+        objectReceiver.setRelayCallback(relayCallback);
+    }
+
+    /**
+     * Sends the host the given request, whose
+     * {@link github.tylerjmcbride.direct.transceivers.callbacks.Responder} replies with a response.
+     * Many requests may await their responses at once.
+     *
+     * @param request The serializable request to send to the host.
+     * @param timeout The duration in milliseconds to await the response, after which the request fails.
+     * @return The {@link PendingResponse}, which fails immediately should no host be registered with.
+     */
+    public PendingResponse request(Serializable request, long timeout) {
+        if(hostDevice != null && hostDeviceInfo != null) {
+            return objectTransmitter.request(request, new InetSocketAddress(hostDeviceInfo.getIpAddress(), hostDeviceInfo.getPort()), timeout);
+        } else {
+            return objectTransmitter.request(request, null, timeout);
+        }
+    }
+
+    /**
+     * Sends the host the given file, without holding the file in memory.
+     *
+     * @param file The file to send to the host.
+     * @param callback Invoked upon the progress, success or failure of the request.
+     */
+    public void sendFile(File file, final TransferCallback callback) {
+        if(hostDevice != null && hostDeviceInfo != null) {
+            objectTransmitter.sendFile(file, new InetSocketAddress(hostDeviceInfo.getIpAddress(), hostDeviceInfo.getPort()), callback);
+        } else {
+            callback.onFailure();
+        }
+    }
+
+    /**
+     * Subscribes to the given topic, so that the host sends every object published to said topic.
+     * Topics are retained across connections, and subscribed to as part of every registration.
+     *
+     * @param topic The topic to subscribe to.
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void subscribe(String topic, ResultCallback callback) {
+        if(topics.add(topic)) {
+            updateSubscription(Collections.singleton(topic), true, callback);
+        } else {
+            callback.onSuccess();
+        }
+    }
+
+    /**
+     * Unsubscribes from the given topic.
+     *
+     * @param topic The topic to unsubscribe from.
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void unsubscribe(String topic, ResultCallback callback) {
+        if(topics.remove(topic)) {
+            updateSubscription(Collections.singleton(topic), false, callback);
+        } else {
+            callback.onSuccess();
+        }
+    }
+
+    /**
+     * Returns a copy of the topics subscribed to.
+     * @return A copy of the topics subscribed to.
+     */
+    public Set<String> getTopics() {
+        return new HashSet<>(topics);
+    }
+
+    /**
+     * Notifies the host of the given change to the subscriptions, should no host be registered with
+     * the change is instead applied upon the next registration.
+     */
+    private void updateSubscription(Set<String> changed, boolean subscribed, ResultCallback callback) {
+        if(hostDeviceInfo != null && hostRegistrarPort != null) {
+            registrar.subscribe(new InetSocketAddress(hostDeviceInfo.getIpAddress(), hostRegistrarPort), changed, subscribed, callback);
+        } else {
+            callback.onSuccess();
+        }
+    }
+
+    /**
+     * This method will send a new service request to the framework. If successful, this method
+     * will then initiate service discovery. Service discovery is a process that involves scanning
+     * for requested services for the purpose of establishing a connection to a peer that supports
+     * an available service.
+     *
+     * @param discoveryCallback The callback when a new service has been discovered.
+     * @param resultCallback Invoked upon the success or failure of the request.
+     */
+    public void startDiscovery(final PeerDiscoveryCallback discoveryCallback, final ResultCallback resultCallback) {
+        discoveryStart = metrics.start();
+        framework.clearServiceRequests(new ActionListener() {
+            @Override
+            public void onSuccess() {
+                framework.addServiceRequest(new ActionListener() {
+                    @Override
+                    public void onSuccess() {
+                        Log.d(TAG, "Succeeded to add service request.");
+                        serviceRequested = true;
+                        framework.discoverPeers(new ActionListener() {
+                            @Override
+                            public void onSuccess() {
+                                Log.d(TAG, "Succeeded to request peer discovery.");
+                                DirectClient.this.discoveryCallback = discoveryCallback;
+                                framework.discoverServices(new ActionListener() {
+                                    @Override
+                                    public void onSuccess() {
+                                        Log.d(TAG, "Succeeded to start service discovery.");
+                                        serviceDiscovery.start();
+                                        resultCallback.onSuccess();
+                                    }
+
+                                    @Override
+                                    public void onFailure(int reason) {
+                                        Log.d(TAG, "Failed to start service discovery.");
+                                        resultCallback.onFailure();
+                                    }
+                                });
+                            }
+
+                            @Override
+                            public void onFailure(int reason) {
+                                Log.d(TAG, "Failed to request peer discovery.");
+                                resultCallback.onFailure();
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onFailure(int reason) {
+                        Log.d(TAG, "Failed to add service request.");
+                        resultCallback.onFailure();
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(int reason) {
+                Log.d(TAG, "Failed to clear local services.");
+                resultCallback.onFailure();
+            }
+        });
+    }
+
+    /**
+     * This method will remove the service request created in {@link DirectClient#startDiscovery(PeerDiscoveryCallback, ResultCallback)},
+     * effectively ceasing service discovery. Note that {@link DirectClient#nearbyHosts} will be
+     * cleared.
+     *
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void stopDiscovery(final ResultCallback callback) {
+        framework.clearServiceRequests(new ActionListener() {
+            @Override
+            public void onSuccess() {
+                Log.d(TAG, "Succeeded to clear service requests.");
+                framework.stopPeerDiscovery(new ActionListener() {
+                    @Override
+                    public void onSuccess() {
+                        Log.d(TAG, "Succeeded to request to stop peer discovery.");
+                        callback.onSuccess();
+                    }
+
+                    @Override
+                    public void onFailure(int reason) {
+                        Log.d(TAG, "Failed to stop peer discovery.");
+                        callback.onFailure();
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(int reason) {
+                Log.d(TAG, "Failed to clear service requests.");
+                callback.onFailure();
+            }
+        });
+    }
+
+    /**
+     * Connects to the specified host {@link P2pDevice}. If a connection exists prior to calling this method,
+     * this method will terminate said connection.
+     *
+     * @param hostDevice The specified host {@link P2pDevice}.
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void connect(final P2pDevice hostDevice, final ObjectCallback dataCallback, final ConnectionCallback connectionCallback, final ResultCallback callback) {
+        DiscoveredHost discoveredHost = hostDevice != null ? nearbyHosts.get(hostDevice.getDeviceAddress()) : null;
+        if(discoveredHost != null) {
+            this.hostRegistrarPort = discoveredHost.getRegistrarPort();
+            this.objectCallback = dataCallback;
+            this.connectionCallback = connectionCallback;
+
+            // Attempt to terminate previous connection
+            removeGroup(new SingleResultCallback() {
+                @Override
+                public void onSuccessOrFailure() {
+                    framework.connect(hostDevice.getDeviceAddress(), GROUP_OWNER_INTENT, new ActionListener() {
+                        @Override
+                        public void onSuccess() {
+                            Log.d(TAG, String.format("Succeeded to request connection with %s.", hostDevice.getDeviceAddress()));
+                            callback.onSuccess();
+                        }
+
+                        @Override
+                        public void onFailure(int reason) {
+                            Log.d(TAG, String.format("Failed to request connection with %s.", hostDevice.getDeviceAddress()));
+                            callback.onFailure();
+                        }
+                    });
+                }
+            });
+        } else {
+            Log.d(TAG, "Failed to request connection, the device is either null or out of range.");
+            callback.onFailure();
+        }
+    }
+
+    /**
+     * If a connection to a host exists, this method will disconnect the device from said host.
+     *
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void disconnect(final ResultCallback callback) {
+        // The session ends with an explicit disconnect, it is not to be resumed
+        sessionToken = 0;
+        sessionHostMacAddress = null;
+
+        // Must unregister itself with the host before removing the {@link P2pGroup}
+        if(hostDevice != null && hostDeviceInfo != null && hostRegistrarPort != null) {
+            final String hostMacAddress = hostDevice.getDeviceAddress();
+            final InetSocketAddress hostAddress = new InetSocketAddress(hostDeviceInfo.getIpAddress(), hostRegistrarPort);
+
+            registrar.unregister(hostAddress, new UnregisteredWithServerListener() {
+                @Override
+                public void onSuccess() {
+                    Log.d(TAG, String.format("Succeeded to unregister with %s.", hostMacAddress));
+                    removeGroup(callback);
+                }
+
+                @Override
+                public void onFailure() {
+                    Log.d(TAG, String.format("Failed to unregister with %s.", hostMacAddress));
+                    removeGroup(callback);
+                }
+            });
+        } else {
+            removeGroup(callback);
+        }
+    }
+
+    /**
+     * Sends the host any change made to the topics whilst the registration was underway.
+     *
+     * @param registeredTopics The topics subscribed to as part of the registration.
+     */
+    private void synchronizeTopics(Set<String> registeredTopics) {
+        Set<String> added = new HashSet<>(topics);
+        added.removeAll(registeredTopics);
+        Set<String> removed = new HashSet<>(registeredTopics);
+        removed.removeAll(topics);
+
+        ResultCallback callback = new ResultCallback() {
+            @Override
+            public void onSuccess() {
+            }
+
+            @Override
+            public void onFailure() {
+                Log.d(TAG, "Failed to synchronize topics with host.");
+            }
+        };
+        if(!added.isEmpty()) {
+            updateSubscription(added, true, callback);
+        }
+        if(!removed.isEmpty()) {
+            updateSubscription(removed, false, callback);
+        }
+    }
+
+    /**
+     * Prunes every nearby host which has gone out of range, and restarts service discovery more
+     * often again as the nearby hosts may have changed.
+     */
+    @Override
+    protected void onPeersChanged(Set<P2pDevice> added, Set<P2pDevice> removed) {
+        serviceDiscovery.reset();
+        List<DiscoveredHost> lostHosts = new ArrayList<>();
+        for(P2pDevice peer : removed) {
+            DiscoveredHost lostHost = nearbyHosts.remove(peer.getDeviceAddress());
+            if(lostHost != null) {
+                lostHosts.add(lostHost);
+            }
+        }
+        onHostsLost(lostHosts);
+    }
+
+    /**
+     * Prunes every nearby host which has not been seen for longer than its time to live.
+     */
+    private void expireLostHosts() {
+        onHostsLost(nearbyHosts.expire());
+    }
+
+    private void onHostsLost(List<DiscoveredHost> lostHosts) {
+        if(!lostHosts.isEmpty()) {
+            serviceDiscovery.reset();
+        }
+
+        for(DiscoveredHost lostHost : lostHosts) {
+            final P2pDevice host = lostHost.getDevice();
+            Log.d(TAG, "Host " + host.getDeviceAddress() + " is no longer available.");
+
+            if(discoveryCallback != null) {
+                final PeerDiscoveryCallback discoveryCallback = DirectClient.this.discoveryCallback;
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        discoveryCallback.onLost(host);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Cleans the resources, this method should be called after a disconnection with the
+     * host device.
+     */
+    private void onClientDisconnected() {
+        if(connectionCallback != null) {
+            connectionCallback.onDisconnected();
+        }
+
+        hostDevice = null;
+        hostDeviceInfo = null;
+        hostRegistrarPort = null;
+        objectCallback = null;
+        connectionCallback = null;
+        objectReceiver.stop();
+        objectTransmitter.disconnectAll();
+    }
+
+    /**
+     * Returns a copy of the list of nearby host {@link P2pDevice}s.
+     * @return A copy of the list of nearby host {@link P2pDevice}s.
+     */
+    public List<P2pDevice> getNearbyHosts() {
+        List<P2pDevice> devices = new ArrayList<>();
+        for(DiscoveredHost host : nearbyHosts.getHosts()) {
+            devices.add(host.getDevice());
+        }
+        return devices;
+    }
+
+    /**
+     * Returns the {@link DiscoveredHost} of the respective nearby host, holding the contents of
+     * the TXT record it advertises.
+     * @param hostDevice The host {@link P2pDevice}.
+     * @return The {@link DiscoveredHost}, or null if the host is not nearby.
+     */
+    public DiscoveredHost getDiscoveredHost(P2pDevice hostDevice) {
+        return hostDevice != null ? nearbyHosts.get(hostDevice.getDeviceAddress()) : null;
+    }
+
+    /**
+     * Sets the duration a nearby host is retained once last seen advertising the service, defaults
+     * to {@link HostCache#DEFAULT_TIME_TO_LIVE}.
+     * @param timeToLive The duration in milliseconds.
+     */
+    public void setHostTimeToLive(long timeToLive) {
+        nearbyHosts.setTimeToLive(timeToLive);
+    }
+
+    /**
+     * Sets the intervals service discovery is restarted at, defaults to
+     * {@link DirectClient#DEFAULT_DISCOVERY_MIN_INTERVAL}, {@link DirectClient#DEFAULT_DISCOVERY_MAX_INTERVAL}
+     * and {@link DirectClient#DEFAULT_DISCOVERY_BURST}. The maximum interval should remain below
+     * the host time to live.
+     * @param minInterval The interval in milliseconds once started, or once the nearby hosts change.
+     * @param maxInterval The interval in milliseconds the backoff is capped at.
+     * @param burst The number of restarts at the minimum interval before backing off.
+     */
+    public void setDiscoveryIntervals(long minInterval, long maxInterval, int burst) {
+        serviceDiscovery.setIntervals(minInterval, maxInterval, burst);
+    }
+
+    /**
+     * Returns the current host device.
+     * @return The current host {@link P2pDevice}, or null if not connected.
+     */
+    public P2pDevice getHostDevice() {
+        return hostDevice;
+    }
+
+    /**
+     * Cleans up the resources used by this class.
+     */
+    @Override
+    public void cleanUp() {
+        serviceDiscovery.stop();
+        super.cleanUp();
+        framework.removeGroup(null);
+    }
+
+    /**
+     * Records every nearby host offering the service.
+     */
+    class ClientTxtRecordListener implements TxtRecordListener {
+
+        /**
+         * @return The {@link DiscoveredHost} advertising the given record, or null if the record
+         * lacks the proper tags.
+         */
+        private DiscoveredHost parseRecord(Map<String, String> record, P2pDevice device) {
+            if(!record.containsKey(INSTANCE_NAME_TAG) || !record.containsKey(REGISTRAR_PORT_TAG)) {
+                return null;
+            }
+
+            int registrarPort;
+            try {
+                registrarPort = Integer.parseInt(record.get(REGISTRAR_PORT_TAG));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+
+            Map<String, String> attributes = new HashMap<>(record);
+            attributes.remove(SERVICE_NAME_TAG);
+            attributes.remove(INSTANCE_NAME_TAG);
+            attributes.remove(REGISTRAR_PORT_TAG);
+            return new DiscoveredHost(device, record.get(INSTANCE_NAME_TAG), registrarPort, attributes, System.currentTimeMillis());
+        }
+
+        @Override
+        public void onTxtRecordAvailable(String fullDomain, Map<String, String> record, P2pDevice device) {
+            if(device != null && record != null && record.containsKey(SERVICE_NAME_TAG) && record.get(SERVICE_NAME_TAG).equals(service)) {
+                Log.d(TAG, "Succeeded to retrieve " + device.getDeviceAddress() + " txt record.");
+
+                // Ensure the device contains the proper tags
+                DiscoveredHost host = parseRecord(record, device);
+                if(host != null) {
+                    Log.d(TAG, "Succeeded to ensure " + device.getDeviceAddress() + " contains the proper tags.");
+
+                    // Only hosts which are new or have changed their record are reported
+                    if(nearbyHosts.put(host)) {
+                        serviceDiscovery.reset();
+                        if(discoveryStart != 0) {
+                            metrics.onDiscovered(discoveryStart);
+                            discoveryStart = 0;
+                        }
+
+                        if(discoveryCallback != null) {
+                            discoveryCallback.onDiscovered(device);
+                        }
+                    }
+                } else {
+                    Log.d(TAG, "Failed to ensure " + device.getDeviceAddress() + " contains the proper tags.");
+                }
+            }
+        }
+    }
+
+    class ClientEventListener implements P2pEventListener {
+
+        @Override
+        public void onConnectionChanged(boolean isConnected, boolean isAvailable) {
+            if(isConnected) {
+                onConnected();
+            } else {
+                onDisconnected();
+            }
+        }
+
+        private void onConnected() {
+            // Only need to register once, the host registration port is required to register
+            if (hostDevice == null && hostRegistrarPort != null) {
+                Log.d(TAG, "Succeeded to connect to host.");
+                registerWithHost();
+            }
+        }
+
+        private void onDisconnected() {
+            Log.d(TAG, "Succeeded to confirm this device is not connected to a host.");
+            onClientDisconnected();
+        }
+
+        private void registerWithHost() {
+            requestWifiP2pInfo(new ConnectionAndGroupInfoAvailableListener() {
+                @Override
+                public void onConnectionAndGroupInfoAvailable(P2pConnectionInfo p2pInfo, P2pGroup p2pGroup) {
+                    final InetSocketAddress hostAddress = new InetSocketAddress(p2pInfo.getGroupOwnerAddress().getHostAddress(), hostRegistrarPort);
+                    hostDevice = p2pGroup.getOwner();
+
+                    objectReceiver.start(objectCallback, new ServerSocketInitializationListener() {
+                        @Override
+                        public void onSuccess(ServerSocket serverSocket) {
+                            Log.d(TAG, String.format("Succeeded to start object receiver on port %d.", serverSocket.getLocalPort()));
+                            thisDeviceInfo.setPort(serverSocket.getLocalPort());
+
+                            final Set<String> registeredTopics = new HashSet<>(topics);
+                            // The session is only resumable with the host which issued the token
+                            long token = hostDevice.getDeviceAddress().equals(sessionHostMacAddress) ? sessionToken : 0;
+                            registrar.register(hostAddress, registeredTopics, token, new RegisteredWithServerListener() {
+                                @Override
+                                public void onSuccess(WifiP2pDeviceInfo info, long issuedToken) {
+                                    Log.d(TAG, "Succeeded to register with " + info.getMacAddress() + ".");
+                                    hostDeviceInfo = info;
+                                    sessionToken = issuedToken;
+                                    sessionHostMacAddress = info.getMacAddress();
+                                    synchronizeTopics(registeredTopics);
+
+                                    if(connectionCallback != null) {
+                                        connectionCallback.onConnected();
+                                    }
+                                }
+
+                                @Override
+                                public void onFailure() {
+                                    Log.d(TAG, "Failed to register with host.");
+                                    objectReceiver.stop();
+                                    if(connectionCallback != null) {
+                                        connectionCallback.onDisconnected();
+                                    }
+                                }
+                            });
+                        }
+
+                        @Override
+                        public void onFailure() {
+                            Log.d(TAG, "Failed to start data receiver.");
+                            if(connectionCallback != null) {
+                                connectionCallback.onDisconnected();
+                            }
+                        }
+                    });
+                }
+            });
+        }
+
+        @Override
+        public void onAvailablePeersChanged() {
+            peerTracker.onAvailablePeersChanged();
+        }
+
+        @Override
+        public void onWifiP2pEnabled() {
+            Log.d(TAG, "Succeeded to confirm Wi-Fi P2P availability.");
+        }
+
+        @Override
+        public void onWifiP2pDisabled() {
+            Log.d(TAG, "Failed to confirm Wi-Fi P2P availability.");
+            onClientDisconnected();
+        }
+
+        @Override
+        public void onPeerDiscoveryStarted() {
+            Log.d(TAG, "Succeeded to start peer discovery.");
+        }
+
+        @Override
+        public void onPeerDiscoveryStopped() {
+            Log.d(TAG, "Succeeded to stop peer discovery.");
+            serviceDiscovery.stop();
+            serviceRequested = false;
+            discoveryStart = 0;
+            discoveryCallback = null;
+            nearbyHosts.clear();
+        }
+
+        @Override
+        public void onThisDeviceChanged(P2pDevice thisDevice) {
+            DirectClient.this.onThisDeviceChanged(thisDevice);
+        }
+    }
+
+    /**
+     * Restarts service discovery, run on the main thread by the {@link AdaptiveScheduler} until
+     * discovery is stopped.
+     */
+    class ServiceDiscoveryRunnable implements Runnable {
+
+        @Override
+        public void run() {
+            if(!serviceRequested) {
+                return;
+            }
+
+            framework.removeServiceRequest(new ActionListener() {
+                @Override
+                public void onSuccess() {
+                    framework.addServiceRequest(new ActionListener() {
+                        @Override
+                        public void onSuccess() {
+                            framework.discoverServices(new ActionListener() {
+                                @Override
+                                public void onSuccess() {
+                                    Log.d(TAG, "Succeeded to restart service discovery.");
+                                    expireLostHosts();
+                                }
+
+                                @Override
+                                public void onFailure(int reason) {
+                                    Log.d(TAG, "Failed to restart service discovery.");
+                                }
+                            });
+                        }
+
+                        @Override
+                        public void onFailure(int reason) {
+                            Log.d(TAG, "Failed to restart service discovery.");
+                        }
+                    });
+                }
+
+                @Override
+                public void onFailure(int reason) {
+                    Log.d(TAG, "Failed to restart service discovery.");
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,784 @@
+package github.tylerjmcbride.direct;
+
+import java.io.File;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import github.tylerjmcbride.direct.callbacks.PeerBroadcastCallback;
+import github.tylerjmcbride.direct.callbacks.PeerConnectionCallback;
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.callbacks.ServiceCallback;
+import github.tylerjmcbride.direct.callbacks.SingleResultCallback;
+import github.tylerjmcbride.direct.callbacks.TransferCallback;
+import github.tylerjmcbride.direct.executors.AdaptiveScheduler;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.liveness.HeartbeatMonitor;
+import github.tylerjmcbride.direct.liveness.listeners.LivenessListener;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.p2p.P2pConnectionInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.p2p.P2pFramework;
+import github.tylerjmcbride.direct.p2p.P2pGroup;
+import github.tylerjmcbride.direct.p2p.listeners.ActionListener;
+import github.tylerjmcbride.direct.p2p.listeners.ConnectionAndGroupInfoAvailableListener;
+import github.tylerjmcbride.direct.p2p.listeners.P2pEventListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerListListener;
+import github.tylerjmcbride.direct.registration.ClientRegistry;
+import github.tylerjmcbride.direct.registration.HostRegistrar;
+import github.tylerjmcbride.direct.registration.ClientSession;
+import github.tylerjmcbride.direct.registration.RegisteredClient;
+import github.tylerjmcbride.direct.registration.SessionStore;
+import github.tylerjmcbride.direct.registration.listeners.ClientRegistryListener;
+import github.tylerjmcbride.direct.registration.listeners.HandshakeListener;
+import github.tylerjmcbride.direct.registration.listeners.SubscriptionListener;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.topics.TopicIndex;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.relay.RelayRouter;
+import github.tylerjmcbride.direct.transceivers.requests.PendingResponse;
+
+/**
+ * The {@link DirectHost} advertises the service and accepts the registration of clients.
+ */
+public class DirectHost extends Direct {
+
+    /**
+     * The service is advertised at the minimum interval for a while once started, then ever less
+     * often whilst no peers come and go. The maximum interval is kept below the time to live
+     * clients retain a host for once last seen.
+     */
+    public static final long DEFAULT_ADVERTISING_MIN_INTERVAL = 5000;
+    public static final long DEFAULT_ADVERTISING_MAX_INTERVAL = 20000;
+    public static final int DEFAULT_ADVERTISING_BURST = 6;
+
+    private HostRegistrar registrar;
+    private Map<String, String> record = new HashMap<>();
+    private AdaptiveScheduler serviceAdvertising;
+    private volatile boolean serviceAdvertised = false;
+    private volatile int maxClients = 0;
+
+    private PeerConnectionCallback clientCallback;
+    private ServiceCallback serviceCallback;
+
+    private ClientRegistry clients = new ClientRegistry();
+    private TopicIndex topics = new TopicIndex();
+    private SessionStore sessions = new SessionStore();
+    private HeartbeatMonitor heartbeats;
+
+    /**
+     * @param framework The {@link P2pFramework}.
+     * @param mainExecutor The {@link Executor} of the main thread, the framework delivers its
+     *                     callbacks on said thread.
+     * @param service The service type.
+     * @param instance The instance name advertised to clients.
+     * @param codec The {@link Codec} used to encode and decode the objects exchanged with clients,
+     *              clients must be constructed with a compatible codec.
+     * @param scheduler The {@link IoScheduler} to perform I/O on, or null to create one.
+     * @param macAddress The MAC address of this device, until announced by the framework.
+     */
+    public DirectHost(P2pFramework framework, Executor mainExecutor, String service, String instance, Codec codec, IoScheduler scheduler, String macAddress) {
+        super(framework, mainExecutor, service, codec, scheduler, macAddress);
+        record.put(SERVICE_NAME_TAG, service);
+        record.put(INSTANCE_NAME_TAG, instance);
+
+        registrar = new HostRegistrar(this.scheduler, this, mainExecutor, new HostHandShakeListener());
+        registrar.setSubscriptionListener(new HostSubscriptionListener());
+        registrar.setSessionStore(sessions);
+        objectReceiver.setRelayRouter(new HostRelayRouter());
+        serviceAdvertising = new AdaptiveScheduler(this.scheduler, mainExecutor, new ServiceAdvertisingRunnable(),
+                DEFAULT_ADVERTISING_MIN_INTERVAL, DEFAULT_ADVERTISING_MAX_INTERVAL, DEFAULT_ADVERTISING_BURST);
+        clients.addListener(new HostRegistryListener());
+        heartbeats = new HeartbeatMonitor(this.scheduler, objectTransmitter, clients, mainExecutor, new HostLivenessListener());
+        clients.addListener(heartbeats);
+        framework.setEventListener(new HostEventListener());
+    }
+
+    /**
+     * Sends the respective client the given serializable object. Should the link to the client
+     * have been lost recently, the object is queued until the client resumes its session.
+     *
+     * @param clientDevice The client device to receive the given serializable object.
+     * @param object The serializable object to send to the respective client.
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void send(P2pDevice clientDevice, Serializable object, final ResultCallback callback) {
+        RegisteredClient client = getClient(clientDevice);
+        if(client != null) {
+            objectTransmitter.send(object, client.getAddress(), callback);
+        } else if(clientDevice != null && sessions.enqueue(clientDevice.getDeviceAddress(), object, callback)) {
+            Log.d(TAG, String.format("Queued data until %s resumes its session.", clientDevice.getDeviceAddress()));
+        } else {
+            // We failed to find respective client device
+            callback.onFailure();
+        }
+    }
+
+    /**
+     * Sends the respective client the given request, whose
+     * {@link github.tylerjmcbride.direct.transceivers.callbacks.Responder} replies with a response.
+     * Many requests may await their responses at once.
+     *
+     * @param clientDevice The client device to receive the given request.
+     * @param request The serializable request to send to the respective client.
+     * @param timeout The duration in milliseconds to await the response, after which the request fails.
+     * @return The {@link PendingResponse}, which fails immediately should the client be unknown.
+     */
+    public PendingResponse request(P2pDevice clientDevice, Serializable request, long timeout) {
+        RegisteredClient client = getClient(clientDevice);
+
+        // Fails immediately should we fail to find respective client device
+        return objectTransmitter.request(request, client != null ? client.getAddress() : null, timeout);
+    }
+
+    /**
+     * Sends the respective client the given file, without holding the file in memory.
+     *
+     * @param clientDevice The client device to receive the given file.
+     * @param file The file to send to the respective client.
+     * @param callback Invoked upon the progress, success or failure of the request.
+     */
+    public void sendFile(P2pDevice clientDevice, File file, final TransferCallback callback) {
+        RegisteredClient client = getClient(clientDevice);
+        if(client != null) {
+            objectTransmitter.sendFile(file, client.getAddress(), callback);
+        } else {
+            // We failed to find respective client device
+            callback.onFailure();
+        }
+    }
+
+    /**
+     * Sends every registered client the given serializable object. The object is serialized only
+     * once, regardless of the number of clients, and written to every client in parallel.
+     *
+     * @param object The serializable object to send to every client.
+     * @param callback Invoked upon the success or failure of the request for every client.
+     */
+    public void broadcast(Serializable object, final PeerBroadcastCallback callback) {
+        broadcast(object, null, callback);
+    }
+
+    /**
+     * Sends every client subscribed to the given topic the given serializable object. The object
+     * is serialized only once, regardless of the number of subscribers, and clients which are not
+     * subscribed to the topic are never sent the object.
+     *
+     * @param topic The topic to publish to.
+     * @param object The serializable object to send to every subscriber.
+     * @param callback Invoked upon the success or failure of the request for every subscriber.
+     */
+    public void publish(String topic, Serializable object, final PeerBroadcastCallback callback) {
+        Set<String> subscribers = topics.getSubscribers(topic);
+        if(!subscribers.isEmpty()) {
+            broadcast(object, subscribers, callback);
+        }
+    }
+
+    /**
+     * Returns the topics the respective client is subscribed to.
+     *
+     * @param clientDevice The client device.
+     * @return A copy of the topics the respective client is subscribed to.
+     */
+    public Set<String> getTopics(P2pDevice clientDevice) {
+        return topics.getTopics(clientDevice.getDeviceAddress());
+    }
+
+    /**
+     * Sends the given serializable object to every registered client whose MAC address is amongst
+     * the given MAC addresses, or to every registered client if null.
+     */
+    private void broadcast(Serializable object, Set<String> macAddresses, final PeerBroadcastCallback callback) {
+        Map<InetSocketAddress, ResultCallback> recipients = new HashMap<>();
+        for(RegisteredClient client : clients.getClients()) {
+            final P2pDevice clientDevice = client.getDevice();
+            if(macAddresses != null && !macAddresses.contains(client.getMacAddress())) {
+                continue;
+            }
+
+            recipients.put(client.getAddress(), new ResultCallback() {
+                @Override
+                public void onSuccess() {
+                    callback.onSuccess(clientDevice);
+                }
+
+                @Override
+                public void onFailure() {
+                    callback.onFailure(clientDevice);
+                }
+            });
+        }
+
+        if(!recipients.isEmpty()) {
+            objectTransmitter.broadcast(object, recipients);
+        }
+    }
+
+    /**
+     * Registers the local service for service discovery effectively starting the service; however,
+     * this is only a request to add said local service, the service will not officially be added
+     * until the framework has been notified.
+     *
+     * @param dataCallback Invoked when receiving data from a client.
+     * @param clientCallback Invoked when a client either connects or disconnects.
+     * @param serviceCallback Invoked when the service has officially stopped.
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void startService(final ObjectCallback dataCallback, final PeerConnectionCallback clientCallback, final ServiceCallback serviceCallback, final ResultCallback callback) {
+        // Clear any previously existing service
+        stopService(new SingleResultCallback() {
+            @Override
+            public void onSuccessOrFailure() {
+                objectReceiver.start(dataCallback, new ServerSocketInitializationListener() {
+                    @Override
+                    public void onSuccess(ServerSocket serverSocket) {
+                        Log.d(TAG, String.format("Succeeded to start object receiver on port %d.", serverSocket.getLocalPort()));
+                        thisDeviceInfo.setPort(serverSocket.getLocalPort());
+
+                        registrar.start(new ServerSocketInitializationListener() {
+                            @Override
+                            public void onSuccess(final ServerSocket serverSocket) {
+                                Log.d(TAG, String.format("Succeeded to start registrar on port %d.", serverSocket.getLocalPort()));
+
+                                // Reinitialize the service information to reflect the new registration port
+                                record.put(REGISTRAR_PORT_TAG, Integer.toString(serverSocket.getLocalPort()));
+
+                                framework.addLocalService(thisDevice.getDeviceAddress(), SERVICE_TYPE, record, new ActionListener() {
+                                    @Override
+                                    public void onSuccess() {
+                                        Log.d(TAG, "Succeeded to add local service.");
+                                        DirectHost.this.clientCallback = clientCallback;
+                                        DirectHost.this.serviceCallback = serviceCallback;
+                                        serviceAdvertised = true;
+                                        updateServiceAdvertising();
+                                        callback.onSuccess();
+                                    }
+
+                                    @Override
+                                    public void onFailure(int reason) {
+                                        Log.d(TAG, "Failed to add local service.");
+                                        registrar.stop();
+                                        objectReceiver.stop();
+                                        callback.onFailure();
+                                    }
+                                });
+                            }
+
+                            @Override
+                            public void onFailure() {
+                                Log.d(TAG, "Failed to start registrar.");
+                                objectReceiver.stop();
+                                callback.onFailure();
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onFailure() {
+                        Log.d(TAG, "Failed to start object receiver.");
+                        callback.onFailure();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * If a local service exists, this method will remove said service effectively stopping the
+     * service; however, this is only a request to remove said local service, the service will not
+     * officially be removed until the framework has been notified. The {@link ServiceCallback}
+     * will capture this event.
+     *
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void stopService(final ResultCallback callback) {
+        framework.clearLocalServices(new ActionListener() {
+            @Override
+            public void onSuccess() {
+                Log.d(TAG, "Succeeded to clear local services.");
+                onServiceUnavailable();
+                removeGroup(callback);
+            }
+
+            @Override
+            public void onFailure(int reason) {
+                Log.d(TAG, "Failed to clear local services.");
+                callback.onFailure();
+            }
+        });
+    }
+
+    /**
+     * Returns a copy of the list of registered client {@link P2pDevice}s.
+     * @return A copy of the list of registered client {@link P2pDevice}s.
+     */
+    public List<P2pDevice> getRegisteredClients() {
+        List<P2pDevice> devices = new ArrayList<>();
+        for(RegisteredClient client : clients.getClients()) {
+            devices.add(client.getDevice());
+        }
+        return devices;
+    }
+
+    /**
+     * Returns the {@link ClientRegistry} of every registered client, which may be read from any
+     * thread and notifies its listeners of every registration.
+     * @return The {@link ClientRegistry}.
+     */
+    public ClientRegistry getClientRegistry() {
+        return clients;
+    }
+
+    /**
+     * @return The {@link RegisteredClient} of the respective client device, or null if the client
+     * is not registered.
+     */
+    private RegisteredClient getClient(P2pDevice clientDevice) {
+        return clientDevice != null ? clients.get(clientDevice.getDeviceAddress()) : null;
+    }
+
+    /**
+     * Unregisters the respective client, dropping every resource associated with the client. The
+     * session of a lost client is suspended instead, so that the client may resume it.
+     *
+     * @param macAddress The MAC address of the client.
+     * @param lost Whether the link to the client was lost, as opposed to the client unregistering.
+     */
+    private void unregisterClient(String macAddress, boolean lost) {
+        RegisteredClient client = clients.unregister(macAddress);
+        if(client != null && lost && sessions.suspend(client, topics.getTopics(macAddress))) {
+            scheduleSessionExpiry();
+        } else {
+            failQueued(sessions.close(macAddress));
+        }
+        topics.remove(macAddress);
+
+        if(client != null && clientCallback != null) {
+            clientCallback.onDisconnected(client.getDevice());
+        }
+    }
+
+    /**
+     * Closes every suspended session once its grace period has elapsed.
+     */
+    private void scheduleSessionExpiry() {
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    mainExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            for(ClientSession session : sessions.expire()) {
+                                Log.d(TAG, String.format("Session of %s has expired.", session.getMacAddress()));
+                                failQueued(session);
+                            }
+                        }
+                    });
+                }
+            }, sessions.getGracePeriod() + 1);
+        } catch (RejectedExecutionException ex) {
+            Log.e(TAG, "Failed to schedule session expiry, the scheduler has been shut down.");
+        }
+    }
+
+    /**
+     * Fails every object queued for the given session.
+     *
+     * @param session The closed {@link ClientSession}, or null.
+     */
+    private void failQueued(ClientSession session) {
+        if(session != null) {
+            for(ClientSession.QueuedObject queued : sessions.drain(session)) {
+                queued.getCallback().onFailure();
+            }
+        }
+    }
+
+    /**
+     * Sets the duration the session of a client whose link has been lost is retained for, during
+     * which the client may resume its session. Objects sent to the client in the meantime are
+     * queued until then.
+     *
+     * @param gracePeriod The duration in milliseconds, defaults to
+     *                    {@link SessionStore#DEFAULT_GRACE_PERIOD}, 0 never retains a session.
+     */
+    public void setSessionGracePeriod(long gracePeriod) {
+        sessions.setGracePeriod(gracePeriod);
+    }
+
+    /**
+     * Prunes every registered client which has gone out of range, and advertises the service more
+     * often again as peers coming and going may well be clients searching for a host.
+     */
+    @Override
+    protected void onPeersChanged(Set<P2pDevice> added, Set<P2pDevice> removed) {
+        serviceAdvertising.reset();
+        for(P2pDevice peer : removed) {
+            if(clients.get(peer.getDeviceAddress()) != null) {
+                Log.d(TAG, peer.getDeviceAddress() + " has disconnected.");
+                unregisterClient(peer.getDeviceAddress(), true);
+            }
+        }
+    }
+
+    /**
+     * Will compare {@link DirectHost#clients} to the {@link P2pGroup} to ensure that all
+     * registered clients are still within the group.
+     *
+     * @param p2pGroup The respective {@link P2pGroup}.
+     */
+    private void unregisterLostClients(P2pGroup p2pGroup) {
+        unregisterLostClients(p2pGroup.getClientList());
+    }
+
+    /**
+     * Prunes every registered client absent from the given devices.
+     *
+     * @param devices The devices still within range.
+     */
+    private void unregisterLostClients(Collection<P2pDevice> devices) {
+        // Hashed once, rather than searched linearly for every client
+        Set<P2pDevice> remaining = new HashSet<>(devices);
+        for(RegisteredClient client : clients.getClients()) {
+            if(!remaining.contains(client.getDevice())) {
+                Log.d(TAG, client.getMacAddress() + " has disconnected.");
+                unregisterClient(client.getMacAddress(), true);
+            }
+        }
+    }
+
+    /**
+     * Advertises the service whilst it is available and the group has yet to be saturated, ceasing
+     * to advertise once saturated until a client leaves.
+     */
+    private void updateServiceAdvertising() {
+        int maxClients = this.maxClients;
+        if(serviceAdvertised && (maxClients == 0 || clients.size() < maxClients)) {
+            serviceAdvertising.start();
+        } else {
+            serviceAdvertising.stop();
+        }
+    }
+
+    /**
+     * Sets the number of registered clients at which the group is saturated, the service is not
+     * advertised whilst saturated. Clients which have already discovered the host may still register.
+     * @param maxClients The number of clients, or 0 to never saturate, which is the default.
+     */
+    public void setMaxClients(int maxClients) {
+        if(maxClients < 0) {
+            throw new IllegalArgumentException("The number of clients must not be negative.");
+        }
+        this.maxClients = maxClients;
+        updateServiceAdvertising();
+    }
+
+    /**
+     * Sets the intervals the service is advertised at, defaults to
+     * {@link DirectHost#DEFAULT_ADVERTISING_MIN_INTERVAL}, {@link DirectHost#DEFAULT_ADVERTISING_MAX_INTERVAL}
+     * and {@link DirectHost#DEFAULT_ADVERTISING_BURST}.
+     * @param minInterval The interval in milliseconds once started, or once peers come or go.
+     * @param maxInterval The interval in milliseconds the backoff is capped at.
+     * @param burst The number of advertisements at the minimum interval before backing off.
+     */
+    public void setAdvertisingIntervals(long minInterval, long maxInterval, int burst) {
+        serviceAdvertising.setIntervals(minInterval, maxInterval, burst);
+    }
+
+    /**
+     * Sends every registered client a heartbeat at the given interval, a client which misses as
+     * many heartbeats in a row as allowed is unregistered. Heartbeats are disabled by default, in
+     * which case clients are only unregistered once the framework no longer lists them.
+     * @param interval The interval in milliseconds in between heartbeats, or 0 to disable heartbeats.
+     * @param maxMisses The number of heartbeats in a row a client may miss, defaults to
+     *                  {@link HeartbeatMonitor#DEFAULT_MAX_MISSES}.
+     */
+    public void setHeartbeat(long interval, int maxMisses) {
+        heartbeats.setHeartbeat(interval, maxMisses);
+    }
+
+    /**
+     * Returns the round trip time to the respective client, as measured by the heartbeats.
+     * @param clientDevice The client device.
+     * @return The smoothed round trip time in microseconds, or -1 should it be unknown.
+     */
+    public long getRoundTripTime(P2pDevice clientDevice) {
+        return clientDevice != null ? heartbeats.getRoundTripTime(clientDevice.getDeviceAddress()) : -1;
+    }
+
+    /**
+     * @return The number of times the service has been advertised since this host was constructed.
+     */
+    public long getAdvertisingCount() {
+        return serviceAdvertising.getRunCount();
+    }
+
+    /**
+     * The service is no longer available; therefore, resources corresponding to the active service
+     * must be cleared. This method should be called after the service has concluded.
+     */
+    private void onServiceUnavailable() {
+        serviceAdvertised = false;
+        serviceAdvertising.stop();
+
+        if(serviceCallback != null) {
+            serviceCallback.onServiceStopped();
+            serviceCallback = null;
+        }
+
+        clientCallback = null;
+        registrar.stop();
+        objectReceiver.stop();
+        objectTransmitter.disconnectAll();
+        clients.unregisterAll();
+        topics.clear();
+        for(ClientSession session : sessions.closeAll()) {
+            failQueued(session);
+        }
+    }
+
+    @Override
+    public void cleanUp() {
+        serviceAdvertising.stop();
+        heartbeats.stop();
+        registrar.stop();
+        for(ClientSession session : sessions.closeAll()) {
+            failQueued(session);
+        }
+        super.cleanUp();
+        framework.clearLocalServices(null);
+    }
+
+    /**
+     * This listener listens for clients requesting to either register or unregister. This listener
+     * will effectively manage the {@link DirectHost#clients} resource.
+     */
+    class HostHandShakeListener implements HandshakeListener {
+        @Override
+        public void onClientAttemptingToRegister(final WifiP2pDeviceInfo clientInfo, final long sessionToken) {
+            framework.requestPeers(new PeerListListener() {
+                @Override
+                public void onPeersAvailable(Collection<P2pDevice> peers) {
+                    P2pDevice clientDevice = null;
+                    for(P2pDevice peer : peers) {
+                        if(peer.getDeviceAddress().equals(clientInfo.getMacAddress())) {
+                            clientDevice = peer;
+                        }
+                    }
+
+                    if(clientDevice != null) {
+                        Log.d(TAG, String.format("Succeeded to register client %s.", clientInfo.getMacAddress()));
+                        clients.register(clientInfo, clientDevice);
+                        metrics.onRegistration(true, 0);
+                        if(sessionToken != 0) {
+                            // Any session the client failed to resume is superseded
+                            failQueued(sessions.open(clientInfo.getMacAddress(), sessionToken));
+                        }
+
+                        if(clientCallback != null) {
+                            clientCallback.onConnected(clientDevice);
+                        }
+                    } else {
+                        Log.d(TAG, String.format("Failed to register client %s.", clientInfo.getMacAddress()));
+                        topics.remove(clientInfo.getMacAddress());
+                        metrics.onRegistration(false, 0);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Restores the session of a returning client without looking up its device among the
+         * peers, as the device of the suspended session is still known.
+         */
+        @Override
+        public void onClientAttemptingToResume(WifiP2pDeviceInfo clientInfo, long sessionToken, Set<String> subscribed) {
+            String macAddress = clientInfo.getMacAddress();
+            ClientSession session = sessions.resume(macAddress, sessionToken);
+            if(session == null) {
+                // The session expired in the meantime, the client registers anew
+                onClientAttemptingToRegister(clientInfo, sessionToken);
+                if(subscribed != null && !subscribed.isEmpty()) {
+                    topics.subscribe(macAddress, subscribed);
+                }
+                return;
+            }
+
+            Log.d(TAG, String.format("Succeeded to resume session of client %s.", macAddress));
+            P2pDevice clientDevice = session.getClient().getDevice();
+            RegisteredClient client = clients.register(clientInfo, clientDevice, session.getClient().getSessionId());
+            topics.subscribe(macAddress, subscribed != null ? subscribed : session.getTopics());
+            metrics.onRegistration(true, 0);
+
+            for(ClientSession.QueuedObject queued : sessions.drain(session)) {
+                objectTransmitter.send(queued.getObject(), client.getAddress(), queued.getCallback());
+            }
+
+            if(clientCallback != null) {
+                clientCallback.onConnected(clientDevice);
+            }
+        }
+
+        @Override
+        public void onClientAttemptingToUnregister(WifiP2pDeviceInfo clientInfo) {
+            Log.d(TAG, String.format("Succeeded to unregister client %s.", clientInfo.getMacAddress()));
+            unregisterClient(clientInfo.getMacAddress(), false);
+        }
+    }
+
+    /**
+     * This listener listens for clients subscribing to or unsubscribing from topics, either upon
+     * registering or later on. This listener will effectively manage the {@link DirectHost#topics}
+     * resource.
+     */
+    class HostSubscriptionListener implements SubscriptionListener {
+        @Override
+        public void onClientSubscribed(String macAddress, Set<String> subscribed) {
+            Log.d(TAG, String.format("Succeeded to subscribe client %s to %s.", macAddress, subscribed));
+            topics.subscribe(macAddress, subscribed);
+        }
+
+        @Override
+        public void onClientUnsubscribed(String macAddress, Set<String> unsubscribed) {
+            Log.d(TAG, String.format("Succeeded to unsubscribe client %s from %s.", macAddress, unsubscribed));
+            topics.unsubscribe(macAddress, unsubscribed);
+        }
+    }
+
+    /**
+     * This router forwards the data clients send one another to the respective registered client,
+     * as it was received. Data claiming to be relayed from another client than the one registered
+     * from the sender's address is dropped, lest a client impersonate another.
+     */
+    class HostRelayRouter implements RelayRouter {
+        @Override
+        public void onRelay(InetAddress sender, String source, String destination, Frame frame) {
+            RegisteredClient origin = clients.getByIpAddress(sender);
+            if(origin == null || !origin.getMacAddress().equals(source)) {
+                Log.d(TAG, String.format("Failed to relay data, %s is not registered as %s.", sender, source));
+                return;
+            }
+
+            RegisteredClient client = clients.get(destination);
+            if(client != null) {
+                objectTransmitter.forward(frame, client.getAddress());
+            } else {
+                Log.d(TAG, String.format("Failed to relay data, %s is not registered.", destination));
+            }
+        }
+    }
+
+    /**
+     * This listener pauses advertising the service once the group is saturated, and resumes once a
+     * client leaves.
+     */
+    class HostRegistryListener implements ClientRegistryListener {
+        @Override
+        public void onRegistered(RegisteredClient client) {
+            updateServiceAdvertising();
+        }
+
+        @Override
+        public void onUnregistered(RegisteredClient client) {
+            updateServiceAdvertising();
+        }
+    }
+
+    /**
+     * This listener unregisters every client which has stopped answering heartbeats.
+     */
+    class HostLivenessListener implements LivenessListener {
+        @Override
+        public void onClientLost(String macAddress) {
+            if(clients.get(macAddress) != null) {
+                Log.d(TAG, macAddress + " has stopped answering heartbeats.");
+                unregisterClient(macAddress, true);
+            }
+        }
+    }
+
+    class HostEventListener implements P2pEventListener {
+        @Override
+        public void onConnectionChanged(boolean isConnected, boolean isAvailable) {
+            if(isAvailable) {
+                onNetworkConnectivityAvailable();
+            } else {
+                onNetworkConnectivityUnavailable();
+            }
+        }
+
+        private void onNetworkConnectivityAvailable() {
+            requestWifiP2pInfo(new ConnectionAndGroupInfoAvailableListener() {
+                @Override
+                public void onConnectionAndGroupInfoAvailable(P2pConnectionInfo p2pInfo, P2pGroup p2pGroup) {
+                    if(p2pGroup != null) {
+                        unregisterLostClients(p2pGroup);
+                    }
+                }
+            });
+        }
+
+        private void onNetworkConnectivityUnavailable() {
+            Log.d(TAG, "Succeeded to confirm network connectivity is available.");
+            onServiceUnavailable();
+        }
+
+        @Override
+        public void onAvailablePeersChanged() {
+            Log.d(TAG, "Failed to confirm network connectivity is available.");
+            peerTracker.onAvailablePeersChanged();
+        }
+
+        @Override
+        public void onWifiP2pEnabled() {
+            Log.d(TAG, "Succeeded to confirm Wi-Fi P2P availability.");
+        }
+
+        @Override
+        public void onWifiP2pDisabled() {
+            Log.d(TAG, "Failed to confirm Wi-Fi P2P availability.");
+            onServiceUnavailable();
+        }
+
+        @Override
+        public void onPeerDiscoveryStarted() {
+            Log.d(TAG, "Succeeded to confirm peer discovery has started.");
+        }
+
+        @Override
+        public void onPeerDiscoveryStopped() {
+            Log.d(TAG, "Succeeded to confirm peer discovery has stopped.");
+        }
+
+        @Override
+        public void onThisDeviceChanged(P2pDevice thisDevice) {
+            DirectHost.this.onThisDeviceChanged(thisDevice);
+        }
+    }
+
+    /**
+     * Advertises the service by requesting peer discovery, which keeps this device discoverable.
+     * Run on the main thread by the {@link AdaptiveScheduler} whilst the service is advertised.
+     */
+    class ServiceAdvertisingRunnable implements Runnable {
+        @Override
+        public void run() {
+            framework.discoverPeers(null);
+        }
+    }
+}
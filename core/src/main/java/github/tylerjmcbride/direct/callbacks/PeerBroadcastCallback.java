@@ -0,0 +1,11 @@
+package github.tylerjmcbride.direct.callbacks;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+/**
+ * Interface for callback invocation on a broadcast, invoked once for every recipient.
+ */
+public interface PeerBroadcastCallback {
+    void onSuccess(P2pDevice clientDevice);
+    void onFailure(P2pDevice clientDevice);
+}
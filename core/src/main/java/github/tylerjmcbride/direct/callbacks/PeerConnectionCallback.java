@@ -0,0 +1,11 @@
+package github.tylerjmcbride.direct.callbacks;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+/**
+ * Invoked when a client either registers with or unregisters from the host.
+ */
+public interface PeerConnectionCallback {
+    void onConnected(P2pDevice clientDevice);
+    void onDisconnected(P2pDevice clientDevice);
+}
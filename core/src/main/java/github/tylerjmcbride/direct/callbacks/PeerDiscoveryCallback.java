@@ -0,0 +1,11 @@
+package github.tylerjmcbride.direct.callbacks;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+/**
+ * Invoked when a host offering the service is either discovered or lost.
+ */
+public interface PeerDiscoveryCallback {
+    void onDiscovered(P2pDevice hostDevice);
+    void onLost(P2pDevice hostDevice);
+}
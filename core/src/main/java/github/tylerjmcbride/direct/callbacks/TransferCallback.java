@@ -0,0 +1,10 @@
+package github.tylerjmcbride.direct.callbacks;
+
+/**
+ * Interface for callback invocation on a file transfer.
+ */
+public interface TransferCallback {
+    void onProgress(long sent, long length);
+    void onSuccess();
+    void onFailure();
+}
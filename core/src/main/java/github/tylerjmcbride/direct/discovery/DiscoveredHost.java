@@ -0,0 +1,68 @@
+package github.tylerjmcbride.direct.discovery;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+/**
+ * A {@link DiscoveredHost} is a host advertising the service, along with the parsed contents of
+ * the TXT record it was last seen advertising.
+ */
+public class DiscoveredHost {
+
+    private final P2pDevice device;
+    private final String instanceName;
+    private final int registrarPort;
+    private final Map<String, String> attributes;
+    private final long lastSeen;
+
+    public DiscoveredHost(P2pDevice device, String instanceName, int registrarPort, Map<String, String> attributes, long lastSeen) {
+        this.device = device;
+        this.instanceName = instanceName;
+        this.registrarPort = registrarPort;
+        this.attributes = Collections.unmodifiableMap(new HashMap<>(attributes));
+        this.lastSeen = lastSeen;
+    }
+
+    public P2pDevice getDevice() {
+        return device;
+    }
+
+    public String getMacAddress() {
+        return device.getDeviceAddress();
+    }
+
+    public String getInstanceName() {
+        return instanceName;
+    }
+
+    public int getRegistrarPort() {
+        return registrarPort;
+    }
+
+    /**
+     * @return Every entry of the TXT record other than the service name, instance name and
+     * registrar port.
+     */
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return The time in milliseconds at which the TXT record was last received.
+     */
+    public long getLastSeen() {
+        return lastSeen;
+    }
+
+    /**
+     * @return Whether the given host advertises the same TXT record as this host.
+     */
+    boolean hasSameRecord(DiscoveredHost other) {
+        return registrarPort == other.registrarPort
+                && (instanceName == null ? other.instanceName == null : instanceName.equals(other.instanceName))
+                && attributes.equals(other.attributes);
+    }
+}
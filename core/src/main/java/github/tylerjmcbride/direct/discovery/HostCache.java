@@ -0,0 +1,143 @@
+package github.tylerjmcbride.direct.discovery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+/**
+ * The {@link HostCache} holds every {@link DiscoveredHost} keyed by MAC address. A host which has
+ * not been seen advertising for longer than the time to live is treated as absent, and is dropped
+ * by the next call to {@link HostCache#expire()}.
+ */
+public class HostCache {
+
+    public static final long DEFAULT_TIME_TO_LIVE = 30000;
+
+    private final ConcurrentMap<String, DiscoveredHost> hosts = new ConcurrentHashMap<>();
+    private volatile long timeToLive;
+
+    public HostCache() {
+        this(DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param timeToLive The duration in milliseconds a host remains cached once last seen.
+     */
+    public HostCache(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Caches the given host, replacing the host previously seen with the same MAC address.
+     * @param host The {@link DiscoveredHost}.
+     * @return Whether the host is newly discovered or now advertises a different TXT record,
+     * false if the host was merely seen once more.
+     */
+    public boolean put(DiscoveredHost host) {
+        DiscoveredHost previous = hosts.put(host.getMacAddress(), host);
+        return previous == null || isExpired(previous, host.getLastSeen()) || !previous.hasSameRecord(host);
+    }
+
+    /**
+     * @param macAddress The MAC address of the host.
+     * @return The {@link DiscoveredHost}, or null if the host is absent or has expired.
+     */
+    public DiscoveredHost get(String macAddress) {
+        DiscoveredHost host = macAddress != null ? hosts.get(macAddress) : null;
+        return host != null && !isExpired(host, System.currentTimeMillis()) ? host : null;
+    }
+
+    /**
+     * @param device The {@link P2pDevice} of the host.
+     * @return Whether the host is cached and has yet to expire.
+     */
+    public boolean contains(P2pDevice device) {
+        return device != null && get(device.getDeviceAddress()) != null;
+    }
+
+    /**
+     * @return A snapshot of every host which has yet to expire.
+     */
+    public List<DiscoveredHost> getHosts() {
+        long now = System.currentTimeMillis();
+        List<DiscoveredHost> result = new ArrayList<>();
+        for (DiscoveredHost host : hosts.values()) {
+            if (!isExpired(host, now)) {
+                result.add(host);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops every host which has expired.
+     * @return Every {@link DiscoveredHost} dropped.
+     */
+    public List<DiscoveredHost> expire() {
+        long now = System.currentTimeMillis();
+        List<DiscoveredHost> expired = new ArrayList<>();
+        Iterator<DiscoveredHost> iterator = hosts.values().iterator();
+        while (iterator.hasNext()) {
+            DiscoveredHost host = iterator.next();
+            if (isExpired(host, now)) {
+                iterator.remove();
+                expired.add(host);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Drops every host absent from the given devices, as well as every host which has expired.
+     * @param devices The devices still within range.
+     * @return Every {@link DiscoveredHost} dropped.
+     */
+    public List<DiscoveredHost> retainAll(Collection<P2pDevice> devices) {
+        Set<String> remaining = new HashSet<>();
+        for (P2pDevice device : devices) {
+            remaining.add(device.getDeviceAddress());
+        }
+
+        List<DiscoveredHost> dropped = expire();
+        Iterator<DiscoveredHost> iterator = hosts.values().iterator();
+        while (iterator.hasNext()) {
+            DiscoveredHost host = iterator.next();
+            if (!remaining.contains(host.getMacAddress())) {
+                iterator.remove();
+                dropped.add(host);
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * @param macAddress The MAC address of the host.
+     * @return The {@link DiscoveredHost} dropped, or null if the host was not cached.
+     */
+    public DiscoveredHost remove(String macAddress) {
+        return hosts.remove(macAddress);
+    }
+
+    public void clear() {
+        hosts.clear();
+    }
+
+    private boolean isExpired(DiscoveredHost host, long now) {
+        return now - host.getLastSeen() > timeToLive;
+    }
+}
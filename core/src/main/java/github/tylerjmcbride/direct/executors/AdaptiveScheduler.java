@@ -0,0 +1,167 @@
+package github.tylerjmcbride.direct.executors;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.logging.Log;
+
+/**
+ * Runs a task repeatedly with an adaptive interval. Once started, the task runs a burst of times
+ * at the minimum interval, after which the interval doubles on every run until it reaches the
+ * maximum interval. {@link AdaptiveScheduler#reset()} returns to the burst, for whenever whatever
+ * the task observes has changed. The delays are kept by the timer thread of the
+ * {@link IoScheduler}, whereas the task itself runs on the given {@link Executor}.
+ */
+public class AdaptiveScheduler {
+
+    private final IoScheduler scheduler;
+    private final Executor executor;
+    private final Runnable task;
+    private final AtomicLong runs = new AtomicLong();
+
+    private long minInterval;
+    private long maxInterval;
+    private int burst;
+
+    private boolean started = false;
+    private long interval;
+    private int remainingBurst;
+    private long nextRun;
+    private long generation = 0;
+    private ScheduledFuture<?> next;
+
+    /**
+     * @param scheduler The {@link IoScheduler} whose timer thread keeps the delays.
+     * @param executor The {@link Executor} the task runs on.
+     * @param task The task to run.
+     * @param minInterval The interval in milliseconds during the burst.
+     * @param maxInterval The interval in milliseconds the backoff is capped at.
+     * @param burst The number of runs at the minimum interval before backing off.
+     */
+    public AdaptiveScheduler(IoScheduler scheduler, Executor executor, Runnable task, long minInterval, long maxInterval, int burst) {
+        this.scheduler = scheduler;
+        this.executor = executor;
+        this.task = task;
+        setIntervals(minInterval, maxInterval, burst);
+    }
+
+    /**
+     * Sets the intervals, which apply from the next run onwards.
+     * @param minInterval The interval in milliseconds during the burst.
+     * @param maxInterval The interval in milliseconds the backoff is capped at.
+     * @param burst The number of runs at the minimum interval before backing off.
+     */
+    public synchronized void setIntervals(long minInterval, long maxInterval, int burst) {
+        if (minInterval <= 0 || maxInterval < minInterval || burst < 0) {
+            throw new IllegalArgumentException("The intervals must be positive, and the burst must not be negative.");
+        }
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.burst = burst;
+        this.interval = Math.max(minInterval, Math.min(interval, maxInterval));
+    }
+
+    /**
+     * Starts running the task, the first run after the minimum interval. Does nothing if already
+     * started.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        interval = minInterval;
+        remainingBurst = burst;
+        scheduleNext(minInterval);
+    }
+
+    /**
+     * Stops running the task, a run which has already been handed to the {@link Executor} may
+     * nonetheless complete.
+     */
+    public synchronized void stop() {
+        started = false;
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+    }
+
+    /**
+     * Returns to the burst at the minimum interval, bringing the next run forward should it be
+     * further away than the minimum interval. Does nothing if stopped.
+     */
+    public synchronized void reset() {
+        if (!started) {
+            return;
+        }
+        interval = minInterval;
+        remainingBurst = burst;
+        if (next == null || nextRun - System.currentTimeMillis() > minInterval) {
+            if (next != null) {
+                next.cancel(false);
+            }
+            scheduleNext(minInterval);
+        }
+    }
+
+    public synchronized boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * @return The current interval in milliseconds.
+     */
+    public synchronized long getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return The number of times the task has run since constructed.
+     */
+    public long getRunCount() {
+        return runs.get();
+    }
+
+    private void run(long generation) {
+        synchronized (this) {
+            // A run superseded by a reset or a restart is skipped, the cancellation may have been late
+            if (!started || generation != this.generation) {
+                return;
+            }
+
+            if (remainingBurst > 0) {
+                remainingBurst--;
+            } else {
+                interval = Math.min(interval * 2, maxInterval);
+            }
+            scheduleNext(interval);
+        }
+
+        runs.incrementAndGet();
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            Log.e(Log.TAG, String.format("Failed to run scheduled task, %s", ex.getMessage()));
+        }
+    }
+
+    private void scheduleNext(long delay) {
+        final long generation = ++this.generation;
+        try {
+            nextRun = System.currentTimeMillis() + delay;
+            next = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    AdaptiveScheduler.this.run(generation);
+                }
+            }, delay);
+        } catch (RejectedExecutionException ex) {
+            Log.e(Log.TAG, "Failed to schedule task, the scheduler has been shut down.");
+            started = false;
+            next = null;
+        }
+    }
+}
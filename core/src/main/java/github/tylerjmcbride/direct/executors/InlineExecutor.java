@@ -0,0 +1,17 @@
+package github.tylerjmcbride.direct.executors;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The {@link InlineExecutor} runs every task immediately on the submitting {@link Thread}. Used
+ * as the callback executor, callbacks run on the I/O threads and must therefore return quickly.
+ */
+public enum InlineExecutor implements Executor {
+
+    INSTANCE;
+
+    @Override
+    public void execute(Runnable runnable) {
+        runnable.run();
+    }
+}
@@ -0,0 +1,204 @@
+package github.tylerjmcbride.direct.executors;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link IoScheduler} owns every {@link Thread} used for I/O, shared by the transceivers, the
+ * registrars and the server sockets. Blocking work, including the loops serving a server socket,
+ * runs on a bounded pool of named threads which time out when idle, so that starting and stopping
+ * a service never grows the number of threads. Delayed and periodic work runs on a single timer
+ * thread, and must therefore not block. Disk work runs on a single disk thread of its own, so
+ * that a slow disk never holds up, nor is held up by, the network.
+ */
+public class IoScheduler implements Executor {
+
+    public static final int DEFAULT_MAX_THREADS = 16;
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    private static final long KEEP_ALIVE_TIME = 30;
+    private static final AtomicInteger schedulers = new AtomicInteger();
+
+    private final ThreadPoolExecutor pool;
+    private final ScheduledThreadPoolExecutor timer;
+    private final ThreadPoolExecutor disk;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public IoScheduler() {
+        this(DEFAULT_MAX_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param maxThreads The maximum number of threads performing I/O, must accommodate every
+     *                   server socket loop along with the concurrent transfers.
+     * @param queueCapacity The maximum number of tasks waiting for a thread, further tasks are rejected.
+     */
+    public IoScheduler(int maxThreads, int queueCapacity) {
+        String name = String.format("direct-%d", schedulers.incrementAndGet());
+
+        // Core threads are allowed to time out, so every thread is created on demand up to the maximum
+        this.pool = new ThreadPoolExecutor(maxThreads, maxThreads, KEEP_ALIVE_TIME, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(queueCapacity), new NamedThreadFactory(name + "-io"),
+                new RejectedExecutionHandler() {
+                    @Override
+                    public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+                        rejected.incrementAndGet();
+                        throw new RejectedExecutionException(executor.isShutdown() ? "The scheduler has been shut down." : "The scheduler is saturated.");
+                    }
+                });
+        this.pool.allowCoreThreadTimeOut(true);
+
+        this.timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(name + "-timer"));
+        this.timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.timer.setRemoveOnCancelPolicy(true);
+
+        // Disk work is bounded by its submitters, which stop reading once too much awaits the disk
+        this.disk = new ThreadPoolExecutor(1, 1, KEEP_ALIVE_TIME, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory(name + "-disk"));
+        this.disk.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Runs the given task on an I/O thread.
+     * @param runnable The task to run.
+     * @throws RejectedExecutionException If the scheduler is saturated or has been shut down.
+     */
+    @Override
+    public void execute(Runnable runnable) {
+        pool.execute(runnable);
+    }
+
+    /**
+     * Runs the given task on the timer thread once the given delay has elapsed.
+     * @param runnable The task to run, which must not block.
+     * @param delay The delay in milliseconds.
+     * @return The {@link ScheduledFuture} used to cancel the task.
+     */
+    public ScheduledFuture<?> schedule(Runnable runnable, long delay) {
+        return timer.schedule(runnable, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the given task on the timer thread repeatedly, until cancelled.
+     * @param runnable The task to run, which must not block.
+     * @param initialDelay The delay before the first run in milliseconds.
+     * @param delay The delay between the end of a run and the start of the next in milliseconds.
+     * @return The {@link ScheduledFuture} used to cancel the task.
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable runnable, long initialDelay, long delay) {
+        return timer.scheduleWithFixedDelay(runnable, initialDelay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The {@link Executor} running disk work on the disk thread, one task at a time and
+     *         in the order submitted.
+     */
+    public Executor getDiskExecutor() {
+        return disk;
+    }
+
+    /**
+     * @return The {@link ScheduledExecutorService} backing the timer thread.
+     */
+    public ScheduledExecutorService getTimer() {
+        return timer;
+    }
+
+    /**
+     * @return The number of tasks waiting for an I/O thread.
+     */
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * @return The approximate number of I/O threads running a task.
+     */
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    /**
+     * @return The number of I/O threads alive, whether idle or not.
+     */
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+
+    /**
+     * @return The approximate number of tasks which have been run to completion.
+     */
+    public long getCompletedTaskCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    /**
+     * @return The number of tasks rejected as the scheduler was saturated or shut down.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public boolean isShutdown() {
+        return pool.isShutdown();
+    }
+
+    /**
+     * Stops accepting tasks without waiting, the tasks already running or queued are still run.
+     * Delayed and periodic tasks are cancelled. The server sockets must be closed beforehand, as
+     * their loops would otherwise never end.
+     */
+    public void shutdown() {
+        timer.shutdown();
+        pool.shutdown();
+        disk.shutdown();
+    }
+
+    /**
+     * Waits for the tasks still running after {@link IoScheduler#shutdown()} to complete, every
+     * task still running once the timeout has elapsed is interrupted. Must not be invoked on the
+     * main thread.
+     * @param timeout The maximum duration to wait in milliseconds.
+     * @return Whether every task completed within the timeout.
+     * @throws InterruptedException If interrupted whilst waiting.
+     */
+    public boolean awaitTermination(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        if (pool.awaitTermination(timeout, TimeUnit.MILLISECONDS)
+                && disk.awaitTermination(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+
+        pool.shutdownNow();
+        disk.shutdownNow();
+        timer.shutdownNow();
+        return false;
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threads = new AtomicInteger();
+        private final String prefix;
+
+        private NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, String.format("%s-%d", prefix, threads.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package github.tylerjmcbride.direct.executors;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import github.tylerjmcbride.direct.logging.Log;
+
+/**
+ * Runs tasks one at a time, in submission order, on an underlying {@link Executor} which may be
+ * shared with other {@link SerialExecutor}s. Used to preserve the order of the messages received
+ * over a single connection whilst decoding messages of different connections in parallel.
+ * Should the underlying {@link Executor} reject a task, the task is run on the calling
+ * {@link Thread} instead, slowing the caller down until the {@link Executor} catches up. Tasks are
+ * never run whilst holding the monitor of the {@link SerialExecutor}, so that other callers may
+ * keep submitting tasks in the meantime.
+ */
+public class SerialExecutor implements Executor {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Executor executor;
+    private Runnable active;
+
+    public SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        Runnable first;
+        synchronized (this) {
+            tasks.add(runnable);
+            if (active != null) {
+                return;
+            }
+            first = active = tasks.poll();
+        }
+        dispatch(first);
+    }
+
+    /**
+     * Hands the given task to the underlying {@link Executor}, which then dispatches the next task
+     * once done. Rejected tasks are run in a loop rather than recursively, so that the stack does
+     * not grow with the number of queued tasks.
+     */
+    private void dispatch(Runnable task) {
+        while (task != null) {
+            final Runnable current = task;
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            current.run();
+                        } finally {
+                            dispatch(next());
+                        }
+                    }
+                });
+                return;
+            } catch (RejectedExecutionException ex) {
+                try {
+                    current.run();
+                } catch (RuntimeException failure) {
+                    Log.e(Log.TAG, String.format("Failed to run task, %s", failure.getMessage()));
+                }
+                task = next();
+            }
+        }
+    }
+
+    private synchronized Runnable next() {
+        return active = tasks.poll();
+    }
+}
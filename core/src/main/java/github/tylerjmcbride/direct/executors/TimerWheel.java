@@ -0,0 +1,171 @@
+package github.tylerjmcbride.direct.executors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+
+import github.tylerjmcbride.direct.executors.listeners.ExpirationListener;
+import github.tylerjmcbride.direct.logging.Log;
+
+/**
+ * The {@link TimerWheel} keeps a timeout for every key in a ring of buckets, advanced by a single
+ * periodic task on the timer thread of the {@link IoScheduler}. Scheduling, rescheduling and
+ * cancelling a timeout takes constant time regardless of the number of keys, and every tick only
+ * visits the keys of a single bucket. Timeouts expire on the first tick at or after their delay,
+ * so they are only as precise as the tick duration. Keys expire on the timer thread, the
+ * {@link ExpirationListener} must therefore not block.
+ */
+public class TimerWheel<K> {
+
+    public static final int DEFAULT_WHEEL_SIZE = 64;
+
+    private final IoScheduler scheduler;
+    private final long tickDuration;
+    private final ExpirationListener<K> listener;
+    private final List<Map<K, Timeout>> buckets;
+    private final Map<K, Timeout> timeouts = new HashMap<>();
+
+    private int cursor = 0;
+    private ScheduledFuture<?> ticking;
+
+    /**
+     * @param scheduler The {@link IoScheduler} whose timer thread advances the wheel.
+     * @param tickDuration The duration in milliseconds of a single tick.
+     * @param listener The {@link ExpirationListener} notified of every expired key.
+     */
+    public TimerWheel(IoScheduler scheduler, long tickDuration, ExpirationListener<K> listener) {
+        this(scheduler, tickDuration, DEFAULT_WHEEL_SIZE, listener);
+    }
+
+    /**
+     * @param scheduler The {@link IoScheduler} whose timer thread advances the wheel.
+     * @param tickDuration The duration in milliseconds of a single tick.
+     * @param wheelSize The number of buckets, timeouts longer than a full turn of the wheel are
+     *                  kept for as many turns as needed.
+     * @param listener The {@link ExpirationListener} notified of every expired key.
+     */
+    public TimerWheel(IoScheduler scheduler, long tickDuration, int wheelSize, ExpirationListener<K> listener) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("The tick duration and the wheel size must be positive.");
+        }
+        this.scheduler = scheduler;
+        this.tickDuration = tickDuration;
+        this.listener = listener;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new HashMap<K, Timeout>());
+        }
+    }
+
+    /**
+     * Starts advancing the wheel. Does nothing if already started.
+     */
+    public synchronized void start() {
+        if (ticking != null) {
+            return;
+        }
+
+        try {
+            ticking = scheduler.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    tick();
+                }
+            }, tickDuration, tickDuration);
+        } catch (RejectedExecutionException ex) {
+            Log.e(Log.TAG, "Failed to start timer wheel, the scheduler has been shut down.");
+        }
+    }
+
+    /**
+     * Stops advancing the wheel and cancels every timeout.
+     */
+    public synchronized void stop() {
+        if (ticking != null) {
+            ticking.cancel(false);
+            ticking = null;
+        }
+
+        for (Map<K, Timeout> bucket : buckets) {
+            bucket.clear();
+        }
+        timeouts.clear();
+    }
+
+    /**
+     * Schedules the key to expire once the given delay has elapsed, replacing its previous timeout.
+     * @param key The key.
+     * @param delay The delay in milliseconds, rounded up to a whole number of ticks.
+     */
+    public synchronized void schedule(K key, long delay) {
+        cancel(key);
+
+        long ticks = Math.max(1, (delay + tickDuration - 1) / tickDuration);
+        int bucket = (int) ((cursor + ticks) % buckets.size());
+        Timeout timeout = new Timeout(bucket, (ticks - 1) / buckets.size());
+        buckets.get(bucket).put(key, timeout);
+        timeouts.put(key, timeout);
+    }
+
+    /**
+     * Cancels the timeout of the key.
+     * @param key The key.
+     * @return Whether the key had a timeout.
+     */
+    public synchronized boolean cancel(K key) {
+        Timeout timeout = timeouts.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        buckets.get(timeout.bucket).remove(key);
+        return true;
+    }
+
+    /**
+     * @return The number of keys awaiting their timeout.
+     */
+    public synchronized int size() {
+        return timeouts.size();
+    }
+
+    private void tick() {
+        List<K> expired = new ArrayList<>();
+        synchronized (this) {
+            cursor = (cursor + 1) % buckets.size();
+            Iterator<Map.Entry<K, Timeout>> iterator = buckets.get(cursor).entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, Timeout> entry = iterator.next();
+                if (entry.getValue().rounds > 0) {
+                    entry.getValue().rounds--;
+                } else {
+                    iterator.remove();
+                    timeouts.remove(entry.getKey());
+                    expired.add(entry.getKey());
+                }
+            }
+        }
+
+        for (K key : expired) {
+            try {
+                listener.onExpired(key);
+            } catch (RuntimeException ex) {
+                // The wheel must keep turning for every other key
+                Log.e(Log.TAG, String.format("Failed to handle expired timeout, %s", ex.getMessage()));
+            }
+        }
+    }
+
+    private static class Timeout {
+        final int bucket;
+        long rounds;
+
+        Timeout(int bucket, long rounds) {
+            this.bucket = bucket;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package github.tylerjmcbride.direct.executors.listeners;
+
+public interface ExpirationListener<K> {
+    void onExpired(K key);
+}
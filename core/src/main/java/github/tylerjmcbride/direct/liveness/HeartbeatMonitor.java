@@ -0,0 +1,208 @@
+package github.tylerjmcbride.direct.liveness;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.executors.TimerWheel;
+import github.tylerjmcbride.direct.executors.listeners.ExpirationListener;
+import github.tylerjmcbride.direct.liveness.listeners.LivenessListener;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.registration.ClientRegistry;
+import github.tylerjmcbride.direct.registration.RegisteredClient;
+import github.tylerjmcbride.direct.registration.listeners.ClientRegistryListener;
+import github.tylerjmcbride.direct.transceivers.ObjectTransmitter;
+import github.tylerjmcbride.direct.transceivers.callbacks.ResponseCallback;
+
+/**
+ * The {@link HeartbeatMonitor} sends every registered client a heartbeat at a fixed interval,
+ * which the client replies to immediately. A client which misses as many heartbeats in a row as
+ * allowed is reported to the {@link LivenessListener} on the main thread, within roughly the
+ * interval times one more than the allowed misses. The round trip time of every heartbeat is
+ * measured along the way. Every client is tracked by a single {@link TimerWheel}, rather than a
+ * {@link Thread} or a timer task of its own. Disabled until {@link HeartbeatMonitor#setHeartbeat(long, int)}
+ * is invoked.
+ */
+public class HeartbeatMonitor implements ClientRegistryListener {
+
+    public static final int DEFAULT_MAX_MISSES = 3;
+
+    /**
+     * The number of ticks within every interval, the precision of the heartbeats.
+     */
+    private static final int TICKS_PER_INTERVAL = 8;
+
+    private final IoScheduler scheduler;
+    private final ObjectTransmitter objectTransmitter;
+    private final ClientRegistry clients;
+    private final Executor mainExecutor;
+    private final LivenessListener listener;
+    private final ConcurrentMap<String, Liveness> clientLiveness = new ConcurrentHashMap<>();
+
+    private long interval = 0;
+    private int maxMisses = DEFAULT_MAX_MISSES;
+    private TimerWheel<String> wheel;
+
+    /**
+     * @param scheduler The {@link IoScheduler} whose timer thread times the heartbeats.
+     * @param objectTransmitter The {@link ObjectTransmitter} the heartbeats are sent through.
+     * @param clients The {@link ClientRegistry} of the clients to monitor, this monitor must be
+     *                added as one of its listeners.
+     * @param mainExecutor The {@link Executor} of the main thread.
+     * @param listener The {@link LivenessListener} notified of every lost client.
+     */
+    public HeartbeatMonitor(IoScheduler scheduler, ObjectTransmitter objectTransmitter, ClientRegistry clients,
+                            Executor mainExecutor, LivenessListener listener) {
+        this.scheduler = scheduler;
+        this.objectTransmitter = objectTransmitter;
+        this.clients = clients;
+        this.mainExecutor = mainExecutor;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the heartbeat, restarting the monitoring of every registered client.
+     * @param interval The interval in milliseconds in between heartbeats, also the duration a
+     *                 response is awaited, or 0 to disable heartbeats.
+     * @param maxMisses The number of heartbeats in a row a client may miss before it is lost.
+     */
+    public synchronized void setHeartbeat(long interval, int maxMisses) {
+        if (interval < 0 || maxMisses <= 0) {
+            throw new IllegalArgumentException("The interval must not be negative, and the misses must be positive.");
+        }
+
+        stop();
+        this.interval = interval;
+        this.maxMisses = maxMisses;
+        if (interval > 0) {
+            wheel = new TimerWheel<>(scheduler, Math.max(1, interval / TICKS_PER_INTERVAL), new ExpirationListener<String>() {
+                @Override
+                public void onExpired(String macAddress) {
+                    sendHeartbeat(macAddress);
+                }
+            });
+            wheel.start();
+            for (RegisteredClient client : clients.getClients()) {
+                track(client.getMacAddress());
+            }
+        }
+    }
+
+    /**
+     * Stops sending heartbeats until {@link HeartbeatMonitor#setHeartbeat(long, int)} is invoked.
+     */
+    public synchronized void stop() {
+        if (wheel != null) {
+            wheel.stop();
+            wheel = null;
+        }
+        clientLiveness.clear();
+    }
+
+    /**
+     * @param macAddress The MAC address of the client.
+     * @return The smoothed round trip time of the heartbeats in microseconds, or -1 should no
+     *         heartbeat have been answered.
+     */
+    public long getRoundTripTime(String macAddress) {
+        Liveness liveness = clientLiveness.get(macAddress);
+        return liveness != null ? liveness.getRoundTripTime() : -1;
+    }
+
+    @Override
+    public void onRegistered(RegisteredClient client) {
+        synchronized (this) {
+            if (wheel != null) {
+                track(client.getMacAddress());
+            }
+        }
+    }
+
+    @Override
+    public void onUnregistered(RegisteredClient client) {
+        synchronized (this) {
+            if (wheel != null) {
+                wheel.cancel(client.getMacAddress());
+            }
+        }
+        clientLiveness.remove(client.getMacAddress());
+    }
+
+    private void track(String macAddress) {
+        clientLiveness.put(macAddress, new Liveness());
+        wheel.schedule(macAddress, interval);
+    }
+
+    private void sendHeartbeat(final String macAddress) {
+        final Liveness liveness = clientLiveness.get(macAddress);
+        RegisteredClient client = clients.get(macAddress);
+        long interval;
+        synchronized (this) {
+            interval = this.interval;
+        }
+        if (liveness == null || client == null || interval == 0) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        objectTransmitter.heartbeat(client.getAddress(), interval).setCallback(new ResponseCallback() {
+            @Override
+            public void onResponse(Object response) {
+                liveness.onAnswered(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                reschedule(macAddress, liveness, false);
+            }
+
+            @Override
+            public void onFailure() {
+                int misses = liveness.onMissed();
+                Log.d(Log.TAG, String.format("Client %s missed %d heartbeat(s).", macAddress, misses));
+                if (misses < getMaxMisses()) {
+                    // Retried promptly, as the heartbeat has already been awaited for an interval
+                    reschedule(macAddress, liveness, true);
+                } else if (clientLiveness.remove(macAddress, liveness)) {
+                    mainExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onClientLost(macAddress);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private synchronized int getMaxMisses() {
+        return maxMisses;
+    }
+
+    /**
+     * Schedules the next heartbeat, unless the client has been unregistered or the heartbeat
+     * changed in the meantime.
+     */
+    private synchronized void reschedule(String macAddress, Liveness liveness, boolean promptly) {
+        if (wheel != null && clientLiveness.get(macAddress) == liveness) {
+            wheel.schedule(macAddress, promptly ? 0 : interval);
+        }
+    }
+
+    private static class Liveness {
+        private int misses = 0;
+        private long roundTripTime = -1;
+
+        synchronized void onAnswered(long roundTripTime) {
+            misses = 0;
+            // Smoothed as TCP does, so that a single slow heartbeat barely moves the estimate
+            this.roundTripTime = this.roundTripTime < 0 ? roundTripTime : (7 * this.roundTripTime + roundTripTime) / 8;
+        }
+
+        synchronized int onMissed() {
+            return ++misses;
+        }
+
+        synchronized long getRoundTripTime() {
+            return roundTripTime;
+        }
+    }
+}
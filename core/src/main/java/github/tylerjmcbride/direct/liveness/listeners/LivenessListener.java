@@ -0,0 +1,5 @@
+package github.tylerjmcbride.direct.liveness.listeners;
+
+public interface LivenessListener {
+    void onClientLost(String macAddress);
+}
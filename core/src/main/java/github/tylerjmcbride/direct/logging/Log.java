@@ -0,0 +1,40 @@
+package github.tylerjmcbride.direct.logging;
+
+/**
+ * The {@link Log} is used in place of the Android log, so that the networking stack does not
+ * depend on the Android framework. Until a {@link Logger} is set, errors are written to
+ * {@link System#err} and debug messages are discarded.
+ */
+public final class Log {
+
+    public static final String TAG = "Direct";
+
+    private static volatile Logger logger = new Logger() {
+        @Override
+        public void d(String tag, String message) {
+        }
+
+        @Override
+        public void e(String tag, String message) {
+            System.err.println(tag + ": " + message);
+        }
+    };
+
+    private Log() {
+    }
+
+    /**
+     * @param logger The {@link Logger} to receive every subsequent message.
+     */
+    public static void setLogger(Logger logger) {
+        Log.logger = logger;
+    }
+
+    public static void d(String tag, String message) {
+        logger.d(tag, message);
+    }
+
+    public static void e(String tag, String message) {
+        logger.e(tag, message);
+    }
+}
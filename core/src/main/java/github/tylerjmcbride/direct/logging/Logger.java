@@ -0,0 +1,20 @@
+package github.tylerjmcbride.direct.logging;
+
+/**
+ * The {@link Logger} receives every message logged through {@link Log}, allowing the library to
+ * log to the Android log on a device and elsewhere on a plain JVM.
+ */
+public interface Logger {
+
+    /**
+     * @param tag The tag identifying the source of the message.
+     * @param message The debug message.
+     */
+    void d(String tag, String message);
+
+    /**
+     * @param tag The tag identifying the source of the message.
+     * @param message The error message.
+     */
+    void e(String tag, String message);
+}
@@ -0,0 +1,289 @@
+package github.tylerjmcbride.direct.metrics;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.sockets.ConnectFailure;
+import github.tylerjmcbride.direct.sockets.listeners.ConnectAttemptListener;
+
+/**
+ * The {@link Metrics} records the traffic exchanged with every peer, the outcomes of connection
+ * attempts and registrations, and the latencies of connecting, sending, receiving, registering
+ * and discovering the first host.
+ * Metrics are disabled by default, in which case every method returns after reading a single
+ * volatile flag. Enabled, every record is lock-free.
+ *
+ * Metrics are either pulled through {@link Metrics#snapshot()}, or pushed to a
+ * {@link MetricsListener} periodically through {@link Metrics#setListener(MetricsListener, long)}.
+ */
+public class Metrics implements ConnectAttemptListener {
+
+    /**
+     * Never enabled, used wherever no {@link Metrics} have been provided.
+     */
+    public static final Metrics DISABLED = new Metrics(null, false);
+
+    private static final String UNKNOWN_PEER = "unknown";
+
+    private final IoScheduler scheduler;
+    private final boolean mutable;
+    private volatile boolean enabled = false;
+
+    private final ConcurrentMap<String, PeerCounters> peers = new ConcurrentHashMap<>();
+    private final AtomicLong connectAttempts = new AtomicLong();
+    private final AtomicLong connectRetries = new AtomicLong();
+    private final AtomicLong connectFailures = new AtomicLong();
+    private final AtomicLong registrationsSucceeded = new AtomicLong();
+    private final AtomicLong registrationsFailed = new AtomicLong();
+    private final LatencyHistogram connectLatency = new LatencyHistogram();
+    private final LatencyHistogram sendLatency = new LatencyHistogram();
+    private final LatencyHistogram receiveLatency = new LatencyHistogram();
+    private final LatencyHistogram registrationLatency = new LatencyHistogram();
+    private final LatencyHistogram discoveryLatency = new LatencyHistogram();
+
+    private final Object lock = new Object();
+    private ScheduledFuture<?> reporting;
+
+    /**
+     * @param scheduler The {@link IoScheduler} whose queue depths are reported, and whose timer
+     *                  thread pushes every {@link MetricsSnapshot} to the {@link MetricsListener}.
+     */
+    public Metrics(IoScheduler scheduler) {
+        this(scheduler, true);
+    }
+
+    private Metrics(IoScheduler scheduler, boolean mutable) {
+        this.scheduler = scheduler;
+        this.mutable = mutable;
+    }
+
+    /**
+     * Enables or disables recording, metrics recorded beforehand are retained.
+     * @param enabled Whether metrics are recorded.
+     */
+    public void setEnabled(boolean enabled) {
+        if (!mutable) {
+            throw new UnsupportedOperationException("The disabled metrics cannot be enabled.");
+        }
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Pushes a {@link MetricsSnapshot} to the given listener at a fixed interval, replacing any
+     * previous listener. Recording must be enabled separately.
+     * @param listener The {@link MetricsListener}, or null to stop pushing snapshots.
+     * @param interval The interval in milliseconds.
+     */
+    public void setListener(final MetricsListener listener, long interval) {
+        synchronized (lock) {
+            if (reporting != null) {
+                reporting.cancel(false);
+                reporting = null;
+            }
+
+            if (listener != null) {
+                if (scheduler == null) {
+                    throw new UnsupportedOperationException("The disabled metrics cannot be reported.");
+                }
+
+                try {
+                    reporting = scheduler.scheduleWithFixedDelay(new Runnable() {
+                        @Override
+                        public void run() {
+                            listener.onMetrics(snapshot());
+                        }
+                    }, interval, interval);
+                } catch (RejectedExecutionException ex) {
+                    Log.e(Log.TAG, "Failed to schedule metrics, the scheduler has been shut down.");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The current time in nanoseconds to measure a latency from, or 0 if disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a message sent to the given peer.
+     * @param peer The {@link InetAddress} of the peer.
+     * @param bytes The number of bytes written.
+     * @param start The time returned by {@link Metrics#start()} before sending.
+     */
+    public void onSent(InetAddress peer, long bytes, long start) {
+        if (!enabled) {
+            return;
+        }
+        PeerCounters counters = countersOf(peer);
+        counters.messagesSent.incrementAndGet();
+        counters.bytesSent.addAndGet(bytes);
+        record(sendLatency, start);
+    }
+
+    /**
+     * Records a message which could not be sent to the given peer.
+     * @param peer The {@link InetAddress} of the peer.
+     */
+    public void onSendFailed(InetAddress peer) {
+        if (!enabled) {
+            return;
+        }
+        countersOf(peer).sendFailures.incrementAndGet();
+    }
+
+    /**
+     * Records bytes sent to the given peer outside of a message, such as the data of a file.
+     * @param peer The {@link InetAddress} of the peer.
+     * @param bytes The number of bytes written.
+     */
+    public void onBytesSent(InetAddress peer, long bytes) {
+        if (!enabled) {
+            return;
+        }
+        countersOf(peer).bytesSent.addAndGet(bytes);
+    }
+
+    /**
+     * Records a message received from the given peer.
+     * @param peer The {@link InetAddress} of the peer.
+     * @param start The time returned by {@link Metrics#start()} before decoding.
+     */
+    public void onReceived(InetAddress peer, long start) {
+        if (!enabled) {
+            return;
+        }
+        countersOf(peer).messagesReceived.incrementAndGet();
+        record(receiveLatency, start);
+    }
+
+    /**
+     * Records bytes received from the given peer, whether part of a message or a file.
+     * @param peer The {@link InetAddress} of the peer.
+     * @param bytes The number of bytes read.
+     */
+    public void onBytesReceived(InetAddress peer, long bytes) {
+        if (!enabled) {
+            return;
+        }
+        countersOf(peer).bytesReceived.addAndGet(bytes);
+    }
+
+    /**
+     * Records the outcome of registering with a host, or of a client registering with this host.
+     * @param registered Whether the registration succeeded.
+     * @param start The time returned by {@link Metrics#start()} before registering, or 0 if the
+     *              latency is unknown.
+     */
+    public void onRegistration(boolean registered, long start) {
+        if (!enabled) {
+            return;
+        }
+        if (registered) {
+            registrationsSucceeded.incrementAndGet();
+        } else {
+            registrationsFailed.incrementAndGet();
+        }
+        record(registrationLatency, start);
+    }
+
+    /**
+     * Records the first host discovered since discovery was started.
+     * @param start The time returned by {@link Metrics#start()} when discovery was started.
+     */
+    public void onDiscovered(long start) {
+        if (!enabled) {
+            return;
+        }
+        record(discoveryLatency, start);
+    }
+
+    @Override
+    public void onAttempt(InetSocketAddress address, int attempt, long duration, ConnectFailure failure) {
+        if (!enabled) {
+            return;
+        }
+        connectAttempts.incrementAndGet();
+        if (attempt > 1) {
+            connectRetries.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(InetSocketAddress address, int attempts, long duration, boolean connected) {
+        if (!enabled) {
+            return;
+        }
+        if (connected) {
+            connectLatency.record(TimeUnit.MILLISECONDS.toNanos(duration));
+        } else {
+            connectFailures.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return A {@link MetricsSnapshot} of every metric recorded so far.
+     */
+    public MetricsSnapshot snapshot() {
+        Map<String, PeerMetrics> peers = new HashMap<>();
+        for (Map.Entry<String, PeerCounters> peer : this.peers.entrySet()) {
+            PeerCounters counters = peer.getValue();
+            peers.put(peer.getKey(), new PeerMetrics(peer.getKey(), counters.messagesSent.get(), counters.bytesSent.get(),
+                    counters.sendFailures.get(), counters.messagesReceived.get(), counters.bytesReceived.get()));
+        }
+
+        return new MetricsSnapshot(System.currentTimeMillis(), peers, connectAttempts.get(), connectRetries.get(),
+                connectFailures.get(), registrationsSucceeded.get(), registrationsFailed.get(), connectLatency.snapshot(),
+                sendLatency.snapshot(), receiveLatency.snapshot(), registrationLatency.snapshot(), discoveryLatency.snapshot(),
+                scheduler != null ? scheduler.getQueueDepth() : 0,
+                scheduler != null ? scheduler.getActiveCount() : 0,
+                scheduler != null ? scheduler.getRejectedCount() : 0);
+    }
+
+    /**
+     * Skips latencies measured from 0, as measuring began whilst disabled.
+     */
+    private static void record(LatencyHistogram histogram, long start) {
+        if (start != 0) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    private PeerCounters countersOf(InetAddress peer) {
+        // The address of a peer is unknown only if it could not be resolved
+        String address = peer != null ? peer.getHostAddress() : UNKNOWN_PEER;
+        PeerCounters counters = peers.get(address);
+        if (counters == null) {
+            PeerCounters created = new PeerCounters();
+            counters = peers.putIfAbsent(address, created);
+            if (counters == null) {
+                counters = created;
+            }
+        }
+        return counters;
+    }
+
+    private static class PeerCounters {
+        final AtomicLong messagesSent = new AtomicLong();
+        final AtomicLong bytesSent = new AtomicLong();
+        final AtomicLong sendFailures = new AtomicLong();
+        final AtomicLong messagesReceived = new AtomicLong();
+        final AtomicLong bytesReceived = new AtomicLong();
+    }
+}
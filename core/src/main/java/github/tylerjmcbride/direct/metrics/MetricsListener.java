@@ -0,0 +1,14 @@
+package github.tylerjmcbride.direct.metrics;
+
+/**
+ * Interface for receiving a {@link MetricsSnapshot} periodically. Invoked on the timer thread of
+ * the {@link github.tylerjmcbride.direct.executors.IoScheduler}, implementations must therefore
+ * not block, handing the snapshot off to be reported elsewhere instead.
+ */
+public interface MetricsListener {
+
+    /**
+     * @param snapshot The {@link MetricsSnapshot} taken.
+     */
+    void onMetrics(MetricsSnapshot snapshot);
+}
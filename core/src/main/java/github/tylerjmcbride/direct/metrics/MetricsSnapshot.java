@@ -0,0 +1,152 @@
+package github.tylerjmcbride.direct.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+
+/**
+ * The {@link MetricsSnapshot} is an immutable copy of the {@link Metrics} recorded since they were
+ * enabled. Every count and histogram is cumulative, so the activity in between two snapshots is
+ * the difference of the two. Latencies are in microseconds.
+ */
+public class MetricsSnapshot {
+
+    private final long timestamp;
+    private final Map<String, PeerMetrics> peers;
+    private final long connectAttempts;
+    private final long connectRetries;
+    private final long connectFailures;
+    private final long registrationsSucceeded;
+    private final long registrationsFailed;
+    private final LatencyHistogram.Snapshot connectLatency;
+    private final LatencyHistogram.Snapshot sendLatency;
+    private final LatencyHistogram.Snapshot receiveLatency;
+    private final LatencyHistogram.Snapshot registrationLatency;
+    private final LatencyHistogram.Snapshot discoveryLatency;
+    private final int queueDepth;
+    private final int activeThreads;
+    private final long rejectedTasks;
+
+    MetricsSnapshot(long timestamp, Map<String, PeerMetrics> peers, long connectAttempts, long connectRetries, long connectFailures,
+                    long registrationsSucceeded, long registrationsFailed, LatencyHistogram.Snapshot connectLatency,
+                    LatencyHistogram.Snapshot sendLatency, LatencyHistogram.Snapshot receiveLatency,
+                    LatencyHistogram.Snapshot registrationLatency, LatencyHistogram.Snapshot discoveryLatency, int queueDepth, int activeThreads, long rejectedTasks) {
+        this.timestamp = timestamp;
+        this.peers = Collections.unmodifiableMap(peers);
+        this.connectAttempts = connectAttempts;
+        this.connectRetries = connectRetries;
+        this.connectFailures = connectFailures;
+        this.registrationsSucceeded = registrationsSucceeded;
+        this.registrationsFailed = registrationsFailed;
+        this.connectLatency = connectLatency;
+        this.sendLatency = sendLatency;
+        this.receiveLatency = receiveLatency;
+        this.registrationLatency = registrationLatency;
+        this.discoveryLatency = discoveryLatency;
+        this.queueDepth = queueDepth;
+        this.activeThreads = activeThreads;
+        this.rejectedTasks = rejectedTasks;
+    }
+
+    /**
+     * @return The time the snapshot was taken in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return The {@link PeerMetrics} of every peer data has been exchanged with, keyed by the IP
+     *         address of the peer.
+     */
+    public Map<String, PeerMetrics> getPeers() {
+        return peers;
+    }
+
+    /**
+     * @return The number of connection attempts, including retries.
+     */
+    public long getConnectAttempts() {
+        return connectAttempts;
+    }
+
+    /**
+     * @return The number of connection attempts made after a failed attempt.
+     */
+    public long getConnectRetries() {
+        return connectRetries;
+    }
+
+    /**
+     * @return The number of connections which could not be established once every attempt was made.
+     */
+    public long getConnectFailures() {
+        return connectFailures;
+    }
+
+    public long getRegistrationsSucceeded() {
+        return registrationsSucceeded;
+    }
+
+    public long getRegistrationsFailed() {
+        return registrationsFailed;
+    }
+
+    /**
+     * @return The duration of establishing a connection, including every retry.
+     */
+    public LatencyHistogram.Snapshot getConnectLatency() {
+        return connectLatency;
+    }
+
+    /**
+     * @return The duration of writing a message, including establishing the connection if needed.
+     */
+    public LatencyHistogram.Snapshot getSendLatency() {
+        return sendLatency;
+    }
+
+    /**
+     * @return The duration of decoding a received message.
+     */
+    public LatencyHistogram.Snapshot getReceiveLatency() {
+        return receiveLatency;
+    }
+
+    /**
+     * @return The duration of registering with a host, as measured by the client.
+     */
+    public LatencyHistogram.Snapshot getRegistrationLatency() {
+        return registrationLatency;
+    }
+
+    /**
+     * @return The duration from starting discovery until the first host was discovered, as
+     *         measured by the client.
+     */
+    public LatencyHistogram.Snapshot getDiscoveryLatency() {
+        return discoveryLatency;
+    }
+
+    /**
+     * @return The number of tasks waiting for an I/O thread of the {@link IoScheduler}.
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return The approximate number of I/O threads of the {@link IoScheduler} running a task.
+     */
+    public int getActiveThreads() {
+        return activeThreads;
+    }
+
+    /**
+     * @return The number of tasks rejected by the {@link IoScheduler}.
+     */
+    public long getRejectedTasks() {
+        return rejectedTasks;
+    }
+}
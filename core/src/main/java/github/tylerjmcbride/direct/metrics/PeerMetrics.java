@@ -0,0 +1,60 @@
+package github.tylerjmcbride.direct.metrics;
+
+/**
+ * The {@link PeerMetrics} holds the traffic exchanged with a single peer, as of the
+ * {@link MetricsSnapshot} it belongs to. Byte counts include the framing of every message, along
+ * with the data of every file.
+ */
+public class PeerMetrics {
+
+    private final String address;
+    private final long messagesSent;
+    private final long bytesSent;
+    private final long sendFailures;
+    private final long messagesReceived;
+    private final long bytesReceived;
+
+    PeerMetrics(String address, long messagesSent, long bytesSent, long sendFailures, long messagesReceived, long bytesReceived) {
+        this.address = address;
+        this.messagesSent = messagesSent;
+        this.bytesSent = bytesSent;
+        this.sendFailures = sendFailures;
+        this.messagesReceived = messagesReceived;
+        this.bytesReceived = bytesReceived;
+    }
+
+    /**
+     * @return The IP address of the peer.
+     */
+    public String getAddress() {
+        return address;
+    }
+
+    public long getMessagesSent() {
+        return messagesSent;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * @return The number of messages which could not be sent to the peer.
+     */
+    public long getSendFailures() {
+        return sendFailures;
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s sent %d (%d bytes, %d failed) received %d (%d bytes)", address, messagesSent, bytesSent, sendFailures, messagesReceived, bytesReceived);
+    }
+}
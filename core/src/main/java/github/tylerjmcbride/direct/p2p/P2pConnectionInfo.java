@@ -0,0 +1,36 @@
+package github.tylerjmcbride.direct.p2p;
+
+import java.net.InetAddress;
+
+/**
+ * The {@link P2pConnectionInfo} describes the connection of this device to its Wi-Fi P2P group.
+ */
+public class P2pConnectionInfo {
+
+    private final boolean groupFormed;
+    private final boolean isGroupOwner;
+    private final InetAddress groupOwnerAddress;
+
+    /**
+     * @param groupFormed Whether a group has been formed.
+     * @param isGroupOwner Whether this device owns the group.
+     * @param groupOwnerAddress The address of the group owner, or null if no group has been formed.
+     */
+    public P2pConnectionInfo(boolean groupFormed, boolean isGroupOwner, InetAddress groupOwnerAddress) {
+        this.groupFormed = groupFormed;
+        this.isGroupOwner = isGroupOwner;
+        this.groupOwnerAddress = groupOwnerAddress;
+    }
+
+    public boolean isGroupFormed() {
+        return groupFormed;
+    }
+
+    public boolean isGroupOwner() {
+        return isGroupOwner;
+    }
+
+    public InetAddress getGroupOwnerAddress() {
+        return groupOwnerAddress;
+    }
+}
@@ -0,0 +1,58 @@
+package github.tylerjmcbride.direct.p2p;
+
+/**
+ * The {@link P2pDevice} describes a Wi-Fi P2P device, independent of the framework which
+ * discovered it. Two devices are equal if their MAC addresses are equal.
+ */
+public class P2pDevice {
+
+    public static final int CONNECTED = 0;
+    public static final int INVITED = 1;
+    public static final int FAILED = 2;
+    public static final int AVAILABLE = 3;
+    public static final int UNAVAILABLE = 4;
+
+    private final String deviceAddress;
+    private final String deviceName;
+    private final int status;
+
+    public P2pDevice(String deviceAddress, String deviceName, int status) {
+        this.deviceAddress = deviceAddress;
+        this.deviceName = deviceName;
+        this.status = status;
+    }
+
+    public String getDeviceAddress() {
+        return deviceAddress;
+    }
+
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof P2pDevice)) return false;
+
+        P2pDevice other = (P2pDevice) obj;
+        if (other.deviceAddress == null) {
+            return deviceAddress == null;
+        }
+        return other.deviceAddress.equals(deviceAddress);
+    }
+
+    @Override
+    public int hashCode() {
+        return deviceAddress != null ? deviceAddress.hashCode() : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s)", deviceName, deviceAddress);
+    }
+}
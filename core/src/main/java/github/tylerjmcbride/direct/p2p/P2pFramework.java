@@ -0,0 +1,89 @@
+package github.tylerjmcbride.direct.p2p;
+
+import java.util.Map;
+
+import github.tylerjmcbride.direct.p2p.listeners.ActionListener;
+import github.tylerjmcbride.direct.p2p.listeners.ConnectionInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.GroupInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.P2pEventListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerListListener;
+import github.tylerjmcbride.direct.p2p.listeners.TxtRecordListener;
+
+/**
+ * The {@link P2pFramework} is the Wi-Fi P2P framework peers are discovered and connected through.
+ * On Android it is backed by the {@code WifiP2pManager}, in which case every request is only a
+ * request and its outcome is announced later through the {@link P2pEventListener}. Every listener
+ * is invoked on the main thread, and every {@link ActionListener} may be null.
+ */
+public interface P2pFramework {
+
+    int ERROR = 0;
+    int P2P_UNSUPPORTED = 1;
+    int BUSY = 2;
+    int NO_SERVICE_REQUESTS = 3;
+
+    /**
+     * Starts delivering the state changes of the framework, until {@link P2pFramework#close()}.
+     * @param listener The {@link P2pEventListener}.
+     */
+    void setEventListener(P2pEventListener listener);
+
+    /**
+     * @param listener Invoked for every DNS-SD TXT record received during service discovery.
+     */
+    void setTxtRecordListener(TxtRecordListener listener);
+
+    /**
+     * Advertises a DNS-SD service, answering the service discovery of nearby peers.
+     * @param instanceName The instance name of the service.
+     * @param serviceType The service type, e.g. {@code _presence._tcp}.
+     * @param record The TXT record of the service.
+     * @param listener Invoked upon the success or failure of the request.
+     */
+    void addLocalService(String instanceName, String serviceType, Map<String, String> record, ActionListener listener);
+
+    void clearLocalServices(ActionListener listener);
+
+    /**
+     * Requests every DNS-SD service, the responses are delivered to the {@link TxtRecordListener}.
+     */
+    void addServiceRequest(ActionListener listener);
+
+    void removeServiceRequest(ActionListener listener);
+
+    void clearServiceRequests(ActionListener listener);
+
+    void discoverServices(ActionListener listener);
+
+    void discoverPeers(ActionListener listener);
+
+    void stopPeerDiscovery(ActionListener listener);
+
+    /**
+     * Requests to form a group with the given device.
+     * @param deviceAddress The MAC address of the device.
+     * @param groupOwnerIntent How inclined this device is to become the group owner, from 0 to 15.
+     * @param listener Invoked upon the success or failure of the request.
+     */
+    void connect(String deviceAddress, int groupOwnerIntent, ActionListener listener);
+
+    void removeGroup(ActionListener listener);
+
+    /**
+     * Forgets the persistent group, so that it is not reinvoked upon the next connection.
+     * @param group The group to forget.
+     * @param listener Invoked upon the success or failure of the request.
+     */
+    void deletePersistentGroup(P2pGroup group, ActionListener listener);
+
+    void requestPeers(PeerListListener listener);
+
+    void requestConnectionInfo(ConnectionInfoListener listener);
+
+    void requestGroupInfo(GroupInfoListener listener);
+
+    /**
+     * Stops delivering the state changes of the framework.
+     */
+    void close();
+}
@@ -0,0 +1,52 @@
+package github.tylerjmcbride.direct.p2p;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * The {@link P2pGroup} describes the Wi-Fi P2P group this device is a member of.
+ */
+public class P2pGroup {
+
+    private final P2pDevice owner;
+    private final Collection<P2pDevice> clients;
+    private final String networkName;
+    private final int networkId;
+    private final boolean isGroupOwner;
+
+    /**
+     * @param owner The group owner.
+     * @param clients Every client within the group.
+     * @param networkName The name of the group's network.
+     * @param networkId The framework's identifier of the persistent group, or -1 if unknown.
+     * @param isGroupOwner Whether this device owns the group.
+     */
+    public P2pGroup(P2pDevice owner, Collection<P2pDevice> clients, String networkName, int networkId, boolean isGroupOwner) {
+        this.owner = owner;
+        this.clients = Collections.unmodifiableCollection(new ArrayList<>(clients));
+        this.networkName = networkName;
+        this.networkId = networkId;
+        this.isGroupOwner = isGroupOwner;
+    }
+
+    public P2pDevice getOwner() {
+        return owner;
+    }
+
+    public Collection<P2pDevice> getClientList() {
+        return clients;
+    }
+
+    public String getNetworkName() {
+        return networkName;
+    }
+
+    public int getNetworkId() {
+        return networkId;
+    }
+
+    public boolean isGroupOwner() {
+        return isGroupOwner;
+    }
+}
@@ -0,0 +1,154 @@
+package github.tylerjmcbride.direct.p2p;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.p2p.listeners.P2pEventListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerChangeListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerListListener;
+
+/**
+ * The {@link PeerTracker} coalesces the bursts of {@link P2pEventListener#onAvailablePeersChanged()}
+ * announced by the framework. The first change starts a window, every change within the window is
+ * folded into it, and once the window has elapsed the peers are requested only once. The peers are
+ * then compared to those of the previous request, and only the peers which have come or gone are
+ * passed to the {@link PeerChangeListener}, on the main thread.
+ */
+public class PeerTracker {
+
+    public static final long DEFAULT_WINDOW = 250;
+
+    private final P2pFramework framework;
+    private final IoScheduler scheduler;
+    private final Executor mainExecutor;
+    private final PeerChangeListener listener;
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+
+    private volatile long window = DEFAULT_WINDOW;
+    private boolean pending = false;
+    private Set<P2pDevice> peers = Collections.emptySet();
+
+    /**
+     * @param framework The {@link P2pFramework} the peers are requested from.
+     * @param scheduler The {@link IoScheduler} whose timer thread keeps the window.
+     * @param mainExecutor The {@link Executor} of the main thread.
+     * @param listener The {@link PeerChangeListener}.
+     */
+    public PeerTracker(P2pFramework framework, IoScheduler scheduler, Executor mainExecutor, PeerChangeListener listener) {
+        this.framework = framework;
+        this.scheduler = scheduler;
+        this.mainExecutor = mainExecutor;
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the duration every burst of changes is coalesced over, defaults to
+     * {@link PeerTracker#DEFAULT_WINDOW}.
+     * @param window The duration in milliseconds, 0 requests the peers upon every change.
+     */
+    public void setWindow(long window) {
+        if (window < 0) {
+            throw new IllegalArgumentException("The window must not be negative.");
+        }
+        this.window = window;
+    }
+
+    /**
+     * Announces that the available peers have changed, may be invoked from any thread.
+     */
+    public void onAvailablePeersChanged() {
+        changes.incrementAndGet();
+        synchronized (this) {
+            if (pending) {
+                return;
+            }
+            pending = true;
+        }
+
+        try {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    mainExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            requestPeers();
+                        }
+                    });
+                }
+            }, window);
+        } catch (RejectedExecutionException ex) {
+            Log.e(Log.TAG, "Failed to schedule peer request, the scheduler has been shut down.");
+            synchronized (this) {
+                pending = false;
+            }
+        }
+    }
+
+    private void requestPeers() {
+        synchronized (this) {
+            // Changes from here on start a new window, as they may be missing from this request
+            pending = false;
+        }
+
+        requests.incrementAndGet();
+        framework.requestPeers(new PeerListListener() {
+            @Override
+            public void onPeersAvailable(Collection<P2pDevice> available) {
+                applyPeers(new HashSet<>(available));
+            }
+        });
+    }
+
+    private void applyPeers(Set<P2pDevice> available) {
+        Set<P2pDevice> added = new HashSet<>();
+        Set<P2pDevice> removed = new HashSet<>();
+        synchronized (this) {
+            for (P2pDevice peer : available) {
+                if (!peers.contains(peer)) {
+                    added.add(peer);
+                }
+            }
+            for (P2pDevice peer : peers) {
+                if (!available.contains(peer)) {
+                    removed.add(peer);
+                }
+            }
+            peers = Collections.unmodifiableSet(available);
+        }
+
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            listener.onPeersChanged(added, removed);
+        }
+    }
+
+    /**
+     * @return The peers available as of the latest request.
+     */
+    public synchronized Set<P2pDevice> getPeers() {
+        return peers;
+    }
+
+    /**
+     * @return The number of changes announced since constructed.
+     */
+    public long getChangeCount() {
+        return changes.get();
+    }
+
+    /**
+     * @return The number of times the peers have been requested since constructed, the changes
+     *         announced in between having been coalesced.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+}
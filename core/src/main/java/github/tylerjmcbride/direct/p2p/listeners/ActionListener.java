@@ -0,0 +1,16 @@
+package github.tylerjmcbride.direct.p2p.listeners;
+
+import github.tylerjmcbride.direct.p2p.P2pFramework;
+
+/**
+ * Captures whether the {@link P2pFramework} accepted a request.
+ */
+public interface ActionListener {
+    void onSuccess();
+
+    /**
+     * @param reason One of {@link P2pFramework#ERROR}, {@link P2pFramework#P2P_UNSUPPORTED},
+     *               {@link P2pFramework#BUSY} or {@link P2pFramework#NO_SERVICE_REQUESTS}.
+     */
+    void onFailure(int reason);
+}
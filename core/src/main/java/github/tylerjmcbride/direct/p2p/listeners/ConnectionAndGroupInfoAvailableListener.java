@@ -0,0 +1,8 @@
+package github.tylerjmcbride.direct.p2p.listeners;
+
+import github.tylerjmcbride.direct.p2p.P2pConnectionInfo;
+import github.tylerjmcbride.direct.p2p.P2pGroup;
+
+public interface ConnectionAndGroupInfoAvailableListener {
+    void onConnectionAndGroupInfoAvailable(P2pConnectionInfo info, P2pGroup group);
+}
@@ -0,0 +1,7 @@
+package github.tylerjmcbride.direct.p2p.listeners;
+
+import github.tylerjmcbride.direct.p2p.P2pConnectionInfo;
+
+public interface ConnectionInfoListener {
+    void onConnectionInfoAvailable(P2pConnectionInfo info);
+}
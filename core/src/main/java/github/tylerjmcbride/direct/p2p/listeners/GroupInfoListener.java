@@ -0,0 +1,10 @@
+package github.tylerjmcbride.direct.p2p.listeners;
+
+import github.tylerjmcbride.direct.p2p.P2pGroup;
+
+public interface GroupInfoListener {
+    /**
+     * @param group The group this device is a member of, or null if there is none.
+     */
+    void onGroupInfoAvailable(P2pGroup group);
+}
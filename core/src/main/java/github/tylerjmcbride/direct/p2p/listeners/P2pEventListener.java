@@ -0,0 +1,28 @@
+package github.tylerjmcbride.direct.p2p.listeners;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+/**
+ * Receives the state changes announced by the framework, on Android these are the
+ * {@code WIFI_P2P_*_CHANGED_ACTION} broadcasts.
+ */
+public interface P2pEventListener {
+
+    /**
+     * @param isConnected Whether this device is connected to a group.
+     * @param isAvailable Whether Wi-Fi P2P connectivity is possible.
+     */
+    void onConnectionChanged(boolean isConnected, boolean isAvailable);
+
+    void onAvailablePeersChanged();
+
+    void onWifiP2pEnabled();
+
+    void onWifiP2pDisabled();
+
+    void onPeerDiscoveryStarted();
+
+    void onPeerDiscoveryStopped();
+
+    void onThisDeviceChanged(P2pDevice thisDevice);
+}
@@ -0,0 +1,14 @@
+package github.tylerjmcbride.direct.p2p.listeners;
+
+import java.util.Set;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+public interface PeerChangeListener {
+
+    /**
+     * @param added The peers which have come within range, possibly empty.
+     * @param removed The peers which have gone out of range, possibly empty.
+     */
+    void onPeersChanged(Set<P2pDevice> added, Set<P2pDevice> removed);
+}
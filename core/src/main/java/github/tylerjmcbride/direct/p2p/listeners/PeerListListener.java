@@ -0,0 +1,9 @@
+package github.tylerjmcbride.direct.p2p.listeners;
+
+import java.util.Collection;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+public interface PeerListListener {
+    void onPeersAvailable(Collection<P2pDevice> peers);
+}
@@ -0,0 +1,12 @@
+package github.tylerjmcbride.direct.p2p.listeners;
+
+import java.util.Map;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+/**
+ * Invoked for every DNS-SD TXT record received during service discovery.
+ */
+public interface TxtRecordListener {
+    void onTxtRecordAvailable(String fullDomain, Map<String, String> record, P2pDevice device);
+}
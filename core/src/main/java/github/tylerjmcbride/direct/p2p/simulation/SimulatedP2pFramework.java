@@ -0,0 +1,277 @@
+package github.tylerjmcbride.direct.p2p.simulation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import github.tylerjmcbride.direct.p2p.P2pConnectionInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.p2p.P2pFramework;
+import github.tylerjmcbride.direct.p2p.P2pGroup;
+import github.tylerjmcbride.direct.p2p.listeners.ActionListener;
+import github.tylerjmcbride.direct.p2p.listeners.ConnectionInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.GroupInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.P2pEventListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerListListener;
+import github.tylerjmcbride.direct.p2p.listeners.TxtRecordListener;
+
+/**
+ * The {@link SimulatedP2pFramework} is the {@link P2pFramework} of a single device on a
+ * {@link SimulatedRadio}, created through {@link SimulatedRadio#createDevice}. The state of every
+ * device is guarded by the radio.
+ */
+public class SimulatedP2pFramework implements P2pFramework {
+
+    final String deviceAddress;
+    final String deviceName;
+    private final SimulatedRadio radio;
+    private final Executor mainExecutor;
+
+    private volatile P2pEventListener eventListener;
+    private volatile TxtRecordListener txtRecordListener;
+
+    boolean enabled = true;
+    boolean discovering = false;
+    volatile boolean serviceRequested = false;
+    final Map<String, Map<String, String>> localServices = new LinkedHashMap<>();
+    Set<String> peers = Collections.emptySet();
+    SimulatedRadio.Group group;
+
+    SimulatedP2pFramework(SimulatedRadio radio, String deviceAddress, String deviceName, Executor mainExecutor) {
+        this.radio = radio;
+        this.deviceAddress = deviceAddress;
+        this.deviceName = deviceName;
+        this.mainExecutor = mainExecutor;
+    }
+
+    /**
+     * Enables or disables Wi-Fi P2P, a disabled device leaves its group and is no longer visible
+     * to its peers.
+     * @param enabled Whether Wi-Fi P2P is enabled.
+     */
+    public void setEnabled(boolean enabled) {
+        radio.setEnabled(this, enabled);
+    }
+
+    public String getDeviceAddress() {
+        return deviceAddress;
+    }
+
+    @Override
+    public void setEventListener(P2pEventListener listener) {
+        this.eventListener = listener;
+        radio.setEventListener(this);
+    }
+
+    @Override
+    public void setTxtRecordListener(TxtRecordListener listener) {
+        this.txtRecordListener = listener;
+    }
+
+    @Override
+    public void addLocalService(String instanceName, String serviceType, Map<String, String> record, ActionListener listener) {
+        radio.addLocalService(this, instanceName, serviceType, record, listener);
+    }
+
+    @Override
+    public void clearLocalServices(ActionListener listener) {
+        radio.clearLocalServices(this, listener);
+    }
+
+    @Override
+    public void addServiceRequest(ActionListener listener) {
+        radio.setServiceRequested(this, true, listener);
+    }
+
+    @Override
+    public void removeServiceRequest(ActionListener listener) {
+        radio.setServiceRequested(this, false, listener);
+    }
+
+    @Override
+    public void clearServiceRequests(ActionListener listener) {
+        radio.setServiceRequested(this, false, listener);
+    }
+
+    @Override
+    public void discoverServices(ActionListener listener) {
+        radio.discoverServices(this, listener);
+    }
+
+    @Override
+    public void discoverPeers(ActionListener listener) {
+        radio.setDiscovering(this, true, listener);
+    }
+
+    @Override
+    public void stopPeerDiscovery(ActionListener listener) {
+        radio.setDiscovering(this, false, listener);
+    }
+
+    @Override
+    public void connect(String deviceAddress, int groupOwnerIntent, ActionListener listener) {
+        radio.connect(this, deviceAddress, listener);
+    }
+
+    @Override
+    public void removeGroup(ActionListener listener) {
+        radio.removeGroup(this, listener);
+    }
+
+    @Override
+    public void deletePersistentGroup(P2pGroup group, ActionListener listener) {
+        succeed(listener);
+    }
+
+    @Override
+    public void requestPeers(PeerListListener listener) {
+        radio.requestPeers(this, listener);
+    }
+
+    @Override
+    public void requestConnectionInfo(ConnectionInfoListener listener) {
+        radio.requestConnectionInfo(this, listener);
+    }
+
+    @Override
+    public void requestGroupInfo(GroupInfoListener listener) {
+        radio.requestGroupInfo(this, listener);
+    }
+
+    @Override
+    public void close() {
+        this.eventListener = null;
+    }
+
+    void succeed(final ActionListener listener) {
+        if (listener != null) {
+            mainExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onSuccess();
+                }
+            });
+        }
+    }
+
+    void fail(final ActionListener listener, final int reason) {
+        if (listener != null) {
+            mainExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onFailure(reason);
+                }
+            });
+        }
+    }
+
+    void notifyPeersAvailable(final PeerListListener listener, final Collection<P2pDevice> peers) {
+        mainExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                listener.onPeersAvailable(peers);
+            }
+        });
+    }
+
+    void notifyConnectionInfoAvailable(final ConnectionInfoListener listener, final P2pConnectionInfo info) {
+        mainExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                listener.onConnectionInfoAvailable(info);
+            }
+        });
+    }
+
+    void notifyGroupInfoAvailable(final GroupInfoListener listener, final P2pGroup group) {
+        mainExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                listener.onGroupInfoAvailable(group);
+            }
+        });
+    }
+
+    void notifyTxtRecordAvailable(final String fullDomain, final Map<String, String> record, final P2pDevice device, long delay) {
+        radio.schedule(mainExecutor, new Runnable() {
+            @Override
+            public void run() {
+                TxtRecordListener listener = txtRecordListener;
+                if (listener != null && serviceRequested) {
+                    listener.onTxtRecordAvailable(fullDomain, record, device);
+                }
+            }
+        }, delay);
+    }
+
+    void notifyConnectionChanged(final boolean isConnected, long delay) {
+        radio.schedule(mainExecutor, new EventTask() {
+            @Override
+            void deliver(P2pEventListener listener) {
+                listener.onConnectionChanged(isConnected, true);
+            }
+        }, delay);
+    }
+
+    void notifyPeersChanged(long delay) {
+        radio.schedule(mainExecutor, new EventTask() {
+            @Override
+            void deliver(P2pEventListener listener) {
+                listener.onAvailablePeersChanged();
+            }
+        }, delay);
+    }
+
+    void notifyWifiP2pStateChanged(final boolean enabled, long delay) {
+        radio.schedule(mainExecutor, new EventTask() {
+            @Override
+            void deliver(P2pEventListener listener) {
+                if (enabled) {
+                    listener.onWifiP2pEnabled();
+                } else {
+                    listener.onWifiP2pDisabled();
+                }
+            }
+        }, delay);
+    }
+
+    void notifyDiscoveryChanged(final boolean discovering, long delay) {
+        radio.schedule(mainExecutor, new EventTask() {
+            @Override
+            void deliver(P2pEventListener listener) {
+                if (discovering) {
+                    listener.onPeerDiscoveryStarted();
+                } else {
+                    listener.onPeerDiscoveryStopped();
+                }
+            }
+        }, delay);
+    }
+
+    void notifyThisDeviceChanged(final P2pDevice device, long delay) {
+        radio.schedule(mainExecutor, new EventTask() {
+            @Override
+            void deliver(P2pEventListener listener) {
+                listener.onThisDeviceChanged(device);
+            }
+        }, delay);
+    }
+
+    /**
+     * Delivers an event to the {@link P2pEventListener} set at the time of delivery, if any.
+     */
+    private abstract class EventTask implements Runnable {
+        @Override
+        public void run() {
+            P2pEventListener listener = eventListener;
+            if (listener != null) {
+                deliver(listener);
+            }
+        }
+
+        abstract void deliver(P2pEventListener listener);
+    }
+}
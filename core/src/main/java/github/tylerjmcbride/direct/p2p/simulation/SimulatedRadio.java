@@ -0,0 +1,427 @@
+package github.tylerjmcbride.direct.p2p.simulation;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import github.tylerjmcbride.direct.p2p.P2pConnectionInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.p2p.P2pFramework;
+import github.tylerjmcbride.direct.p2p.P2pGroup;
+import github.tylerjmcbride.direct.p2p.listeners.ActionListener;
+import github.tylerjmcbride.direct.p2p.listeners.ConnectionInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.GroupInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerListListener;
+
+/**
+ * The {@link SimulatedRadio} is the medium shared by every {@link SimulatedP2pFramework} within
+ * the same process, so that peers can be discovered and connected to without any Wi-Fi P2P
+ * hardware. A device is visible to its peers while it is discovering peers, or to the members of
+ * its group. Every exchange over the air, being the peer list updates, the DNS-SD responses and
+ * the group membership changes, is delayed by the configured latency, while DNS-SD responses and
+ * group formations are lost at the configured drop rate. A lost group formation is announced to
+ * the device which requested it as a disconnection. Every group owner is reachable at the same
+ * address, the loopback address by default.
+ *
+ * <pre>
+ * SimulatedRadio radio = new SimulatedRadio.Builder()
+ *         .setLatency(20, 80)
+ *         .setDropRate(0.05)
+ *         .build();
+ * P2pFramework host = radio.createDevice("02:00:00:00:00:01", "Host", mainExecutor);
+ * </pre>
+ */
+public class SimulatedRadio {
+
+    private static final String DOMAIN = "local.";
+
+    private final long minLatency;
+    private final long maxLatency;
+    private final long minGroupFormationLatency;
+    private final long maxGroupFormationLatency;
+    private final double dropRate;
+    private final InetAddress groupOwnerAddress;
+    private final Random random;
+    private final ScheduledExecutorService timer;
+
+    private final Map<String, SimulatedP2pFramework> devices = new LinkedHashMap<>();
+    private int nextNetworkId = 0;
+
+    private SimulatedRadio(Builder builder) {
+        this.minLatency = builder.minLatency;
+        this.maxLatency = builder.maxLatency;
+        this.minGroupFormationLatency = builder.minGroupFormationLatency;
+        this.maxGroupFormationLatency = builder.maxGroupFormationLatency;
+        this.dropRate = builder.dropRate;
+        this.groupOwnerAddress = builder.groupOwnerAddress;
+        this.random = new Random(builder.seed);
+        this.timer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SimulatedRadio");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Creates a device within range of every other device on this radio, with Wi-Fi P2P enabled.
+     * @param deviceAddress The MAC address of the device, which must be unique.
+     * @param deviceName The name of the device.
+     * @param mainExecutor The {@link Executor} every listener of the device is invoked on, which
+     *                     must invoke them in order and never on the calling thread.
+     * @return The {@link SimulatedP2pFramework} of the device.
+     */
+    public synchronized SimulatedP2pFramework createDevice(String deviceAddress, String deviceName, Executor mainExecutor) {
+        if (devices.containsKey(deviceAddress)) {
+            throw new IllegalArgumentException(String.format("The device %s already exists.", deviceAddress));
+        }
+
+        SimulatedP2pFramework device = new SimulatedP2pFramework(this, deviceAddress, deviceName, mainExecutor);
+        devices.put(deviceAddress, device);
+        return device;
+    }
+
+    /**
+     * Stops delivering every delayed exchange.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    synchronized void setEventListener(SimulatedP2pFramework device) {
+        // The framework announces its current state to every new receiver
+        device.notifyWifiP2pStateChanged(device.enabled, 0);
+        device.notifyThisDeviceChanged(toP2pDevice(device), 0);
+        device.notifyConnectionChanged(device.group != null, 0);
+    }
+
+    synchronized void setEnabled(SimulatedP2pFramework device, boolean enabled) {
+        if (device.enabled == enabled) {
+            return;
+        }
+
+        device.enabled = enabled;
+        if (!enabled) {
+            if (device.group != null) {
+                leaveGroup(device);
+            }
+            device.discovering = false;
+            device.serviceRequested = false;
+        }
+        device.notifyWifiP2pStateChanged(enabled, 0);
+        updatePeers();
+    }
+
+    synchronized void addLocalService(SimulatedP2pFramework device, String instanceName, String serviceType, Map<String, String> record, ActionListener listener) {
+        String fullDomain = String.format("%s.%s.%s", instanceName, serviceType, DOMAIN);
+        device.localServices.put(fullDomain, new HashMap<>(record));
+        device.succeed(listener);
+    }
+
+    synchronized void clearLocalServices(SimulatedP2pFramework device, ActionListener listener) {
+        device.localServices.clear();
+        device.succeed(listener);
+    }
+
+    synchronized void setServiceRequested(SimulatedP2pFramework device, boolean serviceRequested, ActionListener listener) {
+        device.serviceRequested = serviceRequested;
+        device.succeed(listener);
+    }
+
+    synchronized void discoverServices(final SimulatedP2pFramework device, ActionListener listener) {
+        if (!device.enabled) {
+            device.fail(listener, P2pFramework.BUSY);
+            return;
+        }
+        if (!device.serviceRequested) {
+            device.fail(listener, P2pFramework.NO_SERVICE_REQUESTS);
+            return;
+        }
+
+        device.succeed(listener);
+        for (SimulatedP2pFramework peer : getPeers(device)) {
+            for (Map.Entry<String, Map<String, String>> service : peer.localServices.entrySet()) {
+                if (isDropped()) {
+                    continue;
+                }
+
+                device.notifyTxtRecordAvailable(service.getKey(), new HashMap<>(service.getValue()), toP2pDevice(peer), getLatency());
+            }
+        }
+    }
+
+    synchronized void setDiscovering(SimulatedP2pFramework device, boolean discovering, ActionListener listener) {
+        if (!device.enabled) {
+            device.fail(listener, P2pFramework.BUSY);
+            return;
+        }
+
+        device.succeed(listener);
+        if (device.discovering != discovering) {
+            device.discovering = discovering;
+            device.notifyDiscoveryChanged(discovering, 0);
+            updatePeers();
+        }
+    }
+
+    synchronized void connect(final SimulatedP2pFramework device, String deviceAddress, ActionListener listener) {
+        final SimulatedP2pFramework target = devices.get(deviceAddress);
+        if (!device.enabled) {
+            device.fail(listener, P2pFramework.BUSY);
+            return;
+        }
+        if (target == null || !getPeers(device).contains(target)) {
+            device.fail(listener, P2pFramework.ERROR);
+            return;
+        }
+
+        device.succeed(listener);
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                formGroup(device, target);
+            }
+        }, getGroupFormationLatency(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void formGroup(SimulatedP2pFramework device, SimulatedP2pFramework owner) {
+        boolean ownerAvailable = owner.group == null || owner.group.owner == owner;
+        if (!device.enabled || !owner.enabled || !ownerAvailable || device.group != null || isDropped()) {
+            if (device.group == null) {
+                device.notifyConnectionChanged(false, 0);
+            }
+            return;
+        }
+
+        Group group = owner.group;
+        if (group == null) {
+            group = new Group(owner, nextNetworkId++);
+            owner.group = group;
+        }
+        group.clients.add(device);
+        device.group = group;
+
+        // Peer discovery stops once a group has been formed
+        if (device.discovering) {
+            device.discovering = false;
+            device.notifyDiscoveryChanged(false, 0);
+        }
+        device.notifyConnectionChanged(true, 0);
+        owner.notifyConnectionChanged(true, getLatency());
+        updatePeers();
+    }
+
+    synchronized void removeGroup(SimulatedP2pFramework device, ActionListener listener) {
+        if (device.group == null) {
+            device.fail(listener, P2pFramework.BUSY);
+            return;
+        }
+
+        device.succeed(listener);
+        leaveGroup(device);
+        updatePeers();
+    }
+
+    private void leaveGroup(SimulatedP2pFramework device) {
+        Group group = device.group;
+        List<SimulatedP2pFramework> members = new ArrayList<>(group.clients);
+        members.add(group.owner);
+
+        // The group is removed once the owner or its last client leaves
+        group.clients.remove(device);
+        boolean removed = group.owner == device || group.clients.isEmpty();
+
+        for (SimulatedP2pFramework member : members) {
+            long latency = member == device ? 0 : getLatency();
+            if (removed || member == device) {
+                member.group = null;
+                member.notifyConnectionChanged(false, latency);
+            } else if (member == group.owner) {
+                member.notifyConnectionChanged(true, latency);
+            }
+        }
+    }
+
+    synchronized void requestPeers(SimulatedP2pFramework device, PeerListListener listener) {
+        List<P2pDevice> peers = new ArrayList<>();
+        for (SimulatedP2pFramework peer : getPeers(device)) {
+            peers.add(toP2pDevice(peer));
+        }
+        device.notifyPeersAvailable(listener, peers);
+    }
+
+    synchronized void requestConnectionInfo(SimulatedP2pFramework device, ConnectionInfoListener listener) {
+        Group group = device.group;
+        P2pConnectionInfo info = new P2pConnectionInfo(group != null, group != null && group.owner == device, group != null ? groupOwnerAddress : null);
+        device.notifyConnectionInfoAvailable(listener, info);
+    }
+
+    synchronized void requestGroupInfo(SimulatedP2pFramework device, GroupInfoListener listener) {
+        Group group = device.group;
+        P2pGroup info = null;
+        if (group != null) {
+            List<P2pDevice> clients = new ArrayList<>();
+            for (SimulatedP2pFramework client : group.clients) {
+                clients.add(toP2pDevice(client));
+            }
+            info = new P2pGroup(toP2pDevice(group.owner), clients, group.networkName, group.networkId, group.owner == device);
+        }
+        device.notifyGroupInfoAvailable(listener, info);
+    }
+
+    /**
+     * @return Every device visible to the given device.
+     */
+    private Collection<SimulatedP2pFramework> getPeers(SimulatedP2pFramework device) {
+        Set<SimulatedP2pFramework> peers = new LinkedHashSet<>();
+        if (!device.enabled) {
+            return peers;
+        }
+
+        for (SimulatedP2pFramework peer : devices.values()) {
+            boolean sameGroup = device.group != null && device.group == peer.group;
+            if (peer != device && peer.enabled && (peer.discovering || sameGroup)) {
+                peers.add(peer);
+            }
+        }
+        return peers;
+    }
+
+    /**
+     * Announces a change of peers to every device whose peers have changed.
+     */
+    private void updatePeers() {
+        for (SimulatedP2pFramework device : devices.values()) {
+            Set<String> peers = new LinkedHashSet<>();
+            for (SimulatedP2pFramework peer : getPeers(device)) {
+                peers.add(peer.deviceAddress + (peer.group != null ? P2pDevice.CONNECTED : P2pDevice.AVAILABLE));
+            }
+
+            if (!peers.equals(device.peers)) {
+                device.peers = peers;
+                device.notifyPeersChanged(getLatency());
+            }
+        }
+    }
+
+    private P2pDevice toP2pDevice(SimulatedP2pFramework device) {
+        return new P2pDevice(device.deviceAddress, device.deviceName, device.group != null ? P2pDevice.CONNECTED : P2pDevice.AVAILABLE);
+    }
+
+    private boolean isDropped() {
+        return dropRate > 0 && random.nextDouble() < dropRate;
+    }
+
+    private long getLatency() {
+        return minLatency + (long) (random.nextDouble() * (maxLatency - minLatency));
+    }
+
+    private long getGroupFormationLatency() {
+        return minGroupFormationLatency + (long) (random.nextDouble() * (maxGroupFormationLatency - minGroupFormationLatency));
+    }
+
+    /**
+     * Delivers the given task on the given {@link Executor} once the given delay has elapsed.
+     */
+    void schedule(final Executor executor, final Runnable task, long delay) {
+        if (delay <= 0) {
+            executor.execute(task);
+            return;
+        }
+
+        timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(task);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    static class Group {
+        private final SimulatedP2pFramework owner;
+        private final List<SimulatedP2pFramework> clients = new ArrayList<>();
+        private final int networkId;
+        private final String networkName;
+
+        private Group(SimulatedP2pFramework owner, int networkId) {
+            this.owner = owner;
+            this.networkId = networkId;
+            this.networkName = "DIRECT-" + owner.deviceName;
+        }
+    }
+
+    public static class Builder {
+        private long minLatency = 0;
+        private long maxLatency = 0;
+        private long minGroupFormationLatency = 0;
+        private long maxGroupFormationLatency = 0;
+        private double dropRate = 0;
+        private InetAddress groupOwnerAddress = InetAddress.getLoopbackAddress();
+        private long seed = System.nanoTime();
+
+        /**
+         * @param minLatency The minimum delay in milliseconds of every exchange over the air.
+         * @param maxLatency The maximum delay in milliseconds of every exchange over the air.
+         */
+        public Builder setLatency(long minLatency, long maxLatency) {
+            this.minLatency = minLatency;
+            this.maxLatency = Math.max(minLatency, maxLatency);
+            return this;
+        }
+
+        /**
+         * @param minLatency The minimum delay in milliseconds between a connection request and
+         *                   the group being formed.
+         * @param maxLatency The maximum delay in milliseconds between a connection request and
+         *                   the group being formed.
+         */
+        public Builder setGroupFormationLatency(long minLatency, long maxLatency) {
+            this.minGroupFormationLatency = minLatency;
+            this.maxGroupFormationLatency = Math.max(minLatency, maxLatency);
+            return this;
+        }
+
+        /**
+         * @param dropRate The probability from 0 to 1 that a DNS-SD response or group formation
+         *                 is lost.
+         */
+        public Builder setDropRate(double dropRate) {
+            this.dropRate = dropRate;
+            return this;
+        }
+
+        /**
+         * @param groupOwnerAddress The address every group owner is reachable at.
+         */
+        public Builder setGroupOwnerAddress(InetAddress groupOwnerAddress) {
+            this.groupOwnerAddress = groupOwnerAddress;
+            return this;
+        }
+
+        /**
+         * @param seed The seed of the latencies and losses, making a run reproducible.
+         */
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public SimulatedRadio build() {
+            return new SimulatedRadio(this);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package github.tylerjmcbride.direct.registration;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.executors.SerialExecutor;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.registration.listeners.RegisteredWithServerListener;
+import github.tylerjmcbride.direct.registration.listeners.UnregisteredWithServerListener;
+import github.tylerjmcbride.direct.registration.model.Adieu;
+import github.tylerjmcbride.direct.registration.model.Handshake;
+import github.tylerjmcbride.direct.registration.model.Subscription;
+import github.tylerjmcbride.direct.sockets.listeners.SocketInitializationCompleteListener;
+import github.tylerjmcbride.direct.sockets.SocketRunnable;
+
+public class ClientRegistrar {
+
+    private Executor executor;
+    private LocalDevice client;
+    private Executor callbackExecutor;
+    private volatile Metrics metrics = Metrics.DISABLED;
+
+    public ClientRegistrar(IoScheduler scheduler, LocalDevice client, Executor callbackExecutor) {
+        // Registration and unregistration must never overtake one another
+        this.executor = new SerialExecutor(scheduler);
+        this.client = client;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @param metrics The {@link Metrics} recording the outcome of every registration.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void register(InetSocketAddress address, final RegisteredWithServerListener registeredWithServerListener) {
+        register(address, Collections.<String>emptySet(), registeredWithServerListener);
+    }
+
+    /**
+     * Registers with the host, subscribing to the given topics as part of the same exchange.
+     * @param address The {@link InetSocketAddress} of the host registrar.
+     * @param topics The topics to subscribe to.
+     * @param registeredWithServerListener Invoked upon the success or failure of the registration.
+     */
+    public void register(InetSocketAddress address, Set<String> topics, RegisteredWithServerListener registeredWithServerListener) {
+        register(address, topics, 0, registeredWithServerListener);
+    }
+
+    /**
+     * Registers with the host, resuming the session of the given token should the host still
+     * retain it, in which case the host restores the state of the session.
+     * @param address The {@link InetSocketAddress} of the host registrar.
+     * @param topics The topics to subscribe to.
+     * @param sessionToken The session token issued by the host upon the previous registration, or
+     *                     0 to register anew.
+     * @param registeredWithServerListener Invoked upon the success or failure of the registration.
+     */
+    public void register(InetSocketAddress address, final Set<String> topics, final long sessionToken, final RegisteredWithServerListener registeredWithServerListener) {
+        final Metrics metrics = this.metrics;
+        final long start = metrics.start();
+        executor.execute(new SocketRunnable(address, client.getRetryPolicy(), metrics, new SocketInitializationCompleteListener() {
+            @Override
+            public void onSuccess(final Socket hostSocket) {
+                try {
+                    // Send details about the client device
+                    WifiP2pDeviceInfo info = client.getThisDeviceInfo();
+                    ObjectOutputStream outputStream = new ObjectOutputStream(hostSocket.getOutputStream());
+                    Handshake request = new Handshake(info.getMacAddress(), info.getPort(), topics);
+                    request.setSessionToken(sessionToken != 0 ? sessionToken : null);
+                    outputStream.writeObject(request);
+                    outputStream.flush();
+
+                    // Retrieve details about the host device
+                    ObjectInputStream inputStream = new ObjectInputStream(hostSocket.getInputStream());
+                    Handshake handshake = (Handshake) inputStream.readObject();
+
+                    // Notify framework
+                    final WifiP2pDeviceInfo hostInfo = new WifiP2pDeviceInfo(handshake.getMacAddress(), hostSocket.getInetAddress(), handshake.getPort());
+                    final long issuedToken = handshake.getSessionToken() != null ? handshake.getSessionToken() : 0;
+                    metrics.onRegistration(true, start);
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            registeredWithServerListener.onSuccess(hostInfo, issuedToken);
+                        }
+                    });
+
+                    outputStream.close();
+                    inputStream.close();
+                } catch (ClassNotFoundException | ClassCastException | IOException ex) {
+                    Log.e(Log.TAG, "Failed to register with server.");
+                    Log.e(Log.TAG, ex.getMessage());
+                    metrics.onRegistration(false, start);
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            registeredWithServerListener.onFailure();
+                        }
+                    });
+                } finally {
+                    try {
+                        hostSocket.close();
+                    } catch (Exception ex) {
+                        Log.e(Log.TAG, "Failed to close registration socket.");
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure() {
+                metrics.onRegistration(false, start);
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        registeredWithServerListener.onFailure();
+                    }
+                });
+            }
+        }));
+    }
+
+    public void unregister(InetSocketAddress address, final UnregisteredWithServerListener unregisteredWithServerListener) {
+        executor.execute(new SocketRunnable(address, client.getRetryPolicy(), metrics, new SocketInitializationCompleteListener() {
+            @Override
+            public void onSuccess(final Socket hostSocket) {
+                try {
+                    // Send the unregister request to the host
+                    WifiP2pDeviceInfo info = client.getThisDeviceInfo();
+                    ObjectOutputStream outputStream = new ObjectOutputStream(hostSocket.getOutputStream());
+                    outputStream.writeObject(new Adieu(info.getMacAddress(), info.getPort()));
+                    outputStream.flush();
+
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            unregisteredWithServerListener.onSuccess();
+                        }
+                    });
+
+                    outputStream.close();
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, "Failed to unregister with server.");
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            unregisteredWithServerListener.onFailure();
+                        }
+                    });
+                } finally {
+                    try {
+                        hostSocket.close();
+                    } catch (Exception ex) {
+                        Log.e(Log.TAG, "Failed to close registration socket.");
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure() {
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        unregisteredWithServerListener.onFailure();
+                    }
+                });
+            }
+        }));
+    }
+
+    /**
+     * Subscribes to or unsubscribes from the given topics with the host, which must have been
+     * registered with.
+     * @param address The {@link InetSocketAddress} of the host registrar.
+     * @param topics The topics.
+     * @param subscribed Whether to subscribe to, rather than unsubscribe from, the topics.
+     * @param callback Invoked upon the success or failure of the request.
+     */
+    public void subscribe(InetSocketAddress address, final Set<String> topics, final boolean subscribed, final ResultCallback callback) {
+        executor.execute(new SocketRunnable(address, client.getRetryPolicy(), metrics, new SocketInitializationCompleteListener() {
+            @Override
+            public void onSuccess(final Socket hostSocket) {
+                try {
+                    // Send the subscription request to the host
+                    WifiP2pDeviceInfo info = client.getThisDeviceInfo();
+                    ObjectOutputStream outputStream = new ObjectOutputStream(hostSocket.getOutputStream());
+                    outputStream.writeObject(new Subscription(info.getMacAddress(), topics, subscribed));
+                    outputStream.flush();
+
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onSuccess();
+                        }
+                    });
+
+                    outputStream.close();
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, "Failed to update subscription with server.");
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onFailure();
+                        }
+                    });
+                } finally {
+                    try {
+                        hostSocket.close();
+                    } catch (Exception ex) {
+                        Log.e(Log.TAG, "Failed to close registration socket.");
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure() {
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFailure();
+                    }
+                });
+            }
+        }));
+    }
+}
@@ -0,0 +1,171 @@
+package github.tylerjmcbride.direct.registration;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.registration.listeners.ClientRegistryListener;
+
+/**
+ * The {@link ClientRegistry} holds every {@link RegisteredClient} of the host, indexed by MAC
+ * address, IP address and session id. Lookups never block and may be made from any thread, such
+ * as the I/O threads relaying data. Every change is made under a single lock, so that the indexes
+ * never disagree and every {@link ClientRegistryListener} is notified exactly once per change, in
+ * the order the changes were made.
+ */
+public class ClientRegistry {
+
+    private final ConcurrentMap<String, RegisteredClient> byMacAddress = new ConcurrentHashMap<>();
+    private final ConcurrentMap<InetAddress, RegisteredClient> byIpAddress = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, RegisteredClient> bySessionId = new ConcurrentHashMap<>();
+    private final List<ClientRegistryListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong sessionIds = new AtomicLong();
+    private final Object lock = new Object();
+
+    /**
+     * Rebuilt upon every change, as clients are iterated far more often than they change.
+     */
+    private volatile List<RegisteredClient> snapshot = Collections.emptyList();
+
+    /**
+     * The listener is notified whilst the registry is locked, it must therefore return quickly.
+     * @param listener The {@link ClientRegistryListener} notified of every change.
+     */
+    public void addListener(ClientRegistryListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ClientRegistryListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers the given client under a new session id. A client which is already registered is
+     * unregistered first.
+     * @param info The {@link WifiP2pDeviceInfo} the client registered with.
+     * @param device The {@link P2pDevice} of the client.
+     * @return The {@link RegisteredClient}.
+     */
+    public RegisteredClient register(WifiP2pDeviceInfo info, P2pDevice device) {
+        return register(info, device, sessionIds.incrementAndGet());
+    }
+
+    /**
+     * Registers the given client under the session id of the session it has resumed. A client
+     * which is already registered is unregistered first.
+     * @param info The {@link WifiP2pDeviceInfo} the client registered with.
+     * @param device The {@link P2pDevice} of the client.
+     * @param sessionId The session id the client was previously registered under.
+     * @return The {@link RegisteredClient}.
+     */
+    public RegisteredClient register(WifiP2pDeviceInfo info, P2pDevice device, long sessionId) {
+        RegisteredClient client = new RegisteredClient(sessionId, info, device);
+        synchronized (lock) {
+            RegisteredClient previous = byMacAddress.get(client.getMacAddress());
+            if (previous != null) {
+                remove(previous);
+            }
+
+            byMacAddress.put(client.getMacAddress(), client);
+            if (client.getIpAddress() != null) {
+                byIpAddress.put(client.getIpAddress(), client);
+            }
+            bySessionId.put(client.getSessionId(), client);
+            updateSnapshot();
+
+            for (ClientRegistryListener listener : listeners) {
+                listener.onRegistered(client);
+            }
+        }
+        return client;
+    }
+
+    /**
+     * @param macAddress The MAC address of the client.
+     * @return The {@link RegisteredClient} which was unregistered, or null if the client was not
+     * registered, in which case no listener is notified.
+     */
+    public RegisteredClient unregister(String macAddress) {
+        synchronized (lock) {
+            RegisteredClient client = byMacAddress.get(macAddress);
+            if (client != null) {
+                remove(client);
+                updateSnapshot();
+            }
+            return client;
+        }
+    }
+
+    /**
+     * Unregisters every client.
+     * @return Every {@link RegisteredClient} which was unregistered.
+     */
+    public List<RegisteredClient> unregisterAll() {
+        synchronized (lock) {
+            List<RegisteredClient> clients = snapshot;
+            for (RegisteredClient client : clients) {
+                remove(client);
+            }
+            updateSnapshot();
+            return clients;
+        }
+    }
+
+    /**
+     * @param macAddress The MAC address of the client.
+     * @return The {@link RegisteredClient}, or null if the client is not registered.
+     */
+    public RegisteredClient get(String macAddress) {
+        return macAddress != null ? byMacAddress.get(macAddress) : null;
+    }
+
+    /**
+     * @param ipAddress The IP address of the client.
+     * @return The {@link RegisteredClient}, or null if no client is registered from said address.
+     */
+    public RegisteredClient getByIpAddress(InetAddress ipAddress) {
+        return ipAddress != null ? byIpAddress.get(ipAddress) : null;
+    }
+
+    /**
+     * @param sessionId The session id of the registration.
+     * @return The {@link RegisteredClient}, or null if the registration has ended.
+     */
+    public RegisteredClient getBySessionId(long sessionId) {
+        return bySessionId.get(sessionId);
+    }
+
+    /**
+     * @return An unmodifiable snapshot of every {@link RegisteredClient}, unaffected by later changes.
+     */
+    public List<RegisteredClient> getClients() {
+        return snapshot;
+    }
+
+    public int size() {
+        return byMacAddress.size();
+    }
+
+    private void remove(RegisteredClient client) {
+        byMacAddress.remove(client.getMacAddress(), client);
+        if (client.getIpAddress() != null) {
+            byIpAddress.remove(client.getIpAddress(), client);
+        }
+        bySessionId.remove(client.getSessionId(), client);
+
+        for (ClientRegistryListener listener : listeners) {
+            listener.onUnregistered(client);
+        }
+    }
+
+    private void updateSnapshot() {
+        snapshot = Collections.unmodifiableList(new ArrayList<>(byMacAddress.values()));
+    }
+}
@@ -0,0 +1,114 @@
+package github.tylerjmcbride.direct.registration;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+
+/**
+ * A {@link ClientSession} is the state of a client retained by the {@link SessionStore} across
+ * registrations. Whilst the client is registered only the session token is kept, once the link to
+ * the client is lost the session is suspended along with the {@link RegisteredClient}, the topics
+ * subscribed to and every object sent to the client in the meantime.
+ */
+public class ClientSession {
+
+    private final String macAddress;
+    private final long token;
+    private RegisteredClient client;
+    private Set<String> topics = Collections.emptySet();
+    private List<QueuedObject> queue = new ArrayList<>();
+    private long suspendedAt = 0;
+
+    ClientSession(String macAddress, long token) {
+        this.macAddress = macAddress;
+        this.token = token;
+    }
+
+    public String getMacAddress() {
+        return macAddress;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    /**
+     * @return The {@link RegisteredClient} the session was suspended with, or null if the session
+     *         has yet to be suspended.
+     */
+    public RegisteredClient getClient() {
+        return client;
+    }
+
+    /**
+     * @return The topics subscribed to when the session was suspended.
+     */
+    public Set<String> getTopics() {
+        return topics;
+    }
+
+    /**
+     * @return Every object sent to the client whilst suspended, in the order sent.
+     */
+    List<QueuedObject> getQueue() {
+        return queue;
+    }
+
+    boolean isSuspended() {
+        return suspendedAt != 0;
+    }
+
+    long getSuspendedAt() {
+        return suspendedAt;
+    }
+
+    void suspend(RegisteredClient client, Set<String> topics) {
+        this.client = client;
+        this.topics = Collections.unmodifiableSet(new HashSet<>(topics));
+        this.suspendedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Resumes the session, the queue remains to be drained.
+     */
+    void resume() {
+        suspendedAt = 0;
+    }
+
+    /**
+     * @return The queue, after which a new empty queue is kept.
+     */
+    List<QueuedObject> drainQueue() {
+        List<QueuedObject> drained = queue;
+        queue = new ArrayList<>();
+        return drained;
+    }
+
+    /**
+     * An object sent to the client whilst the session was suspended, along with the callback
+     * awaiting the outcome of the send.
+     */
+    public static class QueuedObject {
+
+        private final Serializable object;
+        private final ResultCallback callback;
+
+        QueuedObject(Serializable object, ResultCallback callback) {
+            this.object = object;
+            this.callback = callback;
+        }
+
+        public Serializable getObject() {
+            return object;
+        }
+
+        public ResultCallback getCallback() {
+            return callback;
+        }
+    }
+}
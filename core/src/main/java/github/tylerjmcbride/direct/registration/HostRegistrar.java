@@ -0,0 +1,112 @@
+package github.tylerjmcbride.direct.registration;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.registration.listeners.HandshakeListener;
+import github.tylerjmcbride.direct.registration.listeners.SubscriptionListener;
+import github.tylerjmcbride.direct.registration.runnables.HostRegistrarRunnable;
+import github.tylerjmcbride.direct.sockets.ServerSocketRunnable;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+
+/**
+ * A {@link HostRegistrar} is in charge of handling the registration of client devices.
+ */
+public class HostRegistrar {
+
+    private static final int DEFAULT_REGISTRATION_PORT = 59250;
+    private static final int MAX_SERVER_CONNECTIONS = 25;
+
+    private IoScheduler scheduler;
+    private LocalDevice host;
+    private Executor callbackExecutor;
+    private ServerSocket serverSocket;
+    private HandshakeListener handshakeListener;
+    private volatile SubscriptionListener subscriptionListener;
+    private volatile SessionStore sessionStore;
+
+    public HostRegistrar(IoScheduler scheduler, LocalDevice host, Executor callbackExecutor, HandshakeListener handshakeListener) {
+        this.scheduler = scheduler;
+        this.host = host;
+        this.callbackExecutor = callbackExecutor;
+        this.handshakeListener = handshakeListener;
+    }
+
+    /**
+     * Sets the {@link SubscriptionListener} notified of the topics clients subscribe to, either
+     * upon registering or later on. Must be set before the registration process is started.
+     * @param subscriptionListener The {@link SubscriptionListener}, or null to ignore topics.
+     */
+    public void setSubscriptionListener(SubscriptionListener subscriptionListener) {
+        this.subscriptionListener = subscriptionListener;
+    }
+
+    /**
+     * Sets the {@link SessionStore} issuing session tokens to registering clients, and checking
+     * the tokens presented by resuming clients. Must be set before the registration process is
+     * started.
+     * @param sessionStore The {@link SessionStore}, or null to neither issue nor accept tokens.
+     */
+    public void setSessionStore(SessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    /**
+     * Starts the registration process.
+     * @param listener The {@link ServerSocketInitializationListener} to capture the result of
+     *                 the initialization.
+     */
+    public void start(final ServerSocketInitializationListener listener) {
+        HostRegistrarRunnable runnable = new HostRegistrarRunnable(DEFAULT_REGISTRATION_PORT, MAX_SERVER_CONNECTIONS, scheduler, callbackExecutor, host, handshakeListener, new ServerSocketInitializationListener() {
+            @Override
+            public void onSuccess(final ServerSocket serverSocket) {
+                HostRegistrar.this.serverSocket = serverSocket;
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onSuccess(serverSocket);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure() {
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onFailure();
+                    }
+                });
+            }
+        });
+        runnable.setSubscriptionListener(subscriptionListener);
+        runnable.setSessionStore(sessionStore);
+
+        try {
+            scheduler.execute(runnable);
+        } catch (RejectedExecutionException ex) {
+            Log.e(Log.TAG, "Failed to start registrar, the scheduler is saturated.");
+            listener.onFailure();
+        }
+    }
+
+    /**
+     * Stops the registration process. Will invoke {@link ServerSocket#close()} which will effectively
+     * kill the {@link Thread} running the {@link ServerSocketRunnable}.
+     */
+    public void stop() {
+        if(serverSocket != null) {
+            try {
+                serverSocket.close();
+                serverSocket = null;
+                Log.d(Log.TAG, "Succeeded to stop registrar.");
+            } catch (IOException e) {
+                Log.e(Log.TAG, "Failed to stop registrar.");
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package github.tylerjmcbride.direct.registration;
+
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.sockets.RetryPolicy;
+
+/**
+ * The {@link LocalDevice} describes the device registering with a host, or accepting the
+ * registration of clients, to the {@link HostRegistrar} and {@link ClientRegistrar}.
+ */
+public interface LocalDevice {
+
+    /**
+     * @return The information exchanged with peers upon registration.
+     */
+    WifiP2pDeviceInfo getThisDeviceInfo();
+
+    /**
+     * @return The {@link RetryPolicy} applied when connecting to peers.
+     */
+    RetryPolicy getRetryPolicy();
+}
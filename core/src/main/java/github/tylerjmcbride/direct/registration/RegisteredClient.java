@@ -0,0 +1,60 @@
+package github.tylerjmcbride.direct.registration;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+/**
+ * A {@link RegisteredClient} is a single registration of a client with the host. It is immutable,
+ * a client registering once more is given a new {@link RegisteredClient} with a new session id,
+ * unless the client resumes its session.
+ */
+public class RegisteredClient {
+
+    private final long sessionId;
+    private final WifiP2pDeviceInfo info;
+    private final P2pDevice device;
+    private final InetSocketAddress address;
+
+    public RegisteredClient(long sessionId, WifiP2pDeviceInfo info, P2pDevice device) {
+        this.sessionId = sessionId;
+        this.info = new WifiP2pDeviceInfo(info);
+        this.device = device;
+        this.address = new InetSocketAddress(info.getIpAddress(), info.getPort());
+    }
+
+    /**
+     * @return The id of this registration, unique for as long as the host is running.
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public String getMacAddress() {
+        return info.getMacAddress();
+    }
+
+    public InetAddress getIpAddress() {
+        return info.getIpAddress();
+    }
+
+    /**
+     * @return A copy of the information the client registered with.
+     */
+    public WifiP2pDeviceInfo getInfo() {
+        return new WifiP2pDeviceInfo(info);
+    }
+
+    public P2pDevice getDevice() {
+        return device;
+    }
+
+    /**
+     * @return The {@link InetSocketAddress} the client receives data on.
+     */
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+}
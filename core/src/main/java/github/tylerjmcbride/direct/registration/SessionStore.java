@@ -0,0 +1,185 @@
+package github.tylerjmcbride.direct.registration;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+
+/**
+ * The {@link SessionStore} issues every registering client a session token, and retains the
+ * {@link ClientSession} of every client whose link has been lost for a grace period. A client
+ * presenting its token within the grace period resumes its session, rather than registering anew.
+ * Objects sent to a suspended client are queued until the client resumes, and fail should the
+ * grace period elapse. Thread-safe, as tokens are checked on the registrar thread.
+ */
+public class SessionStore {
+
+    public static final long DEFAULT_GRACE_PERIOD = 30000;
+    public static final int DEFAULT_MAX_QUEUED = 64;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, ClientSession> sessions = new HashMap<>();
+    private long gracePeriod = DEFAULT_GRACE_PERIOD;
+    private int maxQueued = DEFAULT_MAX_QUEUED;
+
+    /**
+     * Sets the duration a suspended session is retained for.
+     * @param gracePeriod The duration in milliseconds, 0 never retains a session.
+     */
+    public synchronized void setGracePeriod(long gracePeriod) {
+        if (gracePeriod < 0) {
+            throw new IllegalArgumentException("The grace period must not be negative.");
+        }
+        this.gracePeriod = gracePeriod;
+    }
+
+    public synchronized long getGracePeriod() {
+        return gracePeriod;
+    }
+
+    /**
+     * Sets the number of objects queued for every suspended client, further objects fail immediately.
+     * @param maxQueued The number of objects.
+     */
+    public synchronized void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * @return A new session token, which is never 0.
+     */
+    public long issue() {
+        long token;
+        do {
+            token = random.nextLong();
+        } while (token == 0);
+        return token;
+    }
+
+    /**
+     * Opens a new session for the given client, which has registered anew.
+     * @param macAddress The MAC address of the client.
+     * @param token The session token issued to the client.
+     * @return The {@link ClientSession} replaced, whose queue must be failed, or null if none.
+     */
+    public synchronized ClientSession open(String macAddress, long token) {
+        return sessions.put(macAddress, new ClientSession(macAddress, token));
+    }
+
+    /**
+     * @param macAddress The MAC address of the client.
+     * @param token The session token presented by the client.
+     * @return Whether the client may resume its session with the token.
+     */
+    public synchronized boolean isResumable(String macAddress, long token) {
+        ClientSession session = sessions.get(macAddress);
+        return session != null && session.getToken() == token && session.isSuspended()
+                && !isExpired(session, System.currentTimeMillis());
+    }
+
+    /**
+     * Resumes the suspended session of the given client.
+     * @param macAddress The MAC address of the client.
+     * @param token The session token presented by the client.
+     * @return The {@link ClientSession}, whose queue must be flushed, or null if the session cannot
+     *         be resumed.
+     */
+    public synchronized ClientSession resume(String macAddress, long token) {
+        if (!isResumable(macAddress, token)) {
+            return null;
+        }
+        ClientSession session = sessions.get(macAddress);
+        session.resume();
+        return session;
+    }
+
+    /**
+     * Suspends the session of the given client, whose link has been lost.
+     * @param client The {@link RegisteredClient}.
+     * @param topics The topics the client is subscribed to.
+     * @return Whether the session has been suspended, false if the client has no session or no
+     *         session is retained.
+     */
+    public synchronized boolean suspend(RegisteredClient client, Set<String> topics) {
+        ClientSession session = sessions.get(client.getMacAddress());
+        if (session == null || gracePeriod == 0) {
+            sessions.remove(client.getMacAddress());
+            return false;
+        }
+        session.suspend(client, topics);
+        return true;
+    }
+
+    /**
+     * Queues the object for the given client, should its session be suspended.
+     * @param macAddress The MAC address of the client.
+     * @param object The object.
+     * @param callback Invoked upon the success or failure of sending the object once resumed.
+     * @return Whether the object has been queued.
+     */
+    public synchronized boolean enqueue(String macAddress, Serializable object, ResultCallback callback) {
+        ClientSession session = sessions.get(macAddress);
+        if (session == null || !session.isSuspended() || session.getQueue().size() >= maxQueued) {
+            return false;
+        }
+        session.getQueue().add(new ClientSession.QueuedObject(object, callback));
+        return true;
+    }
+
+    /**
+     * Hands over every object queued for the given client, either to be flushed once resumed or
+     * to be failed once closed.
+     * @param session The {@link ClientSession}.
+     * @return The queued objects, in the order sent.
+     */
+    public synchronized List<ClientSession.QueuedObject> drain(ClientSession session) {
+        return session.drainQueue();
+    }
+
+    /**
+     * Closes the session of the given client, which has unregistered.
+     * @param macAddress The MAC address of the client.
+     * @return The {@link ClientSession} closed, whose queue must be failed, or null if none.
+     */
+    public synchronized ClientSession close(String macAddress) {
+        return sessions.remove(macAddress);
+    }
+
+    /**
+     * Closes every session.
+     * @return Every {@link ClientSession} closed, whose queues must be failed.
+     */
+    public synchronized List<ClientSession> closeAll() {
+        List<ClientSession> closed = new ArrayList<>(sessions.values());
+        sessions.clear();
+        return closed;
+    }
+
+    /**
+     * Closes every suspended session whose grace period has elapsed.
+     * @return Every {@link ClientSession} closed, whose queues must be failed.
+     */
+    public synchronized List<ClientSession> expire() {
+        long now = System.currentTimeMillis();
+        List<ClientSession> expired = new ArrayList<>();
+        Iterator<ClientSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            ClientSession session = iterator.next();
+            if (session.isSuspended() && isExpired(session, now)) {
+                iterator.remove();
+                expired.add(session);
+            }
+        }
+        return expired;
+    }
+
+    private boolean isExpired(ClientSession session, long now) {
+        return now - session.getSuspendedAt() > gracePeriod;
+    }
+}
@@ -0,0 +1,8 @@
+package github.tylerjmcbride.direct.registration.listeners;
+
+import github.tylerjmcbride.direct.registration.RegisteredClient;
+
+public interface ClientRegistryListener {
+    void onRegistered(RegisteredClient client);
+    void onUnregistered(RegisteredClient client);
+}
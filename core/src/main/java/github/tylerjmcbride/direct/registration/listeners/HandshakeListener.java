@@ -0,0 +1,23 @@
+package github.tylerjmcbride.direct.registration.listeners;
+
+import java.util.Set;
+
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+
+public interface HandshakeListener {
+
+    /**
+     * @param clientInfo The information the client registers with.
+     * @param sessionToken The session token issued to the client, or 0 if none was issued.
+     */
+    void onClientAttemptingToRegister(WifiP2pDeviceInfo clientInfo, long sessionToken);
+
+    /**
+     * @param clientInfo The information the client registers with.
+     * @param sessionToken The session token presented by the client, which was resumable.
+     * @param topics The topics the client subscribes to, or null to restore those of the session.
+     */
+    void onClientAttemptingToResume(WifiP2pDeviceInfo clientInfo, long sessionToken, Set<String> topics);
+
+    void onClientAttemptingToUnregister(WifiP2pDeviceInfo clientInfo);
+}
@@ -0,0 +1,14 @@
+package github.tylerjmcbride.direct.registration.listeners;
+
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+
+public interface RegisteredWithServerListener {
+
+    /**
+     * @param info The information about the host.
+     * @param sessionToken The session token issued by the host, or 0 if none was issued.
+     */
+    void onSuccess(WifiP2pDeviceInfo info, long sessionToken);
+
+    void onFailure();
+}
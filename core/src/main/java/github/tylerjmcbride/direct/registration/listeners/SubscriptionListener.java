@@ -0,0 +1,8 @@
+package github.tylerjmcbride.direct.registration.listeners;
+
+import java.util.Set;
+
+public interface SubscriptionListener {
+    void onClientSubscribed(String macAddress, Set<String> topics);
+    void onClientUnsubscribed(String macAddress, Set<String> topics);
+}
@@ -0,0 +1,85 @@
+package github.tylerjmcbride.direct.registration.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class Handshake implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The device MAC address uniquely identifies a Wi-Fi p2p device
+     */
+    private String macAddress;
+
+    /**
+     * The device port which listens for data
+     */
+    private int port;
+
+    /**
+     * The topics the client subscribes to upon registering, absent from the reply of the host
+     */
+    private HashSet<String> topics;
+
+    /**
+     * The session token issued in the reply of the host, presented by a client resuming its session
+     */
+    private Long sessionToken;
+
+    public Handshake(String macAddress, int port) {
+        this.macAddress = macAddress;
+        this.port = port;
+    }
+
+    public Handshake(String macAddress, int port, Set<String> topics) {
+        this.macAddress = macAddress;
+        this.port = port;
+        this.topics = new HashSet<>(topics);
+    }
+
+    public String getMacAddress() {
+        return macAddress;
+    }
+
+    public void setMacAddress(String macAddress) {
+        this.macAddress = macAddress;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public Set<String> getTopics() {
+        // Absent from the reply of the host, and from handshakes sent before topics were introduced
+        return topics != null ? topics : Collections.<String>emptySet();
+    }
+
+    public void setTopics(Set<String> topics) {
+        this.topics = new HashSet<>(topics);
+    }
+
+    /**
+     * @return Whether the topics are present, as opposed to an empty set of topics.
+     */
+    public boolean hasTopics() {
+        return topics != null;
+    }
+
+    /**
+     * @return The session token, or null if absent.
+     */
+    public Long getSessionToken() {
+        return sessionToken;
+    }
+
+    public void setSessionToken(Long sessionToken) {
+        this.sessionToken = sessionToken;
+    }
+}
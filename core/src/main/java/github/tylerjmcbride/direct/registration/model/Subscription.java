@@ -0,0 +1,55 @@
+package github.tylerjmcbride.direct.registration.model;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+public class Subscription implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The device MAC address uniquely identifies a Wi-Fi p2p device
+     */
+    private String macAddress;
+
+    /**
+     * The topics being subscribed to or unsubscribed from
+     */
+    private HashSet<String> topics;
+
+    /**
+     * Whether the device is subscribing to, rather than unsubscribing from, the topics
+     */
+    private boolean subscribed;
+
+    public Subscription(String macAddress, Set<String> topics, boolean subscribed) {
+        this.macAddress = macAddress;
+        this.topics = new HashSet<>(topics);
+        this.subscribed = subscribed;
+    }
+
+    public String getMacAddress() {
+        return macAddress;
+    }
+
+    public void setMacAddress(String macAddress) {
+        this.macAddress = macAddress;
+    }
+
+    public Set<String> getTopics() {
+        return topics;
+    }
+
+    public void setTopics(Set<String> topics) {
+        this.topics = new HashSet<>(topics);
+    }
+
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    public void setSubscribed(boolean subscribed) {
+        this.subscribed = subscribed;
+    }
+}
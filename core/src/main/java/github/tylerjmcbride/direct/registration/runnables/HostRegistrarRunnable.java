@@ -0,0 +1,142 @@
+package github.tylerjmcbride.direct.registration.runnables;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.registration.LocalDevice;
+import github.tylerjmcbride.direct.registration.SessionStore;
+import github.tylerjmcbride.direct.registration.listeners.HandshakeListener;
+import github.tylerjmcbride.direct.registration.listeners.SubscriptionListener;
+import github.tylerjmcbride.direct.registration.model.Adieu;
+import github.tylerjmcbride.direct.registration.model.Handshake;
+import github.tylerjmcbride.direct.registration.model.Subscription;
+import github.tylerjmcbride.direct.sockets.ServerSocketRunnable;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+
+public class HostRegistrarRunnable extends ServerSocketRunnable {
+
+    private LocalDevice host;
+    private HandshakeListener handshakeListener;
+    private volatile SubscriptionListener subscriptionListener;
+    private volatile SessionStore sessionStore;
+
+    public HostRegistrarRunnable(int port, int maxServerConnections, Executor executor, Executor callbackExecutor, LocalDevice host, HandshakeListener handshakeListener, ServerSocketInitializationListener listener) {
+        super(port, maxServerConnections, executor, callbackExecutor, listener);
+        this.host = host;
+        this.handshakeListener = handshakeListener;
+    }
+
+    /**
+     * @param subscriptionListener The {@link SubscriptionListener} notified of the topics clients
+     *                             subscribe to or unsubscribe from, or null to ignore topics.
+     */
+    public void setSubscriptionListener(SubscriptionListener subscriptionListener) {
+        this.subscriptionListener = subscriptionListener;
+    }
+
+    /**
+     * @param sessionStore The {@link SessionStore} issuing and checking session tokens, or null to
+     *                     neither issue nor accept tokens.
+     */
+    public void setSessionStore(SessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    @Override
+    public void onConnected(Socket clientSocket) {
+        try {
+            // Retrieve details about the client device
+            ObjectInputStream inputStream = new ObjectInputStream(clientSocket.getInputStream());
+            Object object = inputStream.readObject();
+
+            if(object instanceof Handshake) {
+                Handshake handshake = (Handshake) object;
+                final WifiP2pDeviceInfo clientInfo = new WifiP2pDeviceInfo(handshake.getMacAddress(), clientSocket.getInetAddress(), handshake.getPort());
+
+                // A client presenting a resumable token skips registering anew, and keeps its token
+                SessionStore sessionStore = this.sessionStore;
+                Long presentedToken = handshake.getSessionToken();
+                final boolean resuming = sessionStore != null && presentedToken != null && sessionStore.isResumable(handshake.getMacAddress(), presentedToken);
+                final long sessionToken = resuming ? presentedToken : (sessionStore != null ? sessionStore.issue() : 0);
+
+                if(resuming) {
+                    final Set<String> topics = handshake.hasTopics() ? handshake.getTopics() : null;
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            handshakeListener.onClientAttemptingToResume(clientInfo, sessionToken, topics);
+                        }
+                    });
+                } else {
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            handshakeListener.onClientAttemptingToRegister(clientInfo, sessionToken);
+                        }
+                    });
+
+                    if(!handshake.getTopics().isEmpty()) {
+                        onSubscriptionChanged(handshake.getMacAddress(), handshake.getTopics(), true);
+                    }
+                }
+
+                // Send details about the host device
+                WifiP2pDeviceInfo info = host.getThisDeviceInfo();
+                Handshake reply = new Handshake(info.getMacAddress(), info.getPort());
+                reply.setSessionToken(sessionToken != 0 ? sessionToken : null);
+                ObjectOutputStream outputStream = new ObjectOutputStream(clientSocket.getOutputStream());
+                outputStream.writeObject(reply);
+                outputStream.flush();
+                outputStream.close();
+            } else if(object instanceof Adieu) {
+                Adieu adieu = (Adieu) object;
+                final WifiP2pDeviceInfo clientInfo = new WifiP2pDeviceInfo(adieu.getMacAddress(), clientSocket.getInetAddress(), adieu.getPort());
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        handshakeListener.onClientAttemptingToUnregister(clientInfo);
+                    }
+                });
+            } else if(object instanceof Subscription) {
+                Subscription subscription = (Subscription) object;
+                onSubscriptionChanged(subscription.getMacAddress(), subscription.getTopics(), subscription.isSubscribed());
+            }
+        } catch (ClassNotFoundException ex) {
+            Log.e(Log.TAG, "Failed to read client registration data.");
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to complete registration transaction.");
+        } finally {
+            if (clientSocket != null && clientSocket.isConnected()) {
+                try {
+                    clientSocket.close();
+                } catch (IOException e) {
+                    Log.e(Log.TAG, "Failed to close client socket.");
+                }
+            }
+        }
+    }
+
+    private void onSubscriptionChanged(final String macAddress, final Set<String> topics, final boolean subscribed) {
+        final SubscriptionListener subscriptionListener = this.subscriptionListener;
+        if(subscriptionListener == null) {
+            return;
+        }
+
+        callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if(subscribed) {
+                    subscriptionListener.onClientSubscribed(macAddress, topics);
+                } else {
+                    subscriptionListener.onClientUnsubscribed(macAddress, topics);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package github.tylerjmcbride.direct.sockets;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.PortUnreachableException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+/**
+ * The reason a single connection attempt has failed.
+ */
+public enum ConnectFailure {
+
+    /**
+     * The peer is reachable, but nothing is listening on the port yet.
+     */
+    REFUSED,
+
+    /**
+     * The peer did not respond within the connect timeout.
+     */
+    TIMEOUT,
+
+    /**
+     * There is no route to the peer, typically as the group has yet to be formed.
+     */
+    UNREACHABLE,
+
+    UNKNOWN;
+
+    /**
+     * @param ex The {@link IOException} thrown by the connection attempt.
+     * @return The respective {@link ConnectFailure}.
+     */
+    public static ConnectFailure classify(IOException ex) {
+        if (ex instanceof SocketTimeoutException) {
+            return TIMEOUT;
+        } else if (ex instanceof NoRouteToHostException || ex instanceof PortUnreachableException || ex instanceof UnknownHostException) {
+            return UNREACHABLE;
+        } else if (ex instanceof ConnectException) {
+            // Android reports the underlying errno within the message of a ConnectException
+            String message = ex.getMessage() != null ? ex.getMessage() : "";
+            if (message.contains("ENETUNREACH") || message.contains("EHOSTUNREACH") || message.contains("unreachable")) {
+                return UNREACHABLE;
+            } else if (message.contains("ETIMEDOUT") || message.contains("timed out")) {
+                return TIMEOUT;
+            }
+            return REFUSED;
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,228 @@
+package github.tylerjmcbride.direct.sockets;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameDecoder;
+
+/**
+ * A {@link Connection} wraps a long-lived {@link Socket} to a single {@link InetSocketAddress}.
+ * Many frames may be written over the same {@link Socket} without paying for a new TCP handshake
+ * each time. Every write holds the monitor of the {@link Connection}, a caller which must write
+ * several frames back to back may therefore synchronize on the {@link Connection} itself.
+ */
+public class Connection {
+
+    /**
+     * The duration of inactivity after which the {@link Socket} is probed before being reused.
+     */
+    private static final long STALE_CHECK_THRESHOLD = 1000;
+    private static final int STALE_CHECK_TIMEOUT = 1;
+
+    private final InetSocketAddress address;
+    private final Socket socket;
+    private OutputStream outputStream;
+    private WritableByteChannel outputChannel;
+    private FrameDecoder decoder;
+    private volatile long lastUsed;
+    private volatile boolean closed = false;
+
+    public Connection(InetSocketAddress address, Socket socket) {
+        this.address = address;
+        this.socket = socket;
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes the given frame to the underlying {@link Socket}. The given buffers are left untouched,
+     * so the same buffers may be written to many connections. A frame may be split across several
+     * buffers, such as a header and a payload held apart, which are then written back to back
+     * without being copied into a single buffer.
+     * @param frame The {@link ByteBuffer}s holding the encoded frame, in order.
+     * @throws IOException If the {@link Socket} is no longer usable.
+     */
+    public synchronized void write(ByteBuffer... frame) throws IOException {
+        WritableByteChannel channel = getOutputChannel();
+        if (frame.length > 1 && channel instanceof GatheringByteChannel) {
+            ByteBuffer[] duplicates = new ByteBuffer[frame.length];
+            long remaining = 0;
+            for (int i = 0; i < frame.length; i++) {
+                duplicates[i] = frame[i].duplicate();
+                remaining += duplicates[i].remaining();
+            }
+            while (remaining > 0) {
+                remaining -= ((GatheringByteChannel) channel).write(duplicates);
+            }
+        } else {
+            for (ByteBuffer buffer : frame) {
+                ByteBuffer duplicate = buffer.duplicate();
+                while (duplicate.hasRemaining()) {
+                    channel.write(duplicate);
+                }
+            }
+        }
+
+        if (outputStream != null) {
+            outputStream.flush();
+        }
+        lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes a range of the given file to the underlying {@link Socket}. When the {@link Socket}
+     * is backed by a {@link SocketChannel}, the bytes are transferred by the operating system
+     * without being copied into the application.
+     * @param file The {@link FileChannel} to read from.
+     * @param position The position within the file of the first byte to write.
+     * @param count The number of bytes to write.
+     * @throws IOException If the file has been truncated or the {@link Socket} is no longer usable.
+     */
+    public synchronized void transferFrom(FileChannel file, long position, long count) throws IOException {
+        WritableByteChannel channel = getOutputChannel();
+        long end = position + count;
+        while (position < end) {
+            long transferred = file.transferTo(position, end - position, channel);
+            if (transferred <= 0 && position >= file.size()) {
+                throw new IOException("The file has been truncated.");
+            }
+            position += transferred;
+            lastUsed = System.currentTimeMillis();
+        }
+
+        if (outputStream != null) {
+            outputStream.flush();
+        }
+    }
+
+    /**
+     * Waits for the peer to reply with a {@link Frame}. The caller must hold the monitor of this
+     * {@link Connection} from the request until the reply has been read, as an unread reply would
+     * otherwise be mistaken for a dropped {@link Socket}.
+     * @param timeout The maximum duration to wait in milliseconds.
+     * @return The received {@link Frame}.
+     * @throws IOException If no reply was received in time or the {@link Socket} is no longer usable.
+     */
+    public synchronized Frame read(int timeout) throws IOException {
+        if (decoder == null) {
+            decoder = new FrameDecoder();
+        }
+
+        socket.setSoTimeout(timeout);
+        try {
+            Frame frame;
+            while ((frame = decoder.poll()) == null) {
+                if (decoder.readFrom(socket.getInputStream()) == -1) {
+                    throw new EOFException(String.format("Connection to %s was closed by the peer.", address));
+                }
+            }
+            lastUsed = System.currentTimeMillis();
+            return frame;
+        } finally {
+            socket.setSoTimeout(0);
+        }
+    }
+
+    private WritableByteChannel getOutputChannel() throws IOException {
+        if (outputChannel == null) {
+            SocketChannel socketChannel = socket.getChannel();
+            if (socketChannel != null) {
+                outputChannel = socketChannel;
+            } else {
+                outputStream = new BufferedOutputStream(socket.getOutputStream(), AbstractSocketRunnable.DEFAULT_BUFFER_SIZE);
+                outputChannel = Channels.newChannel(outputStream);
+            }
+        }
+        return outputChannel;
+    }
+
+    /**
+     * A peer that has closed its end of the {@link Socket} cannot be detected by writing, as the
+     * first write will succeed regardless. After a period of inactivity the {@link Socket} is
+     * therefore probed with a read that does not wait for data, the peer only ever writes in reply
+     * to a request, see {@link Connection#read(int)}, so anything other than the absence of data
+     * indicates the {@link Socket} is no longer usable.
+     * @return Whether this {@link Connection} may be used to write.
+     */
+    public synchronized boolean isUsable() {
+        if (closed || socket.isClosed() || !socket.isConnected() || socket.isOutputShutdown()) {
+            return false;
+        }
+
+        if (System.currentTimeMillis() - lastUsed < STALE_CHECK_THRESHOLD) {
+            return true;
+        }
+
+        SocketChannel channel = socket.getChannel();
+        return channel != null ? probe(channel) : probe(socket);
+    }
+
+    private static boolean probe(SocketChannel channel) {
+        try {
+            channel.configureBlocking(false);
+            try {
+                return channel.read(ByteBuffer.allocate(1)) == 0;
+            } finally {
+                channel.configureBlocking(true);
+            }
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static boolean probe(Socket socket) {
+        try {
+            socket.setSoTimeout(STALE_CHECK_TIMEOUT);
+            // Whether the peer has closed its end or written unsolicited data, the byte read is
+            // lost and the framing with it, so the socket is no longer usable either way
+            socket.getInputStream().read();
+            return false;
+        } catch (SocketTimeoutException ex) {
+            return true;
+        } catch (IOException ex) {
+            return false;
+        } finally {
+            try {
+                socket.setSoTimeout(0);
+            } catch (IOException ex) {
+                // The socket is already broken, the next write will fail accordingly
+            }
+        }
+    }
+
+    /**
+     * @param idleTimeout The maximum duration of inactivity in milliseconds.
+     * @return Whether this {@link Connection} has been inactive for longer than the given timeout.
+     */
+    public boolean isIdle(long idleTimeout) {
+        return System.currentTimeMillis() - lastUsed > idleTimeout;
+    }
+
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Closes the underlying {@link Socket}.
+     */
+    public void close() {
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            Log.e(Log.TAG, String.format("Failed to close connection to %s.", address));
+        }
+    }
+}
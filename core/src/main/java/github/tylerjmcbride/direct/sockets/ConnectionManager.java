@@ -0,0 +1,245 @@
+package github.tylerjmcbride.direct.sockets;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.sockets.listeners.SocketInitializationCompleteListener;
+
+/**
+ * The {@link ConnectionManager} keeps a single long-lived {@link Connection} per
+ * {@link InetSocketAddress}. Connections are established lazily, re-established transparently
+ * when they drop, and closed once they have been idle for longer than the idle timeout.
+ * To prevent a {@code NetworkOnMainThreadException}, the methods of this class should not
+ * be invoked on the main thread.
+ */
+public class ConnectionManager {
+
+    private static final long DEFAULT_IDLE_TIMEOUT = 30000;
+    private static final int MAX_WRITE_ATTEMPTS = 2;
+
+    private final Map<InetSocketAddress, Connection> connections = new HashMap<>();
+    private final Set<SocketRunnable> connecting = new HashSet<>();
+    private final long idleTimeout;
+    private final ScheduledFuture<?> reaper;
+    private volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    private volatile Metrics metrics = Metrics.DISABLED;
+
+    public ConnectionManager(IoScheduler scheduler) {
+        this(scheduler, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param scheduler The {@link IoScheduler} whose timer closes idle connections.
+     * @param idleTimeout The duration of inactivity in milliseconds after which a
+     *                    {@link Connection} will be closed.
+     */
+    public ConnectionManager(IoScheduler scheduler, long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+        this.reaper = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                closeIdleConnections();
+            }
+        }, idleTimeout, idleTimeout / 2);
+    }
+
+    /**
+     * @param retryPolicy The {@link RetryPolicy} applied when establishing a {@link Connection}.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @param metrics The {@link Metrics} recording every attempt to establish a {@link Connection}.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Writes the given frame to the respective address, establishing a {@link Connection} if
+     * none exists. Should the existing {@link Connection} have dropped, it will be discarded and
+     * the write will be attempted once more over a new {@link Connection}.
+     * @param address The {@link InetSocketAddress} of the receiver.
+     * @param frame The {@link ByteBuffer}s holding the encoded frame, which are left untouched.
+     * @throws IOException If a {@link Connection} could not be established or written to.
+     */
+    public void write(InetSocketAddress address, ByteBuffer... frame) throws IOException {
+        IOException failure = null;
+        for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+            Connection connection = acquire(address);
+            try {
+                connection.write(frame);
+                return;
+            } catch (IOException ex) {
+                Log.d(Log.TAG, String.format("Failed to write to connection %s, will attempt to reconnect.", address));
+                invalidate(connection);
+                failure = ex;
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Retrieves the usable {@link Connection} to the respective address, otherwise establishes a
+     * new {@link Connection}.
+     * @param address The {@link InetSocketAddress} of the receiver.
+     * @return The {@link Connection}.
+     * @throws IOException If a {@link Connection} could not be established.
+     */
+    public Connection acquire(InetSocketAddress address) throws IOException {
+        Connection connection;
+        synchronized (connections) {
+            connection = connections.get(address);
+        }
+
+        if (connection != null) {
+            if (connection.isUsable()) {
+                return connection;
+            }
+            Log.d(Log.TAG, String.format("Connection to %s has dropped.", address));
+            invalidate(connection);
+        }
+
+        Connection established = connect(address);
+        synchronized (connections) {
+            Connection existing = connections.get(address);
+            if (existing != null) {
+                // Another thread has established a connection in the meantime
+                established.close();
+                return existing;
+            }
+            connections.put(address, established);
+        }
+        Log.d(Log.TAG, String.format("Succeeded to open connection to %s.", address));
+        return established;
+    }
+
+    /**
+     * Discards the given {@link Connection}, the next write to its address will reconnect.
+     * @param connection The {@link Connection} to discard.
+     */
+    public void invalidate(Connection connection) {
+        synchronized (connections) {
+            if (connections.get(connection.getAddress()) == connection) {
+                connections.remove(connection.getAddress());
+            }
+        }
+        connection.close();
+    }
+
+    /**
+     * Closes the {@link Connection} to the respective address, if one exists.
+     * @param address The {@link InetSocketAddress} of the receiver.
+     */
+    public void close(InetSocketAddress address) {
+        Connection connection;
+        synchronized (connections) {
+            connection = connections.remove(address);
+        }
+
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Closes every {@link Connection}, connections still being established are cancelled.
+     */
+    public void closeAll() {
+        List<SocketRunnable> cancelling;
+        synchronized (connecting) {
+            cancelling = new ArrayList<>(connecting);
+        }
+
+        for (SocketRunnable runnable : cancelling) {
+            runnable.cancel();
+        }
+
+        List<Connection> closing;
+        synchronized (connections) {
+            closing = new ArrayList<>(connections.values());
+            connections.clear();
+        }
+
+        for (Connection connection : closing) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Closes every {@link Connection} and stops closing idle connections, the
+     * {@link ConnectionManager} must not be used afterwards.
+     */
+    public void close() {
+        reaper.cancel(false);
+        closeAll();
+    }
+
+    private void closeIdleConnections() {
+        List<Connection> closing = new ArrayList<>();
+        synchronized (connections) {
+            Iterator<Connection> iterator = connections.values().iterator();
+            while (iterator.hasNext()) {
+                Connection connection = iterator.next();
+                if (connection.isIdle(idleTimeout)) {
+                    iterator.remove();
+                    closing.add(connection);
+                }
+            }
+        }
+
+        for (Connection connection : closing) {
+            Log.d(Log.TAG, String.format("Closing idle connection to %s.", connection.getAddress()));
+            connection.close();
+        }
+    }
+
+    /**
+     * Establishes a new {@link Connection} on the calling {@link Thread}.
+     */
+    private Connection connect(final InetSocketAddress address) throws IOException {
+        final Socket[] result = new Socket[1];
+        SocketRunnable runnable = new SocketRunnable(address, retryPolicy, metrics, new SocketInitializationCompleteListener() {
+            @Override
+            public void onSuccess(Socket socket) {
+                result[0] = socket;
+            }
+
+            @Override
+            public void onFailure() {
+                result[0] = null;
+            }
+        });
+
+        synchronized (connecting) {
+            connecting.add(runnable);
+        }
+        try {
+            runnable.run();
+        } finally {
+            synchronized (connecting) {
+                connecting.remove(runnable);
+            }
+        }
+
+        if (result[0] == null) {
+            throw new IOException(String.format("Failed to connect to %s.", address));
+        }
+        return new Connection(address, result[0]);
+    }
+}
@@ -0,0 +1,166 @@
+package github.tylerjmcbride.direct.sockets;
+
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+import github.tylerjmcbride.direct.sockets.listeners.ConnectAttemptListener;
+
+/**
+ * The {@link RetryPolicy} determines how a {@link SocketRunnable} retries a failed connection
+ * attempt. The delay between attempts grows exponentially up to a maximum, and is randomized so
+ * that many devices retrying at once do not do so in lockstep. No attempt is made once the
+ * deadline has passed.
+ *
+ * <pre>
+ * RetryPolicy policy = new RetryPolicy.Builder()
+ *         .setMaxAttempts(10)
+ *         .setDeadline(15000)
+ *         .build();
+ * </pre>
+ */
+public class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = new Builder().build();
+
+    private final int connectTimeout;
+    private final int maxAttempts;
+    private final long initialDelay;
+    private final long maxDelay;
+    private final double multiplier;
+    private final double jitter;
+    private final long deadline;
+    private final Set<ConnectFailure> retryableFailures;
+    private final ConnectAttemptListener attemptListener;
+
+    private RetryPolicy(Builder builder) {
+        this.connectTimeout = builder.connectTimeout;
+        this.maxAttempts = builder.maxAttempts;
+        this.initialDelay = builder.initialDelay;
+        this.maxDelay = builder.maxDelay;
+        this.multiplier = builder.multiplier;
+        this.jitter = builder.jitter;
+        this.deadline = builder.deadline;
+        this.retryableFailures = EnumSet.noneOf(ConnectFailure.class);
+        this.retryableFailures.addAll(builder.retryableFailures);
+        this.attemptListener = builder.attemptListener;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @param failure The reason the previous attempt failed.
+     * @return Whether another attempt should be made.
+     */
+    public boolean isRetryable(ConnectFailure failure) {
+        return retryableFailures.contains(failure);
+    }
+
+    /**
+     * @param attempt The number of the attempt which has just failed, starting from 1.
+     * @param random The {@link Random} used to apply the jitter.
+     * @return The delay in milliseconds before the next attempt.
+     */
+    public long getDelay(int attempt, Random random) {
+        double delay = Math.min(maxDelay, initialDelay * Math.pow(multiplier, attempt - 1));
+        return (long) (delay * (1 - jitter * random.nextDouble()));
+    }
+
+    /**
+     * @return The {@link ConnectAttemptListener} observing every attempt, or null.
+     */
+    public ConnectAttemptListener getAttemptListener() {
+        return attemptListener;
+    }
+
+    public static class Builder {
+
+        private int connectTimeout = 2000;
+        private int maxAttempts = 15;
+        private long initialDelay = 250;
+        private long maxDelay = 4000;
+        private double multiplier = 2;
+        private double jitter = 0.5;
+        private long deadline = 30000;
+        private Set<ConnectFailure> retryableFailures = EnumSet.allOf(ConnectFailure.class);
+        private ConnectAttemptListener attemptListener;
+
+        /**
+         * @param connectTimeout The timeout of a single attempt in milliseconds.
+         */
+        public Builder setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * @param maxAttempts The maximum number of attempts, including the first.
+         */
+        public Builder setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param initialDelay The delay before the second attempt in milliseconds.
+         * @param maxDelay The largest delay between two attempts in milliseconds.
+         * @param multiplier The factor the delay grows by after every attempt.
+         */
+        public Builder setBackoff(long initialDelay, long maxDelay, double multiplier) {
+            this.initialDelay = initialDelay;
+            this.maxDelay = maxDelay;
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * @param jitter The fraction of every delay which is randomized, between 0 and 1.
+         */
+        public Builder setJitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * @param deadline The duration in milliseconds after which no further attempt is made.
+         */
+        public Builder setDeadline(long deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * @param retryableFailures The reasons for which a failed attempt is retried.
+         */
+        public Builder setRetryableFailures(Set<ConnectFailure> retryableFailures) {
+            this.retryableFailures = retryableFailures;
+            return this;
+        }
+
+        /**
+         * @param attemptListener The {@link ConnectAttemptListener} to observe every attempt.
+         */
+        public Builder setAttemptListener(ConnectAttemptListener attemptListener) {
+            this.attemptListener = attemptListener;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            if (maxAttempts < 1 || connectTimeout < 0 || initialDelay < 0 || maxDelay < initialDelay
+                    || multiplier < 1 || jitter < 0 || jitter > 1 || deadline < 0) {
+                throw new IllegalArgumentException("Invalid retry policy.");
+            }
+            return new RetryPolicy(this);
+        }
+    }
+}
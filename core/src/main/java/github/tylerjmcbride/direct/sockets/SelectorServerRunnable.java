@@ -0,0 +1,515 @@
+package github.tylerjmcbride.direct.sockets;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import github.tylerjmcbride.direct.executors.SerialExecutor;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.PayloadSink;
+
+/**
+ * The {@link SelectorServerRunnable} serves every connection from a single {@link Thread} using a
+ * non-blocking {@link ServerSocketChannel} and a {@link Selector}. {@link Frame}s are decoded on
+ * said thread and handed to a pool of worker threads; frames received over the same connection
+ * are handled in the order they were received. The payload of a {@link Frame#FLAG_STREAMED} frame
+ * is passed to a {@link PayloadSink} as it arrives, on the selector thread; reading from a
+ * connection may be paused whilst its payloads are being consumed elsewhere. The runnable will run
+ * on its respective {@link Thread} until {@link SelectorServerRunnable#stop()} is called, or
+ * alternatively {@link Thread#interrupt()} is called.
+ */
+public abstract class SelectorServerRunnable extends AbstractSocketRunnable implements Runnable {
+
+    /**
+     * Limits the number of reads from a single connection per selection, so that a connection
+     * receiving a large amount of data cannot starve the others.
+     */
+    private static final int MAX_READS_PER_SELECTION = 16;
+
+    private Executor workers;
+
+    private int port;
+    private int maxServerConnections;
+    private ServerSocketInitializationListener listener;
+    private final Queue<Session> posting = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile Selector selector;
+    private volatile boolean running = true;
+
+    /**
+     * @param port The port to listen on, should it be unavailable a random port is used.
+     * @param maxServerConnections The maximum number of pending connections.
+     * @param workers The {@link Executor} the received frames are handled on.
+     * @param listener The {@link ServerSocketInitializationListener} to capture the result of
+     *                 the initialization.
+     */
+    public SelectorServerRunnable(int port, int maxServerConnections, Executor workers, ServerSocketInitializationListener listener) {
+        this.workers = workers;
+        this.port = port;
+        this.maxServerConnections = maxServerConnections;
+        this.listener = listener;
+    }
+
+    @Override
+    public void run() {
+        ServerSocketChannel serverChannel = null;
+        try {
+            selector = Selector.open();
+
+            // Attempt to initialize the server socket on the given port, otherwise on a random port
+            serverChannel = initialize(port, maxServerConnections);
+            if (serverChannel == null) {
+                serverChannel = initialize(0, maxServerConnections);
+            }
+
+            if (serverChannel == null) {
+                Log.d(Log.TAG, "Failed to initialize socket");
+                listener.onFailure();
+                return;
+            }
+
+            Log.d(Log.TAG, String.format("Succeeded to initialize socket on port %d.", serverChannel.socket().getLocalPort()));
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            listener.onSuccess(serverChannel.socket());
+            select();
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Unexpected exception thrown by selector.");
+            if (serverChannel == null) {
+                listener.onFailure();
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Stops serving connections, every connection will be closed.
+     */
+    public void stop() {
+        running = false;
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Writes the given frame back to the peer of the given {@link Session}, may be invoked on any
+     * thread. The frame is written by the selector thread, frames posted to a closed
+     * {@link Session} are discarded.
+     * @param session The {@link Session} to write to.
+     * @param frame The {@link ByteBuffer} holding the encoded frame.
+     */
+    public void post(Session session, ByteBuffer frame) {
+        session.posted.add(frame);
+        posting.add(session);
+
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Stops reading from the given {@link Session} until it has been resumed as many times as it
+     * has been paused, frames already read are still handled. Must be invoked on the selector
+     * thread.
+     * @param session The {@link Session} to pause.
+     */
+    public void pause(Session session) {
+        session.pauses++;
+        session.updateInterest();
+    }
+
+    /**
+     * Resumes reading from the given paused {@link Session}, may be invoked on any thread.
+     * @param session The {@link Session} to resume.
+     */
+    public void resume(final Session session) {
+        runOnSelector(new Runnable() {
+            @Override
+            public void run() {
+                session.pauses--;
+                session.updateInterest();
+            }
+        });
+    }
+
+    /**
+     * Reports the number of bytes of the streamed payload of the given {@link Session} which a
+     * {@link PayloadSink} has read from the connection itself, then resumes the session. A sink
+     * which reads the payload on another thread must pause the session beforehand, so that
+     * nothing else reads from the connection meanwhile. May be invoked on any thread.
+     * @param session The paused {@link Session}.
+     * @param count The number of bytes read.
+     */
+    public void streamed(final Session session, final long count) {
+        runOnSelector(new Runnable() {
+            @Override
+            public void run() {
+                if (!session.key.isValid()) {
+                    return;
+                }
+
+                try {
+                    if (count > 0) {
+                        onBytesReceived(session, count);
+                        session.sinkRemaining -= count;
+                        if (session.sinkRemaining == 0) {
+                            completeStream(session);
+                        }
+                    }
+                    session.pauses--;
+                    session.updateInterest();
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, String.format("Failed to receive data, %s", ex.getMessage()));
+                    closeConnection(session.key);
+                }
+            }
+        });
+    }
+
+    /**
+     * Closes the given {@link Session}, may be invoked on any thread.
+     * @param session The {@link Session} to close.
+     */
+    public void close(final Session session) {
+        runOnSelector(new Runnable() {
+            @Override
+            public void run() {
+                if (session.key.isValid()) {
+                    closeConnection(session.key);
+                }
+            }
+        });
+    }
+
+    private void runOnSelector(Runnable task) {
+        tasks.add(task);
+
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Will accept incoming connections and read from said connections until stopped.
+     */
+    private void select() throws IOException {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            selector.select();
+            runTasks();
+            writePosted();
+
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+
+                if (!key.isValid()) {
+                    continue;
+                }
+
+                if (key.isAcceptable()) {
+                    accept((ServerSocketChannel) key.channel());
+                    continue;
+                }
+
+                if (key.isWritable()) {
+                    write(key);
+                }
+                if (key.isValid() && key.isReadable()) {
+                    read(key);
+                }
+            }
+        }
+    }
+
+    private void accept(ServerSocketChannel serverChannel) {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+
+            channel.configureBlocking(false);
+            channel.socket().setReceiveBufferSize(DEFAULT_BUFFER_SIZE);
+            Session session = new Session(channel, new SerialExecutor(workers));
+            session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            Log.d(Log.TAG, String.format("Succeeded to accept connection from %s.", channel.socket().getRemoteSocketAddress()));
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to accept connection.");
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void writePosted() {
+        Session session;
+        while ((session = posting.poll()) != null) {
+            ByteBuffer frame;
+            while ((frame = session.posted.poll()) != null) {
+                if (!session.key.isValid()) {
+                    continue;
+                }
+
+                try {
+                    session.write(frame);
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, String.format("Failed to send data, %s", ex.getMessage()));
+                    closeConnection(session.key);
+                }
+            }
+        }
+    }
+
+    private void write(SelectionKey key) {
+        try {
+            ((Session) key.attachment()).flush();
+        } catch (IOException ex) {
+            Log.e(Log.TAG, String.format("Failed to send data, %s", ex.getMessage()));
+            closeConnection(key);
+        }
+    }
+
+    private void read(SelectionKey key) {
+        Session session = (Session) key.attachment();
+        try {
+            for (int reads = 0; reads < MAX_READS_PER_SELECTION && session.pauses == 0; reads++) {
+                // Stream the payload directly from the connection once the buffered bytes are consumed
+                if (session.sink != null && !session.decoder.hasBufferedBytes()) {
+                    long transferred = session.sink.transferFrom(session.channel, session.sinkRemaining);
+                    if (transferred > 0) {
+                        onBytesReceived(session, transferred);
+                        session.sinkRemaining -= transferred;
+                        if (session.sinkRemaining == 0) {
+                            completeStream(session);
+                        }
+                        continue;
+                    } else if (session.pauses > 0) {
+                        return;
+                    }
+                }
+
+                int read = session.decoder.readFrom(session.channel);
+                if (read == -1) {
+                    Log.d(Log.TAG, "Succeeded to confirm the connection was closed by the peer.");
+                    closeConnection(key);
+                    return;
+                } else if (read > 0) {
+                    onBytesReceived(session, read);
+                }
+
+                process(session);
+
+                if (read == 0) {
+                    return;
+                }
+            }
+        } catch (IOException ex) {
+            Log.e(Log.TAG, String.format("Failed to receive data, %s", ex.getMessage()));
+            closeConnection(key);
+        }
+    }
+
+    /**
+     * Consumes every byte buffered by the {@link Session}, either as part of a streamed payload
+     * or as a complete {@link Frame}.
+     */
+    private void process(Session session) throws IOException {
+        while (true) {
+            if (session.sink != null) {
+                session.sinkRemaining -= session.decoder.drainTo(session.sink, session.sinkRemaining);
+                if (session.sinkRemaining > 0) {
+                    return;
+                }
+                completeStream(session);
+            }
+
+            Frame frame = session.decoder.poll();
+            if (frame == null) {
+                return;
+            }
+
+            if (frame.hasFlag(Frame.FLAG_STREAMED)) {
+                PayloadSink sink = onStreamStarted(session, frame);
+                session.sink = sink != null ? sink : new DiscardingPayloadSink();
+                session.sinkRemaining = frame.getPayloadLength();
+                if (session.sinkRemaining == 0) {
+                    completeStream(session);
+                }
+            } else if (!onFrameDecoded(session, frame)) {
+                dispatch(session, frame);
+            }
+        }
+    }
+
+    private void completeStream(Session session) throws IOException {
+        PayloadSink sink = session.sink;
+        session.sink = null;
+        session.sinkRemaining = 0;
+        sink.onComplete();
+    }
+
+    private void dispatch(final Session session, final Frame frame) {
+        session.executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                onFrameReceived(session, frame);
+            }
+        });
+    }
+
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to close socket.");
+        }
+
+        if (key.attachment() instanceof Session) {
+            onSessionClosed((Session) key.attachment());
+        }
+    }
+
+    /**
+     * Closes the {@link Selector} and every registered channel, frames which have already been
+     * received are still handled by the workers.
+     */
+    private void close() {
+        Selector selector = this.selector;
+        if (selector != null) {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    closeConnection(key);
+                }
+                selector.close();
+            } catch (ClosedSelectorException | IOException ex) {
+                Log.e(Log.TAG, "Failed to close selector.");
+            }
+        }
+    }
+
+    /**
+     * Attempts to initialize the {@link ServerSocketChannel}.
+     * @param port The port for the {@link ServerSocket} to listen on.
+     * @param maxServerConnections The maximum number of pending connections.
+     * @return The {@link ServerSocketChannel}, or null if the port is unavailable.
+     */
+    private static ServerSocketChannel initialize(int port, int maxServerConnections) {
+        ServerSocketChannel channel = null;
+        try {
+            channel = ServerSocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setReuseAddress(true);
+            channel.socket().setReceiveBufferSize(DEFAULT_BUFFER_SIZE);
+            channel.socket().bind(new InetSocketAddress(port), maxServerConnections);
+            return channel;
+        } catch (IOException ex) {
+            Log.d(Log.TAG, String.format("The port %d is unavailable.", port));
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    Log.e(Log.TAG, "Failed to close socket.");
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Will be invoked on the selector thread for every {@link Frame} received, before said frame
+     * is handed to a worker thread. Must not block.
+     * @param session The {@link Session} the frame was received over.
+     * @param frame The received {@link Frame}.
+     * @return Whether the frame has been handled, otherwise it will be passed to
+     *         {@link SelectorServerRunnable#onFrameReceived(Session, Frame)}.
+     */
+    protected boolean onFrameDecoded(Session session, Frame frame) {
+        return false;
+    }
+
+    /**
+     * Will be invoked on the selector thread for every {@link Frame#FLAG_STREAMED} frame received.
+     * @param session The {@link Session} the frame was received over.
+     * @param frame The header of the received {@link Frame}.
+     * @return The {@link PayloadSink} to consume the payload, or null to discard the payload.
+     * @throws IOException If the payload cannot be consumed, the connection will be closed.
+     */
+    protected PayloadSink onStreamStarted(Session session, Frame frame) throws IOException {
+        return null;
+    }
+
+    /**
+     * Will be invoked on the selector thread once a {@link Session} has been closed.
+     * @param session The closed {@link Session}.
+     */
+    protected void onSessionClosed(Session session) {
+    }
+
+    /**
+     * Will be invoked on the selector thread whenever bytes have been read from a {@link Session}.
+     * Must not block.
+     * @param session The {@link Session} the bytes were read from.
+     * @param count The number of bytes read.
+     */
+    protected void onBytesReceived(Session session, long count) {
+    }
+
+    /**
+     * Will be invoked on a worker thread for every {@link Frame} received, frames received over
+     * the same connection are never handled concurrently.
+     * @param session The {@link Session} the frame was received over.
+     * @param frame The received {@link Frame}.
+     */
+    protected abstract void onFrameReceived(Session session, Frame frame);
+
+    /**
+     * Consumes and discards a payload nobody is interested in.
+     */
+    private static class DiscardingPayloadSink implements PayloadSink {
+
+        private final ByteBuffer scratch = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+
+        @Override
+        public int write(ByteBuffer source) {
+            int length = source.remaining();
+            source.position(source.limit());
+            return length;
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long count) throws IOException {
+            scratch.clear();
+            if (count < scratch.capacity()) {
+                scratch.limit((int) count);
+            }
+            return Math.max(source.read(scratch), 0);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -1,40 +1,49 @@
 package github.tylerjmcbride.direct.sockets;
 
-import android.os.Handler;
-import android.util.Log;
-
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
-import github.tylerjmcbride.direct.WifiDirect;
 import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.logging.Log;
 import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
 
 /**
  * The {@link ServerSocketRunnable} will run on its respective {@link Thread} until
  * {@link ServerSocket#close()} is called, or alternatively {@link Thread#interrupt()} is called.
- * To prevent a {@link android.os.NetworkOnMainThreadException}, this runnable should not be run on
+ * To prevent a {@code NetworkOnMainThreadException}, this runnable should not be run on
  * the main thread.
  */
 public abstract class ServerSocketRunnable extends AbstractSocketRunnable implements Runnable {
 
-    private ExecutorService executor;
+    private Executor executor;
+    private final Set<Socket> connectedSockets = Collections.synchronizedSet(new HashSet<Socket>());
 
     private int port;
     private int maxServerConnections;
     private ServerSocketInitializationListener listener;
 
-    protected Handler handler;
+    protected Executor callbackExecutor;
 
-    public ServerSocketRunnable(int port, int maxServerConnections, Handler handler, ServerSocketInitializationListener listener) {
-        this.executor = Executors.newFixedThreadPool(5);
+    /**
+     * @param port The port to listen on, should it be unavailable a random port is used.
+     * @param maxServerConnections The maximum number of pending connections.
+     * @param executor The {@link Executor} every accepted connection is handled on.
+     * @param callbackExecutor The {@link Executor} every callback is invoked on.
+     * @param listener The {@link ServerSocketInitializationListener} to capture the result of
+     *                 the initialization.
+     */
+    public ServerSocketRunnable(int port, int maxServerConnections, Executor executor, Executor callbackExecutor, ServerSocketInitializationListener listener) {
+        this.executor = executor;
         this.port = port;
         this.maxServerConnections = maxServerConnections;
-        this.handler = handler;
+        this.callbackExecutor = callbackExecutor;
         this.listener = listener;
     }
 
@@ -48,26 +57,53 @@ public abstract class ServerSocketRunnable extends AbstractSocketRunnable implem
             // Will run indefinitely unless the current thread is interrupted
             while (!Thread.currentThread().isInterrupted()) {
                 final Socket socket = serverSocket.accept();
-                executor.submit(new Runnable() {
-                    @Override
-                    public void run() {
-                        onConnected(socket);
-                    }
-                });
+                connectedSockets.add(socket);
+                try {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                onConnected(socket);
+                            } finally {
+                                connectedSockets.remove(socket);
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException ex) {
+                    Log.e(Log.TAG, "Failed to handle connection, the executor is saturated.");
+                    connectedSockets.remove(socket);
+                    socket.close();
+                }
             }
 
             // Current thread has been interrupted, clean up registration socket
-            Log.d(WifiDirect.TAG, String.format("Succeeded to close socket running on port %d.", serverSocket.getLocalPort()));
+            Log.d(Log.TAG, String.format("Succeeded to close socket running on port %d.", serverSocket.getLocalPort()));
             serverSocket.close();
         } catch (SocketException ex) {
             // This exception is used to interrupt the current thread
-            Log.d(WifiDirect.TAG, String.format("Succeeded to close socket running on port %d.", serverSocket.getLocalPort()));
+            Log.d(Log.TAG, String.format("Succeeded to close socket running on port %d.", serverSocket.getLocalPort()));
         } catch (IOException ex) {
-            Log.e(WifiDirect.TAG, String.format("Unexpected exception thrown by socket %d.", serverSocket.getLocalPort()));
+            Log.e(Log.TAG, String.format("Unexpected exception thrown by socket %d.", serverSocket.getLocalPort()));
         }
 
-        // Clean up executor service
-        executor.shutdownNow();
+        // Clean up any connections still being read from
+        closeConnectedSockets();
+    }
+
+    /**
+     * Closes every accepted {@link Socket}, unblocking the threads reading from said sockets.
+     */
+    private void closeConnectedSockets() {
+        synchronized (connectedSockets) {
+            for (Socket socket : connectedSockets) {
+                try {
+                    socket.close();
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, "Failed to close socket.");
+                }
+            }
+            connectedSockets.clear();
+        }
     }
 
     @Override
@@ -76,7 +112,7 @@ public abstract class ServerSocketRunnable extends AbstractSocketRunnable implem
         initialize(port, maxServerConnections, DEFAULT_BUFFER_SIZE, new ServerSocketInitializationListener() {
             @Override
             public void onSuccess(final ServerSocket serverSocket) {
-                Log.d(WifiDirect.TAG, String.format("Succeeded to initialize socket on port %d.", serverSocket.getLocalPort()));
+                Log.d(Log.TAG, String.format("Succeeded to initialize socket on port %d.", serverSocket.getLocalPort()));
                 listener.onSuccess(serverSocket);
                 acceptConnections(serverSocket);
             }
@@ -87,14 +123,14 @@ public abstract class ServerSocketRunnable extends AbstractSocketRunnable implem
                 initialize(0, maxServerConnections, DEFAULT_BUFFER_SIZE, new ServerSocketInitializationListener() {
                     @Override
                     public void onSuccess(final ServerSocket serverSocket) {
-                        Log.d(WifiDirect.TAG, String.format("Succeeded to initialize socket on port %d.", serverSocket.getLocalPort()));
+                        Log.d(Log.TAG, String.format("Succeeded to initialize socket on port %d.", serverSocket.getLocalPort()));
                         listener.onSuccess(serverSocket);
                         acceptConnections(serverSocket);
                     }
 
                     @Override
                     public void onFailure() {
-                        Log.d(WifiDirect.TAG, "Failed to initialize socket");
+                        Log.d(Log.TAG, "Failed to initialize socket");
                         listener.onFailure();
                     }
                 });
@@ -116,7 +152,7 @@ public abstract class ServerSocketRunnable extends AbstractSocketRunnable implem
             socket.setReceiveBufferSize(bufferSize);
             listener.onSuccess(socket);
         } catch (IOException ex) {
-            Log.d(WifiDirect.TAG, String.format("The port %d is unavailable.", port));
+            Log.d(Log.TAG, String.format("The port %d is unavailable.", port));
             listener.onFailure();
         }
     }
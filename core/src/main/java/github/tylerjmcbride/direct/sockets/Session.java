@@ -0,0 +1,94 @@
+package github.tylerjmcbride.direct.sockets;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import github.tylerjmcbride.direct.executors.SerialExecutor;
+import github.tylerjmcbride.direct.transceivers.frames.FrameDecoder;
+import github.tylerjmcbride.direct.transceivers.frames.PayloadSink;
+
+/**
+ * A {@link Session} represents a single connection accepted by a {@link SelectorServerRunnable}.
+ * Its state is confined to the selector thread, other than the {@link SerialExecutor} and the
+ * frames posted from other threads.
+ */
+public class Session {
+
+    final SocketChannel channel;
+    final FrameDecoder decoder = new FrameDecoder();
+    final SerialExecutor executor;
+    SelectionKey key;
+
+    /**
+     * The sink consuming the payload of the current streamed frame, if any.
+     */
+    PayloadSink sink;
+    long sinkRemaining;
+
+    /**
+     * The number of times reading has been paused, reading resumes once as many times resumed.
+     */
+    int pauses;
+
+    /**
+     * The frames posted from other threads, written once the selector thread picks them up.
+     */
+    final Queue<ByteBuffer> posted = new ConcurrentLinkedQueue<>();
+
+    private final Queue<ByteBuffer> pendingWrites = new ArrayDeque<>();
+
+    Session(SocketChannel channel, SerialExecutor executor) {
+        this.channel = channel;
+        this.executor = executor;
+    }
+
+    /**
+     * @return The {@link InetAddress} of the peer.
+     */
+    public InetAddress getRemoteAddress() {
+        return channel.socket().getInetAddress();
+    }
+
+    /**
+     * Writes the given frame back to the peer without blocking, whatever cannot be written
+     * immediately is written once the connection becomes writable. Must be invoked on the
+     * selector thread.
+     * @param frame The {@link ByteBuffer} holding the encoded frame.
+     * @throws IOException If the connection is no longer usable.
+     */
+    public void write(ByteBuffer frame) throws IOException {
+        pendingWrites.add(frame);
+        flush();
+    }
+
+    /**
+     * Writes as many of the pending frames as the connection accepts.
+     * @throws IOException If the connection is no longer usable.
+     */
+    void flush() throws IOException {
+        while (!pendingWrites.isEmpty()) {
+            ByteBuffer frame = pendingWrites.peek();
+            channel.write(frame);
+            if (frame.hasRemaining()) {
+                break;
+            }
+            pendingWrites.poll();
+        }
+        updateInterest();
+    }
+
+    /**
+     * Reads whilst not paused, and writes whilst frames remain pending.
+     */
+    void updateInterest() {
+        if (key.isValid()) {
+            key.interestOps((pauses > 0 ? 0 : SelectionKey.OP_READ) | (pendingWrites.isEmpty() ? 0 : SelectionKey.OP_WRITE));
+        }
+    }
+}
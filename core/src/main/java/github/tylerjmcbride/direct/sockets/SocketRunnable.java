@@ -0,0 +1,193 @@
+package github.tylerjmcbride.direct.sockets;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.sockets.listeners.ConnectAttemptListener;
+import github.tylerjmcbride.direct.sockets.listeners.SocketInitializationCompleteListener;
+
+/**
+ * To prevent a {@code NetworkOnMainThreadException}, this runnable should not be run on
+ * the main thread. Failed connection attempts are retried according to the {@link RetryPolicy},
+ * until {@link SocketRunnable#cancel()} is called.
+ */
+public class SocketRunnable extends AbstractSocketRunnable implements Runnable {
+
+    private static final Random random = new Random();
+
+    private final Object lock = new Object();
+
+    private InetSocketAddress address;
+    private RetryPolicy policy;
+    private Metrics metrics;
+    private SocketInitializationCompleteListener listener;
+    private volatile boolean cancelled = false;
+    private Socket pending;
+
+    /**
+     * Attempts to initialize the {@link Socket} using the {@link RetryPolicy#DEFAULT}.
+     * @param address The {@link InetSocketAddress} of the server socket.
+     * @param listener The {@link ResultCallback} to capture the success of a given method call.
+     */
+    public SocketRunnable(InetSocketAddress address, SocketInitializationCompleteListener listener) {
+        this(address, RetryPolicy.DEFAULT, listener);
+    }
+
+    /**
+     * Attempts to initialize the {@link Socket}.
+     * @param address The {@link InetSocketAddress} of the server socket.
+     * @param policy The {@link RetryPolicy} applied to failed attempts.
+     * @param listener The {@link ResultCallback} to capture the success of a given method call.
+     */
+    public SocketRunnable(InetSocketAddress address, RetryPolicy policy, SocketInitializationCompleteListener listener) {
+        this(address, policy, Metrics.DISABLED, listener);
+    }
+
+    /**
+     * Attempts to initialize the {@link Socket}.
+     * @param address The {@link InetSocketAddress} of the server socket.
+     * @param policy The {@link RetryPolicy} applied to failed attempts.
+     * @param metrics The {@link Metrics} recording every attempt.
+     * @param listener The {@link ResultCallback} to capture the success of a given method call.
+     */
+    public SocketRunnable(InetSocketAddress address, RetryPolicy policy, Metrics metrics, SocketInitializationCompleteListener listener) {
+        this.address = address;
+        this.policy = policy;
+        this.metrics = metrics;
+        this.listener = listener;
+    }
+
+    /**
+     * Attempts to establish a connection to the respective {@link InetSocketAddress}, until a
+     * connection has been established, the attempts are exhausted, the deadline passes or the
+     * failure is not retryable.
+     */
+    @Override
+    public void run() {
+        long start = System.currentTimeMillis();
+        long deadline = start + policy.getDeadline();
+        ConnectAttemptListener attemptListener = policy.getAttemptListener();
+
+        int attempt = 0;
+        while (!cancelled) {
+            attempt++;
+            long attemptStart = System.currentTimeMillis();
+            int timeout = (int) Math.max(1, Math.min(policy.getConnectTimeout(), deadline - attemptStart));
+
+            Socket socket = null;
+            try {
+                socket = open();
+                socket.connect(address, timeout);
+                socket.setReceiveBufferSize(DEFAULT_BUFFER_SIZE);
+                socket.setSendBufferSize(DEFAULT_BUFFER_SIZE);
+                release(socket);
+
+                long now = System.currentTimeMillis();
+                Log.d(Log.TAG, String.format("Succeeded to connect to %s after %d attempts in %d ms.", address, attempt, now - start));
+                metrics.onAttempt(address, attempt, now - attemptStart, null);
+                metrics.onComplete(address, attempt, now - start, true);
+                if (attemptListener != null) {
+                    attemptListener.onAttempt(address, attempt, now - attemptStart, null);
+                    attemptListener.onComplete(address, attempt, now - start, true);
+                }
+                listener.onSuccess(socket);
+                return;
+            } catch (IOException ex) {
+                release(socket);
+                closeQuietly(socket);
+
+                ConnectFailure failure = ConnectFailure.classify(ex);
+                long now = System.currentTimeMillis();
+                metrics.onAttempt(address, attempt, now - attemptStart, failure);
+                if (attemptListener != null) {
+                    attemptListener.onAttempt(address, attempt, now - attemptStart, failure);
+                }
+
+                long delay = policy.getDelay(attempt, random);
+                if (cancelled || attempt >= policy.getMaxAttempts() || !policy.isRetryable(failure) || now + delay >= deadline) {
+                    break;
+                }
+
+                Log.d(Log.TAG, String.format("Failed to connect to %s (%s), will attempt to retry in %d ms.", address, failure, delay));
+                await(delay);
+            }
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        Log.d(Log.TAG, String.format("Failed to connect to %s after %d attempts in %d ms.", address, attempt, duration));
+        metrics.onComplete(address, attempt, duration, false);
+        if (attemptListener != null) {
+            attemptListener.onComplete(address, attempt, duration, false);
+        }
+        listener.onFailure();
+    }
+
+    /**
+     * Cancels any further attempt, an attempt in progress is aborted.
+     */
+    public void cancel() {
+        synchronized (lock) {
+            cancelled = true;
+            closeQuietly(pending);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * @return A new {@link Socket}, which is aborted should this runnable be cancelled.
+     */
+    private Socket open() throws IOException {
+        // The socket is backed by a channel, allowing files to be written via FileChannel#transferTo
+        Socket socket = SocketChannel.open().socket();
+        synchronized (lock) {
+            if (cancelled) {
+                socket.close();
+                throw new IOException("Cancelled.");
+            }
+            pending = socket;
+        }
+        return socket;
+    }
+
+    private void release(Socket socket) {
+        synchronized (lock) {
+            if (pending == socket) {
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * Waits for the given delay, or until cancelled.
+     */
+    private void await(long delay) {
+        long end = System.currentTimeMillis() + delay;
+        synchronized (lock) {
+            long remaining;
+            while (!cancelled && (remaining = end - System.currentTimeMillis()) > 0) {
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                Log.e(Log.TAG, "Failed to close socket.");
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package github.tylerjmcbride.direct.sockets.listeners;
+
+import java.net.InetSocketAddress;
+
+import github.tylerjmcbride.direct.sockets.ConnectFailure;
+
+/**
+ * Interface for observing the timings and outcomes of connection attempts. Invoked on the
+ * connecting {@link Thread}, implementations must therefore not block.
+ */
+public interface ConnectAttemptListener {
+
+    /**
+     * Invoked once for every connection attempt.
+     * @param address The {@link InetSocketAddress} being connected to.
+     * @param attempt The number of the attempt, starting from 1.
+     * @param duration The duration of the attempt in milliseconds.
+     * @param failure The reason the attempt failed, or null if the attempt succeeded.
+     */
+    void onAttempt(InetSocketAddress address, int attempt, long duration, ConnectFailure failure);
+
+    /**
+     * Invoked once every attempt has been made, or a connection has been established.
+     * @param address The {@link InetSocketAddress} being connected to.
+     * @param attempts The number of attempts made.
+     * @param duration The duration of every attempt, including the delays between them, in milliseconds.
+     * @param connected Whether a connection has been established.
+     */
+    void onComplete(InetSocketAddress address, int attempts, long duration, boolean connected);
+}
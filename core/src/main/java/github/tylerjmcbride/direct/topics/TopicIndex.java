@@ -0,0 +1,108 @@
+package github.tylerjmcbride.direct.topics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link TopicIndex} maps every topic to the MAC addresses of its subscribers, so that a
+ * message published to a topic is only sent to the clients subscribed to it. The reverse mapping
+ * is kept as well, so that every subscription of a client is dropped at once.
+ */
+public class TopicIndex {
+
+    private final Map<String, Set<String>> subscribersByTopic = new HashMap<>();
+    private final Map<String, Set<String>> topicsBySubscriber = new HashMap<>();
+
+    /**
+     * @param macAddress The MAC address of the subscriber.
+     * @param topics The topics to subscribe to.
+     */
+    public synchronized void subscribe(String macAddress, Collection<String> topics) {
+        for (String topic : topics) {
+            Set<String> subscribers = subscribersByTopic.get(topic);
+            if (subscribers == null) {
+                subscribers = new HashSet<>();
+                subscribersByTopic.put(topic, subscribers);
+            }
+            subscribers.add(macAddress);
+        }
+
+        Set<String> subscribed = topicsBySubscriber.get(macAddress);
+        if (subscribed == null) {
+            subscribed = new HashSet<>();
+            topicsBySubscriber.put(macAddress, subscribed);
+        }
+        subscribed.addAll(topics);
+    }
+
+    /**
+     * @param macAddress The MAC address of the subscriber.
+     * @param topics The topics to unsubscribe from.
+     */
+    public synchronized void unsubscribe(String macAddress, Collection<String> topics) {
+        Set<String> subscribed = topicsBySubscriber.get(macAddress);
+        if (subscribed == null) {
+            return;
+        }
+
+        for (String topic : topics) {
+            if (subscribed.remove(topic)) {
+                removeSubscriber(topic, macAddress);
+            }
+        }
+
+        if (subscribed.isEmpty()) {
+            topicsBySubscriber.remove(macAddress);
+        }
+    }
+
+    /**
+     * Drops every subscription of the given subscriber.
+     * @param macAddress The MAC address of the subscriber.
+     */
+    public synchronized void remove(String macAddress) {
+        Set<String> subscribed = topicsBySubscriber.remove(macAddress);
+        if (subscribed != null) {
+            for (String topic : subscribed) {
+                removeSubscriber(topic, macAddress);
+            }
+        }
+    }
+
+    /**
+     * @param topic The topic.
+     * @return A copy of the MAC addresses of every subscriber to the given topic.
+     */
+    public synchronized Set<String> getSubscribers(String topic) {
+        Set<String> subscribers = subscribersByTopic.get(topic);
+        return subscribers != null ? new HashSet<>(subscribers) : Collections.<String>emptySet();
+    }
+
+    /**
+     * @param macAddress The MAC address of the subscriber.
+     * @return A copy of every topic the given subscriber is subscribed to.
+     */
+    public synchronized Set<String> getTopics(String macAddress) {
+        Set<String> subscribed = topicsBySubscriber.get(macAddress);
+        return subscribed != null ? new HashSet<>(subscribed) : Collections.<String>emptySet();
+    }
+
+    public synchronized void clear() {
+        subscribersByTopic.clear();
+        topicsBySubscriber.clear();
+    }
+
+    private void removeSubscriber(String topic, String macAddress) {
+        Set<String> subscribers = subscribersByTopic.get(topic);
+        if (subscribers != null) {
+            subscribers.remove(macAddress);
+            if (subscribers.isEmpty()) {
+                subscribersByTopic.remove(topic);
+            }
+        }
+    }
+}
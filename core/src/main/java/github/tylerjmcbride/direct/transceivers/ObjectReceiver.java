@@ -0,0 +1,158 @@
+package github.tylerjmcbride.direct.transceivers;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.util.concurrent.Executor;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.sockets.SelectorServerRunnable;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.transceivers.callbacks.FileCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.RelayCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.Responder;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.files.FileReceiver;
+import github.tylerjmcbride.direct.transceivers.relay.RelayRouter;
+import github.tylerjmcbride.direct.transceivers.runnables.ObjectReceiverRunnable;
+
+public class ObjectReceiver {
+
+    private static final int DEFAULT_RECEIVER_PORT = 59500;
+    private static final int MAX_SERVER_CONNECTIONS = 25;
+
+    private ObjectReceiverRunnable runnable;
+    private FileReceiver fileReceiver;
+    private IoScheduler scheduler;
+    private Executor mainExecutor;
+    private volatile Executor callbackExecutor;
+    private volatile Metrics metrics = Metrics.DISABLED;
+    private volatile Responder responder;
+    private volatile RelayRouter relayRouter;
+    private volatile RelayCallback relayCallback;
+    private Codec codec;
+
+    public ObjectReceiver(IoScheduler scheduler, Executor mainExecutor, Codec codec) {
+        this.scheduler = scheduler;
+        this.mainExecutor = mainExecutor;
+        this.callbackExecutor = mainExecutor;
+        this.codec = codec;
+        this.fileReceiver = new FileReceiver(scheduler.getDiskExecutor(), callbackExecutor);
+    }
+
+    /**
+     * Sets the {@link Executor} the {@link ObjectCallback} and {@link FileCallback} are invoked
+     * on, takes effect for objects upon the next {@link ObjectReceiver#start}.
+     * @param callbackExecutor The {@link Executor}.
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        fileReceiver.setCallbackExecutor(callbackExecutor);
+    }
+
+    /**
+     * Sets the {@link Metrics} recording every received message, takes effect upon the next
+     * {@link ObjectReceiver#start}.
+     * @param metrics The {@link Metrics}.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the {@link Responder} replying to the requests received, until set every request is
+     * rejected. Takes effect immediately.
+     * @param responder The {@link Responder}, or null to reject every request.
+     */
+    public void setResponder(Responder responder) {
+        this.responder = responder;
+        ObjectReceiverRunnable runnable = this.runnable;
+        if (runnable != null) {
+            runnable.setResponder(responder);
+        }
+    }
+
+    /**
+     * Sets the {@link RelayRouter} forwarding the objects relayed between clients, only set on the
+     * host. Takes effect immediately.
+     * @param relayRouter The {@link RelayRouter}, or null to receive relayed objects instead.
+     */
+    public void setRelayRouter(RelayRouter relayRouter) {
+        this.relayRouter = relayRouter;
+        ObjectReceiverRunnable runnable = this.runnable;
+        if (runnable != null) {
+            runnable.setRelayRouter(relayRouter);
+        }
+    }
+
+    /**
+     * Sets the {@link RelayCallback} receiving the objects relayed from other clients, until set
+     * said objects are passed to the {@link ObjectCallback}. Takes effect immediately.
+     * @param relayCallback The {@link RelayCallback}, or null.
+     */
+    public void setRelayCallback(RelayCallback relayCallback) {
+        this.relayCallback = relayCallback;
+        ObjectReceiverRunnable runnable = this.runnable;
+        if (runnable != null) {
+            runnable.setRelayCallback(relayCallback);
+        }
+    }
+
+    /**
+     * Sets where received files are written, until set every received file is discarded.
+     * @param directory The directory to write received files to.
+     * @param fileCallback The {@link FileCallback} to handle received files.
+     */
+    public void setFileCallback(File directory, FileCallback fileCallback) {
+        fileReceiver.setDestination(directory, fileCallback);
+    }
+
+    /**
+     * Starts the data receiver.
+     * @param objectCallback The {@link ObjectCallback} to handle received objects.
+     * @param listener The {@link ServerSocketInitializationListener} to capture the result of
+     *                 the initialization.
+     */
+    public void start(final ObjectCallback objectCallback, final ServerSocketInitializationListener listener) {
+        runnable = new ObjectReceiverRunnable(DEFAULT_RECEIVER_PORT, MAX_SERVER_CONNECTIONS, scheduler, callbackExecutor, codec, objectCallback, fileReceiver, metrics, new ServerSocketInitializationListener() {
+            @Override
+            public void onSuccess(final ServerSocket serverSocket) {
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onSuccess(serverSocket);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure() {
+                mainExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onFailure();
+                    }
+                });
+            }
+        });
+        runnable.setResponder(responder);
+        runnable.setRelayRouter(relayRouter);
+        runnable.setRelayCallback(relayCallback);
+        scheduler.execute(runnable);
+    }
+
+    /**
+     * Stops the object receiver. Will invoke {@link SelectorServerRunnable#stop()} which will
+     * close every connection and effectively kill the {@link Thread} running the
+     * {@link SelectorServerRunnable}.
+     */
+    public void stop() {
+        if(runnable != null) {
+            runnable.stop();
+            runnable = null;
+            Log.d(Log.TAG, "Succeeded to stop object receiver.");
+        }
+    }
+}
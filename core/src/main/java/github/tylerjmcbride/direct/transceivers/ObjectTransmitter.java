@@ -0,0 +1,493 @@
+package github.tylerjmcbride.direct.transceivers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.callbacks.TransferCallback;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.sockets.Connection;
+import github.tylerjmcbride.direct.sockets.ConnectionManager;
+import github.tylerjmcbride.direct.sockets.RetryPolicy;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.files.FileChunk;
+import github.tylerjmcbride.direct.transceivers.files.FileHeader;
+import github.tylerjmcbride.direct.transceivers.files.TransferState;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameEncoder;
+import github.tylerjmcbride.direct.transceivers.frames.FrameOutputStream;
+import github.tylerjmcbride.direct.transceivers.relay.RelayFrames;
+import github.tylerjmcbride.direct.transceivers.requests.PendingResponse;
+import github.tylerjmcbride.direct.transceivers.requests.Requester;
+
+public class ObjectTransmitter {
+
+    /**
+     * The largest range of a file written as a single {@link Frame#TYPE_FILE_DATA} frame.
+     */
+    private static final int FILE_CHUNK_LENGTH = 1024 * 1024;
+    private static final int FILE_STATUS_TIMEOUT = 15000;
+    private static final int MAX_TRANSFER_ROUNDS = 8;
+    private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+    private IoScheduler scheduler;
+    private ConnectionManager connectionManager;
+    private Requester requester;
+    private volatile Executor callbackExecutor;
+    private volatile Metrics metrics = Metrics.DISABLED;
+    private Codec codec;
+
+    public ObjectTransmitter(IoScheduler scheduler, Executor callbackExecutor, Codec codec) {
+        this.scheduler = scheduler;
+        this.connectionManager = new ConnectionManager(scheduler);
+        this.requester = new Requester(scheduler, codec);
+        this.callbackExecutor = callbackExecutor;
+        this.codec = codec;
+    }
+
+    /**
+     * @param callbackExecutor The {@link Executor} every callback is invoked on.
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @param retryPolicy The {@link RetryPolicy} applied when connecting to an address.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        connectionManager.setRetryPolicy(retryPolicy);
+        requester.setRetryPolicy(retryPolicy);
+    }
+
+    /**
+     * @param metrics The {@link Metrics} recording every message and connection attempt.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        connectionManager.setMetrics(metrics);
+        requester.setMetrics(metrics);
+    }
+
+    /**
+     * Sends data to the respective address as a single {@link Frame}. The connection to the
+     * respective address is kept open and reused by subsequent calls.
+     * @param object The {@link Serializable} object to send.
+     * @param address The {@link InetSocketAddress}.
+     * @param callback Invoked upon the success or failure.
+     */
+    public void send(final Serializable object, final InetSocketAddress address, final ResultCallback callback) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(encode(object), address, callback);
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, "Failed to encode data.");
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onFailure();
+                        }
+                    });
+                }
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                callback.onFailure();
+            }
+        });
+    }
+
+    /**
+     * Sends data to another client through the host at the respective address, which relays the
+     * data without decoding it. The callback only reflects whether the host accepted the data.
+     * @param object The {@link Serializable} object to send.
+     * @param destination The MAC address of the client to relay the object to.
+     * @param source The MAC address of this device.
+     * @param address The {@link InetSocketAddress} of the host.
+     * @param callback Invoked upon the success or failure.
+     */
+    public void relay(final Serializable object, final String destination, final String source, final InetSocketAddress address, final ResultCallback callback) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(RelayFrames.encode(destination, source, object, codec), address, callback);
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, "Failed to encode relayed data.");
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onFailure();
+                        }
+                    });
+                }
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                callback.onFailure();
+            }
+        });
+    }
+
+    /**
+     * Forwards a received {@link Frame#TYPE_RELAY} frame to the respective address as it was
+     * received. The payload is neither decoded nor copied, it is written straight from the buffer
+     * it was received into.
+     * @param frame The {@link Frame#TYPE_RELAY} frame.
+     * @param address The {@link InetSocketAddress} of the destination.
+     */
+    public void forward(final Frame frame, final InetSocketAddress address) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = metrics.start();
+                try {
+                    ByteBuffer[] buffers = RelayFrames.forward(frame);
+                    connectionManager.write(address, buffers);
+                    metrics.onSent(address.getAddress(), Frame.HEADER_LENGTH + frame.getPayloadLength(), start);
+                    Log.d(Log.TAG, String.format("Succeeded to relay data to %s.", address));
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, String.format("Failed to relay data to %s.", address));
+                    metrics.onSendFailed(address.getAddress());
+                }
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                Log.e(Log.TAG, String.format("Failed to relay data to %s.", address));
+            }
+        });
+    }
+
+    /**
+     * Sends a request to the respective address, whose {@link github.tylerjmcbride.direct.transceivers.callbacks.Responder}
+     * replies with a response. Requests are sent over a connection of their own, without waiting
+     * for the responses to the requests before them.
+     * @param object The {@link Serializable} request.
+     * @param address The {@link InetSocketAddress}, or null should the peer be unknown, in which
+     *                case the request fails immediately.
+     * @param timeout The duration in milliseconds to await the response, after which the request fails.
+     * @return The {@link PendingResponse}.
+     */
+    public PendingResponse request(Serializable object, InetSocketAddress address, long timeout) {
+        if (address == null) {
+            return PendingResponse.failed(new IOException("The peer is unknown."), callbackExecutor);
+        }
+        return requester.request(object, address, timeout, callbackExecutor);
+    }
+
+    /**
+     * Sends a heartbeat to the respective address over the same channel as requests, the receiver
+     * replies to it immediately. The response is null.
+     * @param address The {@link InetSocketAddress}, or null should the peer be unknown, in which
+     *                case the heartbeat fails immediately.
+     * @param timeout The duration in milliseconds to await the response, after which the heartbeat fails.
+     * @return The {@link PendingResponse}.
+     */
+    public PendingResponse heartbeat(InetSocketAddress address, long timeout) {
+        if (address == null) {
+            return PendingResponse.failed(new IOException("The peer is unknown."), callbackExecutor);
+        }
+        return requester.heartbeat(address, timeout, callbackExecutor);
+    }
+
+    /**
+     * Sends the same data to every respective address. The object is encoded once into a single
+     * read-only buffer which is then written to every address in parallel.
+     * @param object The {@link Serializable} object to send.
+     * @param recipients The {@link InetSocketAddress} of every recipient, each mapped to the
+     *                   callback invoked upon the success or failure of its respective write.
+     */
+    public void broadcast(final Serializable object, final Map<InetSocketAddress, ResultCallback> recipients) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                final ByteBuffer frame;
+                try {
+                    frame = encode(object).asReadOnlyBuffer();
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, "Failed to encode broadcast data.");
+                    for (final ResultCallback callback : recipients.values()) {
+                        callbackExecutor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                callback.onFailure();
+                            }
+                        });
+                    }
+                    return;
+                }
+
+                for (final Map.Entry<InetSocketAddress, ResultCallback> recipient : recipients.entrySet()) {
+                    execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            write(frame, recipient.getKey(), recipient.getValue());
+                        }
+                    }, new Runnable() {
+                        @Override
+                        public void run() {
+                            recipient.getValue().onFailure();
+                        }
+                    });
+                }
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                for (ResultCallback callback : recipients.values()) {
+                    callback.onFailure();
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends the given file to the respective address. The file is split into fixed-size chunks,
+     * each written using {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+     * along with its checksum, so the contents of the file are never held in memory. Should the
+     * connection drop, the transfer resumes from the chunks the receiver has verified, rather than
+     * starting over.
+     * @param file The {@link File} to send.
+     * @param address The {@link InetSocketAddress}.
+     * @param callback Invoked upon the progress, success or failure.
+     */
+    public void sendFile(final File file, final InetSocketAddress address, final TransferCallback callback) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                if (transferFile(file, address, callback)) {
+                    Log.d(Log.TAG, String.format("Succeeded to send file %s.", file.getName()));
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onSuccess();
+                        }
+                    });
+                } else {
+                    Log.e(Log.TAG, String.format("Failed to send file %s.", file.getName()));
+                    callbackExecutor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onFailure();
+                        }
+                    });
+                }
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                callback.onFailure();
+            }
+        });
+    }
+
+    /**
+     * Every round asks the receiver which chunks it has verified, then sends the remainder. A
+     * round interrupted by a dropped connection is resumed over a new connection.
+     * @return Whether the receiver has verified every chunk.
+     */
+    private boolean transferFile(File file, InetSocketAddress address, TransferCallback callback) {
+        FileInputStream fileInputStream = null;
+        try {
+            fileInputStream = new FileInputStream(file);
+            FileChannel fileChannel = fileInputStream.getChannel();
+            FileHeader header = new FileHeader(getTransferId(file), file.getName(), fileChannel.size(), FILE_CHUNK_LENGTH);
+            ByteBuffer scratch = ByteBuffer.allocate(CHECKSUM_BUFFER_SIZE);
+
+            for (int round = 0; round < MAX_TRANSFER_ROUNDS; round++) {
+                Connection connection = null;
+                try {
+                    connection = connectionManager.acquire(address);
+                    TransferState state = requestState(connection, header);
+                    if (state == null) {
+                        Log.e(Log.TAG, String.format("File %s was rejected by %s.", file.getName(), address));
+                        return false;
+                    } else if (state.isComplete()) {
+                        return true;
+                    }
+                    sendChunks(connection, fileChannel, state, scratch, callback);
+                } catch (IOException ex) {
+                    Log.d(Log.TAG, String.format("Failed to send file %s, will attempt to resume.", file.getName()));
+                    if (connection != null) {
+                        // The receiver cannot recover from a partially written frame
+                        connectionManager.invalidate(connection);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            Log.e(Log.TAG, String.format("Failed to read file %s.", file.getName()));
+        } finally {
+            if (fileInputStream != null) {
+                try {
+                    fileInputStream.close();
+                } catch (IOException ex) {
+                    Log.e(Log.TAG, String.format("Failed to close file %s.", file.getName()));
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sends the given header and waits for the receiver to reply with its {@link TransferState}.
+     * @return The {@link TransferState}, or null if the receiver has rejected the file.
+     */
+    private static TransferState requestState(Connection connection, FileHeader header) throws IOException {
+        Frame reply;
+        synchronized (connection) {
+            connection.write(encode(Frame.TYPE_FILE_HEADER, header.encode()));
+            reply = connection.read(FILE_STATUS_TIMEOUT);
+        }
+
+        if (reply.getType() != Frame.TYPE_FILE_STATUS) {
+            throw new IOException(String.format("Unexpected reply of type %d.", reply.getType()));
+        } else if (reply.getPayloadLength() == 0) {
+            return null;
+        }
+
+        TransferState state = TransferState.decode(reply.getPayload());
+        if (!state.matches(header)) {
+            throw new IOException("Unexpected transfer state.");
+        }
+        return state;
+    }
+
+    /**
+     * Sends every chunk missing from the given {@link TransferState}.
+     */
+    private void sendChunks(Connection connection, FileChannel fileChannel, TransferState state, ByteBuffer scratch, final TransferCallback callback) throws IOException {
+        final long length = fileChannel.size();
+        long sent = state.getReceivedLength();
+        for (int index = state.nextMissing(0); index < state.getChunkCount(); index = state.nextMissing(index + 1)) {
+            long offset = state.getChunkOffset(index);
+            int count = state.getChunkLength(index);
+            long checksum = FileChunk.checksum(fileChannel, offset, count, scratch);
+
+            // The chunk must immediately precede its data, regardless of other writes
+            synchronized (connection) {
+                connection.write(encode(Frame.TYPE_FILE_CHUNK, new FileChunk(state.getTransferId(), index, offset, count, checksum).encode()));
+                connection.write(FrameEncoder.encodeHeader(Frame.TYPE_FILE_DATA, Frame.FLAG_STREAMED, count));
+                connection.transferFrom(fileChannel, offset, count);
+            }
+            sent += count;
+            metrics.onBytesSent(connection.getAddress().getAddress(), count);
+
+            final long progress = sent;
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onProgress(progress, length);
+                }
+            });
+        }
+    }
+
+    /**
+     * The transfer id remains the same for as long as the file is unchanged, so that a transfer
+     * may be resumed even once this {@link ObjectTransmitter} has been recreated.
+     */
+    private static long getTransferId(File file) {
+        CRC32 crc = new CRC32();
+        crc.update(file.getAbsolutePath().getBytes());
+        return (crc.getValue() << 32) ^ (file.length() * 31 + file.lastModified());
+    }
+
+    /**
+     * Runs the given task on the {@link IoScheduler}, should the task be rejected the given
+     * failure is passed to the callback {@link Executor} instead.
+     */
+    private void execute(Runnable task, Runnable failure) {
+        try {
+            scheduler.execute(task);
+        } catch (RejectedExecutionException ex) {
+            Log.e(Log.TAG, String.format("Failed to schedule data, %s", ex.getMessage()));
+            callbackExecutor.execute(failure);
+        }
+    }
+
+    /**
+     * Writes an encoded frame to the respective address.
+     */
+    private void write(ByteBuffer frame, InetSocketAddress address, final ResultCallback callback) {
+        long start = metrics.start();
+        try {
+            connectionManager.write(address, frame);
+            metrics.onSent(address.getAddress(), frame.remaining(), start);
+
+            Log.d(Log.TAG, "Succeeded to send data.");
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onSuccess();
+                }
+            });
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to send data.");
+            metrics.onSendFailed(address.getAddress());
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure();
+                }
+            });
+        }
+    }
+
+    /**
+     * Encodes the given object into a {@link Frame#TYPE_OBJECT} frame using the {@link Codec}.
+     * @param object The {@link Serializable} object to encode.
+     * @return A {@link ByteBuffer} holding the complete frame.
+     * @throws IOException If the object could not be encoded.
+     */
+    private ByteBuffer encode(Serializable object) throws IOException {
+        FrameOutputStream frameOutputStream = new FrameOutputStream();
+        codec.encode(object, frameOutputStream);
+        return frameOutputStream.toFrame(Frame.TYPE_OBJECT, Frame.NO_FLAGS);
+    }
+
+    private static ByteBuffer encode(byte type, byte[] payload) {
+        return FrameEncoder.encode(new Frame(type, Frame.NO_FLAGS, payload));
+    }
+
+    /**
+     * Closes the connection to the respective address, if one exists.
+     * @param address The {@link InetSocketAddress}.
+     */
+    public void disconnect(InetSocketAddress address) {
+        connectionManager.close(address);
+        requester.close(address);
+    }
+
+    /**
+     * Closes every open connection.
+     */
+    public void disconnectAll() {
+        connectionManager.closeAll();
+        requester.closeAll();
+    }
+
+    /**
+     * Closes every open connection and stops closing idle connections, the
+     * {@link ObjectTransmitter} must not be used afterwards.
+     */
+    public void close() {
+        connectionManager.close();
+        requester.close();
+    }
+}
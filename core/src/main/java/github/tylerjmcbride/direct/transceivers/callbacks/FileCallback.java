@@ -0,0 +1,9 @@
+package github.tylerjmcbride.direct.transceivers.callbacks;
+
+import java.io.File;
+
+public interface FileCallback {
+    void onProgress(String name, long received, long length);
+    void onReceived(File file);
+    void onFailure(String name);
+}
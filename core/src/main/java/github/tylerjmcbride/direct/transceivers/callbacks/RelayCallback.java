@@ -0,0 +1,9 @@
+package github.tylerjmcbride.direct.transceivers.callbacks;
+
+/**
+ * Interface for callback invocation when an object sent by another client has been relayed by
+ * the host.
+ */
+public interface RelayCallback {
+    void onReceived(String source, Object object);
+}
@@ -0,0 +1,17 @@
+package github.tylerjmcbride.direct.transceivers.callbacks;
+
+import github.tylerjmcbride.direct.transceivers.requests.Reply;
+
+/**
+ * Interface for replying to the requests received from peers.
+ */
+public interface Responder {
+
+    /**
+     * Invoked for every request received. The {@link Reply} may be sent later on any thread,
+     * allowing the request to be handled asynchronously, yet must be sent exactly once.
+     * @param request The decoded request.
+     * @param reply The {@link Reply} to the request.
+     */
+    void onRequest(Object request, Reply reply);
+}
@@ -0,0 +1,12 @@
+package github.tylerjmcbride.direct.transceivers.callbacks;
+
+import github.tylerjmcbride.direct.transceivers.requests.PendingResponse;
+
+/**
+ * Interface for callback invocation on the response to a request. The cause of a failure is
+ * available through {@link PendingResponse#getFailure()}.
+ */
+public interface ResponseCallback {
+    void onResponse(Object response);
+    void onFailure();
+}
@@ -0,0 +1,288 @@
+package github.tylerjmcbride.direct.transceivers.codecs;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compact {@link Codec} for registered message types. Every encoded object is prefixed by the
+ * variable-length id of its type, followed by the fields written by the respective
+ * {@link MessageAdapter}; no class descriptors are written. Both ends must register the same
+ * types under the same ids before exchanging data.
+ *
+ * <pre>
+ * BinaryCodec codec = new BinaryCodec()
+ *         .register(BinaryCodec.FIRST_USER_TYPE_ID, Position.class, new PositionAdapter());
+ * </pre>
+ *
+ * Objects of an unregistered type are encoded with Java serialization, unless the fallback has
+ * been disabled.
+ */
+public class BinaryCodec implements Codec {
+
+    /**
+     * Ids below this value are reserved for the built-in types.
+     */
+    public static final int FIRST_USER_TYPE_ID = 16;
+
+    private static final int SERIALIZED_TYPE_ID = 0;
+    private static final int NULL_TYPE_ID = 1;
+    private static final int STRING_TYPE_ID = 2;
+    private static final int INTEGER_TYPE_ID = 3;
+    private static final int LONG_TYPE_ID = 4;
+    private static final int DOUBLE_TYPE_ID = 5;
+    private static final int BOOLEAN_TYPE_ID = 6;
+    private static final int BYTES_TYPE_ID = 7;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<Class<?>, Registration<?>> registrationsByClass = new ConcurrentHashMap<>();
+    private final Map<Integer, Registration<?>> registrationsById = new ConcurrentHashMap<>();
+    private final SerializableCodec fallback;
+
+    public BinaryCodec() {
+        this(true);
+    }
+
+    /**
+     * @param serializableFallback Whether objects of an unregistered type are encoded with Java
+     *                             serialization, otherwise encoding said objects will fail.
+     */
+    public BinaryCodec(boolean serializableFallback) {
+        this.fallback = serializableFallback ? new SerializableCodec() : null;
+        add(STRING_TYPE_ID, String.class, new MessageAdapter<String>() {
+            @Override
+            public void write(String message, DataOutput output) throws IOException {
+                writeString(message, output);
+            }
+
+            @Override
+            public String read(DataInput input) throws IOException {
+                return readString(input);
+            }
+        });
+        add(INTEGER_TYPE_ID, Integer.class, new MessageAdapter<Integer>() {
+            @Override
+            public void write(Integer message, DataOutput output) throws IOException {
+                output.writeInt(message);
+            }
+
+            @Override
+            public Integer read(DataInput input) throws IOException {
+                return input.readInt();
+            }
+        });
+        add(LONG_TYPE_ID, Long.class, new MessageAdapter<Long>() {
+            @Override
+            public void write(Long message, DataOutput output) throws IOException {
+                output.writeLong(message);
+            }
+
+            @Override
+            public Long read(DataInput input) throws IOException {
+                return input.readLong();
+            }
+        });
+        add(DOUBLE_TYPE_ID, Double.class, new MessageAdapter<Double>() {
+            @Override
+            public void write(Double message, DataOutput output) throws IOException {
+                output.writeDouble(message);
+            }
+
+            @Override
+            public Double read(DataInput input) throws IOException {
+                return input.readDouble();
+            }
+        });
+        add(BOOLEAN_TYPE_ID, Boolean.class, new MessageAdapter<Boolean>() {
+            @Override
+            public void write(Boolean message, DataOutput output) throws IOException {
+                output.writeBoolean(message);
+            }
+
+            @Override
+            public Boolean read(DataInput input) throws IOException {
+                return input.readBoolean();
+            }
+        });
+        add(BYTES_TYPE_ID, byte[].class, new MessageAdapter<byte[]>() {
+            @Override
+            public void write(byte[] message, DataOutput output) throws IOException {
+                output.writeInt(message.length);
+                output.write(message);
+            }
+
+            @Override
+            public byte[] read(DataInput input) throws IOException {
+                byte[] message = new byte[readLength(input)];
+                input.readFully(message);
+                return message;
+            }
+        });
+    }
+
+    /**
+     * Registers a message type. Objects whose class is exactly the given type will be encoded by
+     * the given {@link MessageAdapter}.
+     * @param typeId The id identifying the type on the wire, at least {@link BinaryCodec#FIRST_USER_TYPE_ID}.
+     * @param type The message type.
+     * @param adapter The {@link MessageAdapter} for the message type.
+     * @param <T> The message type.
+     * @return This {@link BinaryCodec}.
+     */
+    public <T> BinaryCodec register(int typeId, Class<T> type, MessageAdapter<T> adapter) {
+        if (typeId < FIRST_USER_TYPE_ID) {
+            throw new IllegalArgumentException(String.format("Type id %d is reserved.", typeId));
+        }
+        if (registrationsById.containsKey(typeId) || registrationsByClass.containsKey(type)) {
+            throw new IllegalArgumentException(String.format("Type id %d or %s is already registered.", typeId, type.getName()));
+        }
+        add(typeId, type, adapter);
+        return this;
+    }
+
+    @Override
+    public void encode(Object object, OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        if (object == null) {
+            writeVarInt(NULL_TYPE_ID, output);
+            return;
+        }
+
+        Registration<?> registration = registrationsByClass.get(object.getClass());
+        if (registration != null) {
+            writeVarInt(registration.typeId, output);
+            registration.write(object, output);
+            output.flush();
+        } else if (fallback != null) {
+            writeVarInt(SERIALIZED_TYPE_ID, output);
+            fallback.encode(object, outputStream);
+        } else {
+            throw new NotSerializableException(String.format("%s has not been registered.", object.getClass().getName()));
+        }
+    }
+
+    @Override
+    public Object decode(byte[] payload, int offset, int length) throws IOException {
+        // Read the variable-length type id directly from the payload
+        int typeId = 0;
+        int position = offset;
+        int end = offset + length;
+        for (int shift = 0; ; shift += 7) {
+            if (position >= end || shift > 28) {
+                throw new StreamCorruptedException("Malformed type id.");
+            }
+            byte b = payload[position++];
+            typeId |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+
+        if (typeId == NULL_TYPE_ID) {
+            return null;
+        } else if (typeId == SERIALIZED_TYPE_ID) {
+            if (fallback == null) {
+                throw new StreamCorruptedException("Received a serialized object whilst the fallback is disabled.");
+            }
+            return fallback.decode(payload, position, end - position);
+        }
+
+        Registration<?> registration = registrationsById.get(typeId);
+        if (registration == null) {
+            throw new StreamCorruptedException(String.format("Type id %d has not been registered.", typeId));
+        }
+        return registration.adapter.read(new PayloadInputStream(payload, position, end - position));
+    }
+
+    private <T> void add(int typeId, Class<T> type, MessageAdapter<T> adapter) {
+        Registration<T> registration = new Registration<>(typeId, type, adapter);
+        registrationsById.put(typeId, registration);
+        registrationsByClass.put(type, registration);
+    }
+
+    /**
+     * Writes a {@link String} as its UTF-8 length followed by its UTF-8 bytes. Unlike
+     * {@link DataOutput#writeUTF(String)}, strings are not limited to 65535 bytes.
+     * @param value The {@link String} to write.
+     * @param output The {@link DataOutput} to write to.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static void writeString(String value, DataOutput output) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a {@link String} written by {@link BinaryCodec#writeString(String, DataOutput)}.
+     * @param input The {@link DataInput} to read from.
+     * @return The {@link String}.
+     * @throws IOException If an I/O error occurs.
+     */
+    public static String readString(DataInput input) throws IOException {
+        byte[] bytes = new byte[readLength(input)];
+        input.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Reads the length of an array, which is checked before the array is allocated, as a malformed
+     * length would otherwise fail with an unchecked exception or exhaust the heap.
+     * @param input The {@link DataInput} to read from.
+     * @return The length, which does not exceed the bytes left in the payload.
+     * @throws IOException If the length is negative or exceeds the bytes left in the payload.
+     */
+    private static int readLength(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            throw new StreamCorruptedException(String.format("Invalid length %d.", length));
+        } else if (input instanceof PayloadInputStream && length > ((PayloadInputStream) input).available()) {
+            throw new EOFException(String.format("Length %d exceeds the remaining payload.", length));
+        }
+        return length;
+    }
+
+    private static void writeVarInt(int value, DataOutput output) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    /**
+     * A {@link DataInputStream} over the payload being decoded, whose remaining bytes are known.
+     */
+    private static class PayloadInputStream extends DataInputStream {
+        private PayloadInputStream(byte[] payload, int offset, int length) {
+            super(new ByteArrayInputStream(payload, offset, length));
+        }
+    }
+
+    private static class Registration<T> {
+        private final int typeId;
+        private final Class<T> type;
+        private final MessageAdapter<T> adapter;
+
+        private Registration(int typeId, Class<T> type, MessageAdapter<T> adapter) {
+            this.typeId = typeId;
+            this.type = type;
+            this.adapter = adapter;
+        }
+
+        private void write(Object message, DataOutput output) throws IOException {
+            adapter.write(type.cast(message), output);
+        }
+    }
+}
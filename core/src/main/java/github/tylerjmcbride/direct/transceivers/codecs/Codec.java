@@ -0,0 +1,31 @@
+package github.tylerjmcbride.direct.transceivers.codecs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A {@link Codec} converts the objects exchanged between devices to and from the payload of a
+ * {@link github.tylerjmcbride.direct.transceivers.frames.Frame}. Both ends of a connection must be
+ * configured with compatible codecs. Implementations must be thread-safe, as a single instance is
+ * shared by every connection.
+ */
+public interface Codec {
+
+    /**
+     * Encodes the given object.
+     * @param object The object to encode.
+     * @param outputStream The {@link OutputStream} to write the encoded object to.
+     * @throws IOException If the object could not be encoded.
+     */
+    void encode(Object object, OutputStream outputStream) throws IOException;
+
+    /**
+     * Decodes an object previously encoded by {@link Codec#encode(Object, OutputStream)}.
+     * @param payload The array holding the encoded object.
+     * @param offset The offset of the encoded object.
+     * @param length The length of the encoded object.
+     * @return The decoded object.
+     * @throws IOException If the object could not be decoded.
+     */
+    Object decode(byte[] payload, int offset, int length) throws IOException;
+}
@@ -0,0 +1,28 @@
+package github.tylerjmcbride.direct.transceivers.codecs;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes and reads the fields of a single message type registered with a {@link BinaryCodec}.
+ * @param <T> The message type.
+ */
+public interface MessageAdapter<T> {
+
+    /**
+     * Writes the fields of the given message.
+     * @param message The message to write.
+     * @param output The {@link DataOutput} to write to.
+     * @throws IOException If the message could not be written.
+     */
+    void write(T message, DataOutput output) throws IOException;
+
+    /**
+     * Reads a message previously written by {@link MessageAdapter#write(Object, DataOutput)}.
+     * @param input The {@link DataInput} to read from.
+     * @return The message.
+     * @throws IOException If the message could not be read.
+     */
+    T read(DataInput input) throws IOException;
+}
@@ -0,0 +1,32 @@
+package github.tylerjmcbride.direct.transceivers.codecs;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * A {@link Codec} backed by Java serialization. It supports any {@link java.io.Serializable}
+ * object, at the cost of writing the class descriptors along with every object.
+ */
+public class SerializableCodec implements Codec {
+
+    @Override
+    public void encode(Object object, OutputStream outputStream) throws IOException {
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream);
+        objectOutputStream.writeObject(object);
+        objectOutputStream.flush();
+    }
+
+    @Override
+    public Object decode(byte[] payload, int offset, int length) throws IOException {
+        ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(payload, offset, length));
+        try {
+            return objectInputStream.readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new InvalidClassException(ex.getMessage());
+        }
+    }
+}
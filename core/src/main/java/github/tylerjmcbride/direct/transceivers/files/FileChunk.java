@@ -0,0 +1,91 @@
+package github.tylerjmcbride.direct.transceivers.files;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+
+/**
+ * The payload of a {@link Frame#TYPE_FILE_CHUNK} frame, describing the range of the file carried
+ * by the {@link Frame#TYPE_FILE_DATA} frame that immediately follows, along with its checksum.
+ */
+public class FileChunk {
+
+    static final int ENCODED_LENGTH = 28;
+
+    private final long transferId;
+    private final int index;
+    private final long offset;
+    private final int length;
+    private final long checksum;
+
+    public FileChunk(long transferId, int index, long offset, int length, long checksum) {
+        this.transferId = transferId;
+        this.index = index;
+        this.offset = offset;
+        this.length = length;
+        this.checksum = checksum;
+    }
+
+    public long getTransferId() {
+        return transferId;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    public byte[] encode() {
+        return ByteBuffer.allocate(ENCODED_LENGTH)
+                .putLong(transferId)
+                .putInt(index)
+                .putLong(offset)
+                .putInt(length)
+                .putInt((int) checksum)
+                .array();
+    }
+
+    public static FileChunk decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        return new FileChunk(buffer.getLong(), buffer.getInt(), buffer.getLong(), buffer.getInt(), buffer.getInt() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Computes the {@link CRC32} of a range of the given file.
+     * @param file The {@link FileChannel} to read from, its position is left untouched.
+     * @param position The position within the file of the first byte.
+     * @param length The number of bytes.
+     * @param scratch The {@link ByteBuffer} to read through, must be backed by an array.
+     * @return The checksum.
+     * @throws IOException If the range could not be read in its entirety.
+     */
+    public static long checksum(FileChannel file, long position, int length, ByteBuffer scratch) throws IOException {
+        CRC32 crc = new CRC32();
+        long end = position + length;
+        while (position < end) {
+            scratch.clear();
+            scratch.limit((int) Math.min(scratch.capacity(), end - position));
+            int read = file.read(scratch, position);
+            if (read <= 0) {
+                throw new IOException("The file has been truncated.");
+            }
+            crc.update(scratch.array(), scratch.arrayOffset(), read);
+            position += read;
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,60 @@
+package github.tylerjmcbride.direct.transceivers.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+
+/**
+ * The payload of a {@link Frame#TYPE_FILE_HEADER} frame, announcing a file about to be transferred.
+ * The same header is sent again to resume an interrupted transfer.
+ */
+public class FileHeader {
+
+    private final long transferId;
+    private final String name;
+    private final long length;
+    private final int chunkLength;
+
+    public FileHeader(long transferId, String name, long length, int chunkLength) {
+        this.transferId = transferId;
+        this.name = name;
+        this.length = length;
+        this.chunkLength = chunkLength;
+    }
+
+    public long getTransferId() {
+        return transferId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public int getChunkLength() {
+        return chunkLength;
+    }
+
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        dataOutputStream.writeLong(transferId);
+        dataOutputStream.writeUTF(name);
+        dataOutputStream.writeLong(length);
+        dataOutputStream.writeInt(chunkLength);
+        dataOutputStream.flush();
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    public static FileHeader decode(byte[] payload) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(payload));
+        return new FileHeader(dataInputStream.readLong(), dataInputStream.readUTF(), dataInputStream.readLong(), dataInputStream.readInt());
+    }
+}
@@ -0,0 +1,646 @@
+package github.tylerjmcbride.direct.transceivers.files;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.sockets.SelectorServerRunnable;
+import github.tylerjmcbride.direct.sockets.Session;
+import github.tylerjmcbride.direct.transceivers.callbacks.FileCallback;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameEncoder;
+import github.tylerjmcbride.direct.transceivers.frames.PayloadSink;
+
+/**
+ * The {@link FileReceiver} writes the files received over every {@link Session} to disk, without
+ * disk work ever running on the selector thread. The disk {@link Executor} transfers each
+ * {@link Frame#TYPE_FILE_DATA} payload from the connection straight into the file, reading from
+ * the {@link Session} being paused meanwhile; only the bytes the selector had already read are
+ * handed over in slices. Reading from a session is also paused once
+ * {@link FileReceiver#MAX_PENDING_BYTES} of its slices await being written, until the disk has
+ * caught up, so a slow disk merely holds up the sessions writing to it. Files are written to a
+ * temporary file, which is renamed once the file has been received in its entirety.
+ *
+ * Every chunk is verified against the checksum of the bytes received before being marked as
+ * received in the {@link TransferState}, which is persisted alongside the temporary file. Should
+ * the connection drop, the sender may resume the transfer from the persisted state, even over a
+ * new connection.
+ *
+ * {@link FileReceiver#onFrameDecoded(SelectorServerRunnable, Session, Frame)},
+ * {@link FileReceiver#onStreamStarted(SelectorServerRunnable, Session, Frame)} and
+ * {@link FileReceiver#onSessionClosed(Session)} are invoked on the selector thread, whereas the
+ * transfers are confined to the disk {@link Executor}, which must run one task at a time.
+ */
+public class FileReceiver {
+
+    private static final String PARTIAL_FILE_SUFFIX = ".part";
+    private static final String STATE_FILE_SUFFIX = ".state";
+    private static final int SLICE_SIZE = 64 * 1024;
+
+    /**
+     * The maximum number of bytes transferred from a connection to disk at once.
+     */
+    private static final long TRANSFER_SIZE = 256 * 1024;
+
+    /**
+     * The number of bytes read from a single connection which may await being written to disk,
+     * beyond which reading from said connection is paused.
+     */
+    static final long MAX_PENDING_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * The number of bytes awaiting being written to disk below which a paused connection is read
+     * from again.
+     */
+    static final long RESUME_PENDING_BYTES = MAX_PENDING_BYTES / 4;
+
+    /**
+     * The number of completed transfers remembered, so that a sender which missed the final
+     * {@link Frame#TYPE_FILE_STATUS} frame learns the transfer has completed.
+     */
+    private static final int MAX_COMPLETED_TRANSFERS = 64;
+
+    private final Map<Long, Transfer> transfers = new HashMap<>();
+    private final Map<Session, FileChunk> pendingChunks = new HashMap<>();
+    private final Map<Session, Backlog> backlogs = new HashMap<>();
+    private final Map<Long, TransferState> completed = new LinkedHashMap<Long, TransferState>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, TransferState> eldest) {
+            return size() > MAX_COMPLETED_TRANSFERS;
+        }
+    };
+    private final Executor diskExecutor;
+
+    /**
+     * Confined to the disk {@link Executor}.
+     */
+    private final ByteBuffer scratch = ByteBuffer.allocate(SLICE_SIZE);
+    private volatile Executor callbackExecutor;
+    private volatile File directory;
+    private volatile FileCallback callback;
+
+    /**
+     * @param diskExecutor The {@link Executor} every file is written on, which must run one task
+     *                     at a time on a thread other than the selector thread, such as
+     *                     {@link github.tylerjmcbride.direct.executors.IoScheduler#getDiskExecutor()}.
+     * @param callbackExecutor The {@link Executor} the {@link FileCallback} is invoked on.
+     */
+    public FileReceiver(Executor diskExecutor, Executor callbackExecutor) {
+        this.diskExecutor = diskExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @param callbackExecutor The {@link Executor} the {@link FileCallback} is invoked on, which
+     *                         must not block as it is submitted to from the selector thread.
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Sets where received files are written, until set every received file is rejected.
+     * @param directory The directory to write received files to.
+     * @param callback The {@link FileCallback} to handle received files.
+     */
+    public void setDestination(File directory, FileCallback callback) {
+        this.callback = callback;
+        this.directory = directory;
+    }
+
+    /**
+     * Handles {@link Frame#TYPE_FILE_HEADER} and {@link Frame#TYPE_FILE_CHUNK} frames.
+     * @param server The {@link SelectorServerRunnable} replies are posted to.
+     * @param session The {@link Session} the frame was received over.
+     * @param frame The received {@link Frame}.
+     * @return Whether the frame has been handled.
+     */
+    public boolean onFrameDecoded(final SelectorServerRunnable server, final Session session, Frame frame) {
+        byte[] payload = frame.getPayload();
+        try {
+            if (frame.getType() == Frame.TYPE_FILE_HEADER) {
+                final FileHeader header = FileHeader.decode(payload);
+                execute(server, session, new Runnable() {
+                    @Override
+                    public void run() {
+                        onHeader(server, session, header);
+                    }
+                });
+                return true;
+            } else if (frame.getType() == Frame.TYPE_FILE_CHUNK) {
+                if (payload.length < FileChunk.ENCODED_LENGTH) {
+                    throw new IOException("Truncated file chunk.");
+                }
+                pendingChunks.put(session, FileChunk.decode(payload));
+                return true;
+            }
+        } catch (IOException ex) {
+            Log.e(Log.TAG, String.format("Failed to read file frame, %s", ex.getMessage()));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param server The {@link SelectorServerRunnable} serving the {@link Session}, which is
+     *               paused whilst the payload is being written.
+     * @param session The {@link Session} the frame was received over.
+     * @param frame The header of the received {@link Frame#TYPE_FILE_DATA} frame.
+     * @return The {@link PayloadSink} passing the payload to the disk {@link Executor}, or null
+     *         if the payload does not follow the chunk describing it.
+     */
+    public PayloadSink onStreamStarted(SelectorServerRunnable server, Session session, Frame frame) {
+        FileChunk chunk = pendingChunks.remove(session);
+        if (frame.getType() != Frame.TYPE_FILE_DATA || chunk == null || chunk.getLength() != frame.getPayloadLength()) {
+            Log.d(Log.TAG, "Discarding file data of unknown chunk.");
+            return null;
+        }
+
+        Backlog backlog = backlogs.get(session);
+        if (backlog == null) {
+            backlog = new Backlog();
+            backlogs.put(session, backlog);
+        }
+        return new ChunkSink(server, session, backlog, chunk);
+    }
+
+    /**
+     * Suspends every transfer received over the given {@link Session}, each may be resumed from
+     * its persisted state over a new connection. The sender is the one to give up on a transfer,
+     * so a suspended transfer is not reported as a failure.
+     * @param session The closed {@link Session}.
+     */
+    public void onSessionClosed(final Session session) {
+        pendingChunks.remove(session);
+        backlogs.remove(session);
+        try {
+            diskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    suspend(session);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            Log.e(Log.TAG, "Failed to suspend transfers, the disk executor has been shut down.");
+        }
+    }
+
+    /**
+     * Runs the given task on the disk {@link Executor}, closing the given {@link Session} should
+     * the task be rejected, as the disk work is never run on the selector thread instead.
+     */
+    private void execute(SelectorServerRunnable server, Session session, Runnable task) {
+        try {
+            diskExecutor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            Log.e(Log.TAG, "Failed to receive file, the disk executor has been shut down.");
+            server.close(session);
+        }
+    }
+
+    private void suspend(Session session) {
+        List<Transfer> suspended = new ArrayList<>();
+        for (Transfer transfer : transfers.values()) {
+            if (transfer.session == session) {
+                suspended.add(transfer);
+            }
+        }
+
+        for (Transfer transfer : suspended) {
+            Log.d(Log.TAG, String.format("Suspended receiving file %s, the connection was closed.", transfer.target.getName()));
+            transfers.remove(transfer.state.getTransferId());
+            transfer.close();
+        }
+    }
+
+    /**
+     * Starts or resumes the transfer described by the given header, replying with the chunks
+     * which have been received so far.
+     */
+    private void onHeader(SelectorServerRunnable server, Session session, FileHeader header) {
+        TransferState state = completed.get(header.getTransferId());
+        if (state != null && state.matches(header)) {
+            reply(server, session, state);
+            return;
+        }
+
+        Transfer transfer = transfers.get(header.getTransferId());
+        if (transfer == null || !transfer.state.matches(header)) {
+            if (transfer != null) {
+                transfers.remove(header.getTransferId());
+                transfer.close();
+            }
+
+            transfer = open(session, header);
+            if (transfer == null) {
+                // An empty status rejects the transfer
+                server.post(session, FrameEncoder.encode(new Frame(Frame.TYPE_FILE_STATUS, Frame.NO_FLAGS, new byte[0])));
+                return;
+            }
+            transfers.put(header.getTransferId(), transfer);
+        }
+
+        // The sender may have reconnected, the transfer now belongs to the new connection
+        transfer.session = session;
+
+        if (transfer.state.isComplete()) {
+            complete(transfer);
+        }
+        reply(server, session, transfer.state);
+    }
+
+    /**
+     * Opens the temporary file of the given transfer, resuming from the persisted
+     * {@link TransferState} if it belongs to the same transfer.
+     * @return The {@link Transfer}, or null if the transfer cannot be received.
+     */
+    private Transfer open(Session session, FileHeader header) {
+        File directory = this.directory;
+        if (directory == null) {
+            Log.d(Log.TAG, String.format("Rejecting file %s, no destination has been set.", header.getName()));
+            return null;
+        }
+
+        if (!TransferState.isValid(header.getLength(), header.getChunkLength())) {
+            Log.e(Log.TAG, String.format("Rejecting file %s, invalid length.", header.getName()));
+            return null;
+        }
+
+        // Never allow the sender to choose a path outside of the directory
+        String name = new File(header.getName()).getName();
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            name = String.format("transfer-%d", header.getTransferId());
+        }
+
+        File target = new File(directory, name);
+        File partial = new File(directory, name + PARTIAL_FILE_SUFFIX);
+        File stateFile = new File(directory, name + PARTIAL_FILE_SUFFIX + STATE_FILE_SUFFIX);
+
+        TransferState state = TransferState.load(stateFile);
+        boolean resumed = state != null && state.matches(header) && partial.length() == header.getLength();
+        if (!resumed) {
+            state = new TransferState(header);
+        }
+
+        try {
+            RandomAccessFile file = new RandomAccessFile(partial, "rw");
+            if (!resumed) {
+                file.setLength(header.getLength());
+                state.save(stateFile);
+            }
+
+            Log.d(Log.TAG, String.format("Succeeded to %s receiving file %s at %d bytes.", resumed ? "resume" : "start", name, state.getReceivedLength()));
+            return new Transfer(session, state, target, partial, stateFile, file);
+        } catch (IOException ex) {
+            Log.e(Log.TAG, String.format("Failed to open file %s, %s", partial, ex.getMessage()));
+            return null;
+        }
+    }
+
+    private static boolean isExpected(TransferState state, FileChunk chunk) {
+        int index = chunk.getIndex();
+        return index >= 0 && index < state.getChunkCount()
+                && chunk.getOffset() == state.getChunkOffset(index)
+                && chunk.getLength() == state.getChunkLength(index);
+    }
+
+    private void reply(SelectorServerRunnable server, Session session, TransferState state) {
+        server.post(session, FrameEncoder.encode(new Frame(Frame.TYPE_FILE_STATUS, Frame.NO_FLAGS, state.encode())));
+    }
+
+    private void complete(final Transfer transfer) {
+        transfers.remove(transfer.state.getTransferId());
+        transfer.close();
+
+        if ((transfer.target.exists() && !transfer.target.delete()) || !transfer.partial.renameTo(transfer.target)) {
+            Log.e(Log.TAG, String.format("Failed to rename %s.", transfer.partial));
+            notifyFailure(transfer);
+            return;
+        }
+
+        if (!transfer.stateFile.delete()) {
+            Log.e(Log.TAG, String.format("Failed to delete %s.", transfer.stateFile));
+        }
+        completed.put(transfer.state.getTransferId(), transfer.state);
+
+        Log.d(Log.TAG, String.format("Succeeded to receive file %s.", transfer.target.getName()));
+        final FileCallback callback = this.callback;
+        if (callback != null) {
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onReceived(transfer.target);
+                }
+            });
+        }
+    }
+
+    private void notifyFailure(final Transfer transfer) {
+        final FileCallback callback = this.callback;
+        if (callback != null) {
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(transfer.target.getName());
+                }
+            });
+        }
+    }
+
+    private void notifyProgress(Transfer transfer) {
+        final FileCallback callback = this.callback;
+        if (callback != null) {
+            final String name = transfer.target.getName();
+            final long received = transfer.state.getReceivedLength();
+            final long length = transfer.length;
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onProgress(name, received, length);
+                }
+            });
+        }
+    }
+
+    /**
+     * Passes a single {@link Frame#TYPE_FILE_DATA} payload to the disk {@link Executor}, which
+     * writes it to its position within the file. The chunk is verified once the payload has been
+     * received in its entirety.
+     */
+    private class ChunkSink implements PayloadSink {
+
+        private final SelectorServerRunnable server;
+        private final Session session;
+        private final Backlog backlog;
+        private final FileChunk chunk;
+
+        /**
+         * Confined to the disk {@link Executor}.
+         */
+        private final CRC32 crc = new CRC32();
+        private long position;
+        private Transfer transfer;
+        private boolean resolved = false;
+        private boolean failed = false;
+
+        private ChunkSink(SelectorServerRunnable server, Session session, Backlog backlog, FileChunk chunk) {
+            this.server = server;
+            this.session = session;
+            this.backlog = backlog;
+            this.chunk = chunk;
+            this.position = chunk.getOffset();
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            final int length = source.remaining();
+            final ByteBuffer slice = ByteBuffer.allocate(length);
+            slice.put(source);
+            slice.flip();
+
+            if (backlog.add(length)) {
+                server.pause(session);
+            }
+            execute(server, session, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        writeSlice(slice);
+                    } finally {
+                        if (backlog.remove(length)) {
+                            server.resume(session);
+                        }
+                    }
+                }
+            });
+            return length;
+        }
+
+        /**
+         * Pauses the {@link Session} and transfers the bytes on the disk {@link Executor}, which
+         * reports the bytes transferred once done.
+         * @return Zero, as the bytes are yet to be transferred.
+         */
+        @Override
+        public long transferFrom(final ReadableByteChannel source, long count) {
+            final long limit = Math.min(count, TRANSFER_SIZE);
+            server.pause(session);
+            execute(server, session, new Runnable() {
+                @Override
+                public void run() {
+                    long transferred = transfer(source, limit);
+                    if (transferred < 0) {
+                        server.close(session);
+                    } else {
+                        server.streamed(session, transferred);
+                    }
+                }
+            });
+            return 0;
+        }
+
+        @Override
+        public void onComplete() {
+            execute(server, session, new Runnable() {
+                @Override
+                public void run() {
+                    verify(crc.getValue());
+                }
+            });
+        }
+
+        private void writeSlice(ByteBuffer slice) {
+            Transfer transfer = resolve();
+            if (transfer == null || failed) {
+                return;
+            }
+
+            try {
+                crc.update(slice.array(), slice.arrayOffset() + slice.position(), slice.remaining());
+                while (slice.hasRemaining()) {
+                    position += transfer.channel.write(slice, position);
+                }
+            } catch (IOException ex) {
+                // The chunk remains missing and will be sent again
+                Log.e(Log.TAG, String.format("Failed to write chunk %d of file %s, %s", chunk.getIndex(), transfer.target.getName(), ex.getMessage()));
+                failed = true;
+            }
+        }
+
+        /**
+         * Transfers the bytes available from the connection into the file, without blocking.
+         * @return The number of bytes transferred, or -1 if the connection must be closed as the
+         *         number of bytes consumed from it is unknown.
+         */
+        private long transfer(ReadableByteChannel source, long count) {
+            Transfer transfer = resolve();
+            try {
+                if (transfer == null || failed) {
+                    return discard(source, count);
+                }
+
+                long transferred = transfer.channel.transferFrom(source, position, count);
+                checksum(transfer.channel, position, transferred);
+                position += transferred;
+                return transferred;
+            } catch (IOException ex) {
+                // The chunk remains missing and will be sent again over a new connection
+                Log.e(Log.TAG, String.format("Failed to receive chunk %d, %s", chunk.getIndex(), ex.getMessage()));
+                failed = true;
+                return -1;
+            }
+        }
+
+        /**
+         * Reads the given range back from the file, so that the checksum covers the bytes
+         * actually written.
+         */
+        private void checksum(FileChannel channel, long position, long count) throws IOException {
+            long end = position + count;
+            while (position < end) {
+                scratch.clear();
+                scratch.limit((int) Math.min(scratch.capacity(), end - position));
+                int read = channel.read(scratch, position);
+                if (read < 0) {
+                    throw new EOFException("The file is shorter than the bytes written.");
+                }
+                crc.update(scratch.array(), 0, read);
+                position += read;
+            }
+        }
+
+        private long discard(ReadableByteChannel source, long count) throws IOException {
+            long discarded = 0;
+            while (discarded < count) {
+                scratch.clear();
+                scratch.limit((int) Math.min(scratch.capacity(), count - discarded));
+                int read = source.read(scratch);
+                if (read <= 0) {
+                    break;
+                }
+                discarded += read;
+            }
+            return discarded;
+        }
+
+        private void verify(long checksum) {
+            Transfer transfer = resolve();
+            if (transfer == null || failed || transfers.get(chunk.getTransferId()) != transfer) {
+                // The transfer has since been suspended
+                return;
+            }
+
+            if (checksum != chunk.getChecksum()) {
+                // The chunk remains missing and will be sent again
+                Log.e(Log.TAG, String.format("Failed to verify chunk %d of file %s.", chunk.getIndex(), transfer.target.getName()));
+                return;
+            }
+
+            transfer.state.setReceived(chunk.getIndex());
+            try {
+                transfer.state.save(transfer.stateFile);
+            } catch (IOException ex) {
+                // The chunk is received regardless, it will merely be sent again should the transfer resume
+                Log.e(Log.TAG, String.format("Failed to save %s.", transfer.stateFile));
+            }
+            notifyProgress(transfer);
+
+            if (transfer.state.isComplete()) {
+                complete(transfer);
+            }
+        }
+
+        /**
+         * Looks up the transfer the chunk belongs to upon the first slice.
+         */
+        private Transfer resolve() {
+            if (!resolved) {
+                resolved = true;
+                Transfer transfer = transfers.get(chunk.getTransferId());
+                if (transfer != null && isExpected(transfer.state, chunk)) {
+                    this.transfer = transfer;
+                } else {
+                    Log.d(Log.TAG, "Discarding file data of unknown transfer.");
+                }
+            }
+            return transfer;
+        }
+    }
+
+    /**
+     * Counts the bytes read from a single {@link Session} which await being written to disk.
+     */
+    private static class Backlog {
+
+        private long pendingBytes = 0;
+        private boolean paused = false;
+
+        /**
+         * @return Whether reading from the session must now be paused.
+         */
+        private synchronized boolean add(int count) {
+            pendingBytes += count;
+            if (!paused && pendingBytes >= MAX_PENDING_BYTES) {
+                paused = true;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return Whether reading from the session may now be resumed.
+         */
+        private synchronized boolean remove(int count) {
+            pendingBytes -= count;
+            if (paused && pendingBytes < RESUME_PENDING_BYTES) {
+                paused = false;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class Transfer {
+
+        private final TransferState state;
+        private final long length;
+        private final File target;
+        private final File partial;
+        private final File stateFile;
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private Session session;
+
+        private Transfer(Session session, TransferState state, File target, File partial, File stateFile, RandomAccessFile file) throws IOException {
+            this.session = session;
+            this.state = state;
+            this.length = file.length();
+            this.target = target;
+            this.partial = partial;
+            this.stateFile = stateFile;
+            this.file = file;
+            this.channel = file.getChannel();
+        }
+
+        private void close() {
+            try {
+                file.close();
+            } catch (IOException ex) {
+                Log.e(Log.TAG, String.format("Failed to close %s.", partial));
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package github.tylerjmcbride.direct.transceivers.files;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+
+/**
+ * The {@link TransferState} tracks which chunks of a file have been received and verified. It is
+ * persisted by the receiver alongside the partially received file, so that an interrupted
+ * transfer may be resumed, and is sent to the sender as the payload of a
+ * {@link Frame#TYPE_FILE_STATUS} frame.
+ */
+public class TransferState {
+
+    private static final int HEADER_LENGTH = 20;
+
+    private final long transferId;
+    private final long length;
+    private final int chunkLength;
+    private final BitSet chunks;
+
+    public TransferState(FileHeader header) {
+        this(header.getTransferId(), header.getLength(), header.getChunkLength(), new BitSet());
+    }
+
+    private TransferState(long transferId, long length, int chunkLength, BitSet chunks) {
+        this.transferId = transferId;
+        this.length = length;
+        this.chunkLength = chunkLength;
+        this.chunks = chunks;
+    }
+
+    public long getTransferId() {
+        return transferId;
+    }
+
+    /**
+     * @param header The {@link FileHeader} of a transfer.
+     * @return Whether this state belongs to the transfer described by the given header.
+     */
+    public boolean matches(FileHeader header) {
+        return transferId == header.getTransferId() && length == header.getLength() && chunkLength == header.getChunkLength();
+    }
+
+    public int getChunkCount() {
+        return (int) ((length + chunkLength - 1) / chunkLength);
+    }
+
+    public long getChunkOffset(int index) {
+        return (long) index * chunkLength;
+    }
+
+    public int getChunkLength(int index) {
+        return (int) Math.min(chunkLength, length - getChunkOffset(index));
+    }
+
+    public boolean isReceived(int index) {
+        return chunks.get(index);
+    }
+
+    public void setReceived(int index) {
+        chunks.set(index);
+    }
+
+    /**
+     * @param index The index to start from.
+     * @return The index of the first chunk not yet received, or the chunk count if there is none.
+     */
+    public int nextMissing(int index) {
+        return Math.min(chunks.nextClearBit(index), getChunkCount());
+    }
+
+    public boolean isComplete() {
+        return chunks.cardinality() >= getChunkCount();
+    }
+
+    /**
+     * @return The number of bytes received and verified.
+     */
+    public long getReceivedLength() {
+        long received = (long) chunks.cardinality() * chunkLength;
+        int last = getChunkCount() - 1;
+        if (last >= 0 && chunks.get(last)) {
+            received -= chunkLength - getChunkLength(last);
+        }
+        return received;
+    }
+
+    /**
+     * @param length The length of the file.
+     * @param chunkLength The length of every chunk, other than the last.
+     * @return Whether a file of the given length may be split into chunks of the given length.
+     */
+    public static boolean isValid(long length, int chunkLength) {
+        return length >= 0 && chunkLength > 0 && (length + chunkLength - 1) / chunkLength <= Integer.MAX_VALUE;
+    }
+
+    public byte[] encode() {
+        byte[] bitmap = chunks.toByteArray();
+        return ByteBuffer.allocate(HEADER_LENGTH + bitmap.length)
+                .putLong(transferId)
+                .putLong(length)
+                .putInt(chunkLength)
+                .put(bitmap)
+                .array();
+    }
+
+    public static TransferState decode(byte[] payload) throws IOException {
+        if (payload.length < HEADER_LENGTH) {
+            throw new IOException("Truncated transfer state.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long transferId = buffer.getLong();
+        long length = buffer.getLong();
+        int chunkLength = buffer.getInt();
+        if (!isValid(length, chunkLength)) {
+            throw new IOException("Invalid transfer state.");
+        }
+        return new TransferState(transferId, length, chunkLength, BitSet.valueOf(buffer));
+    }
+
+    /**
+     * Persists this state, replacing the contents of the given file.
+     * @param file The {@link File} to write to.
+     * @throws IOException If the state could not be written.
+     */
+    public void save(File file) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            outputStream.write(encode());
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * @param file The {@link File} previously written by {@link TransferState#save(File)}.
+     * @return The persisted state, or null if the file does not exist or is unreadable.
+     */
+    public static TransferState load(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            InputStream inputStream = new FileInputStream(file);
+            try {
+                byte[] payload = new byte[(int) file.length()];
+                int offset = 0;
+                while (offset < payload.length) {
+                    int read = inputStream.read(payload, offset, payload.length - offset);
+                    if (read == -1) {
+                        return null;
+                    }
+                    offset += read;
+                }
+                return decode(payload);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package github.tylerjmcbride.direct.transceivers.frames;
+
+/**
+ * A {@link Frame} is the unit of data exchanged between an {@link github.tylerjmcbride.direct.transceivers.ObjectTransmitter}
+ * and an {@link github.tylerjmcbride.direct.transceivers.ObjectReceiver}. Many frames may share a
+ * single connection, each frame is laid out on the wire as follows:
+ *
+ * <pre>
+ * +--------+---------+------+-------+----------------+-----------------+
+ * | magic  | version | type | flags | payload length | payload         |
+ * | 2 byte | 1 byte  | 1 b  | 1 b   | 4 byte         | length bytes    |
+ * +--------+---------+------+-------+----------------+-----------------+
+ * </pre>
+ *
+ * All multi-byte fields are big-endian.
+ */
+public class Frame {
+
+    public static final short MAGIC = (short) 0xD1EC;
+    public static final byte VERSION = 1;
+    public static final int HEADER_LENGTH = 9;
+    public static final int MAX_PAYLOAD_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * The payload is a single encoded object.
+     */
+    public static final byte TYPE_OBJECT = 1;
+
+    /**
+     * The payload describes a file about to be transferred.
+     */
+    public static final byte TYPE_FILE_HEADER = 2;
+
+    /**
+     * The payload describes the {@link Frame#TYPE_FILE_DATA} frame that immediately follows.
+     */
+    public static final byte TYPE_FILE_CHUNK = 3;
+
+    /**
+     * The payload is a contiguous range of a file, always {@link Frame#FLAG_STREAMED}.
+     */
+    public static final byte TYPE_FILE_DATA = 4;
+
+    /**
+     * The payload lists the chunks of a file which have been received and verified, sent by the
+     * receiver in reply to every {@link Frame#TYPE_FILE_HEADER} frame. An empty payload indicates
+     * the file has been rejected.
+     */
+    public static final byte TYPE_FILE_STATUS = 5;
+
+    /**
+     * The payload is a correlation id followed by a single encoded object, to which the receiver
+     * replies with a {@link Frame#TYPE_RESPONSE} frame over the same connection.
+     */
+    public static final byte TYPE_REQUEST = 6;
+
+    /**
+     * The payload is the correlation id of the {@link Frame#TYPE_REQUEST} being replied to, a
+     * status and, should the request have succeeded, a single encoded object.
+     */
+    public static final byte TYPE_RESPONSE = 7;
+
+    /**
+     * The payload is addressed to another client and relayed by the host unchanged, it holds the
+     * MAC addresses of the destination and the source followed by a single encoded object.
+     */
+    public static final byte TYPE_RELAY = 8;
+
+    /**
+     * The payload is a correlation id, to which the receiver replies immediately with a
+     * {@link Frame#TYPE_RESPONSE} frame over the same connection, without involving the application.
+     */
+    public static final byte TYPE_HEARTBEAT = 9;
+
+    public static final byte NO_FLAGS = 0;
+
+    /**
+     * The payload is not buffered by the {@link FrameDecoder}, it must instead be consumed
+     * directly from the connection by the receiver.
+     */
+    public static final byte FLAG_STREAMED = 0x01;
+
+    private final byte type;
+    private final byte flags;
+    private final byte[] payload;
+    private final int payloadLength;
+
+    public Frame(byte type, byte flags, byte[] payload) {
+        this.type = type;
+        this.flags = flags;
+        this.payload = payload;
+        this.payloadLength = payload.length;
+    }
+
+    /**
+     * Constructs a {@link Frame#FLAG_STREAMED} frame, whose payload has yet to be consumed.
+     * @param type The {@link Frame} type.
+     * @param flags The {@link Frame} flags.
+     * @param payloadLength The length of the payload following the header.
+     */
+    public Frame(byte type, byte flags, int payloadLength) {
+        this.type = type;
+        this.flags = flags;
+        this.payload = null;
+        this.payloadLength = payloadLength;
+    }
+
+    public byte getType() {
+        return type;
+    }
+
+    public byte getFlags() {
+        return flags;
+    }
+
+    /**
+     * @param flag The flag to test.
+     * @return Whether the given flag has been set.
+     */
+    public boolean hasFlag(byte flag) {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * @return The payload, or null if this frame is {@link Frame#FLAG_STREAMED}.
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public int getPayloadLength() {
+        return payloadLength;
+    }
+}
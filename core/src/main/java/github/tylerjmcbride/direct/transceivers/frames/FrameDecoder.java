@@ -0,0 +1,227 @@
+package github.tylerjmcbride.direct.transceivers.frames;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Incrementally decodes {@link Frame}s from a connection. Bytes are read into a single reusable
+ * buffer, which only grows when a frame larger than the buffer arrives, and shrinks back once
+ * said frame has been consumed. A partially received frame remains in the buffer until the
+ * remainder has been read. Decoded bytes are only discarded before reading, so that a burst of
+ * frames read at once is not copied once per frame.
+ *
+ * <pre>
+ * FrameDecoder decoder = new FrameDecoder();
+ * while (decoder.readFrom(inputStream) != -1) {
+ *     Frame frame;
+ *     while ((frame = decoder.poll()) != null) {
+ *         // Handle frame
+ *     }
+ * }
+ * </pre>
+ */
+public class FrameDecoder {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final int initialBufferSize;
+    private final int maxPayloadLength;
+
+    /**
+     * Remains in write mode between calls, bytes from the read index up to the position have been
+     * read but not decoded.
+     */
+    private ByteBuffer buffer;
+    private int readIndex = 0;
+
+    /**
+     * The length of the partially received frame, or 0 if the length has yet to be read.
+     */
+    private int pendingFrameLength = 0;
+
+    public FrameDecoder() {
+        this(DEFAULT_BUFFER_SIZE, Frame.MAX_PAYLOAD_LENGTH);
+    }
+
+    /**
+     * @param initialBufferSize The initial size of the reusable buffer.
+     * @param maxPayloadLength The largest payload accepted, larger frames are treated as malformed.
+     */
+    public FrameDecoder(int initialBufferSize, int maxPayloadLength) {
+        this.initialBufferSize = Math.max(initialBufferSize, Frame.HEADER_LENGTH);
+        this.buffer = ByteBuffer.allocate(this.initialBufferSize);
+        this.maxPayloadLength = maxPayloadLength;
+    }
+
+    /**
+     * Reads as many bytes as are available from the given stream, blocking until at least one
+     * byte is available.
+     * @param inputStream The {@link InputStream} to read from.
+     * @return The number of bytes read, or -1 if the end of the stream has been reached.
+     * @throws IOException If an I/O error occurs.
+     */
+    public int readFrom(InputStream inputStream) throws IOException {
+        prepareForRead();
+        int read = inputStream.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        if (read > 0) {
+            buffer.position(buffer.position() + read);
+        }
+        return read;
+    }
+
+    /**
+     * Reads as many bytes as are available from the given channel.
+     * @param channel The {@link ReadableByteChannel} to read from.
+     * @return The number of bytes read, or -1 if the end of the stream has been reached.
+     * @throws IOException If an I/O error occurs.
+     */
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        prepareForRead();
+        return channel.read(buffer);
+    }
+
+    /**
+     * Decodes the next complete {@link Frame} from the bytes read so far.
+     * @return The next {@link Frame}, or null if no complete frame has been read yet.
+     * @throws FrameFormatException If the bytes read do not form a valid frame.
+     */
+    public Frame poll() throws FrameFormatException {
+        int available = buffer.position() - readIndex;
+        if (available < Frame.HEADER_LENGTH) {
+            return null;
+        }
+
+        int payloadLength = readHeader(buffer, readIndex, maxPayloadLength);
+        byte type = buffer.get(readIndex + 3);
+        byte flags = buffer.get(readIndex + 4);
+        if ((flags & Frame.FLAG_STREAMED) != 0) {
+            // Only the header is consumed, the payload is left to the caller
+            consume(Frame.HEADER_LENGTH);
+            return new Frame(type, flags, payloadLength);
+        }
+
+        int frameLength = Frame.HEADER_LENGTH + payloadLength;
+        if (available < frameLength) {
+            pendingFrameLength = frameLength;
+            if (buffer.capacity() < frameLength) {
+                reallocate(Math.max(frameLength, buffer.capacity() * 2));
+            }
+            return null;
+        }
+
+        byte[] payload = new byte[payloadLength];
+        System.arraycopy(buffer.array(), buffer.arrayOffset() + readIndex + Frame.HEADER_LENGTH, payload, 0, payloadLength);
+        consume(frameLength);
+        return new Frame(type, flags, payload);
+    }
+
+    /**
+     * @return Whether any bytes have been read but not yet consumed.
+     */
+    public boolean hasBufferedBytes() {
+        return buffer.position() > readIndex;
+    }
+
+    /**
+     * Passes bytes which have been read but not yet consumed to the given sink, used to consume
+     * the payload of a {@link Frame#FLAG_STREAMED} frame.
+     * @param sink The {@link PayloadSink} to pass the bytes to.
+     * @param max The maximum number of bytes to pass.
+     * @return The number of bytes passed.
+     * @throws IOException If the sink fails to consume the bytes.
+     */
+    public int drainTo(PayloadSink sink, long max) throws IOException {
+        int length = (int) Math.min(buffer.position() - readIndex, max);
+        if (length > 0) {
+            ByteBuffer slice = buffer.duplicate();
+            slice.limit(readIndex + length);
+            slice.position(readIndex);
+            while (slice.hasRemaining()) {
+                sink.write(slice);
+            }
+            consume(length);
+        }
+        return length;
+    }
+
+    /**
+     * @return The capacity of the reusable buffer.
+     */
+    int getCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Validates the header found at the given offset.
+     * @param buffer The {@link ByteBuffer} containing the header.
+     * @param offset The offset of the header.
+     * @param maxPayloadLength The largest payload accepted.
+     * @return The payload length found in the header.
+     * @throws FrameFormatException If the header is invalid.
+     */
+    static int readHeader(ByteBuffer buffer, int offset, int maxPayloadLength) throws FrameFormatException {
+        short magic = buffer.getShort(offset);
+        if (magic != Frame.MAGIC) {
+            throw new FrameFormatException(String.format("Unexpected frame magic 0x%04X.", magic));
+        }
+
+        byte version = buffer.get(offset + 2);
+        if (version != Frame.VERSION) {
+            throw new FrameFormatException(String.format("Unsupported frame version %d.", version));
+        }
+
+        int payloadLength = buffer.getInt(offset + 5);
+        if (payloadLength < 0 || payloadLength > maxPayloadLength) {
+            throw new FrameFormatException(String.format("Invalid frame payload length %d.", payloadLength));
+        }
+        return payloadLength;
+    }
+
+    private void consume(int length) {
+        readIndex += length;
+        pendingFrameLength = 0;
+        if (readIndex == buffer.position()) {
+            // Nothing is left to decode, so the buffer is rewound without copying
+            readIndex = 0;
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Makes room to read into. The buffer shrinks back to its initial size once a large frame has
+     * been consumed, otherwise the decoded bytes are discarded once they take up half the buffer,
+     * or the buffer grows should it be full of a frame whose length has yet to be read.
+     */
+    private void prepareForRead() {
+        int buffered = buffer.position() - readIndex;
+        if (buffer.capacity() > initialBufferSize && buffered <= initialBufferSize && pendingFrameLength <= initialBufferSize) {
+            reallocate(initialBufferSize);
+        } else if (readIndex > 0 && (readIndex >= buffer.capacity() / 2 || !buffer.hasRemaining())) {
+            reallocate(buffer.capacity());
+        }
+
+        if (!buffer.hasRemaining()) {
+            reallocate(buffer.capacity() * 2);
+        }
+    }
+
+    /**
+     * Moves the bytes yet to be decoded to the start of a buffer of the given capacity, which is
+     * the current buffer itself should the capacity remain the same.
+     */
+    private void reallocate(int capacity) {
+        int buffered = buffer.position() - readIndex;
+        if (capacity == buffer.capacity()) {
+            buffer.limit(buffer.position());
+            buffer.position(readIndex);
+            buffer.compact();
+        } else {
+            ByteBuffer reallocated = ByteBuffer.allocate(capacity);
+            reallocated.put(buffer.array(), buffer.arrayOffset() + readIndex, buffered);
+            buffer = reallocated;
+        }
+        readIndex = 0;
+    }
+}
@@ -0,0 +1,56 @@
+package github.tylerjmcbride.direct.transceivers.frames;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes {@link Frame}s into their wire representation.
+ */
+public final class FrameEncoder {
+
+    private FrameEncoder() {
+    }
+
+    /**
+     * Writes a {@link Frame} header at the current position of the given buffer.
+     * @param buffer The {@link ByteBuffer} to write to.
+     * @param type The {@link Frame} type.
+     * @param flags The {@link Frame} flags.
+     * @param payloadLength The length of the payload that follows the header.
+     */
+    public static void writeHeader(ByteBuffer buffer, byte type, byte flags, int payloadLength) {
+        buffer.putShort(Frame.MAGIC);
+        buffer.put(Frame.VERSION);
+        buffer.put(type);
+        buffer.put(flags);
+        buffer.putInt(payloadLength);
+    }
+
+    /**
+     * Encodes the header of a {@link Frame}, used for {@link Frame#FLAG_STREAMED} frames whose
+     * payload is written separately.
+     * @param type The {@link Frame} type.
+     * @param flags The {@link Frame} flags.
+     * @param payloadLength The length of the payload that follows the header.
+     * @return A {@link ByteBuffer} ready to be written.
+     */
+    public static ByteBuffer encodeHeader(byte type, byte flags, int payloadLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(Frame.HEADER_LENGTH);
+        writeHeader(buffer, type, flags, payloadLength);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Encodes the given {@link Frame}.
+     * @param frame The {@link Frame} to encode.
+     * @return A {@link ByteBuffer} ready to be written.
+     */
+    public static ByteBuffer encode(Frame frame) {
+        byte[] payload = frame.getPayload();
+        ByteBuffer buffer = ByteBuffer.allocate(Frame.HEADER_LENGTH + payload.length);
+        writeHeader(buffer, frame.getType(), frame.getFlags(), payload.length);
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,16 @@
+package github.tylerjmcbride.direct.transceivers.frames;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the bytes read from a connection do not form a valid {@link Frame}. The connection
+ * can no longer be trusted to be aligned on a frame boundary and should be closed.
+ */
+public class FrameFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public FrameFormatException(String message) {
+        super(message);
+    }
+}
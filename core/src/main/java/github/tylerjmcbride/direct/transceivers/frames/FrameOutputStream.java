@@ -0,0 +1,54 @@
+package github.tylerjmcbride.direct.transceivers.frames;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ByteArrayOutputStream} which reserves room for the {@link Frame} header ahead of the
+ * payload, so an encoded payload can be turned into a complete frame without being copied.
+ */
+public class FrameOutputStream extends ByteArrayOutputStream {
+
+    public FrameOutputStream() {
+        this(512);
+    }
+
+    public FrameOutputStream(int initialPayloadCapacity) {
+        super(Frame.HEADER_LENGTH + initialPayloadCapacity);
+        count = Frame.HEADER_LENGTH;
+    }
+
+    /**
+     * @return The number of payload bytes written so far.
+     */
+    public int getPayloadLength() {
+        return count - Frame.HEADER_LENGTH;
+    }
+
+    /**
+     * Discards the payload written so far, allowing this stream to be reused.
+     */
+    @Override
+    public synchronized void reset() {
+        count = Frame.HEADER_LENGTH;
+    }
+
+    /**
+     * Completes the header in front of the payload written so far.
+     * @param type The {@link Frame} type.
+     * @param flags The {@link Frame} flags.
+     * @return A {@link ByteBuffer} wrapping the complete frame, backed by this stream.
+     * @throws FrameFormatException If the payload exceeds {@link Frame#MAX_PAYLOAD_LENGTH}.
+     */
+    public synchronized ByteBuffer toFrame(byte type, byte flags) throws FrameFormatException {
+        int payloadLength = getPayloadLength();
+        if (payloadLength > Frame.MAX_PAYLOAD_LENGTH) {
+            throw new FrameFormatException(String.format("Payload of %d bytes exceeds the maximum frame length.", payloadLength));
+        }
+
+        ByteBuffer frame = ByteBuffer.wrap(buf, 0, count);
+        FrameEncoder.writeHeader(frame, type, flags, payloadLength);
+        frame.position(0);
+        return frame;
+    }
+}
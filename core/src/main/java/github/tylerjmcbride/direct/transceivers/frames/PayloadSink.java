@@ -0,0 +1,35 @@
+package github.tylerjmcbride.direct.transceivers.frames;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Consumes the payload of a {@link Frame#FLAG_STREAMED} frame as it arrives, without the payload
+ * ever being held in memory in its entirety.
+ */
+public interface PayloadSink {
+
+    /**
+     * Consumes bytes which have already been read from the connection.
+     * @param source The {@link ByteBuffer} holding the bytes.
+     * @return The number of bytes consumed.
+     * @throws IOException If the bytes could not be consumed.
+     */
+    int write(ByteBuffer source) throws IOException;
+
+    /**
+     * Consumes bytes directly from the connection, without blocking.
+     * @param source The {@link ReadableByteChannel} of the connection.
+     * @param count The maximum number of bytes to consume.
+     * @return The number of bytes consumed, possibly zero.
+     * @throws IOException If the bytes could not be consumed.
+     */
+    long transferFrom(ReadableByteChannel source, long count) throws IOException;
+
+    /**
+     * Invoked once the entire payload has been consumed.
+     * @throws IOException If the payload could not be completed.
+     */
+    void onComplete() throws IOException;
+}
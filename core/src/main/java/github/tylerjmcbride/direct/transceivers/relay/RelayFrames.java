@@ -0,0 +1,121 @@
+package github.tylerjmcbride.direct.transceivers.relay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameEncoder;
+import github.tylerjmcbride.direct.transceivers.frames.FrameOutputStream;
+
+/**
+ * Encodes and decodes the payload of {@link Frame#TYPE_RELAY} frames. The addresses precede the
+ * encoded object, so that the host routes the frame by reading the destination alone, without
+ * decoding the object.
+ *
+ * <pre>
+ * +--------+-------------+--------+-------------+-----------------+
+ * | length | destination | length | source      | encoded object  |
+ * | 1 byte | MAC address | 1 byte | MAC address |                 |
+ * +--------+-------------+--------+-------------+-----------------+
+ * </pre>
+ */
+public final class RelayFrames {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int MAX_ADDRESS_LENGTH = 0xFF;
+
+    private RelayFrames() {
+    }
+
+    /**
+     * @param destination The MAC address of the client to relay the object to.
+     * @param source The MAC address of the sending client.
+     * @param object The object to encode.
+     * @param codec The {@link Codec}.
+     * @return A {@link ByteBuffer} holding the complete {@link Frame#TYPE_RELAY} frame.
+     * @throws IOException If the object could not be encoded.
+     */
+    public static ByteBuffer encode(String destination, String source, Object object, Codec codec) throws IOException {
+        FrameOutputStream frameOutputStream = new FrameOutputStream();
+        writeAddress(frameOutputStream, destination);
+        writeAddress(frameOutputStream, source);
+        codec.encode(object, frameOutputStream);
+        return frameOutputStream.toFrame(Frame.TYPE_RELAY, Frame.NO_FLAGS);
+    }
+
+    /**
+     * Encodes the given {@link Frame#TYPE_RELAY} frame without copying its payload, so that it may
+     * be forwarded as it was received.
+     * @param frame The {@link Frame#TYPE_RELAY} frame.
+     * @return The {@link ByteBuffer}s holding the header and the payload respectively.
+     */
+    public static ByteBuffer[] forward(Frame frame) {
+        return new ByteBuffer[] {
+                FrameEncoder.encodeHeader(frame.getType(), frame.getFlags(), frame.getPayloadLength()),
+                ByteBuffer.wrap(frame.getPayload()).asReadOnlyBuffer()
+        };
+    }
+
+    /**
+     * @param frame A {@link Frame#TYPE_RELAY} frame.
+     * @return The MAC address of the destination.
+     * @throws IOException If the payload is too short to hold the address.
+     */
+    public static String getDestination(Frame frame) throws IOException {
+        return readAddress(frame.getPayload(), 0);
+    }
+
+    /**
+     * @param frame A {@link Frame#TYPE_RELAY} frame.
+     * @return The MAC address of the source.
+     * @throws IOException If the payload is too short to hold the addresses.
+     */
+    public static String getSource(Frame frame) throws IOException {
+        byte[] payload = frame.getPayload();
+        return readAddress(payload, skipAddress(payload, 0));
+    }
+
+    /**
+     * @param frame A {@link Frame#TYPE_RELAY} frame.
+     * @param codec The {@link Codec}.
+     * @return The decoded object.
+     * @throws IOException If the payload is too short to hold the addresses, or the object could
+     *                     not be decoded.
+     */
+    public static Object decodeObject(Frame frame, Codec codec) throws IOException {
+        byte[] payload = frame.getPayload();
+        int offset = skipAddress(payload, skipAddress(payload, 0));
+        return codec.decode(payload, offset, payload.length - offset);
+    }
+
+    private static void writeAddress(FrameOutputStream frameOutputStream, String address) throws IOException {
+        byte[] bytes = address.getBytes(UTF_8);
+        if (bytes.length > MAX_ADDRESS_LENGTH) {
+            throw new IOException(String.format("Address %s is too long.", address));
+        }
+        frameOutputStream.write(bytes.length);
+        frameOutputStream.write(bytes);
+    }
+
+    private static String readAddress(byte[] payload, int offset) throws IOException {
+        int end = skipAddress(payload, offset);
+        return new String(payload, offset + 1, end - offset - 1, UTF_8);
+    }
+
+    /**
+     * @return The offset immediately following the address at the given offset.
+     */
+    private static int skipAddress(byte[] payload, int offset) throws IOException {
+        if (payload.length <= offset) {
+            throw new IOException("Truncated relay address.");
+        }
+
+        int end = offset + 1 + (payload[offset] & 0xFF);
+        if (payload.length < end) {
+            throw new IOException("Truncated relay address.");
+        }
+        return end;
+    }
+}
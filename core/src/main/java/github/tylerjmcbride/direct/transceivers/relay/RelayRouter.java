@@ -0,0 +1,20 @@
+package github.tylerjmcbride.direct.transceivers.relay;
+
+import java.net.InetAddress;
+
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+
+/**
+ * The {@link RelayRouter} forwards every {@link Frame#TYPE_RELAY} frame received by the host to
+ * its destination. Invoked on an I/O thread, the frame must therefore be forwarded without blocking.
+ */
+public interface RelayRouter {
+
+    /**
+     * @param sender The IP address the frame has been received from.
+     * @param source The MAC address of the client the frame claims to be relayed from.
+     * @param destination The MAC address of the client the frame is to be relayed to.
+     * @param frame The relayed {@link Frame}, as it was received.
+     */
+    void onRelay(InetAddress sender, String source, String destination, Frame frame);
+}
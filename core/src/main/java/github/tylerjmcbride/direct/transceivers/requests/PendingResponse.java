@@ -0,0 +1,218 @@
+package github.tylerjmcbride.direct.transceivers.requests;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import github.tylerjmcbride.direct.transceivers.callbacks.ResponseCallback;
+
+/**
+ * The {@link PendingResponse} is the handle to a request awaiting its response. The response is
+ * either awaited through {@link PendingResponse#get()}, which must not be invoked on the main
+ * thread, or delivered to a {@link ResponseCallback}. A request fails should the connection drop,
+ * the peer fail to reply, or the timeout elapse, in which case {@link PendingResponse#get()}
+ * throws an {@link ExecutionException} caused by an {@link java.io.IOException} or a
+ * {@link TimeoutException} respectively.
+ */
+public class PendingResponse implements Future<Object> {
+
+    private final long id;
+    private final Executor callbackExecutor;
+
+    private boolean done = false;
+    private boolean cancelled = false;
+    private Object response;
+    private Exception failure;
+    private ResponseCallback callback;
+
+    private volatile RequestChannel channel;
+    private volatile ScheduledFuture<?> timeout;
+
+    PendingResponse(long id, Executor callbackExecutor) {
+        this.id = id;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * @param failure The cause of the failure.
+     * @param callbackExecutor The {@link Executor} the {@link ResponseCallback} is invoked on.
+     * @return A {@link PendingResponse} which has already failed, for requests which cannot be sent.
+     */
+    public static PendingResponse failed(Exception failure, Executor callbackExecutor) {
+        PendingResponse pendingResponse = new PendingResponse(0, callbackExecutor);
+        pendingResponse.fail(failure);
+        return pendingResponse;
+    }
+
+    /**
+     * Sets the {@link ResponseCallback} invoked once the response has been received or the request
+     * has failed, immediately should the request already be done. Not invoked for a cancelled
+     * request.
+     * @param callback The {@link ResponseCallback}.
+     */
+    public void setCallback(ResponseCallback callback) {
+        boolean deliver;
+        synchronized (this) {
+            this.callback = callback;
+            deliver = done && !cancelled;
+        }
+
+        if (deliver) {
+            deliver(callback);
+        }
+    }
+
+    /**
+     * Ceases waiting for the response, the request may nonetheless be handled by the peer.
+     * @param mayInterruptIfRunning Ignored, as the request is not handled locally.
+     * @return Whether the request was cancelled, false if it was already done.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            cancelled = true;
+            done = true;
+            failure = new CancellationException("The request has been cancelled.");
+            notifyAll();
+        }
+        release();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public synchronized Object get() throws InterruptedException, ExecutionException {
+        while (!done) {
+            wait();
+        }
+        return getResult();
+    }
+
+    @Override
+    public synchronized Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long end = System.nanoTime() + unit.toNanos(timeout);
+        long remaining;
+        while (!done) {
+            if ((remaining = end - System.nanoTime()) <= 0) {
+                throw new TimeoutException("The response has yet to be received.");
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return getResult();
+    }
+
+    /**
+     * @return The cause of the failure, or null if the request has yet to fail.
+     */
+    public synchronized Exception getFailure() {
+        return failure;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    void setChannel(RequestChannel channel) {
+        this.channel = channel;
+    }
+
+    void setTimeout(ScheduledFuture<?> timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return Whether the response completed the request, false if the request was already done.
+     */
+    boolean complete(Object response) {
+        ResponseCallback callback;
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            this.response = response;
+            this.done = true;
+            callback = this.callback;
+            notifyAll();
+        }
+        release();
+        if (callback != null) {
+            deliver(callback);
+        }
+        return true;
+    }
+
+    /**
+     * @return Whether the failure completed the request, false if the request was already done.
+     */
+    boolean fail(Exception failure) {
+        ResponseCallback callback;
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            this.failure = failure;
+            this.done = true;
+            callback = this.callback;
+            notifyAll();
+        }
+        release();
+        if (callback != null) {
+            deliver(callback);
+        }
+        return true;
+    }
+
+    private Object getResult() throws ExecutionException {
+        if (cancelled) {
+            throw (CancellationException) failure;
+        } else if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+        return response;
+    }
+
+    /**
+     * Forgets the request, so that a late response is discarded.
+     */
+    private void release() {
+        ScheduledFuture<?> timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+
+        RequestChannel channel = this.channel;
+        if (channel != null) {
+            channel.remove(this);
+        }
+    }
+
+    private void deliver(final ResponseCallback callback) {
+        callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Exception failure = getFailure();
+                if (failure == null) {
+                    callback.onResponse(response);
+                } else {
+                    callback.onFailure();
+                }
+            }
+        });
+    }
+}
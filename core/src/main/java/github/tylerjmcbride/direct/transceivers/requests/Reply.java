@@ -0,0 +1,84 @@
+package github.tylerjmcbride.direct.transceivers.requests;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.sockets.SelectorServerRunnable;
+import github.tylerjmcbride.direct.sockets.Session;
+import github.tylerjmcbride.direct.transceivers.callbacks.Responder;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+
+/**
+ * The {@link Reply} to a single request, passed to the {@link Responder}. The response is written
+ * back over the connection the request was received over, and may be sent from any thread. Only
+ * the first response is sent, any further response is ignored.
+ */
+public class Reply {
+
+    private final SelectorServerRunnable server;
+    private final Session session;
+    private final long id;
+    private final Codec codec;
+    private final Metrics metrics;
+    private final AtomicBoolean sent = new AtomicBoolean();
+
+    public Reply(SelectorServerRunnable server, Session session, long id, Codec codec, Metrics metrics) {
+        this.server = server;
+        this.session = session;
+        this.id = id;
+        this.codec = codec;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sends the given response, should it not be encodable the request fails instead.
+     * @param response The {@link Serializable} response.
+     */
+    public void send(Serializable response) {
+        if (!sent.compareAndSet(false, true)) {
+            Log.d(Log.TAG, "Ignoring response, a response has already been sent.");
+            return;
+        }
+
+        try {
+            post(RequestFrames.encodeResponse(id, RequestFrames.STATUS_OK, response, codec));
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to encode response.");
+            fail(RequestFrames.STATUS_FAILED);
+        }
+    }
+
+    /**
+     * Fails the request, the requester is notified immediately rather than once it times out.
+     */
+    public void fail() {
+        if (sent.compareAndSet(false, true)) {
+            fail(RequestFrames.STATUS_FAILED);
+        }
+    }
+
+    /**
+     * @return Whether a response has been sent, or the request has failed.
+     */
+    public boolean isSent() {
+        return sent.get();
+    }
+
+    private void fail(byte status) {
+        try {
+            post(RequestFrames.encodeResponse(id, status, null, codec));
+        } catch (IOException ex) {
+            // A response without an object is always encodable
+            Log.e(Log.TAG, "Failed to encode response.");
+        }
+    }
+
+    private void post(ByteBuffer frame) {
+        metrics.onSent(session.getRemoteAddress(), frame.remaining(), 0);
+        server.post(session, frame);
+    }
+}
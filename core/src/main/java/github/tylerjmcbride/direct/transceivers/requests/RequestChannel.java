@@ -0,0 +1,234 @@
+package github.tylerjmcbride.direct.transceivers.requests;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameDecoder;
+
+/**
+ * A {@link RequestChannel} carries the requests to a single {@link InetSocketAddress} over its own
+ * {@link SocketChannel}, separate from the connection objects are sent over, as the responses are
+ * read continuously. Requests are written without waiting for the responses to the requests
+ * before them. The channel is served by the {@link ResponseSelector}, requests are therefore
+ * posted from any thread and written by the selector thread, which also reads the responses.
+ */
+class RequestChannel {
+
+    private final InetSocketAddress address;
+    private final SocketChannel channel;
+    private final ResponseSelector selector;
+    private final ConcurrentMap<Long, PendingResponse> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The requests posted from other threads, written once the selector thread picks them up.
+     */
+    private final Queue<ByteBuffer> posted = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Confined to the selector thread.
+     */
+    private final Queue<ByteBuffer> pendingWrites = new ArrayDeque<>();
+    private final FrameDecoder decoder = new FrameDecoder();
+    private SelectionKey key;
+
+    private volatile long lastUsed;
+    private boolean closed = false;
+
+    RequestChannel(InetSocketAddress address, SocketChannel channel, ResponseSelector selector) {
+        this.address = address;
+        this.channel = channel;
+        this.selector = selector;
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    InetSocketAddress getAddress() {
+        return address;
+    }
+
+    SocketChannel getSocketChannel() {
+        return channel;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Posts the given request, whose response is then awaited. Should the request fail to be
+     * written, the request fails once this channel is closed.
+     * @param request The {@link PendingResponse} of the request.
+     * @param frame The {@link ByteBuffer} holding the encoded request, which is left untouched.
+     * @return Whether the request was posted, false if this channel had been closed beforehand.
+     */
+    boolean write(PendingResponse request, ByteBuffer frame) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            pending.put(request.getId(), request);
+        }
+
+        request.setChannel(this);
+        if (request.isDone()) {
+            // Cancelled or timed out in the meantime
+            pending.remove(request.getId());
+            return true;
+        }
+
+        posted.add(frame.duplicate());
+        lastUsed = System.currentTimeMillis();
+        selector.post(this);
+        return true;
+    }
+
+    /**
+     * Writes as many of the posted requests as the connection accepts. Must be invoked on the
+     * selector thread.
+     * @throws IOException If the connection is no longer usable.
+     */
+    void flush() throws IOException {
+        if (key == null || !key.isValid()) {
+            // Flushed once registered, or closed in the meantime
+            return;
+        }
+
+        ByteBuffer frame;
+        while ((frame = posted.poll()) != null) {
+            pendingWrites.add(frame);
+        }
+
+        try {
+            while (!pendingWrites.isEmpty()) {
+                frame = pendingWrites.peek();
+                channel.write(frame);
+                if (frame.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                pendingWrites.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } catch (CancelledKeyException ex) {
+            throw new IOException("The channel has been closed.");
+        }
+    }
+
+    /**
+     * Reads every response available without blocking, completing the respective request. Must
+     * be invoked on the selector thread.
+     * @throws IOException If the connection is no longer usable.
+     */
+    void read(Codec codec, Metrics metrics) throws IOException {
+        int read;
+        while ((read = decoder.readFrom(channel)) > 0) {
+            metrics.onBytesReceived(address.getAddress(), read);
+
+            Frame frame;
+            while ((frame = decoder.poll()) != null) {
+                if (frame.getType() == Frame.TYPE_RESPONSE) {
+                    onResponse(frame, codec, metrics);
+                } else {
+                    Log.d(Log.TAG, String.format("Skipping frame of unknown type %d.", frame.getType()));
+                }
+            }
+        }
+
+        if (read == -1) {
+            throw new EOFException(String.format("Connection to %s was closed by the peer.", address));
+        }
+    }
+
+    private void onResponse(Frame frame, Codec codec, Metrics metrics) throws IOException {
+        PendingResponse request = pending.remove(RequestFrames.getId(frame));
+        if (request == null) {
+            // The request has been cancelled or has timed out
+            return;
+        }
+        lastUsed = System.currentTimeMillis();
+
+        byte status = RequestFrames.getStatus(frame);
+        if (status == RequestFrames.STATUS_ALIVE) {
+            request.complete(null);
+            return;
+        } else if (status != RequestFrames.STATUS_OK) {
+            request.fail(new IOException(status == RequestFrames.STATUS_NO_RESPONDER ? "The peer has no responder." : "The peer failed to respond."));
+            return;
+        }
+
+        try {
+            long start = metrics.start();
+            Object response = RequestFrames.decodeObject(frame, codec);
+            metrics.onReceived(address.getAddress(), start);
+            request.complete(response);
+        } catch (IOException ex) {
+            // The frame has been consumed in its entirety, the connection remains usable
+            Log.e(Log.TAG, "Failed to read response.");
+            request.fail(ex);
+        }
+    }
+
+    void remove(PendingResponse request) {
+        pending.remove(request.getId(), request);
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes this channel should no response be awaited and it has been inactive for longer than
+     * the given timeout.
+     * @return Whether this channel has been closed.
+     */
+    boolean closeIfIdle(long idleTimeout) {
+        synchronized (this) {
+            if (closed || !pending.isEmpty() || System.currentTimeMillis() - lastUsed <= idleTimeout) {
+                return false;
+            }
+            closed = true;
+        }
+        closeChannel();
+        return true;
+    }
+
+    /**
+     * Closes this channel, every request awaiting a response fails with the given cause.
+     */
+    void close(IOException cause) {
+        synchronized (this) {
+            closed = true;
+        }
+        closeChannel();
+
+        List<PendingResponse> failing = new ArrayList<>(pending.values());
+        pending.clear();
+        for (PendingResponse request : failing) {
+            request.fail(cause);
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            // Closing the channel also cancels its key, the selector then ceases to serve it
+            channel.close();
+        } catch (IOException ex) {
+            Log.e(Log.TAG, String.format("Failed to close request connection to %s.", address));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package github.tylerjmcbride.direct.transceivers.requests;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameOutputStream;
+
+/**
+ * Encodes and decodes the payload of {@link Frame#TYPE_REQUEST}, {@link Frame#TYPE_HEARTBEAT} and
+ * {@link Frame#TYPE_RESPONSE} frames. The correlation id pairs every response with its request, so that many requests may be
+ * outstanding over a single connection and be replied to in any order.
+ *
+ * <pre>
+ * +----------------+-----------------+
+ * | correlation id | encoded object  |   request
+ * | 8 byte         |                 |
+ * +----------------+--------+--------+--------+
+ * | correlation id | status | encoded object  |   response, the object is only present
+ * | 8 byte         | 1 byte |                 |   with {@link RequestFrames#STATUS_OK}
+ * +----------------+--------+-----------------+
+ * </pre>
+ */
+public final class RequestFrames {
+
+    public static final byte STATUS_OK = 0;
+
+    /**
+     * The responder failed to handle the request.
+     */
+    public static final byte STATUS_FAILED = 1;
+
+    /**
+     * The receiver has no responder to handle the request.
+     */
+    public static final byte STATUS_NO_RESPONDER = 2;
+
+    /**
+     * The receiver is alive, in reply to a heartbeat, the response holds no object.
+     */
+    public static final byte STATUS_ALIVE = 3;
+
+    private static final int ID_LENGTH = 8;
+    private static final int RESPONSE_HEADER_LENGTH = ID_LENGTH + 1;
+
+    private RequestFrames() {
+    }
+
+    /**
+     * @param id The correlation id.
+     * @param object The object to encode.
+     * @param codec The {@link Codec}.
+     * @return A {@link ByteBuffer} holding the complete {@link Frame#TYPE_REQUEST} frame.
+     * @throws IOException If the object could not be encoded.
+     */
+    public static ByteBuffer encodeRequest(long id, Object object, Codec codec) throws IOException {
+        FrameOutputStream frameOutputStream = new FrameOutputStream();
+        writeId(frameOutputStream, id);
+        codec.encode(object, frameOutputStream);
+        return frameOutputStream.toFrame(Frame.TYPE_REQUEST, Frame.NO_FLAGS);
+    }
+
+    /**
+     * @param id The correlation id.
+     * @return A {@link ByteBuffer} holding the complete {@link Frame#TYPE_HEARTBEAT} frame.
+     * @throws IOException Never, as the payload is of a fixed length.
+     */
+    public static ByteBuffer encodeHeartbeat(long id) throws IOException {
+        FrameOutputStream frameOutputStream = new FrameOutputStream();
+        writeId(frameOutputStream, id);
+        return frameOutputStream.toFrame(Frame.TYPE_HEARTBEAT, Frame.NO_FLAGS);
+    }
+
+    /**
+     * @param id The correlation id of the heartbeat being replied to.
+     * @return A {@link ByteBuffer} holding the complete {@link Frame#TYPE_RESPONSE} frame of
+     *         {@link RequestFrames#STATUS_ALIVE}.
+     * @throws IOException Never, as the payload is of a fixed length.
+     */
+    public static ByteBuffer encodeHeartbeatResponse(long id) throws IOException {
+        FrameOutputStream frameOutputStream = new FrameOutputStream();
+        writeId(frameOutputStream, id);
+        frameOutputStream.write(STATUS_ALIVE);
+        return frameOutputStream.toFrame(Frame.TYPE_RESPONSE, Frame.NO_FLAGS);
+    }
+
+    /**
+     * @param id The correlation id of the request being replied to.
+     * @param status The status of the response.
+     * @param object The object to encode, only with {@link RequestFrames#STATUS_OK}.
+     * @param codec The {@link Codec}.
+     * @return A {@link ByteBuffer} holding the complete {@link Frame#TYPE_RESPONSE} frame.
+     * @throws IOException If the object could not be encoded.
+     */
+    public static ByteBuffer encodeResponse(long id, byte status, Object object, Codec codec) throws IOException {
+        FrameOutputStream frameOutputStream = new FrameOutputStream();
+        writeId(frameOutputStream, id);
+        frameOutputStream.write(status);
+        if (status == STATUS_OK) {
+            codec.encode(object, frameOutputStream);
+        }
+        return frameOutputStream.toFrame(Frame.TYPE_RESPONSE, Frame.NO_FLAGS);
+    }
+
+    /**
+     * @param frame A {@link Frame#TYPE_REQUEST}, {@link Frame#TYPE_HEARTBEAT} or
+     *              {@link Frame#TYPE_RESPONSE} frame.
+     * @return The correlation id.
+     * @throws IOException If the payload is too short to hold a correlation id.
+     */
+    public static long getId(Frame frame) throws IOException {
+        byte[] payload = frame.getPayload();
+        int length = frame.getType() == Frame.TYPE_RESPONSE ? RESPONSE_HEADER_LENGTH : ID_LENGTH;
+        if (payload.length < length) {
+            throw new IOException("Truncated correlation id.");
+        }
+        return ByteBuffer.wrap(payload).getLong(0);
+    }
+
+    /**
+     * @param frame A {@link Frame#TYPE_RESPONSE} frame, whose id has been read.
+     * @return The status of the response.
+     */
+    public static byte getStatus(Frame frame) {
+        return frame.getPayload()[ID_LENGTH];
+    }
+
+    /**
+     * @param frame A {@link Frame#TYPE_REQUEST} frame, or a {@link Frame#TYPE_RESPONSE} frame with
+     *              {@link RequestFrames#STATUS_OK}, whose id has been read.
+     * @param codec The {@link Codec}.
+     * @return The decoded object.
+     * @throws IOException If the object could not be decoded.
+     */
+    public static Object decodeObject(Frame frame, Codec codec) throws IOException {
+        byte[] payload = frame.getPayload();
+        int offset = frame.getType() == Frame.TYPE_RESPONSE ? RESPONSE_HEADER_LENGTH : ID_LENGTH;
+        return codec.decode(payload, offset, payload.length - offset);
+    }
+
+    private static void writeId(FrameOutputStream frameOutputStream, long id) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            frameOutputStream.write((int) (id >>> shift));
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package github.tylerjmcbride.direct.transceivers.requests;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.sockets.RetryPolicy;
+import github.tylerjmcbride.direct.sockets.SocketRunnable;
+import github.tylerjmcbride.direct.sockets.listeners.SocketInitializationCompleteListener;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+
+/**
+ * The {@link Requester} sends requests and awaits their responses, keeping a single
+ * {@link RequestChannel} per {@link InetSocketAddress}. Every request is tagged with a correlation
+ * id, so that many requests may be outstanding over the same channel. A request is written at most
+ * once, it is therefore never retried once written, regardless of the outcome. Every channel is
+ * served by a single {@link ResponseSelector}, so that awaiting responses does not hold a thread
+ * per channel.
+ */
+public class Requester {
+
+    private static final long DEFAULT_IDLE_TIMEOUT = 30000;
+    private static final int MAX_WRITE_ATTEMPTS = 2;
+
+    private final IoScheduler scheduler;
+    private final Codec codec;
+    private final long idleTimeout;
+    private final ResponseSelector selector;
+    private final ScheduledFuture<?> reaper;
+    private final Map<InetSocketAddress, RequestChannel> channels = new HashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private volatile RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+    private volatile Metrics metrics = Metrics.DISABLED;
+
+    public Requester(IoScheduler scheduler, Codec codec) {
+        this(scheduler, codec, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param scheduler The {@link IoScheduler} to perform I/O on, whose timer times out requests
+     *                  and closes idle channels.
+     * @param codec The {@link Codec} used to encode requests and decode responses.
+     * @param idleTimeout The duration of inactivity in milliseconds after which a channel
+     *                    awaiting no response is closed.
+     */
+    public Requester(IoScheduler scheduler, Codec codec, long idleTimeout) {
+        this.scheduler = scheduler;
+        this.codec = codec;
+        this.idleTimeout = idleTimeout;
+        this.selector = new ResponseSelector(scheduler, codec);
+        this.reaper = scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                closeIdleChannels();
+            }
+        }, idleTimeout, idleTimeout / 2);
+    }
+
+    /**
+     * @param retryPolicy The {@link RetryPolicy} applied when establishing a channel.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @param metrics The {@link Metrics} recording every request and response.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        selector.setMetrics(metrics);
+    }
+
+    /**
+     * Sends the given request to the respective address.
+     * @param object The {@link Serializable} request.
+     * @param address The {@link InetSocketAddress} of the receiver.
+     * @param timeout The duration in milliseconds to await the response, after which the request fails.
+     * @param callbackExecutor The {@link Executor} the response is delivered on.
+     * @return The {@link PendingResponse}.
+     */
+    public PendingResponse request(Serializable object, InetSocketAddress address, long timeout, Executor callbackExecutor) {
+        return submit(object, false, address, timeout, callbackExecutor);
+    }
+
+    /**
+     * Sends a heartbeat to the respective address, which the receiver replies to without
+     * involving its responder. The response is null.
+     * @param address The {@link InetSocketAddress} of the receiver.
+     * @param timeout The duration in milliseconds to await the response, after which the heartbeat fails.
+     * @param callbackExecutor The {@link Executor} the response is delivered on.
+     * @return The {@link PendingResponse}.
+     */
+    public PendingResponse heartbeat(InetSocketAddress address, long timeout, Executor callbackExecutor) {
+        return submit(null, true, address, timeout, callbackExecutor);
+    }
+
+    private PendingResponse submit(final Serializable object, final boolean heartbeat, final InetSocketAddress address, long timeout, Executor callbackExecutor) {
+        final PendingResponse request = new PendingResponse(ids.incrementAndGet(), callbackExecutor);
+        try {
+            request.setTimeout(scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (request.fail(new TimeoutException("The response has yet to be received."))) {
+                        Log.d(Log.TAG, String.format("Request to %s has timed out.", address));
+                    }
+                }
+            }, timeout));
+
+            scheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    send(request, object, heartbeat, address);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            Log.e(Log.TAG, String.format("Failed to schedule request, %s", ex.getMessage()));
+            request.fail(ex);
+        }
+        return request;
+    }
+
+    private void send(PendingResponse request, Serializable object, boolean heartbeat, InetSocketAddress address) {
+        if (request.isDone()) {
+            return;
+        }
+
+        try {
+            ByteBuffer frame = heartbeat ? RequestFrames.encodeHeartbeat(request.getId()) : RequestFrames.encodeRequest(request.getId(), object, codec);
+            long start = metrics.start();
+            for (int attempt = 0; attempt < MAX_WRITE_ATTEMPTS; attempt++) {
+                // A channel closed whilst idle is replaced, the request has yet to be written
+                if (acquire(address).write(request, frame)) {
+                    if (heartbeat) {
+                        // Heartbeats are not messages of the application
+                        metrics.onBytesSent(address.getAddress(), frame.remaining());
+                    } else {
+                        metrics.onSent(address.getAddress(), frame.remaining(), start);
+                        Log.d(Log.TAG, "Succeeded to send request.");
+                    }
+                    return;
+                }
+            }
+            throw new IOException(String.format("Failed to acquire a channel to %s.", address));
+        } catch (IOException ex) {
+            Log.e(Log.TAG, String.format("Failed to send request, %s", ex.getMessage()));
+            metrics.onSendFailed(address.getAddress());
+            request.fail(ex);
+        }
+    }
+
+    /**
+     * Retrieves the open {@link RequestChannel} to the respective address, otherwise establishes
+     * a new one which is served by the {@link ResponseSelector}.
+     */
+    private RequestChannel acquire(InetSocketAddress address) throws IOException {
+        synchronized (channels) {
+            RequestChannel channel = channels.get(address);
+            if (channel != null && !channel.isClosed()) {
+                return channel;
+            }
+        }
+
+        Socket socket = connect(address);
+        if (socket.getChannel() == null) {
+            closeQuietly(socket);
+            throw new IOException(String.format("Failed to open request channel to %s, the socket has no channel.", address));
+        }
+
+        RequestChannel established = new RequestChannel(address, socket.getChannel(), selector);
+        synchronized (channels) {
+            RequestChannel existing = channels.get(address);
+            if (existing != null && !existing.isClosed()) {
+                // Another thread has established a channel in the meantime
+                established.close(new IOException("Superseded."));
+                return existing;
+            }
+            channels.put(address, established);
+        }
+
+        selector.register(established);
+        Log.d(Log.TAG, String.format("Succeeded to open request channel to %s.", address));
+        return established;
+    }
+
+    private Socket connect(InetSocketAddress address) throws IOException {
+        final Socket[] result = new Socket[1];
+        new SocketRunnable(address, retryPolicy, metrics, new SocketInitializationCompleteListener() {
+            @Override
+            public void onSuccess(Socket socket) {
+                result[0] = socket;
+            }
+
+            @Override
+            public void onFailure() {
+                result[0] = null;
+            }
+        }).run();
+
+        if (result[0] == null) {
+            throw new IOException(String.format("Failed to connect to %s.", address));
+        }
+        return result[0];
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to close socket.");
+        }
+    }
+
+    /**
+     * Closes the channel to the respective address, every request awaiting a response fails.
+     * @param address The {@link InetSocketAddress} of the receiver.
+     */
+    public void close(InetSocketAddress address) {
+        RequestChannel channel;
+        synchronized (channels) {
+            channel = channels.remove(address);
+        }
+
+        if (channel != null) {
+            channel.close(new IOException("The channel has been closed."));
+        }
+    }
+
+    /**
+     * Closes every channel, every request awaiting a response fails.
+     */
+    public void closeAll() {
+        List<RequestChannel> closing;
+        synchronized (channels) {
+            closing = new ArrayList<>(channels.values());
+            channels.clear();
+        }
+
+        for (RequestChannel channel : closing) {
+            channel.close(new IOException("The channel has been closed."));
+        }
+    }
+
+    /**
+     * Closes every channel and stops closing idle channels, the {@link Requester} must not be
+     * used afterwards.
+     */
+    public void close() {
+        reaper.cancel(false);
+        closeAll();
+    }
+
+    private void closeIdleChannels() {
+        synchronized (channels) {
+            Iterator<RequestChannel> iterator = channels.values().iterator();
+            while (iterator.hasNext()) {
+                RequestChannel channel = iterator.next();
+                if (channel.isClosed() || channel.closeIfIdle(idleTimeout)) {
+                    Log.d(Log.TAG, String.format("Closed request channel to %s.", channel.getAddress()));
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package github.tylerjmcbride.direct.transceivers.requests;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+
+/**
+ * The {@link ResponseSelector} serves every {@link RequestChannel} of a {@link Requester} from a
+ * single {@link Thread} using a {@link Selector}, much like the
+ * {@link github.tylerjmcbride.direct.sockets.SelectorServerRunnable} serves the connections it
+ * accepts. Requests posted from other threads are written, and responses are read, without
+ * blocking, so that the number of threads does not grow with the number of channels. The
+ * selector loop only runs on the {@link IoScheduler} whilst there are channels to serve.
+ */
+class ResponseSelector implements Runnable {
+
+    /**
+     * The duration in milliseconds the selector waits before checking whether any channel remains.
+     */
+    private static final long SELECT_TIMEOUT = 1000;
+
+    private final IoScheduler scheduler;
+    private final Codec codec;
+    private final Queue<RequestChannel> registering = new ConcurrentLinkedQueue<>();
+    private final Queue<RequestChannel> posting = new ConcurrentLinkedQueue<>();
+    private volatile Metrics metrics = Metrics.DISABLED;
+    private volatile Selector selector;
+    private boolean running = false;
+
+    ResponseSelector(IoScheduler scheduler, Codec codec) {
+        this.scheduler = scheduler;
+        this.codec = codec;
+    }
+
+    void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Serves the given channel from now on, which is switched to non-blocking mode.
+     * @param channel The established {@link RequestChannel}.
+     * @throws IOException If the channel cannot be served, it is then closed.
+     */
+    void register(RequestChannel channel) throws IOException {
+        try {
+            channel.getSocketChannel().configureBlocking(false);
+            registering.add(channel);
+            start();
+        } catch (IOException | RejectedExecutionException ex) {
+            registering.remove(channel);
+            IOException cause = new IOException(String.format("Failed to read responses from %s, %s", channel.getAddress(), ex.getMessage()));
+            channel.close(cause);
+            throw cause;
+        }
+        wakeup();
+    }
+
+    /**
+     * Writes the requests posted to the given channel once the selector thread picks them up.
+     * @param channel The {@link RequestChannel} requests have been posted to.
+     */
+    void post(RequestChannel channel) {
+        posting.add(channel);
+        wakeup();
+    }
+
+    private synchronized void start() {
+        if (!running) {
+            scheduler.execute(this);
+            running = true;
+        }
+    }
+
+    private void wakeup() {
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void run() {
+        Selector selector = null;
+        try {
+            selector = Selector.open();
+            this.selector = selector;
+            select(selector);
+        } catch (IOException | RuntimeException ex) {
+            Log.e(Log.TAG, String.format("Unexpected exception thrown by selector, %s", ex.getMessage()));
+            IOException cause = new IOException("The selector has been closed.");
+            synchronized (this) {
+                running = false;
+                // Channels registered in the meantime would otherwise never be served
+                RequestChannel channel;
+                while ((channel = registering.poll()) != null) {
+                    channel.close(cause);
+                }
+            }
+        } finally {
+            close(selector);
+        }
+    }
+
+    private void select(Selector selector) throws IOException {
+        while (true) {
+            registerPending(selector);
+            writePosted();
+            selector.select(SELECT_TIMEOUT);
+
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+
+                RequestChannel channel = (RequestChannel) key.attachment();
+                try {
+                    if (key.isValid() && key.isWritable()) {
+                        channel.flush();
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        channel.read(codec, metrics);
+                    }
+                } catch (IOException ex) {
+                    if (!channel.isClosed()) {
+                        Log.d(Log.TAG, String.format("Failed to serve request channel to %s, %s", channel.getAddress(), ex.getMessage()));
+                    }
+                    channel.close(ex);
+                }
+            }
+
+            synchronized (this) {
+                // A channel registered from now on starts the selector loop anew
+                if (registering.isEmpty() && !hasOpenChannels(selector)) {
+                    running = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean hasOpenChannels(Selector selector) {
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void registerPending(Selector selector) {
+        RequestChannel channel;
+        while ((channel = registering.poll()) != null) {
+            SocketChannel socketChannel = channel.getSocketChannel();
+            try {
+                channel.setKey(socketChannel.register(selector, SelectionKey.OP_READ, channel));
+                channel.flush();
+            } catch (ClosedChannelException ex) {
+                // Closed in the meantime, its requests have already failed
+            } catch (IOException ex) {
+                channel.close(ex);
+            }
+        }
+    }
+
+    private void writePosted() {
+        RequestChannel channel;
+        while ((channel = posting.poll()) != null) {
+            try {
+                channel.flush();
+            } catch (IOException ex) {
+                Log.d(Log.TAG, String.format("Failed to send request to %s, %s", channel.getAddress(), ex.getMessage()));
+                channel.close(ex);
+            }
+        }
+    }
+
+    /**
+     * Closes the given {@link Selector}, every channel still registered is closed along with it.
+     */
+    private void close(Selector selector) {
+        if (selector == null) {
+            return;
+        }
+
+        if (this.selector == selector) {
+            this.selector = null;
+        }
+        for (SelectionKey key : selector.keys()) {
+            ((RequestChannel) key.attachment()).close(new IOException("The selector has been closed."));
+        }
+        try {
+            selector.close();
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to close selector.");
+        }
+    }
+}
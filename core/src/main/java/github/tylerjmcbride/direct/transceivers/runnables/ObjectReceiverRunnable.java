@@ -0,0 +1,219 @@
+package github.tylerjmcbride.direct.transceivers.runnables;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+import github.tylerjmcbride.direct.logging.Log;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.sockets.SelectorServerRunnable;
+import github.tylerjmcbride.direct.sockets.Session;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.RelayCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.Responder;
+import github.tylerjmcbride.direct.transceivers.codecs.Codec;
+import github.tylerjmcbride.direct.transceivers.files.FileReceiver;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.PayloadSink;
+import github.tylerjmcbride.direct.transceivers.relay.RelayFrames;
+import github.tylerjmcbride.direct.transceivers.relay.RelayRouter;
+import github.tylerjmcbride.direct.transceivers.requests.Reply;
+import github.tylerjmcbride.direct.transceivers.requests.RequestFrames;
+
+public class ObjectReceiverRunnable extends SelectorServerRunnable {
+
+    private Executor callbackExecutor;
+    private Codec codec;
+    private ObjectCallback objectCallback;
+    private FileReceiver fileReceiver;
+    private Metrics metrics;
+    private volatile Responder responder;
+    private volatile RelayRouter relayRouter;
+    private volatile RelayCallback relayCallback;
+
+    public ObjectReceiverRunnable(int port, int maxServerConnections, Executor workers, Executor callbackExecutor, Codec codec, ObjectCallback objectCallback, FileReceiver fileReceiver, Metrics metrics, ServerSocketInitializationListener listener) {
+        super(port, maxServerConnections, workers, listener);
+        this.callbackExecutor = callbackExecutor;
+        this.codec = codec;
+        this.objectCallback = objectCallback;
+        this.fileReceiver = fileReceiver;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param responder The {@link Responder} replying to every request, or null to reject every request.
+     */
+    public void setResponder(Responder responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * @param relayRouter The {@link RelayRouter} forwarding every relayed object, or null to
+     *                    receive relayed objects instead.
+     */
+    public void setRelayRouter(RelayRouter relayRouter) {
+        this.relayRouter = relayRouter;
+    }
+
+    /**
+     * @param relayCallback The {@link RelayCallback} receiving relayed objects, or null to pass
+     *                      them to the {@link ObjectCallback} instead.
+     */
+    public void setRelayCallback(RelayCallback relayCallback) {
+        this.relayCallback = relayCallback;
+    }
+
+    @Override
+    protected void onBytesReceived(Session session, long count) {
+        metrics.onBytesReceived(session.getRemoteAddress(), count);
+    }
+
+    @Override
+    protected boolean onFrameDecoded(Session session, Frame frame) {
+        return fileReceiver.onFrameDecoded(this, session, frame);
+    }
+
+    @Override
+    protected PayloadSink onStreamStarted(Session session, Frame frame) {
+        return fileReceiver.onStreamStarted(this, session, frame);
+    }
+
+    @Override
+    protected void onSessionClosed(Session session) {
+        fileReceiver.onSessionClosed(session);
+    }
+
+    /**
+     * Decodes the payload of a single {@link Frame}. Frames of an unknown type are skipped,
+     * allowing newer peers to introduce frame types without breaking the connection.
+     * @param session The {@link Session} the frame was received over.
+     * @param frame The decoded {@link Frame}.
+     */
+    @Override
+    protected void onFrameReceived(Session session, Frame frame) {
+        if (frame.getType() == Frame.TYPE_REQUEST) {
+            onRequestReceived(session, frame);
+            return;
+        } else if (frame.getType() == Frame.TYPE_RELAY) {
+            onRelayReceived(session, frame);
+            return;
+        } else if (frame.getType() == Frame.TYPE_HEARTBEAT) {
+            onHeartbeatReceived(session, frame);
+            return;
+        } else if (frame.getType() != Frame.TYPE_OBJECT) {
+            Log.d(Log.TAG, String.format("Skipping frame of unknown type %d.", frame.getType()));
+            return;
+        }
+
+        try {
+            long start = metrics.start();
+            byte[] payload = frame.getPayload();
+            final Object object = codec.decode(payload, 0, payload.length);
+            metrics.onReceived(session.getRemoteAddress(), start);
+            Log.d(Log.TAG, "Succeeded to receive data.");
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    objectCallback.onReceived(object);
+                }
+            });
+        } catch (IOException ex) {
+            // The frame has been consumed in its entirety, the connection remains usable
+            Log.e(Log.TAG, "Failed to read data.");
+        }
+    }
+
+    /**
+     * Decodes the request and hands it to the {@link Responder}, which replies over the same
+     * {@link Session}. Without a {@link Responder} the request is rejected immediately.
+     */
+    private void onRequestReceived(Session session, Frame frame) {
+        long id;
+        try {
+            id = RequestFrames.getId(frame);
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to read request.");
+            return;
+        }
+
+        final Responder responder = this.responder;
+        final Reply reply = new Reply(this, session, id, codec, metrics);
+        if (responder == null) {
+            Log.d(Log.TAG, "Rejecting request, no responder has been set.");
+            try {
+                post(session, RequestFrames.encodeResponse(id, RequestFrames.STATUS_NO_RESPONDER, null, codec));
+            } catch (IOException ex) {
+                Log.e(Log.TAG, "Failed to encode response.");
+            }
+            return;
+        }
+
+        try {
+            long start = metrics.start();
+            final Object request = RequestFrames.decodeObject(frame, codec);
+            metrics.onReceived(session.getRemoteAddress(), start);
+            Log.d(Log.TAG, "Succeeded to receive request.");
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        responder.onRequest(request, reply);
+                    } catch (RuntimeException ex) {
+                        reply.fail();
+                        throw ex;
+                    }
+                }
+            });
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to read request.");
+            reply.fail();
+        }
+    }
+
+    /**
+     * Replies to the heartbeat immediately, regardless of whether a {@link Responder} has been set.
+     */
+    private void onHeartbeatReceived(Session session, Frame frame) {
+        try {
+            post(session, RequestFrames.encodeHeartbeatResponse(RequestFrames.getId(frame)));
+        } catch (IOException ex) {
+            Log.e(Log.TAG, "Failed to read heartbeat.");
+        }
+    }
+
+    /**
+     * Forwards the relayed object to its destination without decoding it, should this be the
+     * host, otherwise decodes the object.
+     */
+    private void onRelayReceived(Session session, Frame frame) {
+        try {
+            RelayRouter relayRouter = this.relayRouter;
+            if (relayRouter != null) {
+                metrics.onReceived(session.getRemoteAddress(), 0);
+                relayRouter.onRelay(session.getRemoteAddress(), RelayFrames.getSource(frame), RelayFrames.getDestination(frame), frame);
+                return;
+            }
+
+            long start = metrics.start();
+            final String source = RelayFrames.getSource(frame);
+            final Object object = RelayFrames.decodeObject(frame, codec);
+            metrics.onReceived(session.getRemoteAddress(), start);
+            Log.d(Log.TAG, String.format("Succeeded to receive data relayed from %s.", source));
+
+            final RelayCallback relayCallback = this.relayCallback;
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (relayCallback != null) {
+                        relayCallback.onReceived(source, object);
+                    } else {
+                        objectCallback.onReceived(object);
+                    }
+                }
+            });
+        } catch (IOException ex) {
+            // The frame has been consumed in its entirety, the connection remains usable
+            Log.e(Log.TAG, "Failed to read relayed data.");
+        }
+    }
+}
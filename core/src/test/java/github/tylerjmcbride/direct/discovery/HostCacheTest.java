@@ -0,0 +1,108 @@
+package github.tylerjmcbride.direct.discovery;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the {@link HostCache} reports hosts as discovered only when new or changed, and
+ * treats hosts last seen longer ago than the time to live as absent.
+ */
+public class HostCacheTest {
+
+    private static final long TIME_TO_LIVE = 10000;
+
+    @Test
+    public void putReportsNewAndChangedHostsOnly() {
+        HostCache cache = new HostCache(TIME_TO_LIVE);
+        long now = System.currentTimeMillis();
+
+        assertTrue(cache.put(newHost("a", 1000, "1", now)));
+        assertFalse(cache.put(newHost("a", 1000, "1", now + 1)));
+        assertTrue(cache.put(newHost("a", 1000, "2", now + 2)));
+        assertTrue(cache.put(newHost("a", 2000, "2", now + 3)));
+        assertEquals(now + 3, cache.get("a").getLastSeen());
+    }
+
+    @Test
+    public void putReportsHostSeenAgainAfterExpiring() {
+        HostCache cache = new HostCache(TIME_TO_LIVE);
+        long now = System.currentTimeMillis();
+
+        cache.put(newHost("a", 1000, "1", now - TIME_TO_LIVE - 1));
+        assertTrue(cache.put(newHost("a", 1000, "1", now)));
+    }
+
+    @Test
+    public void expiredHostsAreAbsent() {
+        HostCache cache = new HostCache(TIME_TO_LIVE);
+        long now = System.currentTimeMillis();
+        DiscoveredHost fresh = newHost("a", 1000, "1", now);
+        DiscoveredHost stale = newHost("b", 1000, "1", now - TIME_TO_LIVE - 1);
+        cache.put(fresh);
+        cache.put(stale);
+
+        assertSame(fresh, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertTrue(cache.contains(fresh.getDevice()));
+        assertFalse(cache.contains(stale.getDevice()));
+        assertEquals(Collections.singletonList(fresh), cache.getHosts());
+    }
+
+    @Test
+    public void expireDropsExpiredHostsOnly() {
+        HostCache cache = new HostCache(TIME_TO_LIVE);
+        long now = System.currentTimeMillis();
+        DiscoveredHost stale = newHost("b", 1000, "1", now - TIME_TO_LIVE - 1);
+        cache.put(newHost("a", 1000, "1", now));
+        cache.put(stale);
+
+        assertEquals(Collections.singletonList(stale), cache.expire());
+        assertTrue(cache.expire().isEmpty());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.remove("b"));
+    }
+
+    @Test
+    public void shorterTimeToLiveExpiresCachedHosts() {
+        HostCache cache = new HostCache(TIME_TO_LIVE);
+        cache.put(newHost("a", 1000, "1", System.currentTimeMillis() - TIME_TO_LIVE / 2));
+        assertNotNull(cache.get("a"));
+
+        cache.setTimeToLive(TIME_TO_LIVE / 4);
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.expire().size());
+    }
+
+    @Test
+    public void retainAllDropsHostsOutOfRange() {
+        HostCache cache = new HostCache(TIME_TO_LIVE);
+        long now = System.currentTimeMillis();
+        DiscoveredHost a = newHost("a", 1000, "1", now);
+        DiscoveredHost b = newHost("b", 1000, "1", now);
+        DiscoveredHost c = newHost("c", 1000, "1", now - TIME_TO_LIVE - 1);
+        cache.put(a);
+        cache.put(b);
+        cache.put(c);
+
+        List<DiscoveredHost> dropped = cache.retainAll(Arrays.asList(a.getDevice(), c.getDevice()));
+        assertEquals(2, dropped.size());
+        assertTrue(dropped.contains(b));
+        assertTrue(dropped.contains(c));
+        assertEquals(Collections.singletonList(a), cache.getHosts());
+    }
+
+    private static DiscoveredHost newHost(String macAddress, int registrarPort, String version, long lastSeen) {
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("version", version);
+        return new DiscoveredHost(new P2pDevice(macAddress, "host-" + macAddress, P2pDevice.AVAILABLE), "instance", registrarPort, attributes, lastSeen);
+    }
+}
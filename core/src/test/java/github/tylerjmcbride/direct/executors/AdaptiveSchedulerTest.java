@@ -0,0 +1,186 @@
+package github.tylerjmcbride.direct.executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the burst, backoff and reset of the {@link AdaptiveScheduler} deterministically, by
+ * recording the delays it asks for and running the scheduled runs by hand.
+ */
+public class AdaptiveSchedulerTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    private ManualScheduler scheduler;
+    private final AtomicInteger runs = new AtomicInteger();
+    private final Runnable task = new Runnable() {
+        @Override
+        public void run() {
+            runs.incrementAndGet();
+        }
+    };
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void backsOffAfterBurstUpToMaxInterval() {
+        AdaptiveScheduler adaptive = new AdaptiveScheduler(scheduler, DIRECT, task, 100, 800, 2);
+        adaptive.start();
+        for (int i = 0; i < 6; i++) {
+            scheduler.fire();
+        }
+
+        assertEquals(Arrays.asList(100L, 100L, 100L, 200L, 400L, 800L, 800L), scheduler.delays);
+        assertEquals(6, runs.get());
+        assertEquals(6, adaptive.getRunCount());
+        assertEquals(800, adaptive.getInterval());
+    }
+
+    @Test
+    public void resetReturnsToBurst() {
+        AdaptiveScheduler adaptive = new AdaptiveScheduler(scheduler, DIRECT, task, 100, 800, 1);
+        adaptive.start();
+        for (int i = 0; i < 3; i++) {
+            scheduler.fire();
+        }
+        assertEquals(400, adaptive.getInterval());
+
+        Runnable superseded = scheduler.pending;
+        scheduler.delays.clear();
+        adaptive.reset();
+        assertEquals(100, adaptive.getInterval());
+        assertEquals(Arrays.asList(100L), scheduler.delays);
+
+        // The run the reset brought forward does nothing should its cancellation come too late
+        superseded.run();
+        assertEquals(3, runs.get());
+
+        scheduler.fire();
+        scheduler.fire();
+        assertEquals(Arrays.asList(100L, 100L, 200L), scheduler.delays);
+    }
+
+    @Test
+    public void resetKeepsRunWithinMinInterval() {
+        AdaptiveScheduler adaptive = new AdaptiveScheduler(scheduler, DIRECT, task, 60000, 120000, 1);
+        adaptive.start();
+        Runnable next = scheduler.pending;
+
+        adaptive.reset();
+        assertSame(next, scheduler.pending);
+        assertEquals(1, scheduler.delays.size());
+    }
+
+    @Test
+    public void stopCancelsRunsUntilStartedAgain() {
+        AdaptiveScheduler adaptive = new AdaptiveScheduler(scheduler, DIRECT, task, 100, 800, 0);
+        adaptive.start();
+        scheduler.fire();
+        scheduler.fire();
+        assertEquals(400, adaptive.getInterval());
+
+        Runnable cancelled = scheduler.pending;
+        adaptive.stop();
+        assertFalse(adaptive.isStarted());
+        assertTrue(scheduler.future.isCancelled());
+        cancelled.run();
+        adaptive.reset();
+        assertEquals(2, runs.get());
+
+        scheduler.delays.clear();
+        adaptive.start();
+        adaptive.start();
+        assertEquals(100, adaptive.getInterval());
+        assertEquals(Arrays.asList(100L), scheduler.delays);
+    }
+
+    @Test
+    public void rejectedRunKeepsSchedule() {
+        AdaptiveScheduler adaptive = new AdaptiveScheduler(scheduler, new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                throw new RejectedExecutionException();
+            }
+        }, task, 100, 800, 0);
+        adaptive.start();
+        scheduler.fire();
+
+        assertTrue(adaptive.isStarted());
+        assertEquals(Arrays.asList(100L, 200L), scheduler.delays);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void setIntervalsClampsCurrentInterval() {
+        AdaptiveScheduler adaptive = new AdaptiveScheduler(scheduler, DIRECT, task, 100, 800, 0);
+        adaptive.start();
+        scheduler.fire();
+        scheduler.fire();
+        scheduler.fire();
+        assertEquals(800, adaptive.getInterval());
+
+        adaptive.setIntervals(100, 300, 0);
+        assertEquals(300, adaptive.getInterval());
+        scheduler.fire();
+        assertEquals(300, (long) scheduler.delays.get(scheduler.delays.size() - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMaxIntervalBelowMinInterval() {
+        new AdaptiveScheduler(scheduler, DIRECT, task, 200, 100, 0);
+    }
+
+    /**
+     * Records every delay asked for, and keeps the last run scheduled to be run by hand. The
+     * {@link ScheduledFuture} returned belongs to a no-op far in the future, so it can be cancelled.
+     */
+    private static class ManualScheduler extends IoScheduler {
+
+        private final List<Long> delays = new ArrayList<>();
+        private Runnable pending;
+        private ScheduledFuture<?> future;
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable runnable, long delay) {
+            delays.add(delay);
+            pending = runnable;
+            future = super.schedule(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, TimeUnit.HOURS.toMillis(1));
+            return future;
+        }
+
+        private void fire() {
+            Runnable runnable = pending;
+            pending = null;
+            runnable.run();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package github.tylerjmcbride.direct.executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import github.tylerjmcbride.direct.executors.listeners.ExpirationListener;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the bucketing and rollover of the {@link TimerWheel} deterministically, by turning the
+ * wheel one tick at a time by hand.
+ */
+public class TimerWheelTest {
+
+    private static final long TICK = 10;
+
+    private ManualScheduler scheduler;
+    private final List<String> expired = new ArrayList<>();
+    private final ExpirationListener<String> listener = new ExpirationListener<String>() {
+        @Override
+        public void onExpired(String key) {
+            expired.add(key);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void delaysAreRoundedUpToWholeTicks() {
+        TimerWheel<String> wheel = newStartedWheel(8);
+        wheel.schedule("now", 0);
+        wheel.schedule("one", TICK);
+        wheel.schedule("three", 2 * TICK + 1);
+
+        scheduler.tick();
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(Arrays.asList("now", "one")));
+
+        expired.clear();
+        scheduler.tick();
+        assertTrue(expired.isEmpty());
+        scheduler.tick();
+        assertEquals(Collections.singletonList("three"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void delaysBeyondTurnRollOver() {
+        TimerWheel<String> wheel = newStartedWheel(4);
+        wheel.schedule("ten", 10 * TICK);
+        wheel.schedule("eight", 8 * TICK);
+        wheel.schedule("two", 2 * TICK);
+
+        assertEquals(Arrays.asList(2, 8, 10), ticksUntilExpired(wheel, 12, "two", "eight", "ten"));
+    }
+
+    @Test
+    public void delayIsCountedFromCursor() {
+        TimerWheel<String> wheel = newStartedWheel(4);
+        scheduler.tick();
+        scheduler.tick();
+        scheduler.tick();
+        wheel.schedule("five", 5 * TICK);
+
+        assertEquals(Collections.singletonList(5), ticksUntilExpired(wheel, 8, "five"));
+    }
+
+    @Test
+    public void scheduleReplacesPreviousTimeout() {
+        TimerWheel<String> wheel = newStartedWheel(8);
+        wheel.schedule("key", TICK);
+        wheel.schedule("key", 3 * TICK);
+        assertEquals(1, wheel.size());
+
+        assertEquals(Collections.singletonList(3), ticksUntilExpired(wheel, 4, "key"));
+    }
+
+    @Test
+    public void cancelledKeysNeverExpire() {
+        TimerWheel<String> wheel = newStartedWheel(8);
+        wheel.schedule("key", TICK);
+        assertTrue(wheel.cancel("key"));
+        assertFalse(wheel.cancel("key"));
+
+        scheduler.tick();
+        assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    public void failingListenerKeepsWheelTurning() {
+        TimerWheel<String> wheel = new TimerWheel<>(scheduler, TICK, 8, new ExpirationListener<String>() {
+            @Override
+            public void onExpired(String key) {
+                expired.add(key);
+                throw new IllegalStateException();
+            }
+        });
+        wheel.start();
+        wheel.schedule("a", TICK);
+        wheel.schedule("b", TICK);
+        wheel.schedule("c", 2 * TICK);
+
+        scheduler.tick();
+        scheduler.tick();
+        assertEquals(3, expired.size());
+    }
+
+    @Test
+    public void stopCancelsTickingAndTimeouts() {
+        TimerWheel<String> wheel = newStartedWheel(8);
+        wheel.start();
+        assertEquals(1, scheduler.started);
+        wheel.schedule("key", TICK);
+
+        wheel.stop();
+        assertTrue(scheduler.future.isCancelled());
+        assertEquals(0, wheel.size());
+    }
+
+    private TimerWheel<String> newStartedWheel(int wheelSize) {
+        TimerWheel<String> wheel = new TimerWheel<>(scheduler, TICK, wheelSize, listener);
+        wheel.start();
+        return wheel;
+    }
+
+    /**
+     * Turns the wheel the given number of ticks.
+     * @return The tick each of the given keys expired on, the keys being expected to expire in order.
+     */
+    private List<Integer> ticksUntilExpired(TimerWheel<String> wheel, int ticks, String... keys) {
+        List<Integer> expiredAt = new ArrayList<>();
+        for (int tick = 1; tick <= ticks; tick++) {
+            scheduler.tick();
+            for (String key : expired) {
+                assertEquals(keys[expiredAt.size()], key);
+                expiredAt.add(tick);
+            }
+            expired.clear();
+        }
+        assertEquals(keys.length, expiredAt.size());
+        assertEquals(0, wheel.size());
+        return expiredAt;
+    }
+
+    /**
+     * Keeps the periodic task started last to be run by hand, one tick at a time. The
+     * {@link ScheduledFuture} returned belongs to a no-op far in the future, so it can be cancelled.
+     */
+    private static class ManualScheduler extends IoScheduler {
+
+        private int started = 0;
+        private Runnable ticking;
+        private ScheduledFuture<?> future;
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable runnable, long initialDelay, long delay) {
+            started++;
+            ticking = runnable;
+            future = schedule(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, TimeUnit.HOURS.toMillis(1));
+            return future;
+        }
+
+        private void tick() {
+            ticking.run();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package github.tylerjmcbride.direct.liveness;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.liveness.listeners.LivenessListener;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.registration.ClientRegistry;
+import github.tylerjmcbride.direct.transceivers.ObjectTransmitter;
+import github.tylerjmcbride.direct.transceivers.codecs.SerializableCodec;
+import github.tylerjmcbride.direct.transceivers.requests.PendingResponse;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the {@link HeartbeatMonitor} declares a client lost once it has missed as many
+ * heartbeats in a row as allowed, by turning its timer wheel one tick at a time by hand and
+ * failing every heartbeat immediately.
+ */
+public class HeartbeatMonitorTest {
+
+    private static final String MAC_ADDRESS = "02:00:00:00:00:02";
+
+    /**
+     * The interval is eight ticks of the wheel.
+     */
+    private static final long INTERVAL = 80;
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    private ManualScheduler scheduler;
+    private IoScheduler transmitterScheduler;
+    private ClientRegistry clients;
+    private HeartbeatMonitor monitor;
+    private final AtomicInteger heartbeats = new AtomicInteger();
+    private final List<String> lost = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler();
+        transmitterScheduler = new IoScheduler();
+        ObjectTransmitter objectTransmitter = new ObjectTransmitter(transmitterScheduler, DIRECT, new SerializableCodec()) {
+            @Override
+            public PendingResponse heartbeat(InetSocketAddress address, long timeout) {
+                heartbeats.incrementAndGet();
+                return PendingResponse.failed(new IOException("The heartbeat timed out."), DIRECT);
+            }
+        };
+
+        clients = new ClientRegistry();
+        monitor = new HeartbeatMonitor(scheduler, objectTransmitter, clients, DIRECT, new LivenessListener() {
+            @Override
+            public void onClientLost(String macAddress) {
+                lost.add(macAddress);
+            }
+        });
+        clients.addListener(monitor);
+    }
+
+    @After
+    public void tearDown() {
+        monitor.stop();
+        scheduler.shutdown();
+        transmitterScheduler.shutdown();
+    }
+
+    @Test
+    public void clientIsLostAfterMaxMisses() {
+        register();
+        monitor.setHeartbeat(INTERVAL, 3);
+
+        tick(7);
+        assertEquals(0, heartbeats.get());
+        tick(1);
+        assertEquals(1, heartbeats.get());
+
+        // Missed heartbeats are retried on the next tick, as they have been awaited for an interval
+        tick(1);
+        assertEquals(2, heartbeats.get());
+        assertTrue(lost.isEmpty());
+        tick(1);
+        assertEquals(3, heartbeats.get());
+        assertEquals(Collections.singletonList(MAC_ADDRESS), lost);
+        assertEquals(-1, monitor.getRoundTripTime(MAC_ADDRESS));
+
+        tick(32);
+        assertEquals(3, heartbeats.get());
+        assertEquals(1, lost.size());
+    }
+
+    @Test
+    public void clientRegisteredLaterIsMonitored() {
+        monitor.setHeartbeat(INTERVAL, 1);
+        tick(4);
+        register();
+
+        tick(7);
+        assertTrue(lost.isEmpty());
+        tick(1);
+        assertEquals(1, heartbeats.get());
+        assertEquals(Collections.singletonList(MAC_ADDRESS), lost);
+    }
+
+    @Test
+    public void unregisteredClientIsNoLongerMonitored() {
+        register();
+        monitor.setHeartbeat(INTERVAL, 3);
+        tick(8);
+        clients.unregister(MAC_ADDRESS);
+
+        tick(32);
+        assertEquals(1, heartbeats.get());
+        assertTrue(lost.isEmpty());
+    }
+
+    @Test
+    public void disabledHeartbeatSendsNothing() {
+        register();
+        monitor.setHeartbeat(INTERVAL, 3);
+        monitor.setHeartbeat(0, 3);
+
+        assertTrue(scheduler.future.isCancelled());
+        assertEquals(0, heartbeats.get());
+    }
+
+    private void register() {
+        clients.register(new WifiP2pDeviceInfo(MAC_ADDRESS, InetAddress.getLoopbackAddress(), 9),
+                new P2pDevice(MAC_ADDRESS, "Client", P2pDevice.CONNECTED));
+    }
+
+    private void tick(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            scheduler.tick();
+        }
+    }
+
+    /**
+     * Keeps the periodic task started last to be run by hand, one tick at a time. The
+     * {@link ScheduledFuture} returned belongs to a no-op far in the future, so it can be cancelled.
+     */
+    private static class ManualScheduler extends IoScheduler {
+
+        private Runnable ticking;
+        private ScheduledFuture<?> future;
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable runnable, long initialDelay, long delay) {
+            ticking = runnable;
+            future = schedule(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, TimeUnit.HOURS.toMillis(1));
+            return future;
+        }
+
+        private void tick() {
+            if (ticking != null && !future.isCancelled()) {
+                ticking.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package github.tylerjmcbride.direct.p2p;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.p2p.listeners.ActionListener;
+import github.tylerjmcbride.direct.p2p.listeners.ConnectionInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.GroupInfoListener;
+import github.tylerjmcbride.direct.p2p.listeners.P2pEventListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerChangeListener;
+import github.tylerjmcbride.direct.p2p.listeners.PeerListListener;
+import github.tylerjmcbride.direct.p2p.listeners.TxtRecordListener;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the {@link PeerTracker} with a {@link FakeFramework} which holds every peer request until
+ * the test answers it, and checks that bursts of changes are coalesced into a single request and
+ * that only the peers which have come or gone are passed on.
+ */
+public class PeerTrackerTest {
+
+    private static final long WINDOW = 50;
+    private static final long TIMEOUT = 5;
+
+    private static final P2pDevice A = new P2pDevice("02:00:00:00:00:0a", "A", P2pDevice.AVAILABLE);
+    private static final P2pDevice B = new P2pDevice("02:00:00:00:00:0b", "B", P2pDevice.AVAILABLE);
+    private static final P2pDevice C = new P2pDevice("02:00:00:00:00:0c", "C", P2pDevice.AVAILABLE);
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    private IoScheduler scheduler;
+    private FakeFramework framework;
+    private PeerTracker tracker;
+    private final List<Set<P2pDevice>> added = new ArrayList<>();
+    private final List<Set<P2pDevice>> removed = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        scheduler = new IoScheduler();
+        framework = new FakeFramework();
+        tracker = new PeerTracker(framework, scheduler, DIRECT, new PeerChangeListener() {
+            @Override
+            public void onPeersChanged(Set<P2pDevice> added, Set<P2pDevice> removed) {
+                PeerTrackerTest.this.added.add(added);
+                PeerTrackerTest.this.removed.add(removed);
+            }
+        });
+        tracker.setWindow(WINDOW);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void burstIsCoalescedIntoSingleRequest() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tracker.onAvailablePeersChanged();
+        }
+        PeerListListener request = framework.awaitRequest();
+
+        // Any further request would have been made within the window
+        assertNull(framework.requests.poll(WINDOW * 4, TimeUnit.MILLISECONDS));
+        assertEquals(10, tracker.getChangeCount());
+        assertEquals(1, tracker.getRequestCount());
+
+        request.onPeersAvailable(Arrays.asList(A, B));
+        assertEquals(Collections.singletonList(set(A, B)), added);
+        assertEquals(Collections.singletonList(set()), removed);
+        assertEquals(set(A, B), tracker.getPeers());
+    }
+
+    @Test
+    public void changeAfterRequestStartsNewWindow() throws Exception {
+        tracker.onAvailablePeersChanged();
+        PeerListListener first = framework.awaitRequest();
+        tracker.onAvailablePeersChanged();
+        PeerListListener second = framework.awaitRequest();
+
+        assertNotSame(first, second);
+        assertEquals(2, tracker.getRequestCount());
+    }
+
+    @Test
+    public void onlyDeltasArePassedOn() throws Exception {
+        tracker.onAvailablePeersChanged();
+        framework.awaitRequest().onPeersAvailable(Arrays.asList(A, B));
+        tracker.onAvailablePeersChanged();
+        framework.awaitRequest().onPeersAvailable(Arrays.asList(B, C));
+        tracker.onAvailablePeersChanged();
+        framework.awaitRequest().onPeersAvailable(Arrays.asList(C, B));
+        tracker.onAvailablePeersChanged();
+        framework.awaitRequest().onPeersAvailable(Collections.<P2pDevice>emptyList());
+
+        assertEquals(Arrays.asList(set(A, B), set(C), set()), added);
+        assertEquals(Arrays.asList(set(), set(A), set(B, C)), removed);
+        assertTrue(tracker.getPeers().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeWindow() {
+        tracker.setWindow(-1);
+    }
+
+    private static Set<P2pDevice> set(P2pDevice... devices) {
+        return new HashSet<>(Arrays.asList(devices));
+    }
+
+    /**
+     * A {@link P2pFramework} which only holds the peer requests made, every other request is ignored.
+     */
+    private static class FakeFramework implements P2pFramework {
+
+        private final BlockingQueue<PeerListListener> requests = new LinkedBlockingQueue<>();
+
+        private PeerListListener awaitRequest() throws InterruptedException {
+            PeerListListener request = requests.poll(TIMEOUT, TimeUnit.SECONDS);
+            assertNotNull(request);
+            return request;
+        }
+
+        @Override
+        public void requestPeers(PeerListListener listener) {
+            requests.add(listener);
+        }
+
+        @Override
+        public void setEventListener(P2pEventListener listener) {
+        }
+
+        @Override
+        public void setTxtRecordListener(TxtRecordListener listener) {
+        }
+
+        @Override
+        public void addLocalService(String instanceName, String serviceType, Map<String, String> record, ActionListener listener) {
+        }
+
+        @Override
+        public void clearLocalServices(ActionListener listener) {
+        }
+
+        @Override
+        public void addServiceRequest(ActionListener listener) {
+        }
+
+        @Override
+        public void removeServiceRequest(ActionListener listener) {
+        }
+
+        @Override
+        public void clearServiceRequests(ActionListener listener) {
+        }
+
+        @Override
+        public void discoverServices(ActionListener listener) {
+        }
+
+        @Override
+        public void discoverPeers(ActionListener listener) {
+        }
+
+        @Override
+        public void stopPeerDiscovery(ActionListener listener) {
+        }
+
+        @Override
+        public void connect(String deviceAddress, int groupOwnerIntent, ActionListener listener) {
+        }
+
+        @Override
+        public void removeGroup(ActionListener listener) {
+        }
+
+        @Override
+        public void deletePersistentGroup(P2pGroup group, ActionListener listener) {
+        }
+
+        @Override
+        public void requestConnectionInfo(ConnectionInfoListener listener) {
+        }
+
+        @Override
+        public void requestGroupInfo(GroupInfoListener listener) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package github.tylerjmcbride.direct.p2p.simulation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import github.tylerjmcbride.direct.Direct;
+import github.tylerjmcbride.direct.DirectHost;
+import github.tylerjmcbride.direct.callbacks.PeerConnectionCallback;
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.callbacks.ServiceCallback;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.registration.model.Handshake;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.codecs.SerializableCodec;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameEncoder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sends a {@link DirectHost} relay frames over a raw connection, on behalf of clients registered
+ * under distinct loopback addresses through raw handshakes. The relayed object is not a valid
+ * encoding, so that the frame only arrives should the host forward it without decoding it.
+ */
+public class HostRelayTest {
+
+    private static final String SENDER = "02:00:00:00:00:02";
+    private static final String DESTINATION = "02:00:00:00:00:03";
+    private static final String OTHER = "02:00:00:00:00:04";
+    private static final long TIMEOUT = 10;
+
+    private SimulatedRadio radio;
+    private ExecutorService hostMain;
+    private SimulatedP2pFramework hostFramework;
+    private DirectHost host;
+    private ServerSocket destination;
+
+    @Before
+    public void setUp() throws Exception {
+        radio = new SimulatedRadio.Builder().setSeed(42).build();
+        hostMain = Executors.newSingleThreadExecutor();
+        hostFramework = radio.createDevice("02:00:00:00:00:01", "Host", hostMain);
+        host = new DirectHost(hostFramework, hostMain, "SIMULATED_SERVICE", "INSTANCE", new SerializableCodec(), null, hostFramework.getDeviceAddress());
+        destination = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.2"));
+
+        final CountDownLatch started = new CountDownLatch(1);
+        run(new Runnable() {
+            @Override
+            public void run() {
+                host.startService(new ObjectCallback() {
+                    @Override
+                    public void onReceived(Object object) {
+                    }
+                }, new PeerConnectionCallback() {
+                    @Override
+                    public void onConnected(P2pDevice clientDevice) {
+                    }
+
+                    @Override
+                    public void onDisconnected(P2pDevice clientDevice) {
+                    }
+                }, new ServiceCallback() {
+                    @Override
+                    public void onServiceStopped() {
+                    }
+                }, new ResultCallback() {
+                    @Override
+                    public void onSuccess() {
+                        started.countDown();
+                    }
+
+                    @Override
+                    public void onFailure() {
+                    }
+                });
+            }
+        });
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+
+        register(SENDER, "127.0.0.1", 1);
+        register(DESTINATION, "127.0.0.2", destination.getLocalPort());
+        register(OTHER, "127.0.0.3", 1);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+        while (registeredClients() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, registeredClients());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        run(new Runnable() {
+            @Override
+            public void run() {
+                host.cleanUp();
+            }
+        });
+        hostMain.shutdown();
+        radio.shutdown();
+        destination.close();
+    }
+
+    @Test
+    public void spoofedRelayIsDroppedAndValidRelayForwardedAsReceived() throws Exception {
+        byte[] spoofed = relayFrame(DESTINATION, OTHER, new byte[] { 1, 2, 3 });
+        byte[] valid = relayFrame(DESTINATION, SENDER, new byte[] { 4, 5, 6, 7, 8 });
+
+        // Both frames are sent from the address the sender is registered under
+        try (Socket socket = new Socket()) {
+            socket.bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+            socket.connect(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), host.getThisDeviceInfo().getPort()));
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(spoofed);
+            outputStream.write(valid);
+            outputStream.flush();
+
+            destination.setSoTimeout((int) TimeUnit.SECONDS.toMillis(TIMEOUT));
+            try (Socket forwarded = destination.accept()) {
+                forwarded.setSoTimeout((int) TimeUnit.SECONDS.toMillis(TIMEOUT));
+                byte[] received = new byte[valid.length];
+                new DataInputStream(forwarded.getInputStream()).readFully(received);
+                assertArrayEquals(valid, received);
+
+                // The spoofed frame is never forwarded, neither before nor after the valid one
+                forwarded.setSoTimeout(500);
+                assertNothingMore(forwarded.getInputStream());
+            }
+        }
+    }
+
+    /**
+     * Registers a discoverable device with the host from the given address, as a client would.
+     */
+    private void register(String macAddress, String ipAddress, int port) throws Exception {
+        radio.createDevice(macAddress, macAddress, hostMain).discoverPeers(null);
+
+        int registrarPort = -1;
+        synchronized (radio) {
+            for (Map<String, String> record : hostFramework.localServices.values()) {
+                registrarPort = Integer.parseInt(record.get(Direct.REGISTRAR_PORT_TAG));
+            }
+        }
+
+        try (Socket socket = new Socket()) {
+            socket.bind(new InetSocketAddress(InetAddress.getByName(ipAddress), 0));
+            socket.connect(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), registrarPort));
+            ObjectOutputStream outputStream = new ObjectOutputStream(socket.getOutputStream());
+            outputStream.writeObject(new Handshake(macAddress, port));
+            outputStream.flush();
+            assertTrue(new ObjectInputStream(socket.getInputStream()).readObject() instanceof Handshake);
+        }
+    }
+
+    private int registeredClients() throws Exception {
+        return hostMain.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return host.getRegisteredClients().size();
+            }
+        }).get(TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    private static void assertNothingMore(InputStream inputStream) throws Exception {
+        try {
+            int read = inputStream.read();
+            fail(read < 0 ? "Connection closed." : "Received unexpected data.");
+        } catch (SocketTimeoutException expected) {
+            // Nothing else was forwarded
+        }
+    }
+
+    /**
+     * Encodes a relay frame holding the given bytes in place of an encoded object.
+     */
+    private static byte[] relayFrame(String destination, String source, byte[] object) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        for (String address : Arrays.asList(destination, source)) {
+            byte[] bytes = address.getBytes(Charset.forName("UTF-8"));
+            payload.write(bytes.length);
+            payload.write(bytes, 0, bytes.length);
+        }
+        payload.write(object, 0, object.length);
+        return FrameEncoder.encode(new Frame(Frame.TYPE_RELAY, Frame.NO_FLAGS, payload.toByteArray())).array();
+    }
+
+    private void run(Runnable task) throws Exception {
+        hostMain.submit(task).get(TIMEOUT, TimeUnit.SECONDS);
+    }
+}
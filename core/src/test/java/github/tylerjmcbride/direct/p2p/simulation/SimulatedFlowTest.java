@@ -0,0 +1,379 @@
+package github.tylerjmcbride.direct.p2p.simulation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import github.tylerjmcbride.direct.DirectClient;
+import github.tylerjmcbride.direct.DirectHost;
+import github.tylerjmcbride.direct.callbacks.ConnectionCallback;
+import github.tylerjmcbride.direct.callbacks.PeerBroadcastCallback;
+import github.tylerjmcbride.direct.callbacks.PeerConnectionCallback;
+import github.tylerjmcbride.direct.callbacks.PeerDiscoveryCallback;
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.callbacks.ServiceCallback;
+import github.tylerjmcbride.direct.liveness.HeartbeatMonitor;
+import github.tylerjmcbride.direct.metrics.MetricsSnapshot;
+import github.tylerjmcbride.direct.metrics.PeerMetrics;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.Responder;
+import github.tylerjmcbride.direct.transceivers.codecs.SerializableCodec;
+import github.tylerjmcbride.direct.transceivers.requests.PendingResponse;
+import github.tylerjmcbride.direct.transceivers.requests.Reply;
+
+import static java.util.Collections.singleton;
+import static org.junit.Assert.*;
+
+/**
+ * Runs the discover, connect, register, send, request and publish flow between a {@link DirectHost} and a
+ * {@link DirectClient} over a {@link SimulatedRadio}. Every test connects the client afresh, then
+ * exercises a single step of the flow.
+ */
+public class SimulatedFlowTest {
+
+    private static final String SERVICE = "SIMULATED_SERVICE";
+    private static final long TIMEOUT = 30;
+
+    private SimulatedRadio radio;
+    private ExecutorService hostMain;
+    private ExecutorService clientMain;
+    private DirectHost host;
+    private DirectClient client;
+
+    private final CountDownLatch discovered = new CountDownLatch(1);
+    private final CountDownLatch registered = new CountDownLatch(1);
+    private final CountDownLatch connected = new CountDownLatch(1);
+    private final CountDownLatch received = new CountDownLatch(1);
+    private final CountDownLatch unregistered = new CountDownLatch(1);
+    private final CountDownLatch published = new CountDownLatch(1);
+    private final AtomicBoolean unsubscribedReceived = new AtomicBoolean();
+    private volatile P2pDevice registeredClient;
+
+    @Before
+    public void setUp() {
+        radio = new SimulatedRadio.Builder()
+                .setLatency(5, 20)
+                .setGroupFormationLatency(50, 100)
+                .setSeed(42)
+                .build();
+        hostMain = Executors.newSingleThreadExecutor();
+        clientMain = Executors.newSingleThreadExecutor();
+
+        SimulatedP2pFramework hostFramework = radio.createDevice("02:00:00:00:00:01", "Host", hostMain);
+        SimulatedP2pFramework clientFramework = radio.createDevice("02:00:00:00:00:02", "Client", clientMain);
+        host = new DirectHost(hostFramework, hostMain, SERVICE, "INSTANCE", new SerializableCodec(), null, hostFramework.getDeviceAddress());
+        client = new DirectClient(clientFramework, clientMain, SERVICE, new SerializableCodec(), null, clientFramework.getDeviceAddress());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        run(hostMain, new Runnable() {
+            @Override
+            public void run() {
+                host.cleanUp();
+            }
+        });
+        run(clientMain, new Runnable() {
+            @Override
+            public void run() {
+                client.cleanUp();
+            }
+        });
+        hostMain.shutdown();
+        clientMain.shutdown();
+        radio.shutdown();
+    }
+
+    @Test
+    public void sentObjectIsRecordedInMetrics() throws Exception {
+        host.getMetrics().setEnabled(true);
+        client.getMetrics().setEnabled(true);
+        connect();
+        assertTrue(discovered.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(registered.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(connected.await(TIMEOUT, TimeUnit.SECONDS));
+
+        final CountDownLatch sent = new CountDownLatch(1);
+        run(clientMain, new Runnable() {
+            @Override
+            public void run() {
+                client.send("Hello", new ResultCallback() {
+                    @Override
+                    public void onSuccess() {
+                        sent.countDown();
+                    }
+
+                    @Override
+                    public void onFailure() {
+                    }
+                });
+            }
+        });
+        assertTrue(received.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(sent.await(TIMEOUT, TimeUnit.SECONDS));
+
+        MetricsSnapshot clientMetrics = client.getMetrics().snapshot();
+        assertEquals(1, clientMetrics.getRegistrationsSucceeded());
+        assertEquals(1, clientMetrics.getSendLatency().getCount());
+        PeerMetrics hostPeer = clientMetrics.getPeers().values().iterator().next();
+        assertEquals(1, hostPeer.getMessagesSent());
+        assertTrue(hostPeer.getBytesSent() > 0);
+
+        MetricsSnapshot hostMetrics = host.getMetrics().snapshot();
+        assertEquals(1, hostMetrics.getRegistrationsSucceeded());
+        PeerMetrics clientPeer = hostMetrics.getPeers().values().iterator().next();
+        assertEquals(1, clientPeer.getMessagesReceived());
+        assertEquals(hostPeer.getBytesSent(), clientPeer.getBytesReceived());
+    }
+
+    @Test
+    public void concurrentRequestsAreAnswered() throws Exception {
+        host.setResponder(new Responder() {
+            @Override
+            public void onRequest(Object request, Reply reply) {
+                reply.send(((String) request).toUpperCase());
+            }
+        });
+        connect();
+        assertTrue(connected.await(TIMEOUT, TimeUnit.SECONDS));
+
+        PendingResponse first = client.request("first", TimeUnit.SECONDS.toMillis(TIMEOUT));
+        PendingResponse second = client.request("second", TimeUnit.SECONDS.toMillis(TIMEOUT));
+        assertEquals("SECOND", second.get(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals("FIRST", first.get(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void publishedObjectReachesOnlySubscribers() throws Exception {
+        run(clientMain, new Runnable() {
+            @Override
+            public void run() {
+                client.subscribe("news", new ResultCallback() {
+                    @Override
+                    public void onSuccess() {
+                    }
+
+                    @Override
+                    public void onFailure() {
+                    }
+                });
+            }
+        });
+        connect();
+        assertTrue(registered.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(connected.await(TIMEOUT, TimeUnit.SECONDS));
+
+        run(hostMain, new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(singleton("news"), host.getTopics(registeredClient));
+                PeerBroadcastCallback callback = new PeerBroadcastCallback() {
+                    @Override
+                    public void onSuccess(P2pDevice clientDevice) {
+                    }
+
+                    @Override
+                    public void onFailure(P2pDevice clientDevice) {
+                    }
+                };
+                host.publish("sports", "Score", callback);
+                host.publish("news", "Headline", callback);
+            }
+        });
+        assertTrue(published.await(TIMEOUT, TimeUnit.SECONDS));
+        assertFalse(unsubscribedReceived.get());
+    }
+
+    @Test
+    public void heartbeatsMeasureRoundTripTime() throws Exception {
+        connect();
+        assertTrue(registered.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(connected.await(TIMEOUT, TimeUnit.SECONDS));
+
+        run(hostMain, new Runnable() {
+            @Override
+            public void run() {
+                host.setHeartbeat(100, HeartbeatMonitor.DEFAULT_MAX_MISSES);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+        while (host.getRoundTripTime(registeredClient) < 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(host.getRoundTripTime(registeredClient) >= 0);
+        assertEquals(1, host.getRegisteredClients().size());
+    }
+
+    @Test
+    public void clientIsUnregisteredUponDisconnecting() throws Exception {
+        connect();
+        assertTrue(connected.await(TIMEOUT, TimeUnit.SECONDS));
+
+        run(clientMain, new Runnable() {
+            @Override
+            public void run() {
+                client.disconnect(new ResultCallback() {
+                    @Override
+                    public void onSuccess() {
+                    }
+
+                    @Override
+                    public void onFailure() {
+                    }
+                });
+            }
+        });
+        assertTrue(unregistered.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void advertisingPausesWhileSaturated() throws Exception {
+        run(hostMain, new Runnable() {
+            @Override
+            public void run() {
+                host.setMaxClients(1);
+                host.setAdvertisingIntervals(20, 20, 0);
+            }
+        });
+        connect();
+        assertTrue(connected.await(TIMEOUT, TimeUnit.SECONDS));
+
+        // A run already handed to the main thread may still complete once saturated
+        Thread.sleep(100);
+        long saturatedCount = host.getAdvertisingCount();
+        assertTrue(saturatedCount > 0);
+        Thread.sleep(200);
+        assertEquals(saturatedCount, host.getAdvertisingCount());
+
+        run(clientMain, new Runnable() {
+            @Override
+            public void run() {
+                client.disconnect(new ResultCallback() {
+                    @Override
+                    public void onSuccess() {
+                    }
+
+                    @Override
+                    public void onFailure() {
+                    }
+                });
+            }
+        });
+        assertTrue(unregistered.await(TIMEOUT, TimeUnit.SECONDS));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+        while (host.getAdvertisingCount() == saturatedCount && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(host.getAdvertisingCount() > saturatedCount);
+    }
+
+    /**
+     * Starts the service, then connects the client to the first host it discovers.
+     */
+    private void connect() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        run(hostMain, new Runnable() {
+            @Override
+            public void run() {
+                host.startService(new ObjectCallback() {
+                    @Override
+                    public void onReceived(Object object) {
+                        if ("Hello".equals(object)) {
+                            received.countDown();
+                        }
+                    }
+                }, new PeerConnectionCallback() {
+                    @Override
+                    public void onConnected(P2pDevice clientDevice) {
+                        registeredClient = clientDevice;
+                        registered.countDown();
+                    }
+
+                    @Override
+                    public void onDisconnected(P2pDevice clientDevice) {
+                        unregistered.countDown();
+                    }
+                }, new ServiceCallback() {
+                    @Override
+                    public void onServiceStopped() {
+                    }
+                }, new ResultCallback() {
+                    @Override
+                    public void onSuccess() {
+                        started.countDown();
+                    }
+
+                    @Override
+                    public void onFailure() {
+                    }
+                });
+            }
+        });
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+
+        run(clientMain, new Runnable() {
+            @Override
+            public void run() {
+                client.startDiscovery(new PeerDiscoveryCallback() {
+                    @Override
+                    public void onDiscovered(P2pDevice hostDevice) {
+                        if (discovered.getCount() > 0) {
+                            discovered.countDown();
+                            client.connect(hostDevice, new ObjectCallback() {
+                                @Override
+                                public void onReceived(Object object) {
+                                    if ("Headline".equals(object)) {
+                                        published.countDown();
+                                    } else if ("Score".equals(object)) {
+                                        unsubscribedReceived.set(true);
+                                    }
+                                }
+                            }, new ConnectionCallback() {
+                                @Override
+                                public void onConnected() {
+                                    connected.countDown();
+                                }
+
+                                @Override
+                                public void onDisconnected() {
+                                }
+                            }, new ResultCallback() {
+                                @Override
+                                public void onSuccess() {
+                                }
+
+                                @Override
+                                public void onFailure() {
+                                }
+                            });
+                        }
+                    }
+
+                    @Override
+                    public void onLost(P2pDevice hostDevice) {
+                    }
+                }, new ResultCallback() {
+                    @Override
+                    public void onSuccess() {
+                    }
+
+                    @Override
+                    public void onFailure() {
+                    }
+                });
+            }
+        });
+    }
+
+    private static void run(ExecutorService main, Runnable task) throws Exception {
+        main.submit(task).get(TIMEOUT, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,114 @@
+package github.tylerjmcbride.direct.registration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+import github.tylerjmcbride.direct.registration.listeners.ClientRegistryListener;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the indexes of the {@link ClientRegistry} agree as clients come, go and return, and
+ * that every {@link ClientRegistryListener} is notified exactly once per change.
+ */
+public class ClientRegistryTest {
+
+    private static final String FIRST = "02:00:00:00:00:02";
+    private static final String SECOND = "02:00:00:00:00:03";
+
+    private ClientRegistry clients;
+    private final List<String> events = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        clients = new ClientRegistry();
+        clients.addListener(new ClientRegistryListener() {
+            @Override
+            public void onRegistered(RegisteredClient client) {
+                events.add("+" + client.getMacAddress());
+            }
+
+            @Override
+            public void onUnregistered(RegisteredClient client) {
+                events.add("-" + client.getMacAddress());
+            }
+        });
+    }
+
+    @Test
+    public void reregisteringUnderNewAddressDropsOldEntries() throws Exception {
+        RegisteredClient previous = clients.register(info(FIRST, "192.168.49.10"), device(FIRST));
+        RegisteredClient client = clients.register(info(FIRST, "192.168.49.11"), device(FIRST));
+
+        assertNotEquals(previous.getSessionId(), client.getSessionId());
+        assertSame(client, clients.get(FIRST));
+        assertSame(client, clients.getByIpAddress(InetAddress.getByName("192.168.49.11")));
+        assertNull(clients.getByIpAddress(InetAddress.getByName("192.168.49.10")));
+        assertSame(client, clients.getBySessionId(client.getSessionId()));
+        assertNull(clients.getBySessionId(previous.getSessionId()));
+        assertEquals(1, clients.size());
+        assertEquals(Arrays.asList(client), clients.getClients());
+        assertEquals(Arrays.asList("+" + FIRST, "-" + FIRST, "+" + FIRST), events);
+    }
+
+    @Test
+    public void unregisterNotifiesOnce() throws Exception {
+        RegisteredClient client = clients.register(info(FIRST, "192.168.49.10"), device(FIRST));
+        events.clear();
+
+        assertSame(client, clients.unregister(FIRST));
+        assertNull(clients.unregister(FIRST));
+
+        assertEquals(Arrays.asList("-" + FIRST), events);
+        assertNull(clients.get(FIRST));
+        assertNull(clients.getByIpAddress(InetAddress.getByName("192.168.49.10")));
+        assertNull(clients.getBySessionId(client.getSessionId()));
+        assertTrue(clients.getClients().isEmpty());
+    }
+
+    @Test
+    public void unregisterAllNotifiesOncePerClient() throws Exception {
+        clients.register(info(FIRST, "192.168.49.10"), device(FIRST));
+        clients.register(info(SECOND, "192.168.49.11"), device(SECOND));
+        events.clear();
+
+        assertEquals(2, clients.unregisterAll().size());
+        assertTrue(clients.unregisterAll().isEmpty());
+
+        assertEquals(2, events.size());
+        assertTrue(events.containsAll(Arrays.asList("-" + FIRST, "-" + SECOND)));
+        assertEquals(0, clients.size());
+        assertTrue(clients.getClients().isEmpty());
+    }
+
+    @Test
+    public void resumedClientIsFoundBySessionId() throws Exception {
+        RegisteredClient client = clients.register(info(FIRST, "192.168.49.10"), device(FIRST));
+        long sessionId = client.getSessionId();
+        clients.unregister(FIRST);
+        assertNull(clients.getBySessionId(sessionId));
+
+        RegisteredClient resumed = clients.register(info(FIRST, "192.168.49.12"), device(FIRST), sessionId);
+        assertEquals(sessionId, resumed.getSessionId());
+        assertSame(resumed, clients.getBySessionId(sessionId));
+        assertSame(resumed, clients.getByIpAddress(InetAddress.getByName("192.168.49.12")));
+
+        // New registrations are never handed the resumed session id
+        assertNotEquals(sessionId, clients.register(info(SECOND, "192.168.49.11"), device(SECOND)).getSessionId());
+    }
+
+    private static WifiP2pDeviceInfo info(String macAddress, String ipAddress) throws Exception {
+        return new WifiP2pDeviceInfo(macAddress, InetAddress.getByName(ipAddress), 9);
+    }
+
+    private static P2pDevice device(String macAddress) {
+        return new P2pDevice(macAddress, "Client", P2pDevice.CONNECTED);
+    }
+}
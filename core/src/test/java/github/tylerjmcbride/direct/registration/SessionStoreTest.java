@@ -0,0 +1,157 @@
+package github.tylerjmcbride.direct.registration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.model.WifiP2pDeviceInfo;
+import github.tylerjmcbride.direct.p2p.P2pDevice;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks when the {@link SessionStore} lets a client resume its session, and what becomes of the
+ * objects queued for a suspended client.
+ */
+public class SessionStoreTest {
+
+    private static final String MAC_ADDRESS = "02:00:00:00:00:02";
+
+    private SessionStore sessions;
+    private RegisteredClient client;
+    private long token;
+    private final List<String> failed = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        sessions = new SessionStore();
+        client = new RegisteredClient(1, new WifiP2pDeviceInfo(MAC_ADDRESS, InetAddress.getLoopbackAddress(), 9),
+                new P2pDevice(MAC_ADDRESS, "Client", P2pDevice.CONNECTED));
+        token = sessions.issue();
+        assertNull(sessions.open(MAC_ADDRESS, token));
+    }
+
+    @Test
+    public void suspendedSessionResumesWithItsToken() {
+        assertFalse(sessions.isResumable(MAC_ADDRESS, token));
+        assertTrue(sessions.suspend(client, Collections.singleton("news")));
+
+        ClientSession session = sessions.resume(MAC_ADDRESS, token);
+        assertNotNull(session);
+        assertSame(client, session.getClient());
+        assertEquals(Collections.singleton("news"), session.getTopics());
+        assertFalse(sessions.isResumable(MAC_ADDRESS, token));
+    }
+
+    @Test
+    public void wrongTokenDoesNotResume() {
+        sessions.suspend(client, Collections.<String>emptySet());
+
+        assertNull(sessions.resume(MAC_ADDRESS, token + 1));
+        assertNull(sessions.resume("02:00:00:00:00:03", token));
+        assertTrue(sessions.isResumable(MAC_ADDRESS, token));
+    }
+
+    @Test
+    public void sessionDoesNotResumeAfterGracePeriod() throws Exception {
+        sessions.setGracePeriod(20);
+        sessions.suspend(client, Collections.<String>emptySet());
+        Thread.sleep(50);
+
+        assertNull(sessions.resume(MAC_ADDRESS, token));
+    }
+
+    @Test
+    public void zeroGracePeriodRetainsNoSession() {
+        sessions.setGracePeriod(0);
+
+        assertFalse(sessions.suspend(client, Collections.<String>emptySet()));
+        assertFalse(sessions.enqueue(MAC_ADDRESS, "Hello", newCallback("Hello")));
+        assertNull(sessions.resume(MAC_ADDRESS, token));
+        assertNull(sessions.close(MAC_ADDRESS));
+    }
+
+    @Test
+    public void onlySuspendedSessionsQueue() {
+        assertFalse(sessions.enqueue(MAC_ADDRESS, "Hello", newCallback("Hello")));
+        assertFalse(sessions.enqueue("02:00:00:00:00:03", "Hello", newCallback("Hello")));
+    }
+
+    @Test
+    public void enqueueFailsPastMaxQueued() {
+        sessions.setMaxQueued(2);
+        sessions.suspend(client, Collections.<String>emptySet());
+
+        assertTrue(sessions.enqueue(MAC_ADDRESS, "first", newCallback("first")));
+        assertTrue(sessions.enqueue(MAC_ADDRESS, "second", newCallback("second")));
+        assertFalse(sessions.enqueue(MAC_ADDRESS, "third", newCallback("third")));
+
+        ClientSession session = sessions.resume(MAC_ADDRESS, token);
+        assertEquals(Arrays.<Object>asList("first", "second"), objects(sessions.drain(session)));
+        assertTrue(sessions.drain(session).isEmpty());
+    }
+
+    @Test
+    public void expireHandsOverQueuedCallbacksToFail() throws Exception {
+        sessions.setGracePeriod(20);
+        sessions.suspend(client, Collections.<String>emptySet());
+        sessions.enqueue(MAC_ADDRESS, "first", newCallback("first"));
+        sessions.enqueue(MAC_ADDRESS, "second", newCallback("second"));
+        assertTrue(sessions.expire().isEmpty());
+
+        Thread.sleep(50);
+        List<ClientSession> expired = sessions.expire();
+        assertEquals(1, expired.size());
+        for (ClientSession.QueuedObject queued : sessions.drain(expired.get(0))) {
+            queued.getCallback().onFailure();
+        }
+
+        assertEquals(Arrays.asList("first", "second"), failed);
+        assertTrue(sessions.expire().isEmpty());
+        assertFalse(sessions.enqueue(MAC_ADDRESS, "third", newCallback("third")));
+    }
+
+    @Test
+    public void openReplacesSessionOfReregisteredClient() {
+        sessions.suspend(client, Collections.<String>emptySet());
+        sessions.enqueue(MAC_ADDRESS, "first", newCallback("first"));
+
+        long newToken = sessions.issue();
+        ClientSession replaced = sessions.open(MAC_ADDRESS, newToken);
+        assertEquals(token, replaced.getToken());
+        assertEquals(Collections.<Object>singletonList("first"), objects(sessions.drain(replaced)));
+        assertNull(sessions.resume(MAC_ADDRESS, token));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeGracePeriod() {
+        sessions.setGracePeriod(-1);
+    }
+
+    private ResultCallback newCallback(final String object) {
+        return new ResultCallback() {
+            @Override
+            public void onSuccess() {
+            }
+
+            @Override
+            public void onFailure() {
+                failed.add(object);
+            }
+        };
+    }
+
+    private static List<Object> objects(List<ClientSession.QueuedObject> queue) {
+        List<Object> objects = new ArrayList<>();
+        for (ClientSession.QueuedObject queued : queue) {
+            objects.add(queued.getObject());
+        }
+        return objects;
+    }
+}
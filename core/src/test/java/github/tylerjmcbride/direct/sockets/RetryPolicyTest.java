@@ -0,0 +1,188 @@
+package github.tylerjmcbride.direct.sockets;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.sockets.listeners.ConnectAttemptListener;
+import github.tylerjmcbride.direct.sockets.listeners.SocketInitializationCompleteListener;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the delays of the {@link RetryPolicy} against a seeded {@link Random}, the classification
+ * of failed attempts, and that a {@link SocketRunnable} gives up once the deadline would pass or
+ * the failure is not retryable.
+ */
+public class RetryPolicyTest {
+
+    private static final long SEED = 42;
+
+    @Test
+    public void delayGrowsExponentiallyUpToMaximum() {
+        RetryPolicy policy = new RetryPolicy.Builder()
+                .setBackoff(100, 1000, 2)
+                .setJitter(0)
+                .build();
+        Random random = new Random(SEED);
+
+        long[] expected = { 100, 200, 400, 800, 1000, 1000 };
+        for (int attempt = 1; attempt <= expected.length; attempt++) {
+            assertEquals(expected[attempt - 1], policy.getDelay(attempt, random));
+        }
+    }
+
+    @Test
+    public void jitterStaysWithinBounds() {
+        RetryPolicy policy = new RetryPolicy.Builder()
+                .setBackoff(100, 1000, 2)
+                .setJitter(0.5)
+                .build();
+        Random random = new Random(SEED);
+        Random replay = new Random(SEED);
+
+        for (int attempt = 1; attempt <= 200; attempt++) {
+            long full = Math.min(1000, 100L << Math.min(attempt - 1, 10));
+            long delay = policy.getDelay(attempt, random);
+            assertTrue(delay <= full);
+            assertTrue(delay >= full / 2);
+
+            // The same seed yields the same delays
+            assertEquals(delay, policy.getDelay(attempt, replay));
+        }
+
+        // The extremes of the random value map onto the extremes of the jitter
+        assertEquals(400, policy.getDelay(3, new FixedRandom(0)));
+        assertEquals(200, policy.getDelay(3, new FixedRandom(Math.nextAfter(1.0, 0))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsJitterAboveOne() {
+        new RetryPolicy.Builder().setJitter(1.5).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMaxDelayBelowInitialDelay() {
+        new RetryPolicy.Builder().setBackoff(1000, 100, 2).build();
+    }
+
+    @Test
+    public void failuresAreClassified() {
+        assertEquals(ConnectFailure.TIMEOUT, ConnectFailure.classify(new SocketTimeoutException()));
+        assertEquals(ConnectFailure.UNREACHABLE, ConnectFailure.classify(new NoRouteToHostException()));
+        assertEquals(ConnectFailure.UNREACHABLE, ConnectFailure.classify(new UnknownHostException()));
+        assertEquals(ConnectFailure.REFUSED, ConnectFailure.classify(new ConnectException("Connection refused")));
+        assertEquals(ConnectFailure.REFUSED, ConnectFailure.classify(new ConnectException()));
+        assertEquals(ConnectFailure.UNREACHABLE, ConnectFailure.classify(new ConnectException("failed to connect: ENETUNREACH (Network is unreachable)")));
+        assertEquals(ConnectFailure.UNREACHABLE, ConnectFailure.classify(new ConnectException("failed to connect: EHOSTUNREACH (No route to host)")));
+        assertEquals(ConnectFailure.TIMEOUT, ConnectFailure.classify(new ConnectException("failed to connect: ETIMEDOUT (Connection timed out)")));
+        assertEquals(ConnectFailure.UNKNOWN, ConnectFailure.classify(new IOException()));
+    }
+
+    @Test
+    public void onlyRetryableFailuresAreRetried() throws Exception {
+        RetryPolicy policy = new RetryPolicy.Builder()
+                .setRetryableFailures(EnumSet.of(ConnectFailure.TIMEOUT, ConnectFailure.UNREACHABLE))
+                .build();
+        assertFalse(policy.isRetryable(ConnectFailure.REFUSED));
+        assertTrue(policy.isRetryable(ConnectFailure.TIMEOUT));
+
+        RecordingListener attempts = connect(new RetryPolicy.Builder()
+                .setRetryableFailures(EnumSet.of(ConnectFailure.TIMEOUT, ConnectFailure.UNREACHABLE)));
+        assertEquals(1, attempts.completed.get());
+        assertEquals(1, attempts.failures.size());
+        assertEquals(ConnectFailure.REFUSED, attempts.failures.get(0));
+    }
+
+    @Test
+    public void noAttemptIsMadePastDeadline() throws Exception {
+        // Without the deadline, the delays alone would allow for 100 attempts over 5 seconds
+        RecordingListener attempts = connect(new RetryPolicy.Builder()
+                .setMaxAttempts(100)
+                .setBackoff(50, 50, 1)
+                .setJitter(0)
+                .setDeadline(300));
+
+        assertEquals(attempts.failures.size(), attempts.completed.get());
+        assertTrue(attempts.completed.get() > 1);
+        assertTrue(attempts.completed.get() <= 7);
+        assertTrue(attempts.duration.get() < 300);
+        for (ConnectFailure failure : attempts.failures) {
+            assertEquals(ConnectFailure.REFUSED, failure);
+        }
+    }
+
+    /**
+     * Connects to a port nothing listens on, so that every attempt is refused.
+     */
+    private static RecordingListener connect(RetryPolicy.Builder builder) throws Exception {
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+
+        RecordingListener attempts = new RecordingListener();
+        final AtomicInteger failed = new AtomicInteger();
+        new SocketRunnable(new InetSocketAddress("127.0.0.1", port), builder.setAttemptListener(attempts).build(),
+                new SocketInitializationCompleteListener() {
+                    @Override
+                    public void onSuccess(Socket socket) {
+                    }
+
+                    @Override
+                    public void onFailure() {
+                        failed.incrementAndGet();
+                    }
+                }).run();
+        assertEquals(1, failed.get());
+        assertFalse(attempts.connected);
+        return attempts;
+    }
+
+    private static class RecordingListener implements ConnectAttemptListener {
+
+        private final List<ConnectFailure> failures = new ArrayList<>();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicLong duration = new AtomicLong();
+        private boolean connected;
+
+        @Override
+        public void onAttempt(InetSocketAddress address, int attempt, long duration, ConnectFailure failure) {
+            failures.add(failure);
+        }
+
+        @Override
+        public void onComplete(InetSocketAddress address, int attempts, long duration, boolean connected) {
+            this.completed.set(attempts);
+            this.duration.set(duration);
+            this.connected = connected;
+        }
+    }
+
+    private static class FixedRandom extends Random {
+
+        private final double value;
+
+        private FixedRandom(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double nextDouble() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package github.tylerjmcbride.direct.transceivers.codecs;
+
+import org.junit.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips objects through the {@link BinaryCodec} and the {@link SerializableCodec}, and
+ * checks that malformed payloads fail with an {@link IOException} as the {@link Codec} promises.
+ */
+public class CodecTest {
+
+    private static final Position POSITION = new Position("ae:32:de:4f:10:07", 1L, 43.6532, -79.3832, 42);
+
+    @Test
+    public void binaryCodecRoundTripsBuiltInTypes() throws Exception {
+        BinaryCodec codec = new BinaryCodec();
+        for (Object object : new Object[] { null, "h\u00e9llo", 7, 7L, 0.5, true }) {
+            assertEquals(object, decode(codec, encode(codec, object)));
+        }
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) decode(codec, encode(codec, new byte[] { 1, 2, 3 })));
+    }
+
+    @Test
+    public void binaryCodecRoundTripsRegisteredTypes() throws Exception {
+        BinaryCodec codec = newPositionCodec();
+        FrameOutputStream binary = encode(codec, POSITION);
+        FrameOutputStream serialized = encode(new SerializableCodec(), POSITION);
+
+        assertEquals(POSITION, decode(codec, binary));
+        assertTrue(binary.getPayloadLength() < serialized.getPayloadLength());
+    }
+
+    @Test
+    public void binaryCodecFallsBackToSerialization() throws Exception {
+        BinaryCodec codec = new BinaryCodec();
+        assertEquals(POSITION, decode(codec, encode(codec, POSITION)));
+    }
+
+    @Test(expected = NotSerializableException.class)
+    public void binaryCodecWithoutFallbackRejectsUnregisteredTypes() throws Exception {
+        encode(new BinaryCodec(false), POSITION);
+    }
+
+    @Test
+    public void serializableCodecRoundTrips() throws Exception {
+        SerializableCodec codec = new SerializableCodec();
+        assertEquals(POSITION, decode(codec, encode(codec, POSITION)));
+        assertNull(decode(codec, encode(codec, null)));
+    }
+
+    @Test(expected = IOException.class)
+    public void binaryCodecRejectsNegativeLength() throws Exception {
+        decode(new BinaryCodec(), withLength(encode(new BinaryCodec(), "abc"), -1));
+    }
+
+    @Test(expected = IOException.class)
+    public void binaryCodecRejectsLengthBeyondPayload() throws Exception {
+        decode(new BinaryCodec(), withLength(encode(new BinaryCodec(), new byte[3]), Integer.MAX_VALUE));
+    }
+
+    @Test(expected = IOException.class)
+    public void binaryCodecRejectsLengthBeyondPayloadInRegisteredTypes() throws Exception {
+        BinaryCodec codec = newPositionCodec();
+        decode(codec, withLength(encode(codec, POSITION), 1000));
+    }
+
+    @Test(expected = IOException.class)
+    public void binaryCodecRejectsTruncatedPayload() throws Exception {
+        BinaryCodec codec = new BinaryCodec();
+        byte[] frame = encode(codec, 7L).toByteArray();
+        codec.decode(frame, Frame.HEADER_LENGTH, frame.length - Frame.HEADER_LENGTH - 1);
+    }
+
+    @Test(expected = IOException.class)
+    public void binaryCodecRejectsUnregisteredTypeId() throws Exception {
+        new BinaryCodec().decode(new byte[] { 100 }, 0, 1);
+    }
+
+    @Test(expected = IOException.class)
+    public void binaryCodecRejectsMalformedTypeId() throws Exception {
+        new BinaryCodec().decode(new byte[] { (byte) 0x80, (byte) 0x80 }, 0, 2);
+    }
+
+    @Test(expected = IOException.class)
+    public void binaryCodecWithoutFallbackRejectsSerializedObjects() throws Exception {
+        decode(new BinaryCodec(false), encode(new BinaryCodec(), POSITION));
+    }
+
+    @Test(expected = IOException.class)
+    public void serializableCodecRejectsMalformedPayload() throws Exception {
+        byte[] payload = new byte[16];
+        Arrays.fill(payload, (byte) 0x7F);
+        new SerializableCodec().decode(payload, 0, payload.length);
+    }
+
+    @Test(expected = IOException.class)
+    public void serializableCodecRejectsTruncatedPayload() throws Exception {
+        SerializableCodec codec = new SerializableCodec();
+        byte[] frame = encode(codec, POSITION).toByteArray();
+        codec.decode(frame, Frame.HEADER_LENGTH, (frame.length - Frame.HEADER_LENGTH) / 2);
+    }
+
+    private static BinaryCodec newPositionCodec() {
+        return new BinaryCodec().register(BinaryCodec.FIRST_USER_TYPE_ID, Position.class, new PositionAdapter());
+    }
+
+    private static FrameOutputStream encode(Codec codec, Object object) throws IOException {
+        FrameOutputStream outputStream = new FrameOutputStream();
+        codec.encode(object, outputStream);
+        return outputStream;
+    }
+
+    private static Object decode(Codec codec, FrameOutputStream outputStream) throws IOException {
+        return codec.decode(outputStream.toByteArray(), Frame.HEADER_LENGTH, outputStream.getPayloadLength());
+    }
+
+    /**
+     * Overwrites the first length written after the single byte type id.
+     */
+    private static FrameOutputStream withLength(FrameOutputStream outputStream, int length) throws IOException {
+        byte[] frame = outputStream.toByteArray();
+        ByteBuffer.wrap(frame).putInt(Frame.HEADER_LENGTH + 1, length);
+
+        FrameOutputStream corrupted = new FrameOutputStream();
+        corrupted.write(frame, Frame.HEADER_LENGTH, frame.length - Frame.HEADER_LENGTH);
+        return corrupted;
+    }
+
+    private static class Position implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String deviceAddress;
+        private final long timestamp;
+        private final double latitude;
+        private final double longitude;
+        private final int sequence;
+
+        private Position(String deviceAddress, long timestamp, double latitude, double longitude, int sequence) {
+            this.deviceAddress = deviceAddress;
+            this.timestamp = timestamp;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Position)) return false;
+
+            Position other = (Position) obj;
+            return deviceAddress.equals(other.deviceAddress) && timestamp == other.timestamp
+                    && latitude == other.latitude && longitude == other.longitude && sequence == other.sequence;
+        }
+
+        @Override
+        public int hashCode() {
+            return deviceAddress.hashCode() ^ sequence;
+        }
+    }
+
+    private static class PositionAdapter implements MessageAdapter<Position> {
+        @Override
+        public void write(Position message, DataOutput output) throws IOException {
+            BinaryCodec.writeString(message.deviceAddress, output);
+            output.writeLong(message.timestamp);
+            output.writeDouble(message.latitude);
+            output.writeDouble(message.longitude);
+            output.writeInt(message.sequence);
+        }
+
+        @Override
+        public Position read(DataInput input) throws IOException {
+            return new Position(BinaryCodec.readString(input), input.readLong(), input.readDouble(), input.readDouble(), input.readInt());
+        }
+    }
+}
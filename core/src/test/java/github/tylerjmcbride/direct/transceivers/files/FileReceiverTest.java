@@ -0,0 +1,224 @@
+package github.tylerjmcbride.direct.transceivers.files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import github.tylerjmcbride.direct.callbacks.ResultCallback;
+import github.tylerjmcbride.direct.callbacks.TransferCallback;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.transceivers.ObjectTransmitter;
+import github.tylerjmcbride.direct.transceivers.callbacks.FileCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.codecs.SerializableCodec;
+import github.tylerjmcbride.direct.transceivers.runnables.ObjectReceiverRunnable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a slow disk merely holds up the connection writing to it, by holding back every
+ * disk task of the {@link FileReceiver} but the first whilst another connection sends an object.
+ * The object is only sent once the receiver has stopped reading the file.
+ */
+public class FileReceiverTest {
+
+    private static final long TIMEOUT = 10;
+
+    /**
+     * Several times {@link FileReceiver#MAX_PENDING_BYTES}, so that reading the file whilst the disk
+     * is held back would exceed it.
+     */
+    private static final int FILE_LENGTH = 6 * (int) FileReceiver.MAX_PENDING_BYTES + 123;
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private IoScheduler scheduler;
+    private GatedExecutor disk;
+    private ObjectReceiverRunnable receiver;
+    private InetSocketAddress address;
+    private final CountDownLatch objectReceived = new CountDownLatch(1);
+    private final CountDownLatch fileReceived = new CountDownLatch(1);
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = new IoScheduler();
+        disk = new GatedExecutor(1);
+
+        FileReceiver fileReceiver = new FileReceiver(disk, DIRECT);
+        fileReceiver.setDestination(folder.newFolder("received"), new FileCallback() {
+            @Override
+            public void onProgress(String name, long received, long length) {
+            }
+
+            @Override
+            public void onReceived(File file) {
+                fileReceived.countDown();
+            }
+
+            @Override
+            public void onFailure(String name) {
+            }
+        });
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger port = new AtomicInteger();
+        receiver = new ObjectReceiverRunnable(0, 25, scheduler, DIRECT, new SerializableCodec(), new ObjectCallback() {
+            @Override
+            public void onReceived(Object object) {
+                objectReceived.countDown();
+            }
+        }, fileReceiver, new Metrics(scheduler) {
+            @Override
+            public void onBytesReceived(InetAddress peer, long bytes) {
+                bytesReceived.addAndGet(bytes);
+            }
+        }, new ServerSocketInitializationListener() {
+            @Override
+            public void onSuccess(ServerSocket serverSocket) {
+                port.set(serverSocket.getLocalPort());
+                started.countDown();
+            }
+
+            @Override
+            public void onFailure() {
+            }
+        });
+        scheduler.execute(receiver);
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+        address = new InetSocketAddress("127.0.0.1", port.get());
+    }
+
+    @After
+    public void tearDown() {
+        disk.open();
+        receiver.stop();
+        disk.thread.shutdown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void slowDiskOnlyHoldsUpItsOwnConnection() throws Exception {
+        byte[] data = new byte[FILE_LENGTH];
+        new Random(1).nextBytes(data);
+        File source = folder.newFile("source.bin");
+        try (FileOutputStream output = new FileOutputStream(source)) {
+            output.write(data);
+        }
+
+        final CountDownLatch sent = new CountDownLatch(1);
+        new ObjectTransmitter(scheduler, DIRECT, new SerializableCodec()).sendFile(source, address, new TransferCallback() {
+            @Override
+            public void onProgress(long sent, long length) {
+            }
+
+            @Override
+            public void onSuccess() {
+                sent.countDown();
+            }
+
+            @Override
+            public void onFailure() {
+            }
+        });
+        assertTrue(disk.held.await(TIMEOUT, TimeUnit.SECONDS));
+        awaitReadingStopped();
+        assertTrue(bytesReceived.get() < FileReceiver.MAX_PENDING_BYTES);
+
+        // The file is held up by the disk, whereas the object is received over another connection
+        final CountDownLatch objectSent = new CountDownLatch(1);
+        new ObjectTransmitter(scheduler, DIRECT, new SerializableCodec()).send("Hello", address, new ResultCallback() {
+            @Override
+            public void onSuccess() {
+                objectSent.countDown();
+            }
+
+            @Override
+            public void onFailure() {
+            }
+        });
+        assertTrue(objectSent.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(objectReceived.await(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals(1, fileReceived.getCount());
+
+        disk.open();
+        assertTrue(fileReceived.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(sent.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(Arrays.equals(data, Files.readAllBytes(new File(folder.getRoot(), "received/source.bin").toPath())));
+    }
+
+    private void awaitReadingStopped() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+        long received;
+        do {
+            received = bytesReceived.get();
+            Thread.sleep(200);
+        } while (received != bytesReceived.get() && System.currentTimeMillis() < deadline);
+    }
+
+    /**
+     * Runs tasks one at a time on a thread of its own, holding back every task past the given
+     * number until opened.
+     */
+    private static class GatedExecutor implements Executor {
+
+        private final ExecutorService thread = Executors.newSingleThreadExecutor();
+        private final CountDownLatch held = new CountDownLatch(1);
+        private final CountDownLatch opened = new CountDownLatch(1);
+        private final AtomicInteger remaining;
+
+        private GatedExecutor(int passed) {
+            this.remaining = new AtomicInteger(passed);
+        }
+
+        @Override
+        public void execute(final Runnable runnable) {
+            thread.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (remaining.getAndDecrement() <= 0) {
+                        held.countDown();
+                        try {
+                            opened.await();
+                        } catch (InterruptedException ex) {
+                            return;
+                        }
+                    }
+                    runnable.run();
+                }
+            });
+        }
+
+        private void open() {
+            opened.countDown();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package github.tylerjmcbride.direct.transceivers.files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import github.tylerjmcbride.direct.callbacks.TransferCallback;
+import github.tylerjmcbride.direct.executors.IoScheduler;
+import github.tylerjmcbride.direct.metrics.Metrics;
+import github.tylerjmcbride.direct.sockets.Connection;
+import github.tylerjmcbride.direct.sockets.listeners.ServerSocketInitializationListener;
+import github.tylerjmcbride.direct.transceivers.ObjectTransmitter;
+import github.tylerjmcbride.direct.transceivers.callbacks.FileCallback;
+import github.tylerjmcbride.direct.transceivers.callbacks.ObjectCallback;
+import github.tylerjmcbride.direct.transceivers.codecs.SerializableCodec;
+import github.tylerjmcbride.direct.transceivers.frames.Frame;
+import github.tylerjmcbride.direct.transceivers.frames.FrameEncoder;
+import github.tylerjmcbride.direct.transceivers.runnables.ObjectReceiverRunnable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that an interrupted transfer resumes from the chunks the receiver has verified. The
+ * receiver is driven by hand, chunk by chunk, over raw connections, as well as by the
+ * {@link ObjectTransmitter} through a proxy which cuts the first connection mid-file.
+ */
+public class TransferResumeTest {
+
+    private static final long TIMEOUT = 10;
+    private static final int CHUNK_LENGTH = 64 * 1024;
+    private static final String NAME = "file.bin";
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            runnable.run();
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private IoScheduler scheduler;
+    private ObjectReceiverRunnable receiver;
+    private InetSocketAddress address;
+    private File directory;
+    private final CountDownLatch received = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = new IoScheduler();
+        directory = folder.newFolder("received");
+
+        FileReceiver fileReceiver = new FileReceiver(scheduler.getDiskExecutor(), DIRECT);
+        fileReceiver.setDestination(directory, new FileCallback() {
+            @Override
+            public void onProgress(String name, long received, long length) {
+            }
+
+            @Override
+            public void onReceived(File file) {
+                received.countDown();
+            }
+
+            @Override
+            public void onFailure(String name) {
+            }
+        });
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger port = new AtomicInteger();
+        receiver = new ObjectReceiverRunnable(0, 25, scheduler, DIRECT, new SerializableCodec(), new ObjectCallback() {
+            @Override
+            public void onReceived(Object object) {
+            }
+        }, fileReceiver, Metrics.DISABLED, new ServerSocketInitializationListener() {
+            @Override
+            public void onSuccess(ServerSocket serverSocket) {
+                port.set(serverSocket.getLocalPort());
+                started.countDown();
+            }
+
+            @Override
+            public void onFailure() {
+            }
+        });
+        scheduler.execute(receiver);
+        assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+        address = new InetSocketAddress("127.0.0.1", port.get());
+    }
+
+    @After
+    public void tearDown() {
+        receiver.stop();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void interruptedTransferResumesFromVerifiedChunks() throws Exception {
+        byte[] data = newData(3 * CHUNK_LENGTH + 10);
+        FileHeader header = new FileHeader(1, NAME, data.length, CHUNK_LENGTH);
+
+        Connection first = connect();
+        assertEquals(Arrays.asList(false, false, false, false), received(requestState(first, header)));
+        sendChunk(first, header, 0, data, checksum(data, header, 0));
+        sendChunk(first, header, 2, data, checksum(data, header, 2));
+
+        // The connection drops halfway through the data of the second chunk
+        first.write(encode(Frame.TYPE_FILE_CHUNK, new FileChunk(1, 1, CHUNK_LENGTH, CHUNK_LENGTH, checksum(data, header, 1)).encode()));
+        first.write(FrameEncoder.encodeHeader(Frame.TYPE_FILE_DATA, Frame.FLAG_STREAMED, CHUNK_LENGTH));
+        first.write(ByteBuffer.wrap(data, CHUNK_LENGTH, CHUNK_LENGTH / 2));
+        first.close();
+        assertEquals(Arrays.asList(true, false, true, false), awaitPersisted(2));
+
+        Connection second = connect();
+        assertEquals(Arrays.asList(true, false, true, false), received(requestState(second, header)));
+
+        sendChunk(second, header, 1, data, checksum(data, header, 1));
+        sendChunk(second, header, 3, data, checksum(data, header, 3));
+        assertTrue(received.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(Arrays.equals(data, Files.readAllBytes(new File(directory, NAME).toPath())));
+        assertFalse(new File(directory, NAME + ".part.state").exists());
+
+        // A sender which missed the final status learns the transfer has completed
+        assertTrue(requestState(second, header).isComplete());
+        second.close();
+    }
+
+    @Test
+    public void corruptChunkIsRejectedAndRequestedAgain() throws Exception {
+        byte[] data = newData(2 * CHUNK_LENGTH);
+        FileHeader header = new FileHeader(2, NAME, data.length, CHUNK_LENGTH);
+        byte[] corrupt = data.clone();
+        corrupt[CHUNK_LENGTH / 2] ^= 0x01;
+
+        Connection connection = connect();
+        requestState(connection, header);
+        sendChunk(connection, header, 0, corrupt, checksum(data, header, 0));
+        sendChunk(connection, header, 1, data, checksum(data, header, 1));
+        assertEquals(Arrays.asList(false, true), received(requestState(connection, header)));
+
+        sendChunk(connection, header, 0, data, checksum(data, header, 0));
+        assertTrue(received.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(Arrays.equals(data, Files.readAllBytes(new File(directory, NAME).toPath())));
+        connection.close();
+    }
+
+    @Test
+    public void sendFileResendsOnlyMissingChunks() throws Exception {
+        // The transmitter sends chunks of 1 MiB, the first connection is cut within the third chunk
+        int chunkLength = 1024 * 1024;
+        byte[] data = newData(4 * chunkLength + 10);
+        File source = folder.newFile(NAME);
+        try (FileOutputStream output = new FileOutputStream(source)) {
+            output.write(data);
+        }
+
+        CuttingProxy proxy = new CuttingProxy(address, 2 * chunkLength + chunkLength / 2);
+        try {
+            final CountDownLatch sent = new CountDownLatch(1);
+            new ObjectTransmitter(scheduler, DIRECT, new SerializableCodec()).sendFile(source, proxy.getAddress(), new TransferCallback() {
+                @Override
+                public void onProgress(long sent, long length) {
+                }
+
+                @Override
+                public void onSuccess() {
+                    sent.countDown();
+                }
+
+                @Override
+                public void onFailure() {
+                }
+            });
+
+            assertTrue(sent.await(TIMEOUT, TimeUnit.SECONDS));
+            assertTrue(received.await(TIMEOUT, TimeUnit.SECONDS));
+            assertTrue(Arrays.equals(data, Files.readAllBytes(new File(directory, NAME).toPath())));
+
+            // Only the three chunks missing are sent again, along with the frame headers
+            assertEquals(2, proxy.forwarded.size());
+            long resent = proxy.forwarded.get(1).get();
+            assertTrue(resent >= 2 * chunkLength + 10);
+            assertTrue(resent < 2 * chunkLength + 10 + 1024);
+        } finally {
+            proxy.close();
+        }
+    }
+
+    private Connection connect() throws IOException {
+        return new Connection(address, new Socket(address.getAddress(), address.getPort()));
+    }
+
+    /**
+     * Waits for the receiver to persist the given number of verified chunks.
+     * @return The chunks received according to the persisted state.
+     */
+    private List<Boolean> awaitPersisted(int chunks) throws InterruptedException {
+        File stateFile = new File(directory, NAME + ".part.state");
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+        TransferState state;
+        while (((state = TransferState.load(stateFile)) == null || state.getReceivedLength() < chunks * CHUNK_LENGTH)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(state);
+        return received(state);
+    }
+
+    private static TransferState requestState(Connection connection, FileHeader header) throws IOException {
+        connection.write(encode(Frame.TYPE_FILE_HEADER, header.encode()));
+        Frame reply = connection.read((int) TimeUnit.SECONDS.toMillis(TIMEOUT));
+        assertEquals(Frame.TYPE_FILE_STATUS, reply.getType());
+        return TransferState.decode(reply.getPayload());
+    }
+
+    private static void sendChunk(Connection connection, FileHeader header, int index, byte[] data, long checksum) throws IOException {
+        TransferState state = new TransferState(header);
+        int offset = (int) state.getChunkOffset(index);
+        int length = state.getChunkLength(index);
+        connection.write(encode(Frame.TYPE_FILE_CHUNK, new FileChunk(header.getTransferId(), index, offset, length, checksum).encode()));
+        connection.write(FrameEncoder.encodeHeader(Frame.TYPE_FILE_DATA, Frame.FLAG_STREAMED, length));
+        connection.write(ByteBuffer.wrap(data, offset, length));
+    }
+
+    private static long checksum(byte[] data, FileHeader header, int index) {
+        TransferState state = new TransferState(header);
+        CRC32 crc = new CRC32();
+        crc.update(data, (int) state.getChunkOffset(index), state.getChunkLength(index));
+        return crc.getValue();
+    }
+
+    private static ByteBuffer encode(byte type, byte[] payload) {
+        return FrameEncoder.encode(new Frame(type, Frame.NO_FLAGS, payload));
+    }
+
+    private static byte[] newData(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    private static List<Boolean> received(TransferState state) {
+        Boolean[] received = new Boolean[state.getChunkCount()];
+        for (int i = 0; i < received.length; i++) {
+            received[i] = state.isReceived(i);
+        }
+        return Arrays.asList(received);
+    }
+
+    /**
+     * Forwards every connection to the receiver, counting the bytes sent over each. The first
+     * connection is cut once the given number of bytes has been forwarded.
+     */
+    private static class CuttingProxy implements Runnable {
+
+        private final ExecutorService threads = Executors.newCachedThreadPool();
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final InetSocketAddress target;
+        private final long cutAfter;
+        private final List<AtomicLong> forwarded = new CopyOnWriteArrayList<>();
+
+        private CuttingProxy(InetSocketAddress target, long cutAfter) throws IOException {
+            this.target = target;
+            this.cutAfter = cutAfter;
+            threads.execute(this);
+        }
+
+        private InetSocketAddress getAddress() {
+            return new InetSocketAddress("127.0.0.1", serverSocket.getLocalPort());
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Socket client = serverSocket.accept();
+                    Socket server = new Socket(target.getAddress(), target.getPort());
+                    AtomicLong count = new AtomicLong();
+                    forwarded.add(count);
+                    pump(client, server, count, forwarded.size() == 1 ? cutAfter : Long.MAX_VALUE);
+                    pump(server, client, new AtomicLong(), Long.MAX_VALUE);
+                }
+            } catch (IOException ex) {
+                // The proxy has been closed
+            }
+        }
+
+        private void pump(final Socket from, final Socket to, final AtomicLong count, final long limit) {
+            threads.execute(new Runnable() {
+                @Override
+                public void run() {
+                    byte[] buffer = new byte[8192];
+                    try {
+                        InputStream input = from.getInputStream();
+                        OutputStream output = to.getOutputStream();
+                        int read;
+                        while (count.get() < limit && (read = input.read(buffer, 0, (int) Math.min(buffer.length, limit - count.get()))) != -1) {
+                            output.write(buffer, 0, read);
+                            count.addAndGet(read);
+                        }
+                    } catch (IOException ex) {
+                        // Either end has been closed
+                    } finally {
+                        close(from);
+                        close(to);
+                    }
+                }
+            });
+        }
+
+        private void close() throws IOException {
+            serverSocket.close();
+            threads.shutdownNow();
+        }
+
+        private static void close(Socket socket) {
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                // Already closed
+            }
+        }
+    }
+}
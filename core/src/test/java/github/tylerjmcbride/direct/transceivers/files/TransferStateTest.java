@@ -0,0 +1,125 @@
+package github.tylerjmcbride.direct.transceivers.files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the chunk bitmap of the {@link TransferState}, along with its encoding and persistence,
+ * for a file whose last chunk is shorter than the others.
+ */
+public class TransferStateTest {
+
+    private static final int CHUNK_LENGTH = 100;
+    private static final FileHeader HEADER = new FileHeader(42, "file.bin", 4 * CHUNK_LENGTH + 10, CHUNK_LENGTH);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void lastChunkHoldsRemainder() {
+        TransferState state = new TransferState(HEADER);
+
+        assertEquals(5, state.getChunkCount());
+        assertEquals(4 * CHUNK_LENGTH, state.getChunkOffset(4));
+        assertEquals(CHUNK_LENGTH, state.getChunkLength(3));
+        assertEquals(10, state.getChunkLength(4));
+    }
+
+    @Test
+    public void tracksMissingChunks() {
+        TransferState state = new TransferState(HEADER);
+        state.setReceived(0);
+        state.setReceived(2);
+        state.setReceived(4);
+
+        assertEquals(1, state.nextMissing(0));
+        assertEquals(3, state.nextMissing(2));
+        assertEquals(5, state.nextMissing(4));
+        assertEquals(2 * CHUNK_LENGTH + 10, state.getReceivedLength());
+        assertFalse(state.isComplete());
+
+        state.setReceived(1);
+        state.setReceived(3);
+        assertTrue(state.isComplete());
+        assertEquals(HEADER.getLength(), state.getReceivedLength());
+    }
+
+    @Test
+    public void emptyFileIsComplete() {
+        TransferState state = new TransferState(new FileHeader(42, "empty.bin", 0, CHUNK_LENGTH));
+
+        assertEquals(0, state.getChunkCount());
+        assertTrue(state.isComplete());
+        assertEquals(0, state.getReceivedLength());
+    }
+
+    @Test
+    public void encodingRoundTrips() throws IOException {
+        TransferState state = new TransferState(HEADER);
+        state.setReceived(1);
+        state.setReceived(4);
+
+        TransferState decoded = TransferState.decode(state.encode());
+        assertTrue(decoded.matches(HEADER));
+        assertEquals(Arrays.asList(false, true, false, false, true), received(decoded));
+    }
+
+    @Test
+    public void matchesOnlySameTransfer() {
+        TransferState state = new TransferState(HEADER);
+
+        assertTrue(state.matches(new FileHeader(42, "renamed.bin", HEADER.getLength(), CHUNK_LENGTH)));
+        assertFalse(state.matches(new FileHeader(43, "file.bin", HEADER.getLength(), CHUNK_LENGTH)));
+        assertFalse(state.matches(new FileHeader(42, "file.bin", HEADER.getLength() + 1, CHUNK_LENGTH)));
+        assertFalse(state.matches(new FileHeader(42, "file.bin", HEADER.getLength(), CHUNK_LENGTH * 2)));
+    }
+
+    @Test
+    public void savedStateIsLoaded() throws IOException {
+        File file = new File(folder.getRoot(), "file.bin.part.state");
+        TransferState state = new TransferState(HEADER);
+        state.setReceived(3);
+        state.save(file);
+
+        state.setReceived(0);
+        state.save(file);
+
+        TransferState loaded = TransferState.load(file);
+        assertNotNull(loaded);
+        assertTrue(loaded.matches(HEADER));
+        assertEquals(Arrays.asList(true, false, false, true, false), received(loaded));
+    }
+
+    @Test
+    public void unreadableStateIsNotLoaded() throws IOException {
+        assertNull(TransferState.load(new File(folder.getRoot(), "missing.part.state")));
+
+        File truncated = folder.newFile("truncated.part.state");
+        try (FileOutputStream output = new FileOutputStream(truncated)) {
+            output.write(new TransferState(HEADER).encode(), 0, 12);
+        }
+        assertNull(TransferState.load(truncated));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsInvalidChunkLength() throws IOException {
+        TransferState.decode(new TransferState(new FileHeader(42, "file.bin", 10, 0)).encode());
+    }
+
+    private static List<Boolean> received(TransferState state) {
+        Boolean[] received = new Boolean[state.getChunkCount()];
+        for (int i = 0; i < received.length; i++) {
+            received[i] = state.isReceived(i);
+        }
+        return Arrays.asList(received);
+    }
+}
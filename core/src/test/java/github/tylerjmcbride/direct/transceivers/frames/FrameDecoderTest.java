@@ -0,0 +1,196 @@
+package github.tylerjmcbride.direct.transceivers.frames;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Feeds the {@link FrameDecoder} frames split across reads at awkward offsets, and checks that
+ * malformed frames are rejected and that the buffer shrinks back once a large frame is consumed.
+ */
+public class FrameDecoderTest {
+
+    private static final int BUFFER_SIZE = 64;
+
+    @Test
+    public void frameSplitAcrossReads() throws IOException {
+        FrameDecoder decoder = new FrameDecoder(BUFFER_SIZE, Frame.MAX_PAYLOAD_LENGTH);
+        byte[] payload = payload(40, 1);
+        byte[] encoded = encode(Frame.TYPE_OBJECT, payload);
+
+        // The header is split within the payload length
+        feed(decoder, encoded, 0, 7);
+        assertNull(decoder.poll());
+        feed(decoder, encoded, 7, 20);
+        assertNull(decoder.poll());
+        feed(decoder, encoded, 20, encoded.length);
+
+        Frame frame = decoder.poll();
+        assertNotNull(frame);
+        assertEquals(Frame.TYPE_OBJECT, frame.getType());
+        assertArrayEquals(payload, frame.getPayload());
+        assertNull(decoder.poll());
+        assertFalse(decoder.hasBufferedBytes());
+    }
+
+    @Test
+    public void severalFramesInOneRead() throws IOException {
+        FrameDecoder decoder = new FrameDecoder(BUFFER_SIZE, Frame.MAX_PAYLOAD_LENGTH);
+        byte[] encoded = concat(encode(Frame.TYPE_OBJECT, payload(10, 1)), encode(Frame.TYPE_OBJECT, payload(0, 2)),
+                encode(Frame.TYPE_OBJECT, payload(20, 3)));
+        feed(decoder, encoded, 0, encoded.length);
+
+        assertArrayEquals(payload(10, 1), decoder.poll().getPayload());
+        assertEquals(0, decoder.poll().getPayload().length);
+        assertArrayEquals(payload(20, 3), decoder.poll().getPayload());
+        assertNull(decoder.poll());
+        assertFalse(decoder.hasBufferedBytes());
+    }
+
+    @Test
+    public void trailingPartialFrameIsKept() throws IOException {
+        FrameDecoder decoder = new FrameDecoder(BUFFER_SIZE, Frame.MAX_PAYLOAD_LENGTH);
+        byte[] second = encode(Frame.TYPE_OBJECT, payload(30, 2));
+        byte[] encoded = concat(encode(Frame.TYPE_OBJECT, payload(30, 1)), second);
+        int split = encoded.length - second.length + 4;
+        feed(decoder, encoded, 0, split);
+
+        assertArrayEquals(payload(30, 1), decoder.poll().getPayload());
+        assertNull(decoder.poll());
+        assertTrue(decoder.hasBufferedBytes());
+
+        feed(decoder, encoded, split, encoded.length);
+        assertArrayEquals(payload(30, 2), decoder.poll().getPayload());
+    }
+
+    @Test(expected = FrameFormatException.class)
+    public void rejectsBadMagic() throws IOException {
+        FrameDecoder decoder = new FrameDecoder(BUFFER_SIZE, Frame.MAX_PAYLOAD_LENGTH);
+        byte[] encoded = encode(Frame.TYPE_OBJECT, payload(4, 1));
+        encoded[0] ^= 0x01;
+        feed(decoder, encoded, 0, encoded.length);
+        decoder.poll();
+    }
+
+    @Test(expected = FrameFormatException.class)
+    public void rejectsUnsupportedVersion() throws IOException {
+        FrameDecoder decoder = new FrameDecoder(BUFFER_SIZE, Frame.MAX_PAYLOAD_LENGTH);
+        byte[] encoded = encode(Frame.TYPE_OBJECT, payload(4, 1));
+        encoded[2] = Frame.VERSION + 1;
+        feed(decoder, encoded, 0, encoded.length);
+        decoder.poll();
+    }
+
+    @Test(expected = FrameFormatException.class)
+    public void rejectsOversizedLength() throws IOException {
+        FrameDecoder decoder = new FrameDecoder(BUFFER_SIZE, 1024);
+        byte[] header = header(1025);
+        feed(decoder, header, 0, header.length);
+        decoder.poll();
+    }
+
+    @Test(expected = FrameFormatException.class)
+    public void rejectsNegativeLength() throws IOException {
+        FrameDecoder decoder = new FrameDecoder(BUFFER_SIZE, Frame.MAX_PAYLOAD_LENGTH);
+        byte[] header = header(-1);
+        feed(decoder, header, 0, header.length);
+        decoder.poll();
+    }
+
+    @Test
+    public void bufferShrinksBackAfterLargeFrame() throws IOException {
+        FrameDecoder decoder = new FrameDecoder(BUFFER_SIZE, Frame.MAX_PAYLOAD_LENGTH);
+        byte[] large = payload(10 * BUFFER_SIZE, 1);
+        byte[] encoded = concat(encode(Frame.TYPE_OBJECT, large), encode(Frame.TYPE_OBJECT, payload(8, 2)));
+        int split = Frame.HEADER_LENGTH + large.length;
+
+        feed(decoder, encoded, 0, split);
+        assertArrayEquals(large, decoder.poll().getPayload());
+        assertTrue(decoder.getCapacity() > BUFFER_SIZE);
+
+        feed(decoder, encoded, split, encoded.length);
+        assertEquals(BUFFER_SIZE, decoder.getCapacity());
+        assertArrayEquals(payload(8, 2), decoder.poll().getPayload());
+        assertNull(decoder.poll());
+    }
+
+    @Test
+    public void streamedPayloadIsLeftToSink() throws IOException {
+        FrameDecoder decoder = new FrameDecoder(BUFFER_SIZE, Frame.MAX_PAYLOAD_LENGTH);
+        byte[] streamed = payload(20, 1);
+        byte[] encoded = concat(FrameEncoder.encodeHeader(Frame.TYPE_FILE_DATA, Frame.FLAG_STREAMED, streamed.length).array(),
+                streamed, encode(Frame.TYPE_OBJECT, payload(5, 2)));
+        feed(decoder, encoded, 0, encoded.length);
+
+        Frame header = decoder.poll();
+        assertTrue(header.hasFlag(Frame.FLAG_STREAMED));
+        assertNull(header.getPayload());
+        assertEquals(streamed.length, header.getPayloadLength());
+
+        final ByteArrayOutputStream sunk = new ByteArrayOutputStream();
+        assertEquals(streamed.length, decoder.drainTo(new PayloadSink() {
+            @Override
+            public int write(ByteBuffer source) {
+                int length = source.remaining();
+                sunk.write(source.array(), source.arrayOffset() + source.position(), length);
+                source.position(source.limit());
+                return length;
+            }
+
+            @Override
+            public long transferFrom(ReadableByteChannel source, long count) {
+                return 0;
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        }, streamed.length));
+        assertArrayEquals(streamed, sunk.toByteArray());
+        assertArrayEquals(payload(5, 2), decoder.poll().getPayload());
+    }
+
+    /**
+     * Passes the given range to the decoder, over as many reads as the decoder asks for.
+     */
+    private static void feed(FrameDecoder decoder, byte[] bytes, int from, int to) throws IOException {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes, from, to - from);
+        while (inputStream.available() > 0) {
+            decoder.readFrom(inputStream);
+        }
+    }
+
+    private static byte[] encode(byte type, byte[] payload) {
+        return FrameEncoder.encode(new Frame(type, Frame.NO_FLAGS, payload)).array();
+    }
+
+    private static byte[] header(int payloadLength) {
+        ByteBuffer header = ByteBuffer.allocate(Frame.HEADER_LENGTH);
+        FrameEncoder.writeHeader(header, Frame.TYPE_OBJECT, Frame.NO_FLAGS, payloadLength);
+        return header.array();
+    }
+
+    private static byte[] payload(int length, int seed) {
+        byte[] payload = new byte[length];
+        Arrays.fill(payload, (byte) seed);
+        for (int i = 0; i < length; i += 7) {
+            payload[i] = (byte) i;
+        }
+        return payload;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            outputStream.write(part, 0, part.length);
+        }
+        return outputStream.toByteArray();
+    }
+}